@@ -1,5 +1,7 @@
 package org.vitals.core;
 
+import org.vitals.core.history.HistoryStorage;
+
 import java.time.Duration;
 import java.util.Collections;
 import java.util.Map;
@@ -26,6 +28,15 @@ public final class HealthCheckConfiguration {
     private final Long initialDelay;
     private final TimeUnit timeUnit;
     private final String cronExpression;
+    private final Long minInterval;
+    private final Long maxInterval;
+
+    // History retention
+    private final Integer historySize;
+    private final Duration historyMaxAge;
+    private final Integer historyPriority;
+    private final HistoryStorage historyStorage;
+    private final Boolean historyCollapseRuns;
 
     private HealthCheckConfiguration(Builder builder) {
         this.timeout = builder.timeout;
@@ -36,6 +47,14 @@ public final class HealthCheckConfiguration {
         this.initialDelay = builder.initialDelay;
         this.timeUnit = builder.timeUnit;
         this.cronExpression = builder.cronExpression;
+        this.minInterval = builder.minInterval;
+        this.maxInterval = builder.maxInterval;
+
+        this.historySize = builder.historySize;
+        this.historyMaxAge = builder.historyMaxAge;
+        this.historyPriority = builder.historyPriority;
+        this.historyStorage = builder.historyStorage;
+        this.historyCollapseRuns = builder.historyCollapseRuns;
     }
 
     public Optional<Duration> getTimeout() {
@@ -67,6 +86,35 @@ public final class HealthCheckConfiguration {
         return Optional.ofNullable(cronExpression);
     }
 
+    public Optional<Long> getMinInterval() {
+        return Optional.ofNullable(minInterval);
+    }
+
+    public Optional<Long> getMaxInterval() {
+        return Optional.ofNullable(maxInterval);
+    }
+
+    // History retention getters
+    public Optional<Integer> getHistorySize() {
+        return Optional.ofNullable(historySize);
+    }
+
+    public Optional<Duration> getHistoryMaxAge() {
+        return Optional.ofNullable(historyMaxAge);
+    }
+
+    public Optional<Integer> getHistoryPriority() {
+        return Optional.ofNullable(historyPriority);
+    }
+
+    public Optional<HistoryStorage> getHistoryStorage() {
+        return Optional.ofNullable(historyStorage);
+    }
+
+    public Optional<Boolean> getHistoryCollapseRuns() {
+        return Optional.ofNullable(historyCollapseRuns);
+    }
+
     /**
      * Builder class for {@link HealthCheckConfiguration}.
      * Ensures valid configurations with optional fields and provides default
@@ -83,6 +131,15 @@ public final class HealthCheckConfiguration {
         private Long initialDelay;
         private TimeUnit timeUnit = TimeUnit.SECONDS;
         private String cronExpression;
+        private Long minInterval;
+        private Long maxInterval;
+
+        // History retention
+        private Integer historySize;
+        private Duration historyMaxAge;
+        private Integer historyPriority;
+        private HistoryStorage historyStorage;
+        private Boolean historyCollapseRuns;
 
         public Builder setTimeout(Duration timeout) {
             if (timeout != null && timeout.isNegative()) {
@@ -159,7 +216,104 @@ public final class HealthCheckConfiguration {
             return this;
         }
 
+        /**
+         * Sets the shortest interval between runs of a health check scheduled by the time to live of its results,
+         * so that a result that expires right away does not make it run back to back.
+         *
+         * @param minInterval Minimum interval in the specified time unit.
+         * @return this Builder instance
+         */
+        public Builder setMinInterval(long minInterval) {
+            if (minInterval < 0) {
+                throw new IllegalArgumentException("Min interval must be non-negative.");
+            }
+            this.minInterval = minInterval;
+            return this;
+        }
+
+        /**
+         * Sets the longest interval between runs of a health check scheduled by the time to live of its results.
+         *
+         * @param maxInterval Maximum interval in the specified time unit.
+         * @return this Builder instance
+         */
+        public Builder setMaxInterval(long maxInterval) {
+            if (maxInterval <= 0) {
+                throw new IllegalArgumentException("Max interval must be greater than 0.");
+            }
+            this.maxInterval = maxInterval;
+            return this;
+        }
+
+        /**
+         * Sets how many results the history of the health check keeps.
+         *
+         * @param historySize Number of results kept.
+         * @return this Builder instance
+         */
+        public Builder setHistorySize(int historySize) {
+            if (historySize <= 0) {
+                throw new IllegalArgumentException("History size must be greater than 0.");
+            }
+            this.historySize = historySize;
+            return this;
+        }
+
+        /**
+         * Sets the age after which results are dropped from the history of the health check. The latest result is
+         * kept whatever its age.
+         *
+         * @param historyMaxAge Max age of the results kept.
+         * @return this Builder instance
+         */
+        public Builder setHistoryMaxAge(Duration historyMaxAge) {
+            if (historyMaxAge != null && (historyMaxAge.isNegative() || historyMaxAge.isZero())) {
+                throw new IllegalArgumentException("History max age must be greater than 0.");
+            }
+            this.historyMaxAge = historyMaxAge;
+            return this;
+        }
+
+        /**
+         * Sets how important the history of the health check is when the histories are over their memory budget.
+         * Histories with lower priorities are cut down first.
+         *
+         * @param historyPriority Priority of the history, 0 by default.
+         * @return this Builder instance
+         */
+        public Builder setHistoryPriority(int historyPriority) {
+            this.historyPriority = historyPriority;
+            return this;
+        }
+
+        /**
+         * Sets how the history of the health check stores its results. Compact storage keeps the status, message,
+         * time to live and error summary of each result in a fraction of the memory, and drops the data.
+         *
+         * @param historyStorage Storage of the history, {@link HistoryStorage#OBJECTS} by default.
+         * @return this Builder instance
+         */
+        public Builder setHistoryStorage(HistoryStorage historyStorage) {
+            this.historyStorage = historyStorage;
+            return this;
+        }
+
+        /**
+         * Sets whether the history of the health check keeps consecutive results with the same status, message, time
+         * to live and error as one run, with the times it was first and last seen and its number of results.
+         *
+         * @param historyCollapseRuns Whether to collapse runs, false by default.
+         * @return this Builder instance
+         */
+        public Builder setHistoryCollapseRuns(boolean historyCollapseRuns) {
+            this.historyCollapseRuns = historyCollapseRuns;
+            return this;
+        }
+
         public HealthCheckConfiguration build() {
+            if (minInterval != null && maxInterval != null && minInterval > maxInterval) {
+                throw new IllegalArgumentException("Min interval must not be greater than max interval.");
+            }
             return new HealthCheckConfiguration(this);
         }
     }
@@ -1,19 +1,29 @@
 package org.vitals.core;
 
+import com.google.common.base.Preconditions;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.vitals.core.HealthCheck.HealthCheckResult;
 import org.vitals.core.aggregator.HealthResultAggregator;
 import org.vitals.core.annotation.AsyncHealthCheck;
+import org.vitals.core.event.AggregatedResultChangedEvent;
 import org.vitals.core.event.HealthCheckRegisteredEvent;
 import org.vitals.core.event.HealthCheckRemovedEvent;
+import org.vitals.core.event.HealthCheckStatusChangedEvent;
 import org.vitals.core.event.HealthEvent;
 import org.vitals.core.executor.DefaultHealthCheckExecutor;
 import org.vitals.core.executor.HealthCheckExecutor;
+import org.vitals.core.executor.strategy.NoOpExecutionStrategy;
 import org.vitals.core.filter.HealthCheckFilter;
 import org.vitals.core.history.DefaultHealthCheckHistory;
 import org.vitals.core.history.HealthCheckHistory;
+import org.vitals.core.history.HistoryJournal;
+import org.vitals.core.history.HistoryRetention;
+import org.vitals.core.history.HistoryRun;
+import org.vitals.core.history.RollupBucket;
+import org.vitals.core.history.RollupSettings;
 import org.vitals.core.listener.HealthEventListener;
 import org.vitals.core.listener.HealthEventListenerRegistry;
 import org.vitals.core.listener.StatusUpdateDelegate;
@@ -22,14 +32,44 @@ import org.vitals.core.registry.HealthCheckRegistry;
 import org.vitals.core.scheduler.DefaultHealthCheckScheduler;
 import org.vitals.core.scheduler.HealthCheckScheduler;
 import org.vitals.core.scheduler.InternalScheduler;
-
+import org.vitals.core.scheduler.IntervalBounds;
+import org.vitals.core.scheduler.LoadHistogram;
+import org.vitals.core.scheduler.MaintenanceWindow;
+import org.vitals.core.scheduler.ResumePolicy;
+import org.vitals.core.scheduler.SchedulePhase;
+import org.vitals.core.scheduler.ScheduleSpec;
+import org.vitals.core.scheduler.ScheduledCheckInfo;
+import org.vitals.core.scheduler.SchedulerMetrics;
+import org.vitals.core.scheduler.timer.ExecutorTaskTimer;
+import org.vitals.core.scheduler.timer.HashedWheelTimer;
+import org.vitals.core.scheduler.timer.TaskTimer;
+import org.vitals.core.slo.SloEngine;
+import org.vitals.core.slo.SloReport;
+import org.vitals.core.slo.SloSettings;
+import org.vitals.core.util.TimeSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class HealthCheckManager
@@ -57,38 +97,209 @@ public class HealthCheckManager
     private final DefaultHealthCheckHistory defaultHealthCheckHistory;
     private final HealthCheckScheduler scheduler;
     private final StatusUpdateDelegate statusUpdateDelegate;
+    private final InternalScheduler internalScheduler;
+    private final Queue<PendingSchedule> pendingSchedules;
+    private final AtomicBoolean drainScheduled;
+    private final TaskTimer taskTimer;
+    private final TimeSource timeSource;
+    private volatile SloEngine sloEngine;
+    // replaced together with the engine, on the manager's monitor
+    private TaskTimer.Timeout sloEvaluation;
 
     public HealthCheckManager() {
+        this(new ExecutorTaskTimer(InternalScheduler.getInstance()));
+    }
+
+    /**
+     * Creates a manager whose scheduler arms its ticks on the given timer, for example a {@link HashedWheelTimer}
+     * when scheduling very large numbers of periodic health checks.
+     *
+     * @param taskTimer the timer used by the scheduler
+     */
+    public HealthCheckManager(@Nonnull TaskTimer taskTimer) {
+        this(taskTimer, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Creates a manager that measures time by the given time source throughout: schedules, result timestamps and
+     * expiry, histories, journals and SLOs. With a {@link org.vitals.core.scheduler.timer.VirtualTimer} as both the
+     * timer and the time source, a whole manager runs in virtual time.
+     *
+     * @param taskTimer  the timer used by the scheduler and SLO evaluation
+     * @param timeSource the time source, the one the timer runs on
+     */
+    public HealthCheckManager(@Nonnull TaskTimer taskTimer, @Nonnull TimeSource timeSource) {
+        this.taskTimer = Preconditions.checkNotNull(taskTimer, "Task timer must not be null");
+        this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
         InternalScheduler internalScheduler = InternalScheduler.getInstance();
+        this.internalScheduler = internalScheduler;
+        this.pendingSchedules = new ConcurrentLinkedQueue<>();
+        this.drainScheduled = new AtomicBoolean();
         statusUpdateDelegate = new StatusUpdateDelegate(internalScheduler);
         this.healthCheckRegistry = new DefaultHealthCheckRegistry(statusUpdateDelegate);
 
-        this.defaultHealthCheckHistory = new DefaultHealthCheckHistory(5, statusUpdateDelegate, healthCheckRegistry);
-        this.healthCheckExecutor = new DefaultHealthCheckExecutor(this.healthCheckRegistry, statusUpdateDelegate,
-                defaultHealthCheckHistory, internalScheduler);
-
-        this.scheduler = new DefaultHealthCheckScheduler(this.healthCheckExecutor, internalScheduler);
+        this.defaultHealthCheckHistory = new DefaultHealthCheckHistory(HistoryRetention.DEFAULT, statusUpdateDelegate,
+                healthCheckRegistry, timeSource, internalScheduler);
+        this.healthCheckExecutor = new DefaultHealthCheckExecutor(new NoOpExecutionStrategy(), statusUpdateDelegate,
+                this.healthCheckRegistry, defaultHealthCheckHistory, internalScheduler, timeSource);
+
+        DefaultHealthCheckScheduler defaultScheduler = new DefaultHealthCheckScheduler.Builder()
+                .withHealthCheckExecutor(this.healthCheckExecutor)
+                .withHealthCheckRegistry(this.healthCheckRegistry)
+                .withInternalScheduler(internalScheduler)
+                .withTaskTimer(taskTimer)
+                .withTimeSource(timeSource)
+                .build();
+        this.scheduler = defaultScheduler;
         statusUpdateDelegate.addListener(this, Set.of(HealthCheckRegisteredEvent.class, HealthCheckRemovedEvent.class));
+        // drives adaptive intervals
+        statusUpdateDelegate.addListener(defaultScheduler, HealthCheckStatusChangedEvent.class);
+    }
+
+    /**
+     * Works out how a newly registered health check is scheduled. A {@link HealthCheckConfiguration} from a
+     * {@link HealthCheckConfigurationProvider} takes precedence over the {@link AsyncHealthCheck} annotation: its
+     * cron expression replaces any periodic schedule, and its interval, initial delay and timeout override the
+     * annotation's values. Its min and max interval bound a {@link AsyncHealthCheck.ScheduleType#TIME_TO_LIVE}
+     * schedule.
+     */
+    private Optional<PendingSchedule> resolveSchedule(@Nonnull String name, @Nonnull HealthCheck healthCheck) {
+        AsyncHealthCheck asyncConfig = healthCheck.getClass().getAnnotation(AsyncHealthCheck.class);
+        HealthCheckConfiguration configuration = healthCheck instanceof HealthCheckConfigurationProvider provider
+                ? provider.getConfiguration()
+                : null;
+
+        if (configuration != null && configuration.getCronExpression().isPresent()) {
+            return Optional.of(new PendingSchedule(name, null, configuration.getCronExpression().get()));
+        }
+        boolean hasInterval = configuration != null && configuration.getInterval().isPresent();
+        if (asyncConfig == null && !hasInterval) {
+            return Optional.empty();
+        }
+
+        ScheduleSpec.Builder builder;
+        if (asyncConfig != null) {
+            builder = ScheduleSpec.from(asyncConfig).toBuilder();
+        } else {
+            builder = new ScheduleSpec.Builder().withPhaseSpreading(AsyncHealthCheck.PhaseSpreading.EVEN);
+        }
+
+        if (hasInterval) {
+            // settle on nanoseconds so that the annotation's and the configuration's units can be mixed
+            ScheduleSpec base = builder.build();
+            TimeUnit unit = configuration.getTimeUnit().orElse(TimeUnit.SECONDS);
+            long initialDelayNanos = configuration.getInitialDelay()
+                    .map(unit::toNanos)
+                    .orElseGet(() -> base.getTimeUnit().toNanos(base.getInitialDelay()));
+            builder.withTimeUnit(TimeUnit.NANOSECONDS)
+                    .withPeriod(unit.toNanos(configuration.getInterval().get()))
+                    .withInitialDelay(initialDelayNanos)
+                    .withJitter(base.getTimeUnit().toNanos(base.getJitter()));
+        }
+        if (configuration != null) {
+            configuration.getTimeout().filter(timeout -> !timeout.isZero()).ifPresent(builder::withTimeout);
+            if (configuration.getMinInterval().isPresent() || configuration.getMaxInterval().isPresent()) {
+                TimeUnit unit = configuration.getTimeUnit().orElse(TimeUnit.SECONDS);
+                builder.withIntervalBounds(new IntervalBounds(
+                        configuration.getMinInterval().map(min -> Duration.ofNanos(unit.toNanos(min)))
+                                .orElse(Duration.ZERO),
+                        configuration.getMaxInterval().map(max -> Duration.ofNanos(unit.toNanos(max)))
+                                .orElse(IntervalBounds.UNBOUNDED.maxInterval())));
+            }
+        }
+
+        try {
+            return Optional.of(new PendingSchedule(name, builder.build(), null));
+        } catch (IllegalArgumentException e) {
+            logger.error("Health check {} has an invalid schedule: {}", name, e.getMessage());
+            return Optional.empty();
+        }
     }
 
-    private void scheduleHealthCheck(@Nonnull String healthCheckName, @Nonnull AsyncHealthCheck asyncConfig) {
-        long initialDelay = asyncConfig.initialDelay();
-        long period = asyncConfig.period();
-        TimeUnit unit = asyncConfig.unit();
+    /**
+     * Applies the history size, max age, priority, storage and run collapsing of a newly registered health check's
+     * {@link HealthCheckConfiguration}, if it sets any. Unset values are taken from {@link HistoryRetention#DEFAULT}.
+     */
+    private void applyHistoryRetention(@Nonnull String name, @Nonnull HealthCheck healthCheck) {
+        if (!(healthCheck instanceof HealthCheckConfigurationProvider provider)
+                || provider.getConfiguration() == null) {
+            return;
+        }
+        HealthCheckConfiguration configuration = provider.getConfiguration();
+        if (configuration.getHistorySize().isEmpty() && configuration.getHistoryMaxAge().isEmpty()
+                && configuration.getHistoryPriority().isEmpty() && configuration.getHistoryStorage().isEmpty()
+                && configuration.getHistoryCollapseRuns().isEmpty()) {
+            return;
+        }
+        HistoryRetention retention = new HistoryRetention(
+                configuration.getHistorySize().orElse(HistoryRetention.DEFAULT.maxResults()),
+                configuration.getHistoryMaxAge().orElse(HistoryRetention.DEFAULT.maxAge()),
+                configuration.getHistoryPriority().orElse(HistoryRetention.DEFAULT.priority()),
+                configuration.getHistoryStorage().orElse(HistoryRetention.DEFAULT.storage()),
+                configuration.getHistoryCollapseRuns().orElse(HistoryRetention.DEFAULT.collapseRuns()));
+        this.defaultHealthCheckHistory.setRetention(name, retention);
+    }
+
+    /**
+     * Schedules all health checks registered since the last drain in one call to the scheduler, so registering
+     * thousands of checks results in a handful of batched scheduler updates rather than one per check.
+     */
+    private void drainPendingSchedules() {
+        this.drainScheduled.set(false);
+
+        Map<String, ScheduleSpec> scheduleSpecs = new LinkedHashMap<>();
+        Map<String, String> cronExpressions = new LinkedHashMap<>();
+        PendingSchedule pending;
+        while ((pending = this.pendingSchedules.poll()) != null) {
+            if (!this.isHealthCheckRegistered(pending.name())) {
+                continue;
+            }
+            if (pending.cronExpression() != null) {
+                cronExpressions.put(pending.name(), pending.cronExpression());
+            } else {
+                scheduleSpecs.put(pending.name(), pending.scheduleSpec());
+            }
+        }
 
-        @SuppressWarnings("unused")
-        AsyncHealthCheck.ScheduleType scheduleType = asyncConfig.scheduleType();
+        try {
+            if (!scheduleSpecs.isEmpty()) {
+                this.scheduler.scheduleAll(scheduleSpecs);
+            }
+            if (!cronExpressions.isEmpty()) {
+                this.scheduler.scheduleAllWithCron(cronExpressions);
+            }
+        } catch (Exception e) {
+            logger.error("Failed to schedule registered health checks: {}", e.getMessage(), e);
+        }
+
+        // a check removed while its schedule was pending must not stay scheduled
+        for (String name : scheduleSpecs.keySet()) {
+            this.cancelIfUnregistered(name);
+        }
+        for (String name : cronExpressions.keySet()) {
+            this.cancelIfUnregistered(name);
+        }
+    }
 
-        this.schedule(healthCheckName, initialDelay, period, unit);
+    private void cancelIfUnregistered(String name) {
+        if (!this.isHealthCheckRegistered(name) && this.scheduler.isScheduled(name)) {
+            this.scheduler.cancelScheduledHealthCheck(name);
+        }
     }
 
     // Listener Management
     @Override
     public void onHealthCheckAdded(@Nonnull String name, @Nonnull Set<String> tags, @Nonnull HealthCheck healthCheck) {
-        AsyncHealthCheck asyncConfig = healthCheck.getClass().getAnnotation(AsyncHealthCheck.class);
-        if (asyncConfig != null && !this.isScheduled(name)) {
-            this.scheduleHealthCheck(name, asyncConfig);
+        this.applyHistoryRetention(name, healthCheck);
+        if (this.isScheduled(name)) {
+            return;
         }
+        this.resolveSchedule(name, healthCheck).ifPresent(pending -> {
+            this.pendingSchedules.add(pending);
+            if (this.drainScheduled.compareAndSet(false, true)) {
+                this.internalScheduler.execute(this::drainPendingSchedules);
+            }
+        });
     }
 
     @Override
@@ -97,6 +308,13 @@ public class HealthCheckManager
 
         logger.info("Health check {} removed.", name);
 
+        this.defaultHealthCheckHistory.removeRetention(name);
+        this.defaultHealthCheckHistory.removeFromAggregation(name);
+        SloEngine engine = this.sloEngine;
+        if (engine != null) {
+            engine.remove(name);
+        }
+
         if (this.scheduler.isScheduled(name)) {
             this.scheduler.cancelScheduledHealthCheck(name);
         }
@@ -113,6 +331,12 @@ public class HealthCheckManager
         return this.healthCheckExecutor.executeAsync(healthCheck);
     }
 
+    @Override
+    public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(@Nonnull String healthCheckName,
+                                                                         @Nonnull Executor executor) {
+        return this.healthCheckExecutor.executeAsync(healthCheckName, executor);
+    }
+
     @Override
     public Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAsync(@Nonnull HealthCheckFilter filter) {
         return this.healthCheckExecutor.executeAsync(filter);
@@ -123,6 +347,21 @@ public class HealthCheckManager
         return this.healthCheckExecutor.executeAll();
     }
 
+    @Override
+    public boolean isExecuting(@Nonnull String healthCheckName) {
+        return this.healthCheckExecutor.isExecuting(healthCheckName);
+    }
+
+    @Override
+    public void setSuspended(@Nonnull String healthCheckName, boolean suspended) {
+        this.healthCheckExecutor.setSuspended(healthCheckName, suspended);
+    }
+
+    @Override
+    public boolean isSuspended(@Nonnull String healthCheckName) {
+        return this.healthCheckExecutor.isSuspended(healthCheckName);
+    }
+
     // Registry Management
     @Override
     public boolean registerHealthCheck(@Nonnull HealthCheck healthCheck) {
@@ -205,11 +444,26 @@ public class HealthCheckManager
         this.scheduler.schedule(healthCheckName, initialDelay, delay, timeUnit);
     }
 
+    @Override
+    public void schedule(@Nonnull String healthCheckName, @Nonnull ScheduleSpec scheduleSpec) {
+        this.scheduler.schedule(healthCheckName, scheduleSpec);
+    }
+
+    @Override
+    public void scheduleAll(@Nonnull Map<String, ScheduleSpec> scheduleSpecs) {
+        this.scheduler.scheduleAll(scheduleSpecs);
+    }
+
     @Override
     public void scheduleWithCron(@Nonnull String healthCheckName, @Nonnull String cronExpression) {
         this.scheduler.scheduleWithCron(healthCheckName, cronExpression);
     }
 
+    @Override
+    public void scheduleAllWithCron(@Nonnull Map<String, String> cronExpressions) {
+        this.scheduler.scheduleAllWithCron(cronExpressions);
+    }
+
     @Override
     public boolean isScheduled(@Nonnull String healthCheckName) {
         return this.scheduler.isScheduled(healthCheckName);
@@ -220,6 +474,66 @@ public class HealthCheckManager
         this.scheduler.cancelScheduledHealthCheck(healthCheckName);
     }
 
+    @Override
+    public void reschedule(@Nonnull String healthCheckName, @Nonnull ScheduleSpec scheduleSpec) {
+        this.scheduler.reschedule(healthCheckName, scheduleSpec);
+    }
+
+    @Override
+    public Set<String> reschedule(@Nonnull HealthCheckFilter filter, @Nonnull ScheduleSpec scheduleSpec) {
+        return this.scheduler.reschedule(filter, scheduleSpec);
+    }
+
+    @Override
+    public Optional<ScheduledCheckInfo> getScheduleInfo(@Nonnull String healthCheckName) {
+        return this.scheduler.getScheduleInfo(healthCheckName);
+    }
+
+    @Override
+    public Map<String, SchedulePhase> getSchedulePhases() {
+        return this.scheduler.getSchedulePhases();
+    }
+
+    @Override
+    public void restoreSchedulePhases(@Nonnull Map<String, SchedulePhase> phases) {
+        this.scheduler.restoreSchedulePhases(phases);
+    }
+
+    @Override
+    public LoadHistogram.Snapshot getDispatchLoad() {
+        return this.scheduler.getDispatchLoad();
+    }
+
+    @Override
+    public SchedulerMetrics.Snapshot getMetrics() {
+        return this.scheduler.getMetrics();
+    }
+
+    @Override
+    public Set<String> pause(@Nonnull HealthCheckFilter filter) {
+        return this.scheduler.pause(filter);
+    }
+
+    @Override
+    public Set<String> resume(@Nonnull HealthCheckFilter filter, @Nonnull ResumePolicy resumePolicy) {
+        return this.scheduler.resume(filter, resumePolicy);
+    }
+
+    @Override
+    public boolean isPaused(@Nonnull String healthCheckName) {
+        return this.scheduler.isPaused(healthCheckName);
+    }
+
+    @Override
+    public void addMaintenanceWindow(@Nonnull MaintenanceWindow maintenanceWindow) {
+        this.scheduler.addMaintenanceWindow(maintenanceWindow);
+    }
+
+    @Override
+    public boolean removeMaintenanceWindow(@Nonnull String name) {
+        return this.scheduler.removeMaintenanceWindow(name);
+    }
+
     // add history
     @Override
     public void addHistoryInternal(HealthCheck healthCheck, HealthCheckResult result) {
@@ -231,16 +545,230 @@ public class HealthCheckManager
         return this.defaultHealthCheckHistory.getHistory(name);
     }
 
+    @Override
+    public List<HealthCheckResult> getHistory(@Nonnull String name, int limit) {
+        return this.defaultHealthCheckHistory.getHistory(name, limit);
+    }
+
+    @Override
+    public List<HealthCheckResult> getHistory(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to,
+                                              int limit) {
+        return this.defaultHealthCheckHistory.getHistory(name, from, to, limit);
+    }
+
+    @Override
+    public List<HistoryRun> getRuns(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to, int limit) {
+        return this.defaultHealthCheckHistory.getRuns(name, from, to, limit);
+    }
+
     @Override
     public Set<HealthCheckResult> filterHistory(@Nonnull HealthCheckFilter healthCheckFilter) {
         return this.defaultHealthCheckHistory.filterHistory(healthCheckFilter);
     }
 
+    @Override
+    public Set<HealthCheckResult> filterHistory(@Nonnull HealthCheckFilter healthCheckFilter, @Nonnull Instant from,
+                                                @Nonnull Instant to) {
+        return this.defaultHealthCheckHistory.filterHistory(healthCheckFilter, from, to);
+    }
+
+    @Override
+    public List<RollupBucket> getRollups(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to) {
+        return this.defaultHealthCheckHistory.getRollups(name, from, to);
+    }
+
+    @Override
+    public OptionalDouble getAvailability(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to) {
+        return this.defaultHealthCheckHistory.getAvailability(name, from, to);
+    }
+
     @Override
     public void clearHistory() {
         this.defaultHealthCheckHistory.clearHistory();
     }
 
+    /**
+     * Sets how much heap, in bytes, the histories of all health checks and aggregators may take by estimate. Over
+     * the budget, the least important and least recently read histories are cut down to their latest result.
+     *
+     * @param memoryBudgetBytes the budget, {@link Long#MAX_VALUE} for none
+     */
+    public void setHistoryMemoryBudget(long memoryBudgetBytes) {
+        this.defaultHealthCheckHistory.setMemoryBudget(memoryBudgetBytes);
+    }
+
+    public long getHistoryMemoryBudget() {
+        return this.defaultHealthCheckHistory.getMemoryBudget();
+    }
+
+    /**
+     * @return the estimated heap taken by the histories of all health checks and aggregators, in bytes
+     */
+    public long getHistoryFootprint() {
+        return this.defaultHealthCheckHistory.getEstimatedBytes();
+    }
+
+    /**
+     * Rolls up the results of all health checks into minute and hour buckets, for {@link #getRollups} and
+     * {@link #getAvailability}.
+     *
+     * @param settings the number of buckets per tier, or null to stop rolling up
+     */
+    public void setHistoryRollups(RollupSettings settings) {
+        this.defaultHealthCheckHistory.setRollups(settings);
+    }
+
+    /**
+     * Tracks the availability, error budget burn rates, MTTR and MTBF of every health check and aggregator against a
+     * service level objective, from their status changes from now on, and publishes an
+     * {@link org.vitals.core.event.ErrorBudgetBurnEvent} when a burn alert starts or stops firing. The alerts are
+     * also checked every {@link SloEngine#getEvaluationInterval() evaluation interval} on the manager's timer.
+     *
+     * @param settings the objective, or null to stop tracking and drop what was tracked
+     */
+    public synchronized void setSlos(@Nullable SloSettings settings) {
+        SloEngine previous = this.sloEngine;
+        if (previous != null) {
+            this.statusUpdateDelegate.removeListener(previous,
+                    Set.of(HealthCheckStatusChangedEvent.class, AggregatedResultChangedEvent.class));
+            if (this.sloEvaluation != null) {
+                this.sloEvaluation.cancel();
+            }
+            this.sloEngine = null;
+            this.sloEvaluation = null;
+        }
+        if (settings == null) {
+            return;
+        }
+        SloEngine engine = new SloEngine(settings, this.statusUpdateDelegate, this.timeSource);
+        this.statusUpdateDelegate.addListener(engine,
+                Set.of(HealthCheckStatusChangedEvent.class, AggregatedResultChangedEvent.class));
+        this.sloEngine = engine;
+        this.armSloEvaluation(engine);
+    }
+
+    private synchronized void evaluateSlos(SloEngine engine) {
+        if (this.sloEngine != engine) {
+            return;
+        }
+        engine.evaluate();
+        this.armSloEvaluation(engine);
+    }
+
+    private void armSloEvaluation(SloEngine engine) {
+        try {
+            this.sloEvaluation = this.taskTimer.schedule(() -> this.evaluateSlos(engine),
+                    engine.getEvaluationInterval().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (IllegalStateException e) {
+            logger.warn("Task timer is closed, SLO burn alerts are only checked on status changes");
+        }
+    }
+
+    public Optional<SloSettings> getSloSettings() {
+        SloEngine engine = this.sloEngine;
+        return engine != null ? Optional.of(engine.getSettings()) : Optional.empty();
+    }
+
+    /**
+     * @param name the name of the health check or aggregator
+     * @return where it stands against the {@link #setSlos objective}, or empty if SLOs are not tracked or it has not
+     * changed status since they are
+     */
+    public Optional<SloReport> getSloReport(@Nonnull String name) {
+        SloEngine engine = this.sloEngine;
+        return engine != null ? engine.getReport(name) : Optional.empty();
+    }
+
+    /**
+     * Rebuilds the histories of health checks from a journal, and journals their results from now on, so that
+     * history survives a restart. Call it before health checks are scheduled. The journal stays open until the
+     * caller closes it.
+     *
+     * @param journal the journal
+     * @return the number of results restored
+     */
+    public int useHistoryJournal(@Nonnull HistoryJournal journal) {
+        int restored = this.defaultHealthCheckHistory.restore(journal);
+        this.defaultHealthCheckHistory.setJournal(journal);
+        return restored;
+    }
+
+    /**
+     * Writes the state a restarted manager needs to serve meaningful health right away: the histories, and with them
+     * the latest results, of all health checks and aggregators, and the schedule phases of the periodic health
+     * checks. The format is a compact binary one with a version and a checksum, see {@link #restore(InputStream)}.
+     * The output is not closed.
+     *
+     * @param output the output
+     * @throws IOException if writing fails
+     */
+    public void snapshot(@Nonnull OutputStream output) throws IOException {
+        Preconditions.checkNotNull(output, "Output must not be null");
+        StateSnapshot.write(output, this.defaultHealthCheckHistory, this.scheduler.getSchedulePhases());
+    }
+
+    /**
+     * Writes a {@link #snapshot(OutputStream) snapshot} to a file, replacing it atomically, so that a crash while
+     * writing leaves the previous snapshot in place.
+     *
+     * @param path the file
+     * @throws IOException if writing fails
+     */
+    public void snapshot(@Nonnull Path path) throws IOException {
+        Preconditions.checkNotNull(path, "Path must not be null");
+        Path directory = path.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                this.snapshot(output);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Restores a {@link #snapshot(OutputStream) snapshot}. Call it before health checks are registered, after the
+     * history retentions are set: histories that hold results already are kept as they are, histories that do not
+     * collapse runs keep one result per run, and a health check scheduled afterwards with the same period
+     * as before picks up its schedule where the snapshot left it, instead of waiting for its initial delay. The
+     * whole snapshot is read and its checksum checked before anything is restored. The input is not closed.
+     *
+     * @param input the input
+     * @return the number of history runs restored
+     * @throws IOException if reading fails, or the input is not an intact snapshot of a known version
+     */
+    public int restore(@Nonnull InputStream input) throws IOException {
+        Preconditions.checkNotNull(input, "Input must not be null");
+        StateSnapshot.Restored restored = StateSnapshot.read(input, this.defaultHealthCheckHistory);
+        this.scheduler.restoreSchedulePhases(restored.phases());
+        return restored.runs();
+    }
+
+    /**
+     * Restores a {@link #snapshot(Path) snapshot} from a file.
+     *
+     * @param path the file
+     * @return the number of history runs restored
+     * @throws IOException if reading fails, or the file is not an intact snapshot of a known version
+     */
+    public int restore(@Nonnull Path path) throws IOException {
+        Preconditions.checkNotNull(path, "Path must not be null");
+        try (InputStream input = Files.newInputStream(path)) {
+            return this.restore(input);
+        }
+    }
+
+    /**
+     * Sets the shortest interval between two runs of the aggregators. Results recorded in between share one run.
+     *
+     * @param aggregationInterval the interval, zero to aggregate as soon as possible after each burst of results
+     */
+    public void setAggregationInterval(@Nonnull Duration aggregationInterval) {
+        this.defaultHealthCheckHistory.setAggregationInterval(aggregationInterval);
+    }
+
     @Override
     public void addListener(@Nonnull HealthEventListener listener) {
         this.statusUpdateDelegate.addListener(listener);
@@ -324,4 +852,11 @@ public class HealthCheckManager
         this.statusUpdateDelegate.clear();
     }
 
+    /**
+     * A schedule resolved for a registered health check, waiting to be applied: either a periodic schedule or a
+     * cron expression.
+     */
+    private record PendingSchedule(String name, ScheduleSpec scheduleSpec, String cronExpression) {
+    }
+
 }
@@ -0,0 +1,111 @@
+package org.vitals.core;
+
+import org.vitals.core.history.DefaultHealthCheckHistory;
+import org.vitals.core.scheduler.SchedulePhase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * The binary format of a {@link HealthCheckManager#snapshot manager snapshot}: a magic number and a format version,
+ * the histories of the health checks and aggregators, the schedule phases of the periodic health checks, and a CRC32C
+ * checksum of everything before it. All numbers are big-endian.
+ */
+final class StateSnapshot {
+
+    private static final int MAGIC = 0x56534E50;
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+
+    private StateSnapshot() {
+    }
+
+    /**
+     * Writes a snapshot. The output is not closed.
+     *
+     * @param output  the output
+     * @param history the histories to write
+     * @param phases  the schedule phases to write
+     * @throws IOException if writing fails
+     */
+    static void write(OutputStream output, DefaultHealthCheckHistory history, Map<String, SchedulePhase> phases)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(bytes);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        history.writeSnapshot(data);
+        Map<String, SchedulePhase> sorted = new TreeMap<>(phases);
+        data.writeInt(sorted.size());
+        for (Map.Entry<String, SchedulePhase> entry : sorted.entrySet()) {
+            SchedulePhase phase = entry.getValue();
+            data.writeUTF(entry.getKey());
+            data.writeLong(phase.nextRun().getEpochSecond());
+            data.writeInt(phase.nextRun().getNano());
+            data.writeLong(phase.period().toNanos());
+            data.writeLong(phase.currentInterval().toNanos());
+        }
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes.toByteArray());
+        data.writeInt((int) checksum.getValue());
+        data.flush();
+        bytes.writeTo(output);
+        output.flush();
+    }
+
+    /**
+     * Reads a snapshot back, checking its checksum before restoring anything.
+     *
+     * @param input   the input, read to its end and not closed
+     * @param history the histories to restore into
+     * @return the schedule phases read
+     * @throws IOException if reading fails, or the input is not an intact snapshot of a known version
+     */
+    static Restored read(InputStream input, DefaultHealthCheckHistory history) throws IOException {
+        byte[] bytes = input.readAllBytes();
+        if (bytes.length < HEADER_BYTES + Integer.BYTES || ByteBuffer.wrap(bytes).getInt() != MAGIC) {
+            throw new IOException("Not a health check manager snapshot");
+        }
+        short version = ByteBuffer.wrap(bytes).getShort(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        int end = bytes.length - Integer.BYTES;
+        CRC32C checksum = new CRC32C();
+        checksum.update(bytes, 0, end);
+        if ((int) checksum.getValue() != ByteBuffer.wrap(bytes).getInt(end)) {
+            throw new IOException("Snapshot checksum mismatch, the snapshot is corrupt or cut short");
+        }
+
+        DataInputStream data = new DataInputStream(new ByteArrayInputStream(bytes, HEADER_BYTES, end - HEADER_BYTES));
+        int runs = history.restoreSnapshot(data);
+        int phaseCount = data.readInt();
+        Map<String, SchedulePhase> phases = new HashMap<>();
+        for (int i = 0; i < phaseCount; i++) {
+            String name = data.readUTF();
+            Instant nextRun = Instant.ofEpochSecond(data.readLong(), data.readInt());
+            phases.put(name, new SchedulePhase(nextRun, Duration.ofNanos(data.readLong()),
+                    Duration.ofNanos(data.readLong())));
+        }
+        return new Restored(runs, phases);
+    }
+
+    /**
+     * @param runs   the number of history runs restored
+     * @param phases the schedule phases by health check name
+     */
+    record Restored(int runs, Map<String, SchedulePhase> phases) {
+    }
+}
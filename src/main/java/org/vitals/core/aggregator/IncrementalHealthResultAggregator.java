@@ -0,0 +1,40 @@
+package org.vitals.core.aggregator;
+
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+
+/**
+ * A {@link HealthResultAggregator} that is kept up to date one result at a time instead of aggregating the latest
+ * results of all health checks over and over. The history tells it about every change of a health check's latest
+ * result, and reads its {@link #currentResult()} whenever it aggregates.
+ * <p>
+ * {@link #onResult} is called concurrently for different health checks, and in order for any one health check.
+ * Implementations keep counters or running sums, so that an update does not depend on the number of health checks.
+ * </p>
+ */
+public interface IncrementalHealthResultAggregator extends HealthResultAggregator {
+
+    /**
+     * Takes a change of the latest result of a health check into account.
+     *
+     * @param healthCheck the health check
+     * @param previous    the result that is replaced, or null if the health check was not counted so far
+     * @param current     the new latest result, or null if the health check is no longer counted
+     */
+    void onResult(@Nonnull HealthCheck healthCheck, @Nullable HealthCheckResult previous,
+                  @Nullable HealthCheckResult current);
+
+    /**
+     * Returns the aggregate of the results counted so far.
+     *
+     * @return the aggregated result
+     */
+    HealthCheckResult currentResult();
+
+    /**
+     * Forgets all results counted so far, before the aggregator is fed from scratch.
+     */
+    void reset();
+}
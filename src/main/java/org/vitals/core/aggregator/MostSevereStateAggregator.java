@@ -1,39 +1,43 @@
 package org.vitals.core.aggregator;
 
-import org.vitals.core.HealthCheck;
 import org.vitals.core.HealthCheck.HealthCheckResult;
 import org.vitals.core.HealthCheck.HealthStatus;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
-public class MostSevereStateAggregator implements HealthResultAggregator {
+public class MostSevereStateAggregator extends StatusCountingAggregator {
         private static final List<HealthStatus> PRIORITY_ORDER = List.of(HealthStatus.CRITICAL, HealthStatus.UNHEALTHY,
                 HealthStatus.DEGRADED, HealthStatus.WARNING, HealthStatus.HEALTHY, HealthStatus.UNKNOWN);
-
-        private final String name;
+        // statuses missing from the priority order, such as FAILED, come before all of it
+        private static final HealthStatus[] SEVERITY_ORDER = severityOrder();
 
         public MostSevereStateAggregator(String name) {
-                this.name = name;
+                super(name);
         }
 
         public MostSevereStateAggregator() {
-                this.name = this.getClass().getSimpleName();
+                super(MostSevereStateAggregator.class.getSimpleName());
         }
 
-        @Override
-        public String getName() {
-                return this.name;
+        private static HealthStatus[] severityOrder() {
+                List<HealthStatus> order = new ArrayList<>(Arrays.stream(HealthStatus.values())
+                        .filter(status -> !PRIORITY_ORDER.contains(status))
+                        .toList());
+                order.addAll(PRIORITY_ORDER);
+                return order.toArray(HealthStatus[]::new);
         }
 
         @Override
-        public HealthCheckResult aggregate(Map<HealthCheck, HealthCheckResult> results) {
-                HealthStatus worstStatus = results.values()
-                        .stream()
-                        .map(HealthCheckResult::getStatus)
-                        .min(Comparator.comparingInt(PRIORITY_ORDER::indexOf))
-                        .orElse(HealthStatus.UNKNOWN);
+        protected HealthCheckResult aggregate(StatusCounts counts) {
+                HealthStatus worstStatus = HealthStatus.UNKNOWN;
+                for (HealthStatus status : SEVERITY_ORDER) {
+                        if (counts.count(status) > 0) {
+                                worstStatus = status;
+                                break;
+                        }
+                }
 
                 return HealthCheckResult.builder().status(worstStatus).message("Aggregated health status").build();
         }
@@ -0,0 +1,116 @@
+package org.vitals.core.aggregator;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Base of the aggregators that only depend on how many health checks are in each {@link HealthStatus}. Each update
+ * moves one count from the previous status to the new one, and the aggregated result is derived from the counts, so
+ * neither depends on the number of health checks.
+ * <p>
+ * Counts are updated without locking. A result read while updates are in flight can miss a health check that is
+ * moving between statuses, the next aggregation sees it again.
+ * </p>
+ */
+public abstract class StatusCountingAggregator implements IncrementalHealthResultAggregator {
+
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+
+    private final String name;
+    private final AtomicLongArray counts;
+
+    protected StatusCountingAggregator(@Nonnull String name) {
+        this.name = Preconditions.checkNotNull(name, "Name must not be null");
+        this.counts = new AtomicLongArray(STATUSES.length);
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void onResult(@Nonnull HealthCheck healthCheck, @Nullable HealthCheckResult previous,
+                         @Nullable HealthCheckResult current) {
+        HealthStatus previousStatus = previous != null ? previous.getStatus() : null;
+        HealthStatus currentStatus = current != null ? current.getStatus() : null;
+        if (previousStatus == currentStatus) {
+            return;
+        }
+        if (previousStatus != null) {
+            this.counts.decrementAndGet(previousStatus.ordinal());
+        }
+        if (currentStatus != null) {
+            this.counts.incrementAndGet(currentStatus.ordinal());
+        }
+    }
+
+    @Override
+    public HealthCheckResult currentResult() {
+        long[] snapshot = new long[STATUSES.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = Math.max(0L, this.counts.get(i));
+        }
+        return this.aggregate(new StatusCounts(snapshot));
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0L);
+        }
+    }
+
+    /**
+     * Aggregates the given results from scratch, leaving the counts of this aggregator alone.
+     */
+    @Override
+    public HealthCheckResult aggregate(Map<HealthCheck, HealthCheckResult> results) {
+        long[] snapshot = new long[STATUSES.length];
+        for (HealthCheckResult result : results.values()) {
+            snapshot[result.getStatus().ordinal()]++;
+        }
+        return this.aggregate(new StatusCounts(snapshot));
+    }
+
+    /**
+     * Derives the aggregated result from the number of health checks in each status.
+     *
+     * @param counts the counts
+     * @return the aggregated result
+     */
+    protected abstract HealthCheckResult aggregate(StatusCounts counts);
+
+    /**
+     * The number of health checks in each status.
+     */
+    public static final class StatusCounts {
+
+        private final long[] counts;
+        private final long total;
+
+        private StatusCounts(long[] counts) {
+            this.counts = counts;
+            long sum = 0;
+            for (long count : counts) {
+                sum += count;
+            }
+            this.total = sum;
+        }
+
+        public long count(@Nonnull HealthStatus status) {
+            return this.counts[status.ordinal()];
+        }
+
+        public long total() {
+            return this.total;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import org.vitals.core.HealthCheck.HealthStatus;
 
 import java.util.Map;
 
-public class WeightedScoringAggregator implements HealthResultAggregator {
+public class WeightedScoringAggregator extends StatusCountingAggregator {
 
     private static final Map<HealthStatus, Integer> STATUS_WEIGHTS = Map.of(
             HealthCheck.HealthStatus.CRITICAL, 100,
@@ -16,36 +16,37 @@ public class WeightedScoringAggregator implements HealthResultAggregator {
             HealthStatus.HEALTHY, 0,
             HealthStatus.UNKNOWN, 10);
 
-    private final String name;
-
     public WeightedScoringAggregator() {
-        this.name = this.getClass().getSimpleName();
+        super(WeightedScoringAggregator.class.getSimpleName());
     }
 
     public WeightedScoringAggregator(String name) {
-        this.name = name;
+        super(name);
     }
 
     @Override
-    public String getName() {
-        return this.name;
-    }
-
-    @Override
-    public HealthCheckResult aggregate(Map<HealthCheck, HealthCheckResult> results) {
-        int totalScore = results.values().stream()
-                .mapToInt(result -> STATUS_WEIGHTS.getOrDefault(result.getStatus(), 10))
-                .sum();
-
-        HealthStatus aggregatedStatus = deriveStatusFromScore(totalScore, results.size());
+    protected HealthCheckResult aggregate(StatusCounts counts) {
+        if (counts.total() == 0) {
+            return HealthCheckResult.builder()
+                    .status(HealthStatus.UNKNOWN)
+                    .message("No health check results to aggregate")
+                    .build();
+        }
+
+        long totalScore = 0;
+        for (HealthStatus status : HealthStatus.values()) {
+            totalScore += counts.count(status) * STATUS_WEIGHTS.getOrDefault(status, 10);
+        }
+
+        HealthStatus aggregatedStatus = deriveStatusFromScore(totalScore, counts.total());
         return HealthCheckResult.builder()
                 .status(aggregatedStatus)
                 .message("Weighted aggregated health status")
                 .build();
     }
 
-    private HealthStatus deriveStatusFromScore(int totalScore, int totalChecks) {
-        int averageScore = totalScore / totalChecks;
+    private HealthStatus deriveStatusFromScore(long totalScore, long totalChecks) {
+        long averageScore = totalScore / totalChecks;
         if (averageScore >= 75)
             return HealthStatus.CRITICAL;
         if (averageScore >= 50)
@@ -14,13 +14,78 @@ public @interface AsyncHealthCheck {
 
     ScheduleType scheduleType() default ScheduleType.FIXED_RATE;
 
+    OverrunPolicy overrunPolicy() default OverrunPolicy.SKIP;
+
+    PhaseSpreading phaseSpreading() default PhaseSpreading.EVEN;
+
     long initialDelay() default 0L;
 
+    /**
+     * Upper bound of a random delay added to every tick, in {@link #unit()}; must be less than the period.
+     */
+    long jitter() default 0L;
+
     TimeUnit unit() default TimeUnit.SECONDS;
 
     long healthyTtl() default Long.MAX_VALUE;
 
+    /**
+     * When greater than {@link #period()}, the interval doubles after every unchanged healthy result, up to this
+     * value, and snaps back to the period when the status changes.
+     */
+    long maxPeriod() default 0L;
+
     enum ScheduleType {
-        FIXED_RATE, FIXED_DELAY
+        /**
+         * Runs are aligned to {@code initialDelay + n * period}, independent of how long each run takes.
+         */
+        FIXED_RATE,
+        /**
+         * Each run starts {@code period} after the previous run completed.
+         */
+        FIXED_DELAY,
+        /**
+         * Each run starts just before the result of the previous run expires, that is its time to live less the
+         * time the run took. A result without a time to live is followed by a run {@code period} after it completed.
+         */
+        TIME_TO_LIVE
+    }
+
+    /**
+     * What a {@link ScheduleType#FIXED_RATE} check does with ticks that come due while its previous run is still in
+     * progress, or while the scheduler was late.
+     */
+    enum OverrunPolicy {
+        /**
+         * Missed ticks are dropped; the next run happens at the next tick on the schedule.
+         */
+        SKIP,
+        /**
+         * Missed ticks are collapsed into a single run as soon as the previous run completes.
+         */
+        COALESCE,
+        /**
+         * Every missed tick is run, back to back, until the check has caught up with its schedule.
+         */
+        QUEUE
+    }
+
+    /**
+     * Where within its period a check's first run is placed, after the initial delay, so that checks registered
+     * together do not all fire at the same instant.
+     */
+    enum PhaseSpreading {
+        /**
+         * The first run happens exactly after the initial delay.
+         */
+        NONE,
+        /**
+         * Checks with the same period are spread evenly over the period in registration order.
+         */
+        EVEN,
+        /**
+         * The offset is derived from the check's name, so it is the same across restarts.
+         */
+        HASHED
     }
 }
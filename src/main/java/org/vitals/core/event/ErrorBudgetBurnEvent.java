@@ -0,0 +1,22 @@
+package org.vitals.core.event;
+
+import jakarta.annotation.Nonnull;
+import org.vitals.core.slo.BurnAlert;
+
+/**
+ * Published when a {@link BurnAlert} of a health check or aggregator starts or stops firing.
+ *
+ * @param name                the name of the health check or aggregator
+ * @param alert               the alert
+ * @param longWindowBurnRate  the burn rate over the alert's long window
+ * @param shortWindowBurnRate the burn rate over the alert's short window
+ * @param burning             whether the alert started firing, or stopped
+ */
+public record ErrorBudgetBurnEvent(
+        @Nonnull String name,
+        @Nonnull BurnAlert alert,
+        double longWindowBurnRate,
+        double shortWindowBurnRate,
+        boolean burning
+) implements HealthEvent {
+}
@@ -8,5 +8,6 @@ public sealed interface HealthEvent permits
         HealthResultAggregatedEvent,
         AggregatedResultChangedEvent,
         HealthCheckRemovedEvent,
-        AllHealthChecksClearedEvent {
+        AllHealthChecksClearedEvent,
+        ErrorBudgetBurnEvent {
 }
\ No newline at end of file
@@ -12,14 +12,18 @@ import org.vitals.core.history.HealthCheckHistory;
 import org.vitals.core.listener.StatusUpdateDelegate;
 import org.vitals.core.registry.HealthCheckRegistry;
 import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.util.TimeSource;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static org.vitals.core.util.Util.validateName;
@@ -36,10 +40,16 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
     private final ExecutionStrategy executionStrategy;
     private final HealthCheckHistory healthCheckHistory;
     private final InternalScheduler internalScheduler;
+    private final Map<String, CompletableFuture<HealthCheck.HealthCheckResult>> inFlight;
+    private final Set<String> suspended;
+    private final TimeSource timeSource;
 
+    /**
+     * @param timeSource the time source for result timestamps and execution durations
+     */
     public DefaultHealthCheckExecutor(ExecutionStrategy executionStrategy, HealthEventPublisher domainEventPublisher,
                                       HealthCheckRegistry registry, HealthCheckHistory healthCheckHistory,
-                                      InternalScheduler internalScheduler) {
+                                      InternalScheduler internalScheduler, TimeSource timeSource) {
         this.healthCheckRegistry = Preconditions.checkNotNull(registry, HEALTH_CHECK_REGISTRY_NULL_MESSAGE);
         this.domainEventPublisher = Preconditions.checkNotNull(domainEventPublisher,
                 STATUS_UPDATE_DELEGATE_NULL_MESSAGE);
@@ -47,6 +57,16 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
 
         this.internalScheduler = Preconditions.checkNotNull(internalScheduler, "Fork join scheduler must not be null");
         this.executionStrategy = Preconditions.checkNotNull(executionStrategy, "Execution strategy must not be null");
+        this.inFlight = new ConcurrentHashMap<>();
+        this.suspended = ConcurrentHashMap.newKeySet();
+        this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
+    }
+
+    public DefaultHealthCheckExecutor(ExecutionStrategy executionStrategy, HealthEventPublisher domainEventPublisher,
+                                      HealthCheckRegistry registry, HealthCheckHistory healthCheckHistory,
+                                      InternalScheduler internalScheduler) {
+        this(executionStrategy, domainEventPublisher, registry, healthCheckHistory, internalScheduler,
+                TimeSource.SYSTEM);
     }
 
     public DefaultHealthCheckExecutor(HealthCheckRegistry registry, StatusUpdateDelegate statusUpdateDelegate,
@@ -85,6 +105,18 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
         return executeAsyncHelper(healthCheck);
     }
 
+    @Override
+    public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(@Nonnull String healthCheckName,
+                                                                         @Nonnull Executor executor) {
+        validateName(healthCheckName);
+        Preconditions.checkNotNull(executor, "Executor must not be null");
+
+        HealthCheck healthCheck = this.healthCheckRegistry.getHealthCheck(healthCheckName)
+                .orElseThrow(() -> new IllegalArgumentException("Health check not found: " + healthCheckName));
+
+        return executeAsyncHelper(healthCheck, executor);
+    }
+
     @Override
     public Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAsync(@Nonnull HealthCheckFilter filter) {
         Preconditions.checkNotNull(filter, "Health check filter must not be null");
@@ -105,22 +137,114 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Checks if a health check is currently being executed.
+     *
+     * @param healthCheckName the name of the health check
+     * @return true if an execution of the health check is in progress
+     */
+    @Override
+    public boolean isExecuting(@Nonnull String healthCheckName) {
+        Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
+        return this.inFlight.containsKey(healthCheckName);
+    }
+
+    /**
+     * Suspends or resumes a health check. While suspended, executions record and return a
+     * {@link HealthCheck.HealthStatus#MAINTENANCE} result without running the health check. An execution already in
+     * progress when the health check is suspended completes normally.
+     *
+     * @param healthCheckName the name of the health check
+     * @param suspended       whether the health check is suspended
+     */
+    @Override
+    public void setSuspended(@Nonnull String healthCheckName, boolean suspended) {
+        validateName(healthCheckName);
+        if (suspended) {
+            this.suspended.add(healthCheckName);
+        } else {
+            this.suspended.remove(healthCheckName);
+        }
+    }
+
+    @Override
+    public boolean isSuspended(@Nonnull String healthCheckName) {
+        Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
+        return this.suspended.contains(healthCheckName);
+    }
+
     @Override
     public void close() {
         this.internalScheduler.shutdown();
     }
 
+    /**
+     * Executes a health check, at most once at a time per health check: a call made while an execution of the same
+     * health check is in progress joins that execution instead of starting another one.
+     */
     private CompletableFuture<HealthCheck.HealthCheckResult> executeAsyncHelper(@Nonnull HealthCheck healthCheck) {
+        return this.executeAsyncHelper(healthCheck, this.internalScheduler::execute);
+    }
+
+    private CompletableFuture<HealthCheck.HealthCheckResult> executeAsyncHelper(@Nonnull HealthCheck healthCheck,
+                                                                                @Nonnull Executor executor) {
+        String healthCheckName = healthCheck.getName();
+        if (this.suspended.contains(healthCheckName)) {
+            return CompletableFuture.completedFuture(this.recordSuspended(healthCheck));
+        }
+        CompletableFuture<HealthCheck.HealthCheckResult> execution = new CompletableFuture<>();
+        CompletableFuture<HealthCheck.HealthCheckResult> existing = this.inFlight.putIfAbsent(healthCheckName,
+                execution);
+        if (existing != null) {
+            // callers get their own copy so that completing or cancelling it does not affect the others
+            return existing.copy();
+        }
+
+        try {
+            this.runAsync(healthCheck, executor).whenComplete((result, ex) -> {
+                // deregister first so that callers reacting to the completion can start a new execution
+                this.inFlight.remove(healthCheckName, execution);
+                if (ex != null) {
+                    execution.completeExceptionally(ex);
+                } else {
+                    execution.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            this.inFlight.remove(healthCheckName, execution);
+            throw e;
+        }
+        return execution.copy();
+    }
+
+    private HealthCheck.HealthCheckResult recordSuspended(@Nonnull HealthCheck healthCheck) {
+        HealthCheck.HealthCheckResult result = new ExecutionResult.Builder().status(
+                        HealthCheck.HealthStatus.MAINTENANCE)
+                .message("Health check is paused")
+                .name(healthCheck.getName())
+                .timestamp(this.timeSource.instant())
+                .timeSource(this.timeSource)
+                .tags(healthCheck.getTags())
+                .executionDuration(Duration.ZERO)
+                .build();
+        this.healthCheckHistory.addHistoryInternal(healthCheck, result);
+        return result;
+    }
+
+    private CompletableFuture<HealthCheck.HealthCheckResult> runAsync(@Nonnull HealthCheck healthCheck,
+                                                                      @Nonnull Executor executor) {
         return CompletableFuture.supplyAsync(() -> {
-            Instant startTime = Instant.now();
+            long startNanos = this.timeSource.nanoTime();
             try {
                 // Execute health check with retry strategy
                 HealthCheck.HealthCheckResult result = healthCheck.check();
 
-                Duration executionDuration = Duration.between(startTime, Instant.now());
+                Duration executionDuration = Duration.ofNanos(this.timeSource.nanoTime() - startNanos);
 
                 ExecutionResult extendedResult = new ExecutionResult.Builder().from(result)
                         .name(healthCheck.getName())
+                        .timestamp(this.timeSource.instant())
+                        .timeSource(this.timeSource)
                         .tags(healthCheck.getTags())
                         .executionDuration(executionDuration)
                         .build();
@@ -139,6 +263,8 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
                         .message(errorMessage)
                         .error(e)
                         .name(healthCheck.getName())
+                        .timestamp(this.timeSource.instant())
+                        .timeSource(this.timeSource)
                         .tags(healthCheck.getTags())
                         .executionDuration(Duration.ZERO) // Assuming no duration in case of failure
                         .build();
@@ -158,6 +284,8 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
                         .message(errorMessage)
                         .error(e)
                         .name(healthCheck.getName())
+                        .timestamp(this.timeSource.instant())
+                        .timeSource(this.timeSource)
                         .tags(healthCheck.getTags())
                         .executionDuration(Duration.ZERO)
                         .build();
@@ -169,7 +297,7 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
 
                 return result;
             }
-        }, internalScheduler::execute);
+        }, executor);
     }
 
     public static class ExecutionResult extends HealthCheck.HealthCheckResult {
@@ -179,12 +307,15 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
         private final Instant timestamp;
         private final Duration executionDuration;
         private final Instant expirationTime;
+        // what isExpired() measures the time by, not part of the result's value
+        private final TimeSource timeSource;
 
         private ExecutionResult(Builder builder) {
             super(builder);
             this.healthCheckName = builder.name;
             this.tags = builder.tags != null ? Set.copyOf(builder.tags) : Collections.emptySet();
-            this.timestamp = Instant.now();
+            this.timeSource = builder.timeSource != null ? builder.timeSource : TimeSource.SYSTEM;
+            this.timestamp = builder.timestamp != null ? builder.timestamp : this.timeSource.instant();
             this.executionDuration = builder.executionDuration != null ? builder.executionDuration : Duration.ZERO;
             this.expirationTime = this.timestamp.plus(getTimeToLive());
         }
@@ -210,8 +341,19 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
             return expirationTime;
         }
 
+        /**
+         * @return true if the result's time to live has passed, by the {@link TimeSource} the result was created with
+         */
         public boolean isExpired() {
-            return Instant.now().isAfter(timestamp.plus(getTimeToLive()));
+            return this.isExpired(this.timeSource.instant());
+        }
+
+        /**
+         * @param now the current time, from the {@link TimeSource} the result was created with
+         * @return true if the result's time to live has passed at the given time
+         */
+        public boolean isExpired(@Nonnull Instant now) {
+            return now.isAfter(this.expirationTime);
         }
 
         @Override
@@ -249,6 +391,8 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
             private String name;
             private Set<String> tags;
             private Duration executionDuration;
+            private Instant timestamp;
+            private TimeSource timeSource;
 
             public Builder name(String name) {
                 validateName(name);
@@ -268,6 +412,16 @@ public class DefaultHealthCheckExecutor implements HealthCheckExecutor, AutoClos
                 return self();
             }
 
+            public Builder timestamp(Instant timestamp) {
+                this.timestamp = Preconditions.checkNotNull(timestamp, "Timestamp must not be null");
+                return self();
+            }
+
+            public Builder timeSource(TimeSource timeSource) {
+                this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
+                return self();
+            }
+
             @Override
             protected Builder self() {
                 return this;
@@ -6,6 +6,7 @@ import org.vitals.core.filter.HealthCheckFilter;
 
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public interface HealthCheckExecutor {
 
@@ -13,8 +14,32 @@ public interface HealthCheckExecutor {
 
     CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(@Nonnull HealthCheck healthCheck);
 
+    /**
+     * Executes a health check on the given executor instead of the default pool, for example directly on the
+     * calling thread when the caller already runs on a pool thread.
+     *
+     * @param healthCheckName the name of the health check
+     * @param executor        the executor that runs the health check
+     * @return the result of the execution
+     */
+    CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(@Nonnull String healthCheckName,
+                                                                  @Nonnull Executor executor);
+
     Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAsync(@Nonnull HealthCheckFilter filter);
 
     Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAll();
 
+    boolean isExecuting(@Nonnull String healthCheckName);
+
+    /**
+     * Suspends or resumes a health check. Executing a suspended health check does not run it, it reports
+     * {@link HealthCheck.HealthStatus#MAINTENANCE} instead.
+     *
+     * @param healthCheckName the name of the health check
+     * @param suspended       whether the health check is suspended
+     */
+    void setSuspended(@Nonnull String healthCheckName, boolean suspended);
+
+    boolean isSuspended(@Nonnull String healthCheckName);
+
 }
@@ -0,0 +1,90 @@
+package org.vitals.core.filter;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nullable;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * What every context a {@link HealthCheckFilter} matches has in common, so that a store can look up the results to
+ * test by name, status or tag instead of testing all of them. A scope may be wider than its filter but never
+ * narrower, the filter is still tested on every result in scope.
+ *
+ * @param names     the names of which a matching context has one, or null for any name
+ * @param statuses  the statuses of which a matching result has one, or null for any status
+ * @param tagGroups groups of tags, a matching context has at least one tag of each group
+ */
+public record FilterScope(@Nullable Set<String> names, @Nullable Set<HealthStatus> statuses,
+                          List<Set<String>> tagGroups) {
+
+    /**
+     * The scope of a filter that may match anything.
+     */
+    public static final FilterScope ANY = new FilterScope(null, null, List.of());
+
+    public FilterScope {
+        names = names != null ? Set.copyOf(names) : null;
+        statuses = statuses != null ? Set.copyOf(statuses) : null;
+        Preconditions.checkNotNull(tagGroups, "Tag groups must not be null");
+        tagGroups = tagGroups.stream().map(Set::copyOf).toList();
+    }
+
+    static FilterScope ofNames(Set<String> names) {
+        return new FilterScope(names, null, List.of());
+    }
+
+    static FilterScope ofStatuses(Set<HealthStatus> statuses) {
+        return new FilterScope(null, statuses, List.of());
+    }
+
+    static FilterScope ofTagGroups(List<Set<String>> tagGroups) {
+        return new FilterScope(null, null, tagGroups);
+    }
+
+    /**
+     * @param other another scope
+     * @return the scope of the contexts in both scopes
+     */
+    public FilterScope and(FilterScope other) {
+        List<Set<String>> groups = new ArrayList<>(this.tagGroups);
+        groups.addAll(other.tagGroups);
+        return new FilterScope(intersect(this.names, other.names), intersect(this.statuses, other.statuses), groups);
+    }
+
+    /**
+     * @param other another scope
+     * @return a scope of the contexts in either scope, wider than that where it cannot be expressed
+     */
+    public FilterScope or(FilterScope other) {
+        List<Set<String>> groups = List.of();
+        if (!this.tagGroups.isEmpty() && !other.tagGroups.isEmpty()) {
+            // a context in either scope has a tag of the first group of one of them
+            Set<String> group = new HashSet<>(this.tagGroups.get(0));
+            group.addAll(other.tagGroups.get(0));
+            groups = List.of(group);
+        }
+        return new FilterScope(union(this.names, other.names), union(this.statuses, other.statuses), groups);
+    }
+
+    private static <T> Set<T> intersect(Set<T> first, Set<T> second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        Set<T> intersection = new HashSet<>(first);
+        intersection.retainAll(second);
+        return intersection;
+    }
+
+    private static <T> Set<T> union(Set<T> first, Set<T> second) {
+        if (first == null || second == null) {
+            return null;
+        }
+        Set<T> union = new HashSet<>(first);
+        union.addAll(second);
+        return union;
+    }
+}
@@ -20,7 +20,8 @@ public interface HealthCheckFilter {
      * @return A filter that matches only if all the filters match.
      */
     static HealthCheckFilter and(HealthCheckFilter... filters) {
-        return context -> Arrays.stream(filters).allMatch(filter -> filter.matches(context));
+        return new ScopedFilter(context -> Arrays.stream(filters).allMatch(filter -> filter.matches(context)),
+                Arrays.stream(filters).map(HealthCheckFilter::scope).reduce(FilterScope.ANY, FilterScope::and));
     }
 
     /**
@@ -30,7 +31,8 @@ public interface HealthCheckFilter {
      * @return A filter that matches if any of the filters match.
      */
     static HealthCheckFilter or(HealthCheckFilter... filters) {
-        return context -> Arrays.stream(filters).anyMatch(filter -> filter.matches(context));
+        return new ScopedFilter(context -> Arrays.stream(filters).anyMatch(filter -> filter.matches(context)),
+                Arrays.stream(filters).map(HealthCheckFilter::scope).reduce(FilterScope::or).orElse(FilterScope.ANY));
     }
 
     /**
@@ -71,6 +73,13 @@ public interface HealthCheckFilter {
      */
     boolean matches(HealthCheckFilterContext context);
 
+    /**
+     * @return what every context the filter matches has in common, {@link FilterScope#ANY} unless the filter knows
+     */
+    default FilterScope scope() {
+        return FilterScope.ANY;
+    }
+
 }
 
 // @FunctionalInterface
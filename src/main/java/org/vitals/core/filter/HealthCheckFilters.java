@@ -17,33 +17,36 @@ public class HealthCheckFilters {
 
     public static HealthCheckFilter byName(String name) {
         Preconditions.checkNotNull(name, "Name cannot be null");
-        return context -> name.equals(context.healthCheckName());
+        return new ScopedFilter(context -> name.equals(context.healthCheckName()), FilterScope.ofNames(Set.of(name)));
     }
 
     public static HealthCheckFilter byNames(Set<String> names) {
         Preconditions.checkNotNull(names, "Names cannot be null");
-        return context -> names.contains(context.healthCheckName());
+        return new ScopedFilter(context -> names.contains(context.healthCheckName()), FilterScope.ofNames(names));
     }
 
     public static HealthCheckFilter byStatus(HealthCheck.HealthStatus status) {
         Preconditions.checkNotNull(status, "Status cannot be null");
-        return context -> context.healthCheckResult() != null && status == context.healthCheckResult().getStatus();
+        return new ScopedFilter(context -> context.healthCheckResult() != null
+                && status == context.healthCheckResult().getStatus(), FilterScope.ofStatuses(Set.of(status)));
     }
 
     public static HealthCheckFilter byStatuses(Set<HealthCheck.HealthStatus> statuses) {
         Preconditions.checkNotNull(statuses, "Statuses cannot be null");
-        return context -> context.healthCheckResult() != null
-                && statuses.contains(context.healthCheckResult().getStatus());
+        return new ScopedFilter(context -> context.healthCheckResult() != null
+                && statuses.contains(context.healthCheckResult().getStatus()), FilterScope.ofStatuses(statuses));
     }
 
     public static HealthCheckFilter byAnyTag(Set<String> tags) {
         Preconditions.checkNotNull(tags, "Tags cannot be null");
-        return context -> !Collections.disjoint(context.tags(), tags);
+        return new ScopedFilter(context -> !Collections.disjoint(context.tags(), tags),
+                FilterScope.ofTagGroups(List.of(tags)));
     }
 
     public static HealthCheckFilter byAllTags(Set<String> tags) {
         Preconditions.checkNotNull(tags, "Tags cannot be null");
-        return context -> context.tags().containsAll(tags);
+        return new ScopedFilter(context -> context.tags().containsAll(tags),
+                FilterScope.ofTagGroups(tags.stream().map(Set::of).toList()));
     }
 
     public static HealthCheckFilter byCustom(Predicate<HealthCheckFilterContext> predicate) {
@@ -0,0 +1,14 @@
+package org.vitals.core.filter;
+
+import java.util.function.Predicate;
+
+/**
+ * A filter that knows its {@link FilterScope}.
+ */
+record ScopedFilter(Predicate<HealthCheckFilterContext> predicate, FilterScope scope) implements HealthCheckFilter {
+
+    @Override
+    public boolean matches(HealthCheckFilterContext context) {
+        return this.predicate.test(context);
+    }
+}
@@ -0,0 +1,85 @@
+package org.vitals.core.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.util.TimeSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the aggregators off the recording path. Recording a result only marks the aggregation dirty, and the first
+ * mark after a run schedules the next run on the {@link InternalScheduler}. A run aggregates every result recorded
+ * before it, so results recorded in a burst share one run, and runs start at most once per interval.
+ * <p>
+ * Runs never overlap, so aggregated results are appended in the order they were computed.
+ * </p>
+ */
+final class AggregationStage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AggregationStage.class);
+
+    private final InternalScheduler internalScheduler;
+    private final TimeSource timeSource;
+    private final Runnable aggregation;
+    private final AtomicBoolean scheduled;
+    private final Object runLock;
+    private volatile long intervalNanos;
+    private volatile long lastRunNanos;
+    private volatile boolean hasRun;
+
+    AggregationStage(InternalScheduler internalScheduler, TimeSource timeSource, Runnable aggregation) {
+        this.internalScheduler = internalScheduler;
+        this.timeSource = timeSource;
+        this.aggregation = aggregation;
+        this.scheduled = new AtomicBoolean();
+        this.runLock = new Object();
+    }
+
+    void setIntervalNanos(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    long getIntervalNanos() {
+        return this.intervalNanos;
+    }
+
+    /**
+     * Makes sure a run starts after the calling thread's latest recording.
+     */
+    void markDirty() {
+        // a plain read first, so that recordings while a run is pending do not contend on the flag
+        if (this.scheduled.get() || !this.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        long delayNanos = this.hasRun ? this.lastRunNanos + this.intervalNanos - this.timeSource.nanoTime() : 0;
+        try {
+            if (delayNanos > 0) {
+                this.internalScheduler.schedule(this::run, delayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                this.internalScheduler.execute(this::run);
+            }
+        } catch (IllegalStateException e) {
+            this.scheduled.set(false);
+            LOGGER.warn("Could not schedule aggregation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Aggregates right away on the calling thread.
+     */
+    void run() {
+        synchronized (this.runLock) {
+            // recordings from now on need another run
+            this.scheduled.set(false);
+            this.lastRunNanos = this.timeSource.nanoTime();
+            this.hasRun = true;
+            try {
+                this.aggregation.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Aggregation failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.vitals.core.history;
+
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps results in primitive columns of one buffer, see {@link HistoryStorage#COMPACT}. The columns are, in this
+ * order: time to live in nanoseconds, message id, error summary id and status ordinal, 17 bytes per slot. The ring
+ * keeps the time each result was recorded at. Messages and error summaries that the {@link MessageTable} has no room
+ * for are kept as strings, two per slot, in an array allocated when the first one comes.
+ * <p>
+ * Columns are written with plain stores. The ring publishes a slot after writing it and checks after a read that the
+ * slot was not claimed for a newer result meanwhile.
+ * </p>
+ */
+final class CompactSlotStore implements SlotStore {
+
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+    private static final int EMPTY = 0;
+    private static final long SLOT_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES + Byte.BYTES;
+
+    private final int capacity;
+    private final MessageTable messageTable;
+    private final ByteBuffer columns;
+    private final int messageOffset;
+    private final int errorOffset;
+    private final int statusOffset;
+    // the message and the error summary of each slot, where the message table had no room for them
+    private volatile AtomicReferenceArray<String> overflow;
+
+    CompactSlotStore(int capacity, MessageTable messageTable, boolean offHeap) {
+        this.capacity = capacity;
+        this.messageTable = messageTable;
+        int bytes = Math.toIntExact(SLOT_BYTES * capacity);
+        this.columns = offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        this.messageOffset = Long.BYTES * capacity;
+        this.errorOffset = this.messageOffset + Integer.BYTES * capacity;
+        this.statusOffset = this.errorOffset + Integer.BYTES * capacity;
+    }
+
+    @Override
+    public int capacity() {
+        return this.capacity;
+    }
+
+    @Override
+    public long set(int index, HealthCheckResult result) {
+        Throwable error = result.getError();
+        String message = result.getMessage();
+        String errorSummary = error != null ? HistoryJournal.summary(error) : null;
+        int messageId = this.messageTable.idOf(message);
+        int errorId = this.messageTable.idOf(errorSummary);
+        long bytesChange = 0;
+        if (messageId == MessageTable.OVERFLOW || errorId == MessageTable.OVERFLOW) {
+            bytesChange += this.allocateOverflow();
+        }
+        AtomicReferenceArray<String> strings = this.overflow;
+        if (strings != null) {
+            bytesChange += stringBytes(messageId == MessageTable.OVERFLOW ? message : null,
+                    strings.getAndSet(2 * index, messageId == MessageTable.OVERFLOW ? message : null));
+            bytesChange += stringBytes(errorId == MessageTable.OVERFLOW ? errorSummary : null,
+                    strings.getAndSet(2 * index + 1, errorId == MessageTable.OVERFLOW ? errorSummary : null));
+        }
+        this.columns.putLong(Long.BYTES * index, saturatedNanos(result.getTimeToLive()));
+        this.columns.putInt(this.messageOffset + Integer.BYTES * index, messageId);
+        this.columns.putInt(this.errorOffset + Integer.BYTES * index, errorId);
+        // status ordinals are stored plus one, so that a zero byte marks an empty slot
+        this.columns.put(this.statusOffset + index, (byte) (result.getStatus().ordinal() + 1));
+        return bytesChange;
+    }
+
+    @Override
+    public HealthCheckResult get(int index) {
+        int status = this.columns.get(this.statusOffset + index);
+        if (status == EMPTY) {
+            return null;
+        }
+        HealthCheckResult.Builder<?> builder = HealthCheckResult.builder()
+                .status(STATUSES[status - 1])
+                .message(this.text(this.columns.getInt(this.messageOffset + Integer.BYTES * index), 2 * index))
+                .timeToLive(Duration.ofNanos(this.columns.getLong(Long.BYTES * index)));
+        int errorId = this.columns.getInt(this.errorOffset + Integer.BYTES * index);
+        if (errorId != MessageTable.NONE) {
+            builder.error(new RecordedError(this.text(errorId, 2 * index + 1)));
+        }
+        return builder.build();
+    }
+
+    private String text(int id, int overflowIndex) {
+        if (id != MessageTable.OVERFLOW) {
+            return this.messageTable.message(id);
+        }
+        AtomicReferenceArray<String> strings = this.overflow;
+        return strings != null ? strings.get(overflowIndex) : null;
+    }
+
+    /**
+     * @return the estimated memory taken by the overflow array if this call allocated it, in bytes
+     */
+    private long allocateOverflow() {
+        if (this.overflow != null) {
+            return 0;
+        }
+        synchronized (this) {
+            if (this.overflow != null) {
+                return 0;
+            }
+            this.overflow = new AtomicReferenceArray<>(2 * this.capacity);
+            return 16 + 8L * this.capacity;
+        }
+    }
+
+    private static long stringBytes(String added, String removed) {
+        return (added != null ? 40 + added.length() : 0) - (removed != null ? 40 + removed.length() : 0);
+    }
+
+    @Override
+    public HealthStatus status(int index) {
+        int status = this.columns.get(this.statusOffset + index);
+        return status != EMPTY ? STATUSES[status - 1] : null;
+    }
+
+    @Override
+    public long clear(int index) {
+        this.columns.put(this.statusOffset + index, (byte) EMPTY);
+        AtomicReferenceArray<String> strings = this.overflow;
+        if (strings == null) {
+            return 0;
+        }
+        return -stringBytes(null, strings.getAndSet(2 * index, null))
+                - stringBytes(null, strings.getAndSet(2 * index + 1, null));
+    }
+
+    @Override
+    public long slotBytes() {
+        return SLOT_BYTES;
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        return duration.compareTo(HistoryRetention.UNLIMITED_AGE) >= 0 ? Long.MAX_VALUE : duration.toNanos();
+    }
+}
@@ -2,131 +2,1086 @@ package org.vitals.core.history;
 
 import com.google.common.base.Preconditions;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.vitals.core.HealthCheck;
 import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
 import org.vitals.core.aggregator.HealthResultAggregator;
+import org.vitals.core.aggregator.IncrementalHealthResultAggregator;
 import org.vitals.core.event.*;
+import org.vitals.core.executor.DefaultHealthCheckExecutor;
 import org.vitals.core.filter.HealthCheckFilter;
+import org.vitals.core.filter.FilterScope;
 import org.vitals.core.filter.HealthCheckFilterContext;
 import org.vitals.core.registry.HealthCheckRegistry;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.util.TimeSource;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
+/**
+ * Default {@link HealthCheckHistory}. Each health check and aggregator keeps its latest results in a {@link ResultRing}
+ * sized by its {@link HistoryRetention}, the default one unless {@link #setRetention} set another. Recording a result
+ * only serializes with other recordings of the same health check, and reading a history never blocks.
+ * <p>
+ * Aggregators do not run on the recording path. Recording a result marks them dirty, and an {@link AggregationStage}
+ * runs each of them once over the latest results of all health checks, at most once per
+ * {@link #setAggregationInterval aggregation interval}.
+ * </p>
+ * <p>
+ * The store keeps an estimate of the heap its histories take. When that goes over the memory budget, the histories
+ * with the lowest {@link HistoryRetention#priority()}, and among those the ones read least recently, are cut down to
+ * their latest result until the estimate is back under the budget.
+ * </p>
+ * <p>
+ * With a {@link #setJournal journal}, the results of health checks are also written to disk, and
+ * {@link #restore restored} from there after a restart. A {@link #writeSnapshot snapshot} carries the histories of
+ * health checks and aggregators over a restart in one piece instead.
+ * </p>
+ * <p>
+ * Histories whose retention asks for {@link HistoryStorage#COMPACT} storage keep primitive columns instead of result
+ * objects, and share one bounded table of interned messages.
+ * </p>
+ * <p>
+ * Time range queries find their results by binary search over the recording times of a history. Filtering looks up
+ * the histories by the names and tags in the filter's {@link FilterScope}, skips the ones that hold none of the
+ * statuses in it, and only builds the results it then tests. Tags are indexed as they are when a health check records
+ * a result.
+ * </p>
+ */
 public class DefaultHealthCheckHistory implements HealthCheckHistory {
 
-    private final int maxHistorySize;
-    private final Map<String, LinkedBlockingDeque<HealthCheckResult>> historyMap;
+    private static final long UNCOUNTED = -1;
+    /**
+     * The most distinct messages and error summaries that compact histories intern by default, the ones beyond it
+     * take a string per result.
+     */
+    public static final int DEFAULT_MESSAGE_TABLE_CAPACITY = 4096;
+    /**
+     * The fewest buckets of a tier in a range that its buckets do not align with, for the tier to answer it.
+     */
+    private static final int MIN_ROLLUP_BUCKETS = 24;
+    /**
+     * The longest message or error summary a snapshot keeps, like a journal.
+     */
+    private static final int MAX_SNAPSHOT_TEXT_CHARS = 4096;
+
+    private final HistoryRetention defaultRetention;
+    private final Map<String, HistoryRetention> retentions;
+    private final Map<String, ResultRing> historyMap;
     private final HealthEventPublisher domainEventPublisher;
     private final HealthCheckRegistry healthCheckRegistry;
+    private final TimeSource timeSource;
+    private final AtomicLong estimatedBytes;
+    private final AtomicBoolean evicting;
+    private final AggregationStage aggregationStage;
+    private final MessageTable messageTable;
+    private volatile HistoryJournal journal;
+    // added to the monotonic time source to get the wall-clock time that results are recorded at
+    private volatile long epochOffsetNanos;
+    private final Map<String, StatusRollup> rollups;
+    private final Map<String, Set<String>> namesByTag;
+    // the tags each health check is indexed under, replaced on its history's monitor
+    private final Map<String, Set<String>> indexedTags;
+    private volatile RollupSettings rollupSettings;
+    // in ordinal order, replaced by the aggregation stage only
+    private volatile List<IncrementalEntry> incrementalAggregators;
+    private long lastAggregatorOrdinal;
+    private volatile long memoryBudgetBytes;
+    // the estimate above which the next eviction runs, raised when an eviction cannot get under the budget
+    private volatile long evictionThresholdBytes;
 
     public DefaultHealthCheckHistory(int maxHistorySize, HealthEventPublisher domainEventPublisher,
                                      HealthCheckRegistry healthCheckRegistry) {
-        this.maxHistorySize = maxHistorySize;
+        this(HistoryRetention.ofMaxResults(maxHistorySize), domainEventPublisher, healthCheckRegistry,
+                TimeSource.SYSTEM);
+    }
+
+    public DefaultHealthCheckHistory(@Nonnull HistoryRetention defaultRetention,
+                                     HealthEventPublisher domainEventPublisher,
+                                     HealthCheckRegistry healthCheckRegistry, @Nonnull TimeSource timeSource) {
+        this(defaultRetention, domainEventPublisher, healthCheckRegistry, timeSource,
+                InternalScheduler.getInstance());
+    }
+
+    /**
+     * @param defaultRetention     the retention of histories that have none of their own
+     * @param domainEventPublisher the publisher of checked, aggregated and changed events
+     * @param healthCheckRegistry  the registry of the health checks and aggregators
+     * @param timeSource           the time source that result ages and reads are measured by
+     * @param internalScheduler    the scheduler that aggregations run on
+     */
+    public DefaultHealthCheckHistory(@Nonnull HistoryRetention defaultRetention,
+                                     HealthEventPublisher domainEventPublisher,
+                                     HealthCheckRegistry healthCheckRegistry, @Nonnull TimeSource timeSource,
+                                     @Nonnull InternalScheduler internalScheduler) {
+        this(defaultRetention, domainEventPublisher, healthCheckRegistry, timeSource, internalScheduler,
+                DEFAULT_MESSAGE_TABLE_CAPACITY);
+    }
+
+    /**
+     * @param defaultRetention     the retention of histories that have none of their own
+     * @param domainEventPublisher the publisher of checked, aggregated and changed events
+     * @param healthCheckRegistry  the registry of the health checks and aggregators
+     * @param timeSource           the time source that result ages and reads are measured by
+     * @param internalScheduler    the scheduler that aggregations run on
+     * @param messageTableCapacity the most distinct messages and error summaries that compact histories intern
+     */
+    public DefaultHealthCheckHistory(@Nonnull HistoryRetention defaultRetention,
+                                     HealthEventPublisher domainEventPublisher,
+                                     HealthCheckRegistry healthCheckRegistry, @Nonnull TimeSource timeSource,
+                                     @Nonnull InternalScheduler internalScheduler, int messageTableCapacity) {
+        Preconditions.checkArgument(messageTableCapacity >= 0, "Message table capacity must not be negative");
+        this.defaultRetention = Preconditions.checkNotNull(defaultRetention, "Default retention must not be null");
+        this.retentions = new ConcurrentHashMap<>();
         this.historyMap = new ConcurrentHashMap<>();
         this.domainEventPublisher = domainEventPublisher;
         this.healthCheckRegistry = healthCheckRegistry;
+        this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
+        this.estimatedBytes = new AtomicLong();
+        this.evicting = new AtomicBoolean();
+        this.memoryBudgetBytes = Long.MAX_VALUE;
+        this.evictionThresholdBytes = Long.MAX_VALUE;
+        this.incrementalAggregators = List.of();
+        this.messageTable = new MessageTable(messageTableCapacity);
+        this.rollups = new ConcurrentHashMap<>();
+        this.namesByTag = new ConcurrentHashMap<>();
+        this.indexedTags = new ConcurrentHashMap<>();
+        this.epochOffsetNanos = HistoryJournal.epochNanos(timeSource.instant()) - timeSource.nanoTime();
+        this.aggregationStage = new AggregationStage(
+                Preconditions.checkNotNull(internalScheduler, "Internal scheduler must not be null"), timeSource,
+                this::aggregate);
     }
 
-    public synchronized void addHistoryInternal(HealthCheck healthCheck, HealthCheckResult result) {
+    public void addHistoryInternal(HealthCheck healthCheck, HealthCheckResult result) {
         Preconditions.checkNotNull(healthCheck, "Health check must not be null");
         Preconditions.checkNotNull(result, "Health check result must not be null");
 
-        LinkedBlockingDeque<HealthCheckResult> historyQueue = this.historyMap.computeIfAbsent(healthCheck.getName(),
-                k -> new LinkedBlockingDeque<>(maxHistorySize));
+        long nowNanos = this.timeSource.nanoTime();
+
+        this.append(healthCheck.getName(), nowNanos, () -> result, (history, latestResult, recorded) -> {
+            history.setHealthCheck(healthCheck);
+            this.indexTags(healthCheck);
+            this.countIncrementally(history, latestResult, result);
+            HistoryJournal historyJournal = this.journal;
+            if (historyJournal != null) {
+                historyJournal.append(healthCheck.getName(), result, nowNanos + this.epochOffsetNanos);
+            }
+            RollupSettings settings = this.rollupSettings;
+            if (settings != null) {
+                this.rollup(healthCheck.getName(), settings).record(result,
+                        (nowNanos + this.epochOffsetNanos) / 1_000_000, durationMicros(result));
+            }
+
+            this.domainEventPublisher.publish(
+                    new HealthCheckCheckedEvent(healthCheck.getName(), healthCheck.getTags(), healthCheck, result));
+
+            if (!Objects.equals(latestResult, result)) {
+                this.domainEventPublisher.publish(new HealthCheckStatusChangedEvent(healthCheck.getName(),
+                        healthCheck.getTags(), healthCheck, latestResult,
+                        result));
+            }
+        });
 
-        HealthCheckResult latestResult = historyQueue.peekLast();
+        this.aggregationStage.markDirty();
 
-        while (historyQueue.size() >= maxHistorySize) {
-            historyQueue.pollFirst();
+        if (this.estimatedBytes.get() > this.evictionThresholdBytes) {
+            this.evict(nowNanos);
         }
+    }
 
-        historyQueue.offerLast(result);
+    /**
+     * Indexes a health check under its current tags. Called on the monitor of its history.
+     */
+    private void indexTags(HealthCheck healthCheck) {
+        String name = healthCheck.getName();
+        Set<String> tags = healthCheck.getTags();
+        Set<String> indexed = this.indexedTags.get(name);
+        if (tags.equals(indexed)) {
+            return;
+        }
+        Set<String> current = Set.copyOf(tags);
+        if (indexed != null) {
+            indexed.stream().filter(tag -> !current.contains(tag)).forEach(tag -> this.namesByTag.computeIfPresent(tag,
+                    (key, names) -> names.remove(name) && names.isEmpty() ? null : names));
+        }
+        current.forEach(tag -> this.namesByTag.compute(tag, (key, names) -> {
+            Set<String> tagged = names != null ? names : ConcurrentHashMap.newKeySet();
+            tagged.add(name);
+            return tagged;
+        }));
+        this.indexedTags.put(name, current);
+    }
 
-        this.domainEventPublisher.publish(
-                new HealthCheckCheckedEvent(healthCheck.getName(), healthCheck.getTags(), healthCheck, result));
+    /**
+     * Writes the results of health checks recorded from now on to a journal as well, in the order each health check
+     * records them.
+     *
+     * @param journal the journal, or null to stop journaling
+     */
+    public void setJournal(@Nullable HistoryJournal journal) {
+        if (journal != null) {
+            this.epochOffsetNanos = HistoryJournal.epochNanos(this.timeSource.instant()) - this.timeSource.nanoTime();
+        }
+        this.journal = journal;
+    }
 
-        if (!Objects.equals(latestResult, result)) {
-            this.domainEventPublisher.publish(new HealthCheckStatusChangedEvent(healthCheck.getName(),
-                    healthCheck.getTags(), healthCheck, latestResult,
-                    result));
+    /**
+     * Rolls up the results of health checks into minute and hour buckets, which answer {@link #getRollups} and
+     * {@link #getAvailability} over longer ranges than the histories hold. The rollups start from the runs the
+     * histories hold, and count the results recorded from now on. Each health check takes fixed memory for its
+     * rollups, which counts towards the estimate but is not evicted.
+     *
+     * @param settings the number of buckets per tier, or null to stop rolling up and drop the rollups
+     */
+    public void setRollups(@Nullable RollupSettings settings) {
+        RollupSettings previous = this.rollupSettings;
+        this.rollupSettings = settings;
+        if (!Objects.equals(previous, settings)) {
+            this.clearRollups();
+            if (settings != null) {
+                this.historyMap.keySet().forEach(name -> this.seedRollup(name, settings));
+            }
         }
+    }
 
-        // Get the latest results of all checks for aggregation
-        Map<HealthCheck, HealthCheckResult> latestResults = new HashMap<>();
+    public Optional<RollupSettings> getRollupSettings() {
+        return Optional.ofNullable(this.rollupSettings);
+    }
 
-        this.historyMap.forEach((name, results) -> {
-            HealthCheckResult latest = results.peekLast();
-            if (latest != null) {
-                // Check if the name corresponds to a HealthCheck
-                this.healthCheckRegistry.getHealthCheck(name).ifPresent(hc -> latestResults.put(hc, latest));
+    private StatusRollup rollup(String name, RollupSettings settings) {
+        StatusRollup rollup = this.rollups.get(name);
+        if (rollup != null && rollup.settings().equals(settings)) {
+            return rollup;
+        }
+        // created with other settings by a recording that raced with setRollups
+        return this.rollups.compute(name, (key, current) -> {
+            if (current != null && current.settings().equals(settings)) {
+                return current;
+            }
+            if (current != null) {
+                this.estimatedBytes.addAndGet(-StatusRollup.estimateBytes(current.settings()));
+            }
+            this.estimatedBytes.addAndGet(StatusRollup.estimateBytes(settings));
+            return new StatusRollup(settings);
+        });
+    }
+
+    /**
+     * Rolls up the runs the history of a health check holds, unless the health check has rollups already, so that
+     * they count the results recorded before rollups were enabled, or restored, as far back as the history reaches.
+     */
+    private void seedRollup(String name, RollupSettings settings) {
+        ResultRing history = this.historyMap.get(name);
+        if (history == null || this.healthCheckRegistry.isAggregatorRegistered(name)) {
+            return;
+        }
+        synchronized (history) {
+            if (history.isRetired() || this.rollups.containsKey(name)) {
+                return;
+            }
+            StatusRollup rollup = this.rollup(name, settings);
+            for (HistoryRun run : history.range(Long.MIN_VALUE, Long.MAX_VALUE, null, Integer.MAX_VALUE,
+                    this.timeSource.nanoTime(), this::run)) {
+                rollup.recordRun(run.result().getStatus(), run.firstSeen().toEpochMilli(),
+                        run.lastSeen().toEpochMilli(), run.count());
+            }
+        }
+    }
+
+    private void clearRollups() {
+        this.rollups.forEach((name, rollup) -> {
+            if (this.rollups.remove(name, rollup)) {
+                this.estimatedBytes.addAndGet(-StatusRollup.estimateBytes(rollup.settings()));
             }
         });
+    }
+
+    private static long durationMicros(HealthCheckResult result) {
+        return result instanceof DefaultHealthCheckExecutor.ExecutionResult executionResult
+                ? executionResult.getExecutionDuration().toNanos() / 1000 : -1;
+    }
+
+    /**
+     * Returns the rolled-up results of a health check in a range, from the coarsest {@link RollupTier} that reaches
+     * back to the start of the range and that either aligns with it or has at least 24 buckets in it. Without such
+     * a tier, the finest tier that reaches back far enough is used, or else the coarsest one. The buckets overlap the
+     * range, so they may start before it and end after it.
+     *
+     * @param name the name of the health check
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return the buckets that hold results or time in a status, oldest first
+     */
+    @Override
+    public List<RollupBucket> getRollups(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkNotNull(from, "From must not be null");
+        Preconditions.checkNotNull(to, "To must not be null");
 
+        RollupSettings settings = this.rollupSettings;
+        StatusRollup rollup = this.rollups.get(name);
+        if (settings == null || rollup == null || !from.isBefore(to)) {
+            return Collections.emptyList();
+        }
+        long nowMillis = (this.timeSource.nanoTime() + this.epochOffsetNanos) / 1_000_000;
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        return rollup.read(rollupTier(settings, fromMillis, toMillis, nowMillis), fromMillis, toMillis, nowMillis);
+    }
+
+    /**
+     * Returns the share of the observed time in a range that a health check was {@link RollupBucket#AVAILABLE
+     * available}, from its {@link #getRollups rollups}. Time in {@link RollupBucket#UNOBSERVED} statuses does not
+     * count.
+     *
+     * @param name the name of the health check
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return the availability between 0 and 1, or empty if no time was observed
+     */
+    @Override
+    public OptionalDouble getAvailability(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to) {
+        long availableNanos = 0;
+        long observedNanos = 0;
+        for (RollupBucket bucket : this.getRollups(name, from, to)) {
+            for (Map.Entry<HealthStatus, Duration> entry : bucket.timeInStatus().entrySet()) {
+                if (RollupBucket.UNOBSERVED.contains(entry.getKey())) {
+                    continue;
+                }
+                observedNanos += entry.getValue().toNanos();
+                if (RollupBucket.AVAILABLE.contains(entry.getKey())) {
+                    availableNanos += entry.getValue().toNanos();
+                }
+            }
+        }
+        return observedNanos > 0 ? OptionalDouble.of((double) availableNanos / observedNanos) : OptionalDouble.empty();
+    }
+
+    private static RollupTier rollupTier(RollupSettings settings, long fromMillis, long toMillis, long nowMillis) {
+        RollupTier[] tiers = RollupTier.values();
+        for (int i = tiers.length - 1; i >= 0; i--) {
+            long widthMillis = tiers[i].getWidth().toMillis();
+            boolean aligned = fromMillis % widthMillis == 0 && toMillis % widthMillis == 0;
+            if (reachesBack(settings, tiers[i], fromMillis, nowMillis)
+                    && (aligned || toMillis - fromMillis >= MIN_ROLLUP_BUCKETS * widthMillis)) {
+                return tiers[i];
+            }
+        }
+        for (RollupTier tier : tiers) {
+            if (reachesBack(settings, tier, fromMillis, nowMillis)) {
+                return tier;
+            }
+        }
+        return tiers[tiers.length - 1];
+    }
+
+    private static boolean reachesBack(RollupSettings settings, RollupTier tier, long fromMillis, long nowMillis) {
+        long widthMillis = tier.getWidth().toMillis();
+        // the oldest bucket the tier holds starts this long before the current one
+        return fromMillis >= (nowMillis / widthMillis - settings.buckets(tier) + 1) * widthMillis;
+    }
+
+    /**
+     * Rebuilds the histories of health checks from a journal, keeping as many of the latest results of each as its
+     * retention allows. Meant to run before health checks record results. No events are published, and the first
+     * result each health check records afterwards is compared to its restored latest result.
+     *
+     * @param journal the journal
+     * @return the number of results restored
+     */
+    public int restore(@Nonnull HistoryJournal journal) {
+        Preconditions.checkNotNull(journal, "Journal must not be null");
+
+        long epochOffset = HistoryJournal.epochNanos(this.timeSource.instant()) - this.timeSource.nanoTime();
+        Set<String> names = new HashSet<>();
+        int restored = journal.replay(name -> this.getRetention(name).maxResults(),
+                (name, epochNanos, result) -> this.append(name, epochNanos - epochOffset, () -> result,
+                        (history, previous, recorded) -> names.add(name)));
+        RollupSettings settings = this.rollupSettings;
+        if (settings != null) {
+            names.forEach(name -> this.seedRollup(name, settings));
+        }
+        this.aggregationStage.markDirty();
+        if (this.estimatedBytes.get() > this.evictionThresholdBytes) {
+            this.evict(this.timeSource.nanoTime());
+        }
+        return restored;
+    }
+
+    /**
+     * Writes the runs every history holds, oldest first, with the wall-clock times they were seen at. Like a journal,
+     * a snapshot keeps the status, time to live, message and error summary of each result, not its data. Histories
+     * are read without blocking the recordings that go on meanwhile.
+     *
+     * @param output the output
+     * @throws IOException if writing fails
+     */
+    public void writeSnapshot(@Nonnull DataOutput output) throws IOException {
+        Preconditions.checkNotNull(output, "Output must not be null");
+
+        long nowNanos = this.timeSource.nanoTime();
+        Map<String, List<HistoryRun>> histories = new TreeMap<>();
+        this.historyMap.forEach((name, history) -> {
+            List<HistoryRun> runs = history.range(Long.MIN_VALUE, Long.MAX_VALUE, null, Integer.MAX_VALUE, nowNanos,
+                    this::run);
+            if (!runs.isEmpty()) {
+                histories.put(name, runs);
+            }
+        });
+        output.writeInt(histories.size());
+        for (Map.Entry<String, List<HistoryRun>> entry : histories.entrySet()) {
+            output.writeUTF(entry.getKey());
+            output.writeInt(entry.getValue().size());
+            for (HistoryRun run : entry.getValue()) {
+                HealthCheckResult result = run.result();
+                output.writeByte(result.getStatus().ordinal());
+                Duration timeToLive = result.getTimeToLive();
+                output.writeLong(timeToLive.compareTo(HistoryRetention.UNLIMITED_AGE) >= 0 ? Long.MAX_VALUE
+                        : timeToLive.toNanos());
+                writeText(output, result.getMessage());
+                writeText(output, result.getError() != null ? HistoryJournal.summary(result.getError()) : null);
+                output.writeLong(HistoryJournal.epochNanos(run.firstSeen()));
+                output.writeLong(HistoryJournal.epochNanos(run.lastSeen()));
+                output.writeLong(run.count());
+            }
+        }
+    }
+
+    /**
+     * Restores the histories written by {@link #writeSnapshot}, into the histories that hold no results yet, keeping
+     * as many of their latest runs as the retention allows, so retentions are best set first. A history that does
+     * not collapse runs keeps one result per run, at the time the run was last seen. Meant to run before health
+     * checks record results. No events are published, restored aggregated results stay the latest ones until the
+     * aggregators run again, and the first result each health check records afterwards is compared to its restored
+     * latest result.
+     *
+     * @param input the input
+     * @return the number of runs restored
+     * @throws IOException if reading fails or the input is malformed, in which case the histories read until then
+     *                     are restored
+     */
+    public int restoreSnapshot(@Nonnull DataInput input) throws IOException {
+        Preconditions.checkNotNull(input, "Input must not be null");
+
+        HealthStatus[] statuses = HealthStatus.values();
+        long epochOffset = HistoryJournal.epochNanos(this.timeSource.instant()) - this.timeSource.nanoTime();
+        Set<String> names = new HashSet<>();
+        int restored = 0;
+        try {
+            int historyCount = input.readInt();
+            for (int i = 0; i < historyCount; i++) {
+                String name = input.readUTF();
+                int runCount = input.readInt();
+                List<HistoryRun> runs = new ArrayList<>(Math.min(runCount, 1024));
+                for (int j = 0; j < runCount; j++) {
+                    int status = input.readUnsignedByte();
+                    if (status >= statuses.length) {
+                        throw new IOException("Unknown status " + status + " in the history of " + name);
+                    }
+                    HealthCheckResult.Builder<?> builder = HealthCheckResult.builder()
+                            .status(statuses[status])
+                            .timeToLive(Duration.ofNanos(input.readLong()))
+                            .message(readText(input));
+                    String errorSummary = readText(input);
+                    if (errorSummary != null) {
+                        builder.error(new RecordedError(errorSummary));
+                    }
+                    runs.add(new HistoryRun(builder.build(), Instant.ofEpochSecond(0, input.readLong()),
+                            Instant.ofEpochSecond(0, input.readLong()), input.readLong()));
+                }
+                if (this.restoreRuns(name, runs, epochOffset)) {
+                    names.add(name);
+                    restored += runs.size();
+                }
+            }
+        } finally {
+            RollupSettings settings = this.rollupSettings;
+            if (settings != null) {
+                names.forEach(name -> this.seedRollup(name, settings));
+            }
+            if (this.estimatedBytes.get() > this.evictionThresholdBytes) {
+                this.evict(this.timeSource.nanoTime());
+            }
+        }
+        return restored;
+    }
+
+    /**
+     * @return whether the runs were restored, which they are not if the history holds results already
+     */
+    private boolean restoreRuns(String name, List<HistoryRun> runs, long epochOffset) {
+        while (true) {
+            ResultRing history = this.historyMap.computeIfAbsent(name, this::newRing);
+            synchronized (history) {
+                if (history.isRetired()) {
+                    continue;
+                }
+                if (history.latest() != null) {
+                    return false;
+                }
+                long bytesBefore = history.estimatedBytes();
+                for (HistoryRun run : runs) {
+                    history.appendRun(run.result(), HistoryJournal.epochNanos(run.firstSeen()) - epochOffset,
+                            HistoryJournal.epochNanos(run.lastSeen()) - epochOffset, run.count());
+                }
+                this.estimatedBytes.addAndGet(history.estimatedBytes() - bytesBefore);
+                return true;
+            }
+        }
+    }
+
+    private static void writeText(DataOutput output, String text) throws IOException {
+        output.writeBoolean(text != null);
+        if (text != null) {
+            // at most three bytes per char, within what writeUTF takes
+            output.writeUTF(text.length() > MAX_SNAPSHOT_TEXT_CHARS ? text.substring(0, MAX_SNAPSHOT_TEXT_CHARS)
+                    : text);
+        }
+    }
+
+    private static String readText(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * Tells the incremental aggregators about a new latest result of a health check, on the check's monitor. An
+     * aggregator that does not count the check yet gets the result as a new one.
+     */
+    private void countIncrementally(ResultRing history, HealthCheckResult previous, HealthCheckResult result) {
+        List<IncrementalEntry> aggregators = this.incrementalAggregators;
+        if (aggregators.isEmpty()) {
+            return;
+        }
+        long counted = history.aggregationOrdinal();
+        for (IncrementalEntry entry : aggregators) {
+            entry.aggregator().onResult(history.healthCheck(), entry.ordinal() > counted ? null : previous, result);
+        }
+        history.setAggregationOrdinal(aggregators.get(aggregators.size() - 1).ordinal());
+    }
+
+    /**
+     * Stops counting a health check's latest result in the incremental aggregators, on the check's monitor, until
+     * the check records a result again.
+     */
+    private void uncount(ResultRing history) {
+        long counted = history.aggregationOrdinal();
+        if (counted > 0) {
+            HealthCheckResult latest = history.latest();
+            for (IncrementalEntry entry : this.incrementalAggregators) {
+                if (entry.ordinal() <= counted) {
+                    entry.aggregator().onResult(history.healthCheck(), latest, null);
+                }
+            }
+        }
+        history.setAggregationOrdinal(UNCOUNTED);
+    }
+
+    /**
+     * Stops counting a health check in the incremental aggregators, for example once it is unregistered. Its history
+     * is kept, and it is counted again from its next result on.
+     *
+     * @param name the name of the health check
+     */
+    public void removeFromAggregation(@Nonnull String name) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+
+        ResultRing history = this.historyMap.get(name);
+        if (history == null) {
+            return;
+        }
+        synchronized (history) {
+            if (!history.isRetired() && history.healthCheck() != null) {
+                this.uncount(history);
+            }
+        }
+        this.aggregationStage.markDirty();
+    }
+
+    /**
+     * Brings the incremental aggregators in line with the registry. A newly registered one is reset and then gets
+     * the latest result of every health check, each on the check's monitor, so that a result recorded meanwhile is
+     * counted exactly once. Histories restored from a journal or snapshot count too, once their health check is
+     * registered.
+     */
+    private void syncIncrementalAggregators(Set<HealthResultAggregator> aggregators) {
+        List<IncrementalEntry> current = this.incrementalAggregators;
+        List<IncrementalEntry> next = new ArrayList<>(current.size());
+        for (IncrementalEntry entry : current) {
+            if (aggregators.contains(entry.aggregator())) {
+                next.add(entry);
+            }
+        }
+        List<IncrementalEntry> added = new ArrayList<>();
+        for (HealthResultAggregator aggregator : aggregators) {
+            if (aggregator instanceof IncrementalHealthResultAggregator incremental
+                    && next.stream().noneMatch(entry -> entry.aggregator() == incremental)) {
+                incremental.reset();
+                IncrementalEntry entry = new IncrementalEntry(incremental, ++this.lastAggregatorOrdinal);
+                next.add(entry);
+                added.add(entry);
+            }
+        }
+        if (next.size() == current.size() && added.isEmpty()) {
+            return;
+        }
+        this.incrementalAggregators = List.copyOf(next);
+        if (added.isEmpty()) {
+            return;
+        }
+
+        for (Map.Entry<String, ResultRing> historyEntry : this.historyMap.entrySet()) {
+            ResultRing history = historyEntry.getValue();
+            synchronized (history) {
+                if (history.healthCheck() == null && !history.isRetired()) {
+                    // restored, the health check has not recorded a result since
+                    this.healthCheckRegistry.getHealthCheck(historyEntry.getKey()).ifPresent(history::setHealthCheck);
+                }
+                long counted = history.aggregationOrdinal();
+                HealthCheckResult latest = history.latest();
+                if (history.isRetired() || history.healthCheck() == null || counted < 0 || latest == null) {
+                    continue;
+                }
+                for (IncrementalEntry entry : added) {
+                    if (entry.ordinal() > counted) {
+                        entry.aggregator().onResult(history.healthCheck(), null, latest);
+                    }
+                }
+                history.setAggregationOrdinal(Math.max(counted, this.lastAggregatorOrdinal));
+            }
+        }
+    }
+
+    /**
+     * Runs every registered aggregator, and records and publishes the aggregated results. Incremental aggregators
+     * only report their current result, the others aggregate the latest result of each health check. Called by the
+     * {@link AggregationStage}, which never runs two aggregations at once.
+     */
+    private void aggregate() {
         Set<HealthResultAggregator> aggregators = this.healthCheckRegistry.getAllAggregators();
+        this.syncIncrementalAggregators(aggregators);
+        if (aggregators.isEmpty()) {
+            return;
+        }
+        long nowNanos = this.timeSource.nanoTime();
+        Map<HealthCheck, HealthCheckResult> latestResults = aggregators.stream()
+                .allMatch(IncrementalHealthResultAggregator.class::isInstance)
+                ? Collections.emptyMap()
+                : Collections.unmodifiableMap(this.latestResults());
 
         for (HealthResultAggregator aggregator : aggregators) {
             String aggregatorName = aggregator.getName();
 
-            // Get the current aggregated result
-            LinkedBlockingDeque<HealthCheckResult> aggregatedQueue = this.historyMap.computeIfAbsent(aggregatorName,
-                    k -> new LinkedBlockingDeque<>(maxHistorySize));
+            this.append(aggregatorName, nowNanos,
+                    () -> aggregator instanceof IncrementalHealthResultAggregator incremental
+                            ? incremental.currentResult()
+                            : aggregator.aggregate(latestResults),
+                    (history, previousAggregated, newAggregated) -> {
+                        // Notify that the aggregation occurred
+                        this.domainEventPublisher.publish(
+                                new HealthResultAggregatedEvent(aggregatorName, newAggregated));
 
-            HealthCheckResult previousAggregated = aggregatedQueue.peekLast();
-            HealthCheckResult newAggregated = aggregator.aggregate(latestResults);
+                        // If the aggregated result has changed, notify the change
+                        if (!Objects.equals(previousAggregated, newAggregated)) {
+                            this.domainEventPublisher.publish(new AggregatedResultChangedEvent(aggregatorName,
+                                    previousAggregated, newAggregated));
+                        }
+                    });
+        }
+        if (this.estimatedBytes.get() > this.evictionThresholdBytes) {
+            this.evict(nowNanos);
+        }
+    }
+
+    /**
+     * Aggregates on the calling thread right away, instead of waiting for the pending aggregation, if any.
+     */
+    public void aggregateNow() {
+        this.aggregationStage.run();
+    }
 
-            // Add the new aggregated result to the history
-            while (aggregatedQueue.size() >= maxHistorySize) {
-                aggregatedQueue.pollFirst();
+    /**
+     * Sets the shortest interval between two aggregations. Recorded results mark the aggregators dirty, and an
+     * aggregation over all results recorded until then runs at most once per interval. With a zero interval, an
+     * aggregation runs as soon as a thread of the internal scheduler is free, covering every result recorded until
+     * it starts.
+     *
+     * @param aggregationInterval the interval
+     */
+    public void setAggregationInterval(@Nonnull Duration aggregationInterval) {
+        Preconditions.checkNotNull(aggregationInterval, "Aggregation interval must not be null");
+        Preconditions.checkArgument(!aggregationInterval.isNegative(), "Aggregation interval must be non-negative");
+        this.aggregationStage.setIntervalNanos(aggregationInterval.toNanos());
+    }
+
+    public Duration getAggregationInterval() {
+        return Duration.ofNanos(this.aggregationStage.getIntervalNanos());
+    }
+
+    /**
+     * Appends a result to a history on the history's monitor, which orders its results and their events.
+     *
+     * @param name     the name of the health check or aggregator
+     * @param nowNanos the time the result is recorded at
+     * @param result   supplies the result, on the monitor
+     * @param recorded called on the monitor once the result is recorded
+     */
+    private void append(String name, long nowNanos, Supplier<HealthCheckResult> result, Recorded recorded) {
+        while (true) {
+            ResultRing history = this.historyMap.computeIfAbsent(name, this::newRing);
+            synchronized (history) {
+                if (history.isRetired()) {
+                    // replaced by setRetention or removed by clearHistory since it was looked up
+                    continue;
+                }
+                long bytesBefore = history.estimatedBytes();
+                HealthCheckResult newResult = result.get();
+                HealthCheckResult latestResult = history.append(newResult, nowNanos);
+                this.estimatedBytes.addAndGet(history.estimatedBytes() - bytesBefore);
+                recorded.accept(history, latestResult, newResult);
+                return;
             }
-            aggregatedQueue.offerLast(newAggregated);
+        }
+    }
 
-            // Notify that the aggregation occurred
-            this.domainEventPublisher.publish(new HealthResultAggregatedEvent(aggregatorName, newAggregated));
+    private ResultRing newRing(String name) {
+        ResultRing ring = new ResultRing(this.retentions.getOrDefault(name, this.defaultRetention),
+                this.messageTable, this.timeSource.nanoTime());
+        this.estimatedBytes.addAndGet(ring.estimatedBytes());
+        return ring;
+    }
+
+    /**
+     * Sets how much history a health check or aggregator keeps. An existing history is resized, keeping as many of
+     * its latest results as the new retention allows.
+     *
+     * @param name      the name of the health check or aggregator
+     * @param retention the retention
+     */
+    public void setRetention(@Nonnull String name, @Nonnull HistoryRetention retention) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkNotNull(retention, "Retention must not be null");
 
-            // If the aggregated result has changed, notify the change
-            if (!Objects.equals(previousAggregated, newAggregated)) {
-                this.domainEventPublisher
-                        .publish(new AggregatedResultChangedEvent(aggregatorName, previousAggregated, newAggregated));
+        this.retentions.put(name, retention);
+        ResultRing history = this.historyMap.get(name);
+        if (history == null) {
+            return;
+        }
+        synchronized (history) {
+            if (history.isRetired() || history.retention().equals(retention)) {
+                return;
             }
+            ResultRing resized = new ResultRing(retention, this.messageTable, history.lastReadNanos());
+            resized.appendAll(history);
+            resized.setHealthCheck(history.healthCheck());
+            resized.setAggregationOrdinal(history.aggregationOrdinal());
+            history.retire();
+            this.historyMap.put(name, resized);
+            this.estimatedBytes.addAndGet(resized.estimatedBytes() - history.estimatedBytes());
+        }
+    }
+
+    /**
+     * Reverts a health check or aggregator to the default retention for histories created from now on, for example
+     * once it is unregistered.
+     *
+     * @param name the name of the health check or aggregator
+     */
+    public void removeRetention(@Nonnull String name) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        this.retentions.remove(name);
+    }
+
+    public HistoryRetention getRetention(@Nonnull String name) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        return this.retentions.getOrDefault(name, this.defaultRetention);
+    }
+
+    /**
+     * Sets the estimated heap, in bytes, that all histories together may take. Each history keeps at least its latest
+     * result, so the estimate can stay over a budget that is too small for that.
+     *
+     * @param memoryBudgetBytes the budget, {@link Long#MAX_VALUE} for none
+     */
+    public void setMemoryBudget(long memoryBudgetBytes) {
+        Preconditions.checkArgument(memoryBudgetBytes > 0, "Memory budget must be greater than zero");
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.evictionThresholdBytes = memoryBudgetBytes;
+        if (this.estimatedBytes.get() > memoryBudgetBytes) {
+            this.evict(this.timeSource.nanoTime());
         }
     }
 
+    public long getMemoryBudget() {
+        return this.memoryBudgetBytes;
+    }
+
+    /**
+     * @return the estimated memory taken by all histories, in bytes, on or off the heap. The messages interned for
+     * compact histories are not counted, there are at most 4096 of them.
+     */
+    public long getEstimatedBytes() {
+        return this.estimatedBytes.get();
+    }
+
+    /**
+     * Cuts histories down to their latest result, least important and least recently read first, until the estimate
+     * is under the budget. Only one eviction runs at a time, recordings meanwhile go on.
+     */
+    private void evict(long nowNanos) {
+        if (!this.evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long budget = this.memoryBudgetBytes;
+            // read priorities and read times once, they must not change while sorting
+            List<EvictionCandidate> candidates = new ArrayList<>(this.historyMap.size());
+            this.historyMap.values().forEach(history -> candidates.add(new EvictionCandidate(history,
+                    history.retention().priority(), nowNanos - history.lastReadNanos())));
+            candidates.sort(Comparator.comparingInt(EvictionCandidate::priority)
+                    .thenComparing(Comparator.comparingLong(EvictionCandidate::idleNanos).reversed()));
+
+            for (EvictionCandidate candidate : candidates) {
+                if (this.estimatedBytes.get() <= budget) {
+                    break;
+                }
+                ResultRing history = candidate.history();
+                synchronized (history) {
+                    if (history.isRetired()) {
+                        continue;
+                    }
+                    long bytesBefore = history.estimatedBytes();
+                    history.trim(1);
+                    this.estimatedBytes.addAndGet(history.estimatedBytes() - bytesBefore);
+                }
+            }
+
+            // when even the latest results do not fit, wait for the estimate to grow by a tenth of the budget before
+            // sorting all histories again
+            long estimate = this.estimatedBytes.get();
+            this.evictionThresholdBytes = estimate <= budget ? budget : Math.max(budget, estimate + budget / 10);
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+
+    /**
+     * Returns the latest result of every registered health check.
+     */
+    private Map<HealthCheck, HealthCheckResult> latestResults() {
+        Map<HealthCheck, HealthCheckResult> latestResults = new HashMap<>();
+
+        this.historyMap.forEach((name, results) -> {
+            HealthCheckResult latest = results.latest();
+            if (latest != null) {
+                // Check if the name corresponds to a HealthCheck
+                this.healthCheckRegistry.getHealthCheck(name).ifPresent(hc -> latestResults.put(hc, latest));
+            }
+        });
+        return latestResults;
+    }
+
     @Override
     public List<HealthCheckResult> getHistory(@Nonnull String name) {
         Preconditions.checkNotNull(name, "Name must not be null");
         Preconditions.checkArgument(!name.trim().isEmpty(), "Name must not be empty");
 
-        LinkedBlockingDeque<HealthCheckResult> historyQueue = this.historyMap.get(name);
+        ResultRing history = this.historyMap.get(name);
+
+        return history != null ? history.snapshot(this.timeSource.nanoTime()) : Collections.emptyList();
+    }
+
+    /**
+     * Retrieves the latest results of a health check or aggregator.
+     *
+     * @param name  the name of the health check or aggregator
+     * @param limit the most results to return
+     * @return the latest results, oldest first, or an empty list if not found
+     */
+    @Override
+    public List<HealthCheckResult> getHistory(@Nonnull String name, int limit) {
+        return this.getHistory(name, Instant.MIN, Instant.MAX, limit);
+    }
+
+    /**
+     * Retrieves the latest results of a health check or aggregator that were recorded in a time range. The results
+     * of the range are found by binary search, and only the returned ones are read.
+     *
+     * @param name  the name of the health check or aggregator
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, exclusive
+     * @param limit the most results to return, the latest ones are kept
+     * @return the results, oldest first, or an empty list if not found
+     */
+    @Override
+    public List<HealthCheckResult> getHistory(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to,
+                                              int limit) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkArgument(!name.trim().isEmpty(), "Name must not be empty");
+        Preconditions.checkNotNull(from, "From must not be null");
+        Preconditions.checkNotNull(to, "To must not be null");
+        Preconditions.checkArgument(limit > 0, "Limit must be greater than zero");
+
+        ResultRing history = this.historyMap.get(name);
 
-        return historyQueue != null ? List.copyOf(historyQueue) : Collections.emptyList();
+        return history != null ? history.range(this.nanoTime(from), this.nanoTime(to), null, limit,
+                this.timeSource.nanoTime(), (result, firstNanos, lastNanos, count) -> result) : Collections.emptyList();
+    }
+
+    /**
+     * Retrieves the latest runs of a health check or aggregator seen in a time range, that is first seen before its
+     * end and last seen at or after its start. In a history that does not collapse runs, each run holds one result.
+     *
+     * @param name  the name of the health check or aggregator
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, exclusive
+     * @param limit the most runs to return, the latest ones are kept
+     * @return the runs, oldest first, or an empty list if not found
+     */
+    @Override
+    public List<HistoryRun> getRuns(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to, int limit) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkArgument(!name.trim().isEmpty(), "Name must not be empty");
+        Preconditions.checkNotNull(from, "From must not be null");
+        Preconditions.checkNotNull(to, "To must not be null");
+        Preconditions.checkArgument(limit > 0, "Limit must be greater than zero");
+
+        ResultRing history = this.historyMap.get(name);
+
+        return history != null ? history.range(this.nanoTime(from), this.nanoTime(to), null, limit,
+                this.timeSource.nanoTime(), this::run) : Collections.emptyList();
+    }
+
+    private HistoryRun run(HealthCheckResult result, long firstNanos, long lastNanos, long count) {
+        long epochOffset = this.epochOffsetNanos;
+        return new HistoryRun(result, Instant.ofEpochSecond(0, firstNanos + epochOffset),
+                Instant.ofEpochSecond(0, lastNanos + epochOffset), count);
     }
 
     @Override
     public Set<HealthCheckResult> filterHistory(@Nonnull HealthCheckFilter healthCheckFilter) {
+        return this.filterHistory(healthCheckFilter, Instant.MIN, Instant.MAX);
+    }
+
+    /**
+     * Filters the results recorded in a time range. Only the histories in the {@link HealthCheckFilter#scope()
+     * scope} of the filter that hold one of its statuses are searched, and only their results in the range with one
+     * of those statuses are tested.
+     *
+     * @param healthCheckFilter the filter to apply
+     * @param from              the start of the range, inclusive
+     * @param to                the end of the range, exclusive
+     * @return the matching results
+     */
+    @Override
+    public Set<HealthCheckResult> filterHistory(@Nonnull HealthCheckFilter healthCheckFilter, @Nonnull Instant from,
+                                                @Nonnull Instant to) {
         Preconditions.checkNotNull(healthCheckFilter, "Health check filter must not be null");
+        Preconditions.checkNotNull(from, "From must not be null");
+        Preconditions.checkNotNull(to, "To must not be null");
 
-        return this.historyMap.entrySet()
-                .stream()
-                .flatMap(entry -> entry.getValue().stream().map(result -> createContext(entry.getKey(), result)))
-                .filter(healthCheckFilter::matches)
-                .map(HealthCheckFilterContext::healthCheckResult)
-                .collect(Collectors.toSet());
+        FilterScope scope = healthCheckFilter.scope();
+        Set<HealthStatus> statuses = scope.statuses() == null ? null
+                : scope.statuses().isEmpty() ? EnumSet.noneOf(HealthStatus.class) : EnumSet.copyOf(scope.statuses());
+        long fromNanos = this.nanoTime(from);
+        long toNanos = this.nanoTime(to);
+        long nowNanos = this.timeSource.nanoTime();
+        Set<HealthCheckResult> matches = new HashSet<>();
+        for (String name : this.candidates(scope)) {
+            ResultRing history = this.historyMap.get(name);
+            if (history == null || statuses != null && !history.mayContain(statuses)) {
+                continue;
+            }
+            List<HealthCheckResult> results = history.range(fromNanos, toNanos, statuses, Integer.MAX_VALUE,
+                    nowNanos, (result, firstNanos, lastNanos, count) -> result);
+            if (results.isEmpty()) {
+                continue;
+            }
+            HealthCheck healthCheck = this.healthCheckRegistry.getHealthCheck(name).orElse(null);
+            for (HealthCheckResult result : results) {
+                if (healthCheckFilter.matches(createContext(name, healthCheck, result))) {
+                    matches.add(result);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * @return the names of the histories that may hold results in a scope
+     */
+    private Collection<String> candidates(FilterScope scope) {
+        Collection<String> names = scope.names();
+        for (Set<String> group : scope.tagGroups()) {
+            Set<String> tagged = new HashSet<>();
+            group.forEach(tag -> tagged.addAll(this.namesByTag.getOrDefault(tag, Set.of())));
+            if (names != null) {
+                tagged.retainAll(names);
+            }
+            names = tagged;
+        }
+        return names != null ? names : this.historyMap.keySet();
+    }
+
+    /**
+     * @return the {@link TimeSource#nanoTime()} at an instant, saturated for instants beyond its range
+     */
+    private long nanoTime(Instant instant) {
+        try {
+            return Math.subtractExact(Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L),
+                    instant.getNano()), this.epochOffsetNanos);
+        } catch (ArithmeticException e) {
+            return instant.isBefore(Instant.EPOCH) ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
     }
 
     @Override
     public void clearHistory() {
-        this.historyMap.clear();
+        this.historyMap.forEach((name, history) -> {
+            synchronized (history) {
+                if (!history.isRetired() && this.historyMap.remove(name, history)) {
+                    if (history.healthCheck() != null) {
+                        this.uncount(history);
+                    }
+                    history.retire();
+                    this.estimatedBytes.addAndGet(-history.estimatedBytes());
+                }
+            }
+        });
+        this.clearRollups();
+    }
+
+    private static HealthCheckFilterContext createContext(String name, HealthCheck healthCheck,
+                                                          HealthCheckResult result) {
+        // without a health check, the history is that of an aggregator
+        return healthCheck != null ? new HealthCheckFilterContext(name, healthCheck, result, healthCheck.getTags())
+                : new HealthCheckFilterContext(name, null, result, null);
+    }
+
+    private record EvictionCandidate(ResultRing history, int priority, long idleNanos) {
     }
 
-    private HealthCheckFilterContext createContext(String name, HealthCheckResult result) {
-        return this.healthCheckRegistry.getHealthCheck(name)
-                .map(hc -> new HealthCheckFilterContext(name, hc, result, hc.getTags()))
-                .orElseGet(() -> new HealthCheckFilterContext(name, null, result, null)); // if not hc then must be
-        // getting history of
-        // aggregator
+    private record IncrementalEntry(IncrementalHealthResultAggregator aggregator, long ordinal) {
+    }
+
+    @FunctionalInterface
+    private interface Recorded {
+
+        /**
+         * @param history  the history the result was appended to
+         * @param previous the latest result before it, or null
+         * @param recorded the result
+         */
+        void accept(ResultRing history, HealthCheckResult previous, HealthCheckResult recorded);
     }
 
 }
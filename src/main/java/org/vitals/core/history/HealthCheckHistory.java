@@ -5,7 +5,9 @@ import org.vitals.core.HealthCheck;
 import org.vitals.core.HealthCheck.HealthCheckResult;
 import org.vitals.core.filter.HealthCheckFilter;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.OptionalDouble;
 import java.util.Set;
 
 public interface HealthCheckHistory {
@@ -20,6 +22,37 @@ public interface HealthCheckHistory {
      */
     List<HealthCheckResult> getHistory(@Nonnull String name);
 
+    /**
+     * Retrieves the latest results of a specific health check.
+     *
+     * @param name  the name of the health check, or aggregator
+     * @param limit the most results to return
+     * @return the latest results, oldest first, or an empty list if not found
+     */
+    List<HealthCheckResult> getHistory(@Nonnull String name, int limit);
+
+    /**
+     * Retrieves the latest results of a specific health check that were recorded in a time range.
+     *
+     * @param name  the name of the health check, or aggregator
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, exclusive
+     * @param limit the most results to return, the latest ones are kept
+     * @return the results, oldest first, or an empty list if not found
+     */
+    List<HealthCheckResult> getHistory(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to, int limit);
+
+    /**
+     * Retrieves the latest runs of equal results of a specific health check that were seen in a time range.
+     *
+     * @param name  the name of the health check, or aggregator
+     * @param from  the start of the range, inclusive
+     * @param to    the end of the range, exclusive
+     * @param limit the most runs to return, the latest ones are kept
+     * @return the runs, oldest first, or an empty list if not found
+     */
+    List<HistoryRun> getRuns(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to, int limit);
+
     /**
      * Filters health check statuses by a specific status.
      *
@@ -28,6 +61,38 @@ public interface HealthCheckHistory {
      */
     Set<HealthCheck.HealthCheckResult> filterHistory(@Nonnull HealthCheckFilter healthCheckFilter);
 
+    /**
+     * Filters the health check results recorded in a time range.
+     *
+     * @param healthCheckFilter the filter to apply
+     * @param from              the start of the range, inclusive
+     * @param to                the end of the range, exclusive
+     * @return a set of filtered health check results
+     */
+    Set<HealthCheck.HealthCheckResult> filterHistory(@Nonnull HealthCheckFilter healthCheckFilter,
+                                                     @Nonnull Instant from, @Nonnull Instant to);
+
+    /**
+     * Retrieves the rolled-up results of a health check in a time range, from the coarsest rollup tier that answers
+     * the range.
+     *
+     * @param name the name of the health check
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return the buckets overlapping the range, oldest first, or an empty list if there are none
+     */
+    List<RollupBucket> getRollups(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to);
+
+    /**
+     * Retrieves the share of a time range that a health check was available, from its rollups.
+     *
+     * @param name the name of the health check
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return the availability between 0 and 1, or empty if nothing was observed in the range
+     */
+    OptionalDouble getAvailability(@Nonnull String name, @Nonnull Instant from, @Nonnull Instant to);
+
     /**
      * Clears all stored statuses and history.
      */
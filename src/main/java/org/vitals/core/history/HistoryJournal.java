@@ -0,0 +1,589 @@
+package org.vitals.core.history;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only journal of health check results in memory-mapped segment files, from which a
+ * {@link DefaultHealthCheckHistory} is rebuilt after a restart.
+ * <p>
+ * Each segment starts with a magic number, followed by records of a length, a CRC32C checksum and a payload. The
+ * length is written last, so a record cut short by a crash reads as the end of the segment. Names are written once
+ * per segment and referenced by a number afterwards. Like a {@link HistoryStorage#COMPACT} history, the journal keeps
+ * the status, time to live, message and error summary of each result, not its data.
+ * </p>
+ * <p>
+ * Writes go to the page cache and survive the process crashing. {@link #flush()} forces them to the disk, which also
+ * happens on {@link #close()}. Segments are deleted once they are older than the {@link JournalSettings#maxAge()} or
+ * beyond the {@link JournalSettings#maxBytes()}, when a new segment starts and when the journal is opened.
+ * </p>
+ */
+public final class HistoryJournal implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HistoryJournal.class);
+
+    private static final int MAGIC = 0x56484A31;
+    private static final int SEGMENT_HEADER_BYTES = Integer.BYTES;
+    /**
+     * Length and checksum of a record.
+     */
+    private static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    private static final byte NAME_RECORD = 1;
+    private static final byte RESULT_RECORD = 2;
+    /**
+     * Type, name id, epoch nanoseconds, status, time to live and the lengths of the message and error summary.
+     */
+    private static final int RESULT_FIXED_BYTES = 1 + Integer.BYTES + Long.BYTES + 1 + Long.BYTES + 2 * Integer.BYTES;
+    private static final int MAX_TEXT_CHARS = 4096;
+    private static final int NO_TEXT = -1;
+    private static final String SUFFIX = ".journal";
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+
+    private final Path directory;
+    private final JournalSettings settings;
+    private final Object lock;
+    private final CRC32C checksum;
+    // guarded by the lock, oldest first, the last one is the active segment
+    private final List<Segment> segments;
+    private final Map<String, Integer> nameIds;
+    private MappedByteBuffer active;
+    private boolean closed;
+
+    private HistoryJournal(Path directory, JournalSettings settings) {
+        this.directory = directory;
+        this.settings = settings;
+        this.lock = new Object();
+        this.checksum = new CRC32C();
+        this.segments = new ArrayList<>();
+        this.nameIds = new HashMap<>();
+    }
+
+    /**
+     * Opens the journal in a directory with the {@link JournalSettings#DEFAULT default settings}.
+     *
+     * @param directory the directory, created if it does not exist
+     * @return the journal
+     * @throws IOException if the directory or its segments cannot be read or written
+     */
+    public static HistoryJournal open(@Nonnull Path directory) throws IOException {
+        return open(directory, JournalSettings.DEFAULT);
+    }
+
+    /**
+     * Opens the journal in a directory, deleting expired segments and appending to the latest one. A record that was
+     * cut short or damaged ends its segment. Like on rollover, the age of a segment is measured against the time of
+     * the newest record, not the clock of the process that opens the journal, so a journal written in another time,
+     * a simulation's for example, keeps what it had.
+     *
+     * @param directory the directory, created if it does not exist
+     * @param settings  the settings
+     * @return the journal
+     * @throws IOException if the directory or its segments cannot be read or written
+     */
+    public static HistoryJournal open(@Nonnull Path directory, @Nonnull JournalSettings settings)
+            throws IOException {
+        Preconditions.checkNotNull(directory, "Directory must not be null");
+        Preconditions.checkNotNull(settings, "Settings must not be null");
+
+        HistoryJournal journal = new HistoryJournal(directory, settings);
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(Segment::of)
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparingLong(Segment::startEpochNanos))
+                    .forEach(journal.segments::add);
+        }
+        synchronized (journal.lock) {
+            if (!journal.segments.isEmpty()) {
+                journal.deleteExpired(journal.reopen(journal.segments.get(journal.segments.size() - 1)));
+            }
+        }
+        return journal;
+    }
+
+    /**
+     * Appends a result. A result that cannot be written is logged and dropped, recording goes on.
+     *
+     * @param name       the name of the health check
+     * @param result     the result
+     * @param epochNanos the wall-clock time the result was recorded at, in nanoseconds since the epoch
+     */
+    public void append(@Nonnull String name, @Nonnull HealthCheckResult result, long epochNanos) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkNotNull(result, "Health check result must not be null");
+
+        byte[] message = text(result.getMessage());
+        Throwable error = result.getError();
+        byte[] errorSummary = error != null ? text(summary(error)) : null;
+        int resultBytes = RECORD_HEADER_BYTES + RESULT_FIXED_BYTES + length(message) + length(errorSummary);
+
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+            try {
+                Integer id = this.nameIds.get(name);
+                byte[] nameBytes = id == null ? name.getBytes(StandardCharsets.UTF_8) : null;
+                int needed = resultBytes + (id == null ? nameRecordBytes(nameBytes) : 0);
+                if (this.active == null || this.active.remaining() < needed) {
+                    // a new segment needs the name again
+                    if (nameBytes == null) {
+                        nameBytes = name.getBytes(StandardCharsets.UTF_8);
+                    }
+                    if (SEGMENT_HEADER_BYTES + resultBytes + nameRecordBytes(nameBytes)
+                            > this.settings.segmentBytes()) {
+                        LOGGER.warn("Result of {} is too large for a journal segment, it is not journaled", name);
+                        return;
+                    }
+                    this.startSegment(epochNanos);
+                    id = null;
+                }
+                if (id == null) {
+                    id = this.nameIds.size();
+                    this.writeName(id, nameBytes);
+                    this.nameIds.put(name, id);
+                }
+                this.writeResult(id, epochNanos, result, message, errorSummary);
+            } catch (IOException e) {
+                LOGGER.warn("Could not journal the result of {}: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads the journal back, oldest segment first, and hands the latest results of each name to the visitor, oldest
+     * first. Only as many results per name as the visitor keeps are decoded. Appends wait until the journal is read,
+     * the visitor is called afterwards.
+     *
+     * @param maxResults the number of results kept per name
+     * @param visitor    the visitor
+     * @return the number of results handed to the visitor
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    public int replay(@Nonnull ToIntFunction<String> maxResults, @Nonnull Visitor visitor) {
+        Preconditions.checkNotNull(maxResults, "Max results must not be null");
+        Preconditions.checkNotNull(visitor, "Visitor must not be null");
+
+        List<ReplayedResult> results = new ArrayList<>();
+        synchronized (this.lock) {
+            Preconditions.checkState(!this.closed, "Journal is closed");
+            List<ByteBuffer> buffers = new ArrayList<>(this.segments.size());
+            Map<String, ReplayedName> names = new LinkedHashMap<>();
+            CRC32C replayChecksum = new CRC32C();
+            for (int s = 0; s < this.segments.size(); s++) {
+                ByteBuffer buffer = this.map(this.segments.get(s), s == this.segments.size() - 1);
+                buffers.add(buffer);
+                if (buffer == null) {
+                    continue;
+                }
+                List<ReplayedName> ids = new ArrayList<>();
+                int segment = s;
+                scan(buffer, replayChecksum, (type, position) -> {
+                    if (type == NAME_RECORD) {
+                        String name = readName(buffer, position);
+                        ids.add(names.computeIfAbsent(name,
+                                key -> new ReplayedName(key, Math.max(1, maxResults.applyAsInt(key)))));
+                    } else {
+                        int id = buffer.getInt(position + 1);
+                        if (id >= 0 && id < ids.size()) {
+                            ids.get(id).add((long) segment << 32 | position);
+                        }
+                    }
+                });
+            }
+
+            byte[] scratch = new byte[MAX_TEXT_CHARS * 3];
+            for (ReplayedName name : names.values()) {
+                int kept = (int) Math.min(name.count, name.locations.length);
+                for (long index = name.count - kept; index < name.count; index++) {
+                    long location = name.locations[(int) (index % name.locations.length)];
+                    ByteBuffer buffer = buffers.get((int) (location >>> 32));
+                    int position = (int) location;
+                    HealthCheckResult result = readResult(buffer, position, scratch);
+                    if (result != null) {
+                        results.add(new ReplayedResult(name.name, buffer.getLong(position + 1 + Integer.BYTES),
+                                result));
+                    }
+                }
+            }
+        }
+        results.forEach(replayed -> visitor.accept(replayed.name(), replayed.epochNanos(), replayed.result()));
+        return results.size();
+    }
+
+    /**
+     * Forces the records written so far to the disk.
+     */
+    public void flush() {
+        synchronized (this.lock) {
+            if (this.active != null) {
+                this.active.force();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+            this.flush();
+            this.closed = true;
+            this.active = null;
+        }
+    }
+
+    /**
+     * @return the segment files, oldest first
+     */
+    public List<Path> getSegments() {
+        synchronized (this.lock) {
+            return this.segments.stream().map(Segment::path).toList();
+        }
+    }
+
+    private void startSegment(long epochNanos) throws IOException {
+        if (this.active != null) {
+            this.active.force();
+        }
+        // segments are named by their start, which must grow even if the clock goes back
+        long start = this.segments.isEmpty() ? epochNanos
+                : Math.max(epochNanos, this.segments.get(this.segments.size() - 1).startEpochNanos() + 1);
+        Segment segment = new Segment(this.directory.resolve(String.format("%020d%s", start, SUFFIX)), start);
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            this.active = channel.map(FileChannel.MapMode.READ_WRITE, 0, this.settings.segmentBytes());
+        }
+        this.active.putInt(MAGIC);
+        this.segments.add(segment);
+        this.nameIds.clear();
+        this.deleteExpired(epochNanos);
+    }
+
+    /**
+     * Continues the latest segment after its last intact record, and learns the names it has written.
+     *
+     * @return the time of the newest result in the segment, or its start if it has none
+     */
+    private long reopen(Segment segment) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            LOGGER.warn("Journal segment {} is not a journal segment, a new one is started", segment.path());
+            return segment.startEpochNanos();
+        }
+        long[] newestEpochNanos = {segment.startEpochNanos()};
+        int end = scan(buffer, this.checksum, (type, position) -> {
+            if (type == NAME_RECORD) {
+                this.nameIds.put(readName(buffer, position), buffer.getInt(position + 1));
+            } else {
+                newestEpochNanos[0] = Math.max(newestEpochNanos[0], buffer.getLong(position + 1 + Integer.BYTES));
+            }
+        });
+        if (isDamagedAfter(buffer, end)) {
+            // a damaged record, whatever follows it must not be read as records once it is overwritten
+            LOGGER.warn("Journal segment {} is damaged after {} bytes, the rest is discarded", segment.path(), end);
+            for (int position = end; position < buffer.capacity(); position++) {
+                buffer.put(position, (byte) 0);
+            }
+        }
+        buffer.position(end);
+        this.active = buffer;
+        return newestEpochNanos[0];
+    }
+
+    /**
+     * @return true if the bytes after the last intact record do not read as the end of the segment; a segment may end
+     * with fewer free bytes than a record length takes
+     */
+    private static boolean isDamagedAfter(ByteBuffer buffer, int end) {
+        if (end + Integer.BYTES <= buffer.capacity()) {
+            return buffer.getInt(end) != 0;
+        }
+        for (int position = end; position < buffer.capacity(); position++) {
+            if (buffer.get(position) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private ByteBuffer map(Segment segment, boolean active) {
+        if (active && this.active != null) {
+            return this.active.duplicate().clear();
+        }
+        try (FileChannel channel = FileChannel.open(segment.path(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                LOGGER.warn("Journal segment {} is not a journal segment, it is skipped", segment.path());
+                return null;
+            }
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read journal segment " + segment.path(), e);
+        }
+    }
+
+    /**
+     * Deletes the segments older than the max age, or beyond the max bytes, except the active one.
+     */
+    private void deleteExpired(long nowEpochNanos) {
+        long oldest = nowEpochNanos - this.settings.maxAge().toNanos();
+        long bytes = 0;
+        for (Segment segment : this.segments) {
+            bytes += segment.size();
+        }
+        while (this.segments.size() > 1) {
+            Segment segment = this.segments.get(0);
+            // every record of a segment is older than the start of the next one
+            if (this.segments.get(1).startEpochNanos() >= oldest && bytes <= this.settings.maxBytes()) {
+                break;
+            }
+            long size = segment.size();
+            try {
+                Files.deleteIfExists(segment.path());
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete journal segment {}: {}", segment.path(), e.getMessage());
+                break;
+            }
+            bytes -= size;
+            this.segments.remove(0);
+        }
+    }
+
+    private void writeName(int id, byte[] name) {
+        int start = this.beginRecord(NAME_RECORD);
+        this.active.putInt(id);
+        this.active.putInt(name.length);
+        this.active.put(name);
+        this.endRecord(start);
+    }
+
+    private void writeResult(int id, long epochNanos, HealthCheckResult result, byte[] message, byte[] errorSummary) {
+        int start = this.beginRecord(RESULT_RECORD);
+        this.active.putInt(id);
+        this.active.putLong(epochNanos);
+        this.active.put((byte) result.getStatus().ordinal());
+        Duration timeToLive = result.getTimeToLive();
+        this.active.putLong(timeToLive.compareTo(HistoryRetention.UNLIMITED_AGE) >= 0 ? Long.MAX_VALUE
+                : timeToLive.toNanos());
+        putText(this.active, message);
+        putText(this.active, errorSummary);
+        this.endRecord(start);
+    }
+
+    private int beginRecord(byte type) {
+        int start = this.active.position();
+        this.active.position(start + RECORD_HEADER_BYTES);
+        this.active.put(type);
+        return start;
+    }
+
+    private void endRecord(int start) {
+        int end = this.active.position();
+        this.checksum.reset();
+        this.checksum.update(this.active.duplicate().position(start + RECORD_HEADER_BYTES).limit(end));
+        this.active.putInt(start + Integer.BYTES, (int) this.checksum.getValue());
+        // the length goes last, until then the record reads as the end of the segment
+        this.active.putInt(start, end - start - RECORD_HEADER_BYTES);
+    }
+
+    /**
+     * Walks the intact records of a segment.
+     *
+     * @return the position after the last intact record
+     */
+    private static int scan(ByteBuffer buffer, CRC32C checksum, RecordVisitor visitor) {
+        int position = SEGMENT_HEADER_BYTES;
+        ByteBuffer view = buffer.duplicate();
+        while (position + RECORD_HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            int payload = position + RECORD_HEADER_BYTES;
+            if (length <= 0 || length > buffer.capacity() - payload) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(view.limit(payload + length).position(payload));
+            byte type = buffer.get(payload);
+            if ((int) checksum.getValue() != buffer.getInt(position + Integer.BYTES)
+                    || (type != NAME_RECORD && type != RESULT_RECORD)) {
+                break;
+            }
+            visitor.accept(type, payload);
+            position = payload + length;
+        }
+        return position;
+    }
+
+    private static String readName(ByteBuffer buffer, int position) {
+        int length = buffer.getInt(position + 1 + Integer.BYTES);
+        byte[] name = new byte[length];
+        buffer.get(position + 1 + 2 * Integer.BYTES, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    private static HealthCheckResult readResult(ByteBuffer buffer, int position, byte[] scratch) {
+        int offset = position + 1 + Integer.BYTES + Long.BYTES;
+        int status = buffer.get(offset);
+        if (status < 0 || status >= STATUSES.length) {
+            return null;
+        }
+        offset += 1;
+        long timeToLive = buffer.getLong(offset);
+        offset += Long.BYTES;
+        int messageLength = buffer.getInt(offset);
+        offset += Integer.BYTES;
+        String message = readText(buffer, offset, messageLength, scratch);
+        offset += Math.max(0, messageLength);
+        String errorSummary = readText(buffer, offset + Integer.BYTES, buffer.getInt(offset), scratch);
+
+        HealthCheckResult.Builder<?> builder = HealthCheckResult.builder()
+                .status(STATUSES[status])
+                .message(message)
+                .timeToLive(Duration.ofNanos(timeToLive));
+        if (errorSummary != null) {
+            builder.error(new RecordedError(errorSummary));
+        }
+        return builder.build();
+    }
+
+    private static String readText(ByteBuffer buffer, int position, int length, byte[] scratch) {
+        if (length == NO_TEXT) {
+            return null;
+        }
+        buffer.get(position, scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] text) {
+        if (text == null) {
+            buffer.putInt(NO_TEXT);
+        } else {
+            buffer.putInt(text.length);
+            buffer.put(text);
+        }
+    }
+
+    private static byte[] text(String text) {
+        if (text == null) {
+            return null;
+        }
+        return (text.length() > MAX_TEXT_CHARS ? text.substring(0, MAX_TEXT_CHARS) : text)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] text) {
+        return text != null ? text.length : 0;
+    }
+
+    private static int nameRecordBytes(byte[] name) {
+        return RECORD_HEADER_BYTES + 1 + 2 * Integer.BYTES + name.length;
+    }
+
+    static String summary(Throwable error) {
+        return error instanceof RecordedError ? error.getMessage()
+                : error.getClass().getName() + ": " + error.getMessage();
+    }
+
+    static long epochNanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    /**
+     * Receives the results read back from a journal.
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * @param name       the name of the health check
+         * @param epochNanos the wall-clock time the result was recorded at, in nanoseconds since the epoch
+         * @param result     the result
+         */
+        void accept(String name, long epochNanos, HealthCheckResult result);
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+
+        void accept(byte type, int payload);
+    }
+
+    /**
+     * A segment file, named by the time of its first record.
+     */
+    private record Segment(Path path, long startEpochNanos) {
+
+        static Segment of(Path path) {
+            String fileName = path.getFileName().toString();
+            if (!fileName.endsWith(SUFFIX)) {
+                return null;
+            }
+            try {
+                return new Segment(path, Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length())));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        long size() {
+            try {
+                return Files.size(this.path);
+            } catch (IOException e) {
+                return 0;
+            }
+        }
+    }
+
+    private record ReplayedResult(String name, long epochNanos, HealthCheckResult result) {
+    }
+
+    /**
+     * The locations of the latest results of one name, in a ring as large as the number of results kept.
+     */
+    private static final class ReplayedName {
+
+        private final String name;
+        private final long[] locations;
+        private long count;
+
+        private ReplayedName(String name, int maxResults) {
+            this.name = name;
+            this.locations = new long[maxResults];
+        }
+
+        private void add(long location) {
+            this.locations[(int) (this.count++ % this.locations.length)] = location;
+        }
+    }
+}
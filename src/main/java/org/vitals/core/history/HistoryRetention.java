@@ -0,0 +1,67 @@
+package org.vitals.core.history;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+
+/**
+ * How many results, and how old, the history of one health check or aggregator keeps, how important that history
+ * is when the history store is over its memory budget, and how the results are stored.
+ * <p>
+ * A history that collapses runs keeps consecutive results with the same status, message, time to live and error as
+ * one {@link HistoryRun} with the times it was first and last seen and the number of results in it. It keeps the
+ * first result of each run, and reading it returns one result per run. Its max results and max age then apply to
+ * runs, a run being as old as the last result in it.
+ * </p>
+ *
+ * @param maxResults   the most results, or runs, kept
+ * @param maxAge       the age after which a result is dropped, the latest result is always kept
+ * @param priority     the importance of the history, lower priorities are evicted first when over the memory budget
+ * @param storage      how the results are stored
+ * @param collapseRuns whether consecutive equal results are kept as one run
+ */
+public record HistoryRetention(int maxResults, @Nonnull Duration maxAge, int priority,
+                               @Nonnull HistoryStorage storage, boolean collapseRuns) {
+
+    /**
+     * No age limit.
+     */
+    public static final Duration UNLIMITED_AGE = Duration.ofNanos(Long.MAX_VALUE);
+
+    /**
+     * The latest five results, of any age, at priority 0, stored as objects.
+     */
+    public static final HistoryRetention DEFAULT = new HistoryRetention(5, UNLIMITED_AGE, 0);
+
+    public HistoryRetention {
+        Preconditions.checkArgument(maxResults > 0, "Max results must be greater than zero");
+        Preconditions.checkNotNull(maxAge, "Max age must not be null");
+        Preconditions.checkArgument(!maxAge.isNegative() && !maxAge.isZero(), "Max age must be greater than zero");
+        Preconditions.checkNotNull(storage, "Storage must not be null");
+    }
+
+    public HistoryRetention(int maxResults, @Nonnull Duration maxAge, int priority, @Nonnull HistoryStorage storage) {
+        this(maxResults, maxAge, priority, storage, false);
+    }
+
+    public HistoryRetention(int maxResults, @Nonnull Duration maxAge, int priority) {
+        this(maxResults, maxAge, priority, HistoryStorage.OBJECTS);
+    }
+
+    public static HistoryRetention ofMaxResults(int maxResults) {
+        return new HistoryRetention(maxResults, UNLIMITED_AGE, 0);
+    }
+
+    public HistoryRetention withStorage(@Nonnull HistoryStorage storage) {
+        return new HistoryRetention(this.maxResults, this.maxAge, this.priority, storage, this.collapseRuns);
+    }
+
+    public HistoryRetention withCollapseRuns(boolean collapseRuns) {
+        return new HistoryRetention(this.maxResults, this.maxAge, this.priority, this.storage, collapseRuns);
+    }
+
+    long maxAgeNanos() {
+        return this.maxAge.compareTo(UNLIMITED_AGE) >= 0 ? Long.MAX_VALUE : this.maxAge.toNanos();
+    }
+}
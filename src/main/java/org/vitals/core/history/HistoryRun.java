@@ -0,0 +1,35 @@
+package org.vitals.core.history;
+
+import jakarta.annotation.Nonnull;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Consecutive results of a health check with the same status, message, time to live and error, as a history that
+ * {@link HistoryRetention#collapseRuns() collapses runs} keeps them. In other histories each run holds one result.
+ *
+ * @param result    the first result of the run
+ * @param firstSeen the time the first result was recorded at
+ * @param lastSeen  the time the last result was recorded at
+ * @param count     the number of results in the run
+ */
+public record HistoryRun(@Nonnull HealthCheckResult result, @Nonnull Instant firstSeen, @Nonnull Instant lastSeen,
+                         long count) {
+
+    /**
+     * @return whether two results are the same as far as a history is concerned: their status, message, time to live
+     * and error summary are equal. Their data, times and durations may differ.
+     */
+    static boolean sameOutcome(HealthCheckResult first, HealthCheckResult second) {
+        return first.getStatus() == second.getStatus()
+                && Objects.equals(first.getMessage(), second.getMessage())
+                && Objects.equals(first.getTimeToLive(), second.getTimeToLive())
+                && Objects.equals(errorSummary(first), errorSummary(second));
+    }
+
+    private static String errorSummary(HealthCheckResult result) {
+        return result.getError() != null ? HistoryJournal.summary(result.getError()) : null;
+    }
+}
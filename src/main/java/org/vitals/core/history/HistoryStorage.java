@@ -0,0 +1,25 @@
+package org.vitals.core.history;
+
+/**
+ * How a history stores its results.
+ */
+public enum HistoryStorage {
+
+    /**
+     * Keeps the {@link org.vitals.core.HealthCheck.HealthCheckResult} objects as they were recorded.
+     */
+    OBJECTS,
+
+    /**
+     * Keeps the status, the time to live, the message and a summary of the error of each result in primitive columns
+     * on the heap, 25 bytes per result with the time it was recorded at, and builds result objects only when the
+     * history is read. Messages and error summaries are interned in a table shared by all histories. Data maps are
+     * not kept, and errors come back as {@link RecordedError}s.
+     */
+    COMPACT,
+
+    /**
+     * Like {@link #COMPACT}, with the columns in direct buffers outside the heap.
+     */
+    COMPACT_OFF_HEAP
+}
@@ -0,0 +1,35 @@
+package org.vitals.core.history;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+
+/**
+ * How a {@link HistoryJournal} lays out and retains its segments.
+ *
+ * @param segmentBytes the size of one segment file, a new segment starts when a result does not fit any more
+ * @param maxAge       the age after which a segment is deleted, measured from the start of the next segment
+ * @param maxBytes     the most bytes all segments together may take, the oldest segments are deleted beyond it
+ */
+public record JournalSettings(int segmentBytes, @Nonnull Duration maxAge, long maxBytes) {
+
+    /**
+     * The smallest segment, which still fits a result with the longest message and error summary.
+     */
+    public static final int MIN_SEGMENT_BYTES = 64 * 1024;
+
+    /**
+     * Segments of 64 MiB, kept for 7 days and up to 1 GiB.
+     */
+    public static final JournalSettings DEFAULT = new JournalSettings(64 * 1024 * 1024, Duration.ofDays(7),
+            1024L * 1024 * 1024);
+
+    public JournalSettings {
+        Preconditions.checkArgument(segmentBytes >= MIN_SEGMENT_BYTES,
+                "Segment bytes must be at least " + MIN_SEGMENT_BYTES);
+        Preconditions.checkNotNull(maxAge, "Max age must not be null");
+        Preconditions.checkArgument(!maxAge.isNegative() && !maxAge.isZero(), "Max age must be greater than zero");
+        Preconditions.checkArgument(maxBytes >= segmentBytes, "Max bytes must not be less than the segment bytes");
+    }
+}
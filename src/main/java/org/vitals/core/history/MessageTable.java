@@ -0,0 +1,88 @@
+package org.vitals.core.history;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns the messages of compact histories, so that each slot holds an {@code int} instead of a string. The table
+ * is bounded and never evicts: once it is full, new messages get {@link #OVERFLOW} and the slots keep them as
+ * strings of their own.
+ */
+final class MessageTable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageTable.class);
+
+    static final int NONE = -1;
+    static final int OVERFLOW = -2;
+
+    private final Map<String, Integer> ids;
+    private final AtomicReferenceArray<String> messages;
+    private final AtomicInteger size;
+    private final AtomicInteger messageBytes;
+    private final AtomicBoolean full;
+
+    MessageTable(int capacity) {
+        this.ids = new ConcurrentHashMap<>();
+        this.messages = new AtomicReferenceArray<>(capacity);
+        this.size = new AtomicInteger();
+        this.messageBytes = new AtomicInteger();
+        this.full = new AtomicBoolean();
+    }
+
+    /**
+     * @param message the message, may be null
+     * @return the id of the message, {@link #NONE} if it is null or {@link #OVERFLOW} if the table is full
+     */
+    int idOf(String message) {
+        if (message == null) {
+            return NONE;
+        }
+        Integer id = this.ids.get(message);
+        if (id != null) {
+            return id;
+        }
+        if (this.size.get() >= this.messages.length()) {
+            return this.overflow();
+        }
+        id = this.ids.computeIfAbsent(message, key -> {
+            int next = this.size.getAndIncrement();
+            if (next >= this.messages.length()) {
+                return null;
+            }
+            this.messages.set(next, key);
+            // the string, its map entry and its slot
+            this.messageBytes.addAndGet(40 + key.length() + 36);
+            return next;
+        });
+        return id != null ? id : this.overflow();
+    }
+
+    private int overflow() {
+        if (this.full.compareAndSet(false, true)) {
+            LOGGER.warn("The message table of compact histories is full at {} distinct messages, further messages "
+                    + "and error summaries take a string per result", this.messages.length());
+        }
+        return OVERFLOW;
+    }
+
+    /**
+     * @param id an id returned by {@link #idOf}, other than {@link #OVERFLOW}
+     * @return the message, or null for {@link #NONE}
+     */
+    String message(int id) {
+        return id == NONE ? null : this.messages.get(id);
+    }
+
+    /**
+     * @return the estimated heap taken by the table, in bytes
+     */
+    long estimatedBytes() {
+        return 64 + 4L * this.messages.length() + this.messageBytes.get();
+    }
+}
@@ -0,0 +1,73 @@
+package org.vitals.core.history;
+
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the recorded result objects, see {@link HistoryStorage#OBJECTS}.
+ */
+final class ObjectSlotStore implements SlotStore {
+
+    private final AtomicReferenceArray<HealthCheckResult> slots;
+
+    ObjectSlotStore(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Estimates the heap taken by a result held in a history. A result shared by several slots is counted once per
+     * slot.
+     *
+     * @param result the result, may be null
+     * @return the estimated size in bytes
+     */
+    static long estimateBytes(HealthCheckResult result) {
+        if (result == null) {
+            return 0;
+        }
+        // the result with its status, time to live and data map
+        long bytes = 96;
+        String message = result.getMessage();
+        if (message != null) {
+            bytes += 40 + message.length();
+        }
+        if (result.getError() != null) {
+            bytes += 256;
+        }
+        return bytes + 48L * result.getData().size();
+    }
+
+    @Override
+    public int capacity() {
+        return this.slots.length();
+    }
+
+    @Override
+    public long set(int index, HealthCheckResult result) {
+        return estimateBytes(result) - estimateBytes(this.slots.getAndSet(index, result));
+    }
+
+    @Override
+    public HealthCheckResult get(int index) {
+        return this.slots.get(index);
+    }
+
+    @Override
+    public HealthStatus status(int index) {
+        HealthCheckResult result = this.slots.get(index);
+        return result != null ? result.getStatus() : null;
+    }
+
+    @Override
+    public long clear(int index) {
+        return estimateBytes(this.slots.getAndSet(index, null));
+    }
+
+    @Override
+    public long slotBytes() {
+        // a compressed reference
+        return 4;
+    }
+}
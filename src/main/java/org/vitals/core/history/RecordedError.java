@@ -0,0 +1,14 @@
+package org.vitals.core.history;
+
+/**
+ * Stands in for the error of a result read back from a {@link HistoryStorage#COMPACT} history, which only keeps the
+ * class name and message of the original error. It has no stack trace.
+ */
+public final class RecordedError extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    RecordedError(String summary) {
+        super(summary, null, false, false);
+    }
+}
@@ -0,0 +1,440 @@
+package org.vitals.core.history;
+
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The most recent results of one health check or aggregator, in a ring buffer sized by its {@link HistoryRetention}.
+ * The ring keeps the time each result was recorded at and its latest result, a {@link SlotStore} keeps the results.
+ * <p>
+ * There is one writer at a time, callers serialize {@link #append}, {@link #expire} and {@link #trim} on the ring's
+ * monitor. Readers take no lock and never wait for the writer: every result gets a sequence number, and the writer
+ * bumps {@code claimed} before it overwrites a slot and {@code published} after. Dropping results moves
+ * {@code first} before their slots are cleared. A reader copies the published slots and then drops the ones whose
+ * sequence the writer may have claimed or dropped in the meantime, so a snapshot is always an unbroken run of the
+ * latest results in order, at worst missing its oldest entries. Fences order the slot writes and reads of stores
+ * that use plain memory against {@code claimed}.
+ * </p>
+ * <p>
+ * Results are recorded in time order, so {@link #range} finds the results of a time range by binary search over the
+ * recording times. The ring also counts the results it holds per status, which lets a reader skip a ring that holds
+ * none of the statuses it looks for.
+ * </p>
+ * <p>
+ * A ring that {@link HistoryRetention#collapseRuns() collapses runs} keeps, for each slot, the time its run was last
+ * seen and its number of results besides the time it was first seen. A result that continues the latest run only
+ * updates those two, the writer sets the time before the count. A reader may see a run that grows meanwhile with a
+ * later time than its count accounts for.
+ * </p>
+ */
+final class ResultRing {
+
+    /**
+     * Estimated size of a ring without its results: the ring, its store, its arrays and the map entry that holds it.
+     */
+    private static final long OVERHEAD_BYTES = 192;
+
+    private final HistoryRetention retention;
+    private final long maxAgeNanos;
+    private final SlotStore slots;
+    private final AtomicLongArray recordedAt;
+    private final AtomicIntegerArray statusCounts;
+    // null unless runs are collapsed
+    private final AtomicLongArray lastSeenAt;
+    private final AtomicLongArray runCounts;
+    private volatile long first;
+    private volatile long claimed;
+    private volatile long published;
+    private volatile long resultBytes;
+    private volatile long lastReadNanos;
+    private volatile HealthCheckResult latest;
+    // guarded by the ring's monitor
+    private boolean retired;
+    private HealthCheck healthCheck;
+    private long aggregationOrdinal;
+
+    ResultRing(HistoryRetention retention, MessageTable messageTable, long nowNanos) {
+        this.retention = retention;
+        this.maxAgeNanos = retention.maxAgeNanos();
+        this.slots = SlotStore.create(retention.storage(), retention.maxResults(), messageTable);
+        this.recordedAt = new AtomicLongArray(retention.maxResults());
+        this.statusCounts = new AtomicIntegerArray(HealthStatus.values().length);
+        this.lastSeenAt = retention.collapseRuns() ? new AtomicLongArray(retention.maxResults()) : null;
+        this.runCounts = retention.collapseRuns() ? new AtomicLongArray(retention.maxResults()) : null;
+        this.lastReadNanos = nowNanos;
+    }
+
+    HistoryRetention retention() {
+        return this.retention;
+    }
+
+    /**
+     * @return the estimated heap taken by the ring and the results it holds, in bytes
+     */
+    long estimatedBytes() {
+        // each slot also has a timestamp, and with runs the time it was last seen and a count
+        long slotBytes = (this.runCounts != null ? 3 * Long.BYTES : Long.BYTES) + this.slots.slotBytes();
+        return OVERHEAD_BYTES + slotBytes * this.slots.capacity() + this.resultBytes;
+    }
+
+    /**
+     * @return the {@link org.vitals.core.util.TimeSource#nanoTime()} of the last read, or of the ring's creation
+     */
+    long lastReadNanos() {
+        return this.lastReadNanos;
+    }
+
+    /**
+     * Marks the ring as replaced by another one. Must be called on the ring's monitor, which writers check with
+     * {@link #isRetired()} before they append.
+     */
+    void retire() {
+        this.retired = true;
+    }
+
+    boolean isRetired() {
+        return this.retired;
+    }
+
+    /**
+     * @return the health check whose results the ring holds, or null for an aggregator. Read on the ring's monitor.
+     */
+    HealthCheck healthCheck() {
+        return this.healthCheck;
+    }
+
+    void setHealthCheck(HealthCheck healthCheck) {
+        this.healthCheck = healthCheck;
+    }
+
+    /**
+     * @return the ordinal of the latest incremental aggregator that counts the ring's latest result, or a negative
+     * value if no aggregator counts it any more. Read on the ring's monitor.
+     */
+    long aggregationOrdinal() {
+        return this.aggregationOrdinal;
+    }
+
+    void setAggregationOrdinal(long aggregationOrdinal) {
+        this.aggregationOrdinal = aggregationOrdinal;
+    }
+
+    /**
+     * Adds a result, replacing the oldest one if the ring is full, or adds it to the latest run if the ring collapses
+     * runs and the result continues it. Then drops results older than the max age. Must not be called concurrently.
+     *
+     * @param result   the result
+     * @param nowNanos the time the result is recorded at
+     * @return the latest result before this one, or null if there was none
+     */
+    HealthCheckResult append(HealthCheckResult result, long nowNanos) {
+        HealthCheckResult previous = this.latest;
+        if (this.runCounts != null && previous != null && HistoryRun.sameOutcome(previous, result)) {
+            int index = this.index(this.published - 1);
+            if (nowNanos >= this.lastSeenAt.get(index)) {
+                this.lastSeenAt.set(index, nowNanos);
+                this.runCounts.incrementAndGet(index);
+                this.latest = result;
+                this.expire(nowNanos);
+                return previous;
+            }
+        }
+        this.appendRun(result, nowNanos, nowNanos, 1);
+        return previous;
+    }
+
+    /**
+     * Adds a run to a new slot, replacing the oldest one if the ring is full. A ring that does not collapse runs keeps
+     * the run's result at its last seen time. Must not be called concurrently with the other writes, and runs must
+     * come in time order.
+     *
+     * @param result     the result the run was recorded with
+     * @param firstNanos the time the run was first seen
+     * @param lastNanos  the time the run was last seen
+     * @param count      the number of results in the run
+     */
+    void appendRun(HealthCheckResult result, long firstNanos, long lastNanos, long count) {
+        int capacity = this.slots.capacity();
+        long sequence = this.published;
+        if (sequence - capacity >= this.first) {
+            this.first = sequence - capacity + 1;
+        }
+        this.claimed = sequence + 1;
+        // the slot must not be written before readers can see that it is claimed
+        VarHandle.releaseFence();
+        int index = this.index(sequence);
+        this.uncountStatus(index);
+        this.statusCounts.incrementAndGet(result.getStatus().ordinal());
+        if (this.runCounts != null) {
+            this.recordedAt.set(index, firstNanos);
+            this.lastSeenAt.set(index, lastNanos);
+            this.runCounts.set(index, count);
+        } else {
+            this.recordedAt.set(index, lastNanos);
+        }
+        long resultBytesChange = this.slots.set(index, result);
+        this.latest = result;
+        this.published = sequence + 1;
+        this.resultBytes += resultBytesChange;
+        this.expire(lastNanos);
+    }
+
+    /**
+     * Appends the results or runs held by another ring, oldest first, with the times they were recorded at. Must not
+     * be called concurrently with the other writes of either ring.
+     *
+     * @param source the ring to copy
+     */
+    void appendAll(ResultRing source) {
+        long last = source.published - 1;
+        for (long sequence = source.first; sequence <= last; sequence++) {
+            int index = source.index(sequence);
+            // the latest result as it was recorded, a compact store may only keep part of it
+            HealthCheckResult result = sequence == last ? source.latest : source.slots.get(index);
+            if (source.runCounts != null) {
+                this.appendRun(result, source.recordedAt.get(index), source.lastSeenAt.get(index),
+                        source.runCounts.get(index));
+            } else {
+                this.append(result, source.recordedAt.get(index));
+            }
+        }
+    }
+
+    /**
+     * Drops the results older than the max age, except the latest one. Must not be called concurrently with the
+     * other writes.
+     *
+     * @param nowNanos the current time
+     */
+    void expire(long nowNanos) {
+        if (this.maxAgeNanos == Long.MAX_VALUE) {
+            return;
+        }
+        long sequence = this.first;
+        long last = this.published - 1;
+        while (sequence < last && nowNanos - this.lastSeen(this.index(sequence)) > this.maxAgeNanos) {
+            sequence++;
+        }
+        this.dropBefore(sequence);
+    }
+
+    /**
+     * Drops all results but the latest {@code keep}. Must not be called concurrently with the other writes.
+     *
+     * @param keep the number of results to keep, at least one
+     */
+    void trim(int keep) {
+        this.dropBefore(this.published - keep);
+    }
+
+    private void dropBefore(long sequence) {
+        long from = this.first;
+        if (sequence <= from) {
+            return;
+        }
+        this.first = sequence;
+        // as in append, the slots must not be cleared before readers can see that they are dropped
+        VarHandle.releaseFence();
+        long freed = 0;
+        for (long dropped = from; dropped < sequence; dropped++) {
+            this.uncountStatus(this.index(dropped));
+            freed += this.slots.clear(this.index(dropped));
+        }
+        this.resultBytes -= freed;
+    }
+
+    private void uncountStatus(int index) {
+        HealthStatus status = this.slots.status(index);
+        if (status != null) {
+            this.statusCounts.decrementAndGet(status.ordinal());
+        }
+    }
+
+    /**
+     * @param statuses the statuses
+     * @return whether the ring may hold a result with one of the statuses, which it does unless one is being dropped
+     */
+    boolean mayContain(Set<HealthStatus> statuses) {
+        for (HealthStatus status : statuses) {
+            if (this.statusCounts.get(status.ordinal()) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the latest result, or null if there is none
+     */
+    HealthCheckResult latest() {
+        return this.latest;
+    }
+
+    /**
+     * @param nowNanos the current time, which results older than the max age are dropped by and which the ring
+     *                 records as its last read
+     * @return the results, oldest first
+     */
+    List<HealthCheckResult> snapshot(long nowNanos) {
+        this.lastReadNanos = nowNanos;
+        int capacity = this.slots.capacity();
+        while (true) {
+            long end = this.published;
+            long start = Math.max(this.first, end - capacity);
+            if (start >= end) {
+                return Collections.emptyList();
+            }
+            HealthCheckResult[] copy = new HealthCheckResult[(int) (end - start)];
+            long[] times = new long[copy.length];
+            int index = this.index(start);
+            for (int i = 0; i < copy.length; i++) {
+                times[i] = this.lastSeen(index);
+                copy[i] = this.slots.get(index);
+                if (++index == capacity) {
+                    index = 0;
+                }
+            }
+            // slots whose sequence plus the capacity has been claimed may hold a newer result by now, and dropped
+            // slots may have been cleared
+            VarHandle.acquireFence();
+            long firstValid = Math.max(Math.max(start, this.claimed - capacity), this.first);
+            if (firstValid >= end) {
+                // the writer went round the whole ring while the slots were copied
+                continue;
+            }
+            while (firstValid < end - 1 && nowNanos - times[(int) (firstValid - start)] > this.maxAgeNanos) {
+                firstValid++;
+            }
+            List<HealthCheckResult> results = Arrays.asList(copy);
+            return Collections.unmodifiableList(firstValid == start ? results
+                    : results.subList((int) (firstValid - start), copy.length));
+        }
+    }
+
+    /**
+     * Reads the latest runs seen in a time range, looking only at the slots in the range and building only the
+     * results it returns. A run is in the range if it was first seen before its end and last seen at or after its
+     * start. Unlike a {@link #snapshot}, the read starts over if the writer overwrote a slot in the meantime.
+     *
+     * @param fromNanos the start of the range, inclusive
+     * @param toNanos   the end of the range, exclusive
+     * @param statuses  the statuses of the runs to return, or null for all
+     * @param limit     the most runs to return, the latest ones are kept
+     * @param nowNanos  the current time, as in {@link #snapshot}
+     * @param mapper    maps each run to what is returned, once the read is known to be consistent
+     * @return the mapped runs, oldest first
+     */
+    <T> List<T> range(long fromNanos, long toNanos, Set<HealthStatus> statuses, int limit, long nowNanos,
+                      RunMapper<T> mapper) {
+        this.lastReadNanos = nowNanos;
+        int capacity = this.slots.capacity();
+        AtomicLongArray seenAt = this.lastSeenAt != null ? this.lastSeenAt : this.recordedAt;
+        long maxAgeFrom = nowNanos - this.maxAgeNanos;
+        if (maxAgeFrom > nowNanos) {
+            maxAgeFrom = Long.MIN_VALUE;
+        }
+        while (true) {
+            long end = this.published;
+            // leaves out a slot the writer is overwriting right now
+            long start = Math.max(this.first, this.claimed - capacity);
+            if (start >= end) {
+                return Collections.emptyList();
+            }
+            // the latest run is kept whatever its age
+            long from = Math.max(this.search(seenAt, start, end, fromNanos),
+                    Math.min(this.search(seenAt, start, end, maxAgeFrom), end - 1));
+            long to = this.search(this.recordedAt, from, end, toNanos);
+            int size = (int) Math.min(limit, to - from);
+            HealthCheckResult[] found = new HealthCheckResult[size];
+            long[] sequences = new long[size];
+            long[] counts = new long[size];
+            long[] firstSeen = new long[size];
+            long[] lastSeen = new long[size];
+            int count = 0;
+            for (long sequence = to - 1; sequence >= from && count < size; sequence--) {
+                int index = this.index(sequence);
+                if (statuses != null) {
+                    HealthStatus status = this.slots.status(index);
+                    if (status == null || !statuses.contains(status)) {
+                        continue;
+                    }
+                }
+                HealthCheckResult result = this.slots.get(index);
+                if (result != null) {
+                    found[count] = result;
+                    // the count before the time, the writer sets them the other way round
+                    counts[count] = this.runCounts != null ? this.runCounts.get(index) : 1;
+                    lastSeen[count] = seenAt.get(index);
+                    firstSeen[count] = this.recordedAt.get(index);
+                    sequences[count++] = sequence;
+                }
+            }
+            VarHandle.acquireFence();
+            if (this.claimed - capacity > start) {
+                // the search or the copies may have seen a newer result
+                continue;
+            }
+            // results dropped meantime are the oldest ones found
+            long first = this.first;
+            while (count > 0 && sequences[count - 1] < first) {
+                count--;
+            }
+            List<T> runs = new ArrayList<>(count);
+            for (int i = count - 1; i >= 0; i--) {
+                runs.add(mapper.map(found[i], firstSeen[i], lastSeen[i], counts[i]));
+            }
+            return Collections.unmodifiableList(runs);
+        }
+    }
+
+    /**
+     * @return the first sequence from {@code start} to {@code end}, exclusive, whose time in a column is at or after
+     * a time, or {@code end} if there is none
+     */
+    private long search(AtomicLongArray column, long start, long end, long nanos) {
+        long low = start;
+        long high = end;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (column.get(this.index(middle)) < nanos) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long lastSeen(int index) {
+        return this.lastSeenAt != null ? this.lastSeenAt.get(index) : this.recordedAt.get(index);
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence % this.slots.capacity());
+    }
+
+    /**
+     * Receives a run read by {@link #range}.
+     */
+    @FunctionalInterface
+    interface RunMapper<T> {
+
+        /**
+         * @param result     the result the run was recorded with
+         * @param firstNanos the time the run was first seen
+         * @param lastNanos  the time the run was last seen
+         * @param count      the number of results in the run
+         */
+        T map(HealthCheckResult result, long firstNanos, long lastNanos, long count);
+    }
+}
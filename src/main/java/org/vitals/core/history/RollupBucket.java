@@ -0,0 +1,58 @@
+package org.vitals.core.history;
+
+import jakarta.annotation.Nonnull;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The results of a health check in one bucket of a {@link RollupTier}.
+ *
+ * @param tier          the tier
+ * @param start         the start of the bucket, a multiple of the tier's width since the epoch
+ * @param counts        the number of results in each status, statuses without results are left out
+ * @param timeInStatus  how long the health check was in each status during the bucket, as far as it was observed
+ * @param timedResults  the number of results that carried an execution duration
+ * @param minDuration   the shortest execution duration, zero without timed results
+ * @param avgDuration   the average execution duration, zero without timed results
+ * @param maxDuration   the longest execution duration, zero without timed results
+ */
+public record RollupBucket(@Nonnull RollupTier tier, @Nonnull Instant start, @Nonnull Map<HealthStatus, Long> counts,
+                           @Nonnull Map<HealthStatus, Duration> timeInStatus, long timedResults,
+                           @Nonnull Duration minDuration, @Nonnull Duration avgDuration,
+                           @Nonnull Duration maxDuration) {
+
+    /**
+     * Statuses in which a health check counts as available.
+     */
+    public static final Set<HealthStatus> AVAILABLE = Set.of(HealthStatus.HEALTHY, HealthStatus.DEGRADED,
+            HealthStatus.WARNING);
+    /**
+     * Statuses whose time counts neither for nor against availability, planned downtime and the time before the
+     * first real result.
+     */
+    public static final Set<HealthStatus> UNOBSERVED = Set.of(HealthStatus.MAINTENANCE, HealthStatus.DISABLED,
+            HealthStatus.INITIALIZING, HealthStatus.UNKNOWN);
+
+    public RollupBucket {
+        counts = Map.copyOf(counts);
+        timeInStatus = Map.copyOf(timeInStatus);
+    }
+
+    /**
+     * @return the end of the bucket, exclusive
+     */
+    public Instant end() {
+        return this.start.plus(this.tier.getWidth());
+    }
+
+    /**
+     * @return the number of results in the bucket
+     */
+    public long total() {
+        return this.counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,36 @@
+package org.vitals.core.history;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+
+/**
+ * How many buckets of each {@link RollupTier} a health check keeps. Each bucket takes the same memory, whatever it
+ * holds, so the rollups of a health check take fixed memory.
+ *
+ * @param minuteBuckets the number of minute buckets, the span of the minute tier in minutes
+ * @param hourBuckets   the number of hour buckets, the span of the hour tier in hours
+ */
+public record RollupSettings(int minuteBuckets, int hourBuckets) {
+
+    /**
+     * The last two hours by the minute and the last seven days by the hour.
+     */
+    public static final RollupSettings DEFAULT = new RollupSettings(120, 7 * 24);
+
+    public RollupSettings {
+        Preconditions.checkArgument(minuteBuckets > 0, "Minute buckets must be greater than zero");
+        Preconditions.checkArgument(hourBuckets > 0, "Hour buckets must be greater than zero");
+    }
+
+    int buckets(RollupTier tier) {
+        return tier == RollupTier.MINUTE ? this.minuteBuckets : this.hourBuckets;
+    }
+
+    /**
+     * @return how far back the tier reaches
+     */
+    public Duration span(RollupTier tier) {
+        return tier.getWidth().multipliedBy(this.buckets(tier));
+    }
+}
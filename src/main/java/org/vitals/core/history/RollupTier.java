@@ -0,0 +1,25 @@
+package org.vitals.core.history;
+
+import java.time.Duration;
+
+/**
+ * The granularities that results are rolled up at.
+ */
+public enum RollupTier {
+
+    MINUTE(Duration.ofMinutes(1)),
+    HOUR(Duration.ofHours(1));
+
+    private final Duration width;
+
+    RollupTier(Duration width) {
+        this.width = width;
+    }
+
+    /**
+     * @return the time one bucket of the tier covers
+     */
+    public Duration getWidth() {
+        return this.width;
+    }
+}
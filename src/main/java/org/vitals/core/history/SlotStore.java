@@ -0,0 +1,59 @@
+package org.vitals.core.history;
+
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+/**
+ * The slots of a {@link ResultRing}. The ring decides which slots are valid and orders the writes to them, a store
+ * only keeps what is written to a slot. A slot can be read while it is overwritten, the ring discards such reads.
+ */
+interface SlotStore {
+
+    static SlotStore create(HistoryStorage storage, int capacity, MessageTable messageTable) {
+        return switch (storage) {
+            case OBJECTS -> new ObjectSlotStore(capacity);
+            case COMPACT -> new CompactSlotStore(capacity, messageTable, false);
+            case COMPACT_OFF_HEAP -> new CompactSlotStore(capacity, messageTable, true);
+        };
+    }
+
+    int capacity();
+
+    /**
+     * Writes a result to a slot.
+     *
+     * @param index  the slot
+     * @param result the result
+     * @return the estimated change of the memory taken by results, in bytes
+     */
+    long set(int index, HealthCheckResult result);
+
+    /**
+     * Reads the result in a slot, building it if the store does not keep result objects.
+     *
+     * @param index the slot
+     * @return the result, or null if the slot is empty
+     */
+    HealthCheckResult get(int index);
+
+    /**
+     * Reads the status of the result in a slot, without building the result.
+     *
+     * @param index the slot
+     * @return the status, or null if the slot is empty
+     */
+    HealthStatus status(int index);
+
+    /**
+     * Empties a slot.
+     *
+     * @param index the slot
+     * @return the estimated memory freed, in bytes
+     */
+    long clear(int index);
+
+    /**
+     * @return the estimated memory taken by one slot, whatever it holds, in bytes
+     */
+    long slotBytes();
+}
@@ -0,0 +1,291 @@
+package org.vitals.core.history;
+
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rollups of one health check, a ring of buckets per {@link RollupTier}, updated as its results arrive. The time
+ * between two results is added to the status of the first one. Times are wall-clock milliseconds since the epoch.
+ * <p>
+ * Buckets are kept in primitive columns sized once, a bucket is reused when the ring comes round to it again.
+ * Updates and reads are serialized on the rollup's monitor.
+ * </p>
+ */
+final class StatusRollup {
+
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+    private static final long NO_RESULT = Long.MIN_VALUE;
+
+    private final RollupSettings settings;
+    private final Tier[] tiers;
+    private HealthStatus lastStatus;
+    private long lastMillis;
+
+    StatusRollup(RollupSettings settings) {
+        this.settings = settings;
+        RollupTier[] rollupTiers = RollupTier.values();
+        this.tiers = new Tier[rollupTiers.length];
+        for (int i = 0; i < rollupTiers.length; i++) {
+            this.tiers[i] = new Tier(rollupTiers[i], settings.buckets(rollupTiers[i]));
+        }
+        this.lastMillis = NO_RESULT;
+    }
+
+    RollupSettings settings() {
+        return this.settings;
+    }
+
+    /**
+     * @return the estimated memory taken by the rollups of one health check, in bytes
+     */
+    static long estimateBytes(RollupSettings settings) {
+        long bytes = 64;
+        for (RollupTier tier : RollupTier.values()) {
+            bytes += Tier.OVERHEAD_BYTES + Tier.BUCKET_BYTES * settings.buckets(tier);
+        }
+        return bytes;
+    }
+
+    /**
+     * Counts a result and adds the time since the previous one to the previous status. A result older than the
+     * previous one only counts.
+     *
+     * @param result         the result
+     * @param epochMillis    the time the result was recorded at
+     * @param durationMicros the execution duration, negative if the result has none
+     */
+    synchronized void record(HealthCheckResult result, long epochMillis, long durationMicros) {
+        if (this.lastStatus != null && epochMillis > this.lastMillis) {
+            for (Tier tier : this.tiers) {
+                tier.addTime(this.lastStatus, this.lastMillis, epochMillis);
+            }
+        }
+        for (Tier tier : this.tiers) {
+            tier.count(result.getStatus(), epochMillis, durationMicros);
+        }
+        if (epochMillis >= this.lastMillis) {
+            this.lastStatus = result.getStatus();
+            this.lastMillis = epochMillis;
+        }
+    }
+
+    /**
+     * Counts a run of results with the same status, spread evenly from the time it was first seen to the time it was
+     * last seen, and adds the time since the previous result and the time the run lasted to the statuses. A run
+     * older than the previous result only counts.
+     *
+     * @param status      the status of the results
+     * @param firstMillis the time the first result was recorded at
+     * @param lastMillis  the time the last result was recorded at
+     * @param count       the number of results
+     */
+    synchronized void recordRun(HealthStatus status, long firstMillis, long lastMillis, long count) {
+        boolean newer = firstMillis >= this.lastMillis;
+        for (Tier tier : this.tiers) {
+            if (this.lastStatus != null && firstMillis > this.lastMillis) {
+                tier.addTime(this.lastStatus, this.lastMillis, firstMillis);
+            }
+            if (newer) {
+                tier.addTime(status, firstMillis, lastMillis);
+            }
+            tier.countRun(status, firstMillis, lastMillis, count);
+        }
+        if (newer) {
+            this.lastStatus = status;
+            this.lastMillis = lastMillis;
+        }
+    }
+
+    /**
+     * Reads the buckets of a tier that overlap a range. The current status counts until now.
+     *
+     * @param tier       the tier
+     * @param fromMillis the start of the range, inclusive
+     * @param toMillis   the end of the range, exclusive
+     * @param nowMillis  the current time
+     * @return the buckets that have results or time in a status, oldest first
+     */
+    synchronized List<RollupBucket> read(RollupTier tier, long fromMillis, long toMillis, long nowMillis) {
+        Tier source = this.tiers[tier.ordinal()];
+        Tier copy = source.copy();
+        if (this.lastStatus != null && nowMillis > this.lastMillis) {
+            copy.addTime(this.lastStatus, this.lastMillis, nowMillis);
+        }
+        return copy.read(fromMillis, toMillis);
+    }
+
+    /**
+     * The buckets of one tier. Bucket {@code i} holds the bucket whose number, its start divided by the width, is
+     * {@code ids[i]}, and its statuses at {@code i * STATUSES.length}.
+     */
+    private static final class Tier {
+
+        private static final long OVERHEAD_BYTES = 7 * 16 + 32;
+        // id, status counts and millis, duration count, min, max and sum
+        private static final long BUCKET_BYTES = Long.BYTES + 2L * Integer.BYTES * STATUSES.length
+                + 3 * Integer.BYTES + Long.BYTES;
+
+        private final RollupTier tier;
+        private final long widthMillis;
+        private final long[] ids;
+        private final int[] counts;
+        private final int[] statusMillis;
+        private final int[] timedResults;
+        private final int[] minMicros;
+        private final int[] maxMicros;
+        private final long[] sumMicros;
+
+        private Tier(RollupTier tier, int buckets) {
+            this.tier = tier;
+            this.widthMillis = tier.getWidth().toMillis();
+            this.ids = new long[buckets];
+            Arrays.fill(this.ids, -1);
+            this.counts = new int[buckets * STATUSES.length];
+            this.statusMillis = new int[buckets * STATUSES.length];
+            this.timedResults = new int[buckets];
+            this.minMicros = new int[buckets];
+            this.maxMicros = new int[buckets];
+            this.sumMicros = new long[buckets];
+        }
+
+        private Tier(Tier source) {
+            this.tier = source.tier;
+            this.widthMillis = source.widthMillis;
+            this.ids = source.ids.clone();
+            this.counts = source.counts.clone();
+            this.statusMillis = source.statusMillis.clone();
+            this.timedResults = source.timedResults.clone();
+            this.minMicros = source.minMicros.clone();
+            this.maxMicros = source.maxMicros.clone();
+            this.sumMicros = source.sumMicros.clone();
+        }
+
+        private Tier copy() {
+            return new Tier(this);
+        }
+
+        private void count(HealthStatus status, long epochMillis, long durationMicros) {
+            int bucket = this.bucket(epochMillis / this.widthMillis);
+            if (bucket < 0) {
+                return;
+            }
+            this.counts[bucket * STATUSES.length + status.ordinal()]++;
+            if (durationMicros >= 0) {
+                int micros = (int) Math.min(durationMicros, Integer.MAX_VALUE);
+                if (this.timedResults[bucket] == 0 || micros < this.minMicros[bucket]) {
+                    this.minMicros[bucket] = micros;
+                }
+                if (micros > this.maxMicros[bucket]) {
+                    this.maxMicros[bucket] = micros;
+                }
+                this.sumMicros[bucket] += micros;
+                this.timedResults[bucket]++;
+            }
+        }
+
+        private void countRun(HealthStatus status, long firstMillis, long lastMillis, long count) {
+            // only the buckets the ring still holds
+            long lastId = lastMillis / this.widthMillis;
+            long firstId = Math.max(firstMillis / this.widthMillis, lastId - this.ids.length + 1);
+            long counted = resultsBefore(firstId * this.widthMillis, firstMillis, lastMillis, count);
+            for (long id = firstId; id <= lastId; id++) {
+                long before = resultsBefore((id + 1) * this.widthMillis, firstMillis, lastMillis, count);
+                int bucket = this.bucket(id);
+                if (bucket >= 0 && before > counted) {
+                    this.counts[bucket * STATUSES.length + status.ordinal()] += (int) (before - counted);
+                }
+                counted = before;
+            }
+        }
+
+        /**
+         * @return how many of a run's results, spread evenly from its first to its last one, come before a time
+         */
+        private static long resultsBefore(long millis, long firstMillis, long lastMillis, long count) {
+            if (millis <= firstMillis) {
+                return 0;
+            }
+            if (millis > lastMillis) {
+                return count;
+            }
+            // result i is at firstMillis + i * (lastMillis - firstMillis) / (count - 1)
+            return Math.max(1, Math.min(count, (long) Math.ceil((double) (millis - firstMillis) * (count - 1)
+                    / (lastMillis - firstMillis))));
+        }
+
+        private void addTime(HealthStatus status, long fromMillis, long toMillis) {
+            // only the buckets the ring still holds
+            long from = Math.max(fromMillis, (toMillis / this.widthMillis - this.ids.length + 1) * this.widthMillis);
+            while (from < toMillis) {
+                long id = from / this.widthMillis;
+                long end = Math.min(toMillis, (id + 1) * this.widthMillis);
+                int bucket = this.bucket(id);
+                if (bucket >= 0) {
+                    this.statusMillis[bucket * STATUSES.length + status.ordinal()] += (int) (end - from);
+                }
+                from = end;
+            }
+        }
+
+        /**
+         * @return the index of the bucket with the given id, cleared if it held an older bucket, or -1 if it holds
+         * a newer one
+         */
+        private int bucket(long id) {
+            int bucket = (int) Math.floorMod(id, (long) this.ids.length);
+            long current = this.ids[bucket];
+            if (current == id) {
+                return bucket;
+            }
+            if (current > id) {
+                return -1;
+            }
+            this.ids[bucket] = id;
+            Arrays.fill(this.counts, bucket * STATUSES.length, (bucket + 1) * STATUSES.length, 0);
+            Arrays.fill(this.statusMillis, bucket * STATUSES.length, (bucket + 1) * STATUSES.length, 0);
+            this.timedResults[bucket] = 0;
+            this.minMicros[bucket] = 0;
+            this.maxMicros[bucket] = 0;
+            this.sumMicros[bucket] = 0;
+            return bucket;
+        }
+
+        private List<RollupBucket> read(long fromMillis, long toMillis) {
+            List<RollupBucket> buckets = new ArrayList<>();
+            long newestId = Arrays.stream(this.ids).max().orElse(-1);
+            long firstId = Math.max(fromMillis / this.widthMillis, newestId - this.ids.length + 1);
+            long lastId = Math.min((toMillis - 1) / this.widthMillis, newestId);
+            for (long id = firstId; id <= lastId; id++) {
+                int bucket = (int) Math.floorMod(id, (long) this.ids.length);
+                if (this.ids[bucket] != id) {
+                    continue;
+                }
+                Map<HealthStatus, Long> bucketCounts = new EnumMap<>(HealthStatus.class);
+                Map<HealthStatus, Duration> timeInStatus = new EnumMap<>(HealthStatus.class);
+                for (HealthStatus status : STATUSES) {
+                    int index = bucket * STATUSES.length + status.ordinal();
+                    if (this.counts[index] > 0) {
+                        bucketCounts.put(status, (long) this.counts[index]);
+                    }
+                    if (this.statusMillis[index] > 0) {
+                        timeInStatus.put(status, Duration.ofMillis(this.statusMillis[index]));
+                    }
+                }
+                int timed = this.timedResults[bucket];
+                buckets.add(new RollupBucket(this.tier, Instant.ofEpochMilli(id * this.widthMillis), bucketCounts,
+                        timeInStatus, timed, Duration.ofNanos(this.minMicros[bucket] * 1000L),
+                        timed > 0 ? Duration.ofNanos(this.sumMicros[bucket] / timed * 1000L) : Duration.ZERO,
+                        Duration.ofNanos(this.maxMicros[bucket] * 1000L)));
+            }
+            return buckets;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.annotation.Nonnull;
 import jakarta.annotation.Nullable;
 import org.vitals.core.HealthCheck;
 import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.slo.BurnAlert;
 
 import java.util.EventListener;
 import java.util.Set;
@@ -89,4 +90,17 @@ public interface HealthEventListener extends EventListener {
         default void onAllHealthChecksCleared() {
         }
 
+        /**
+         * Triggered when an error budget burn alert starts or stops firing.
+         *
+         * @param name                The name of the HealthCheck or aggregator.
+         * @param alert               The alert.
+         * @param longWindowBurnRate  The burn rate over the alert's long window.
+         * @param shortWindowBurnRate The burn rate over the alert's short window.
+         * @param burning             Whether the alert started firing, or stopped.
+         */
+        default void onErrorBudgetBurn(@Nonnull String name, @Nonnull BurnAlert alert, double longWindowBurnRate,
+                                       double shortWindowBurnRate, boolean burning) {
+        }
+
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ import org.vitals.core.event.*;
 import org.vitals.core.filter.HealthCheckFilter;
 import org.vitals.core.filter.HealthCheckFilterContext;
 import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.slo.BurnAlert;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -295,6 +296,8 @@ public class StatusUpdateDelegate implements HealthEventListener, HealthEventLis
         } else if (event instanceof AllHealthChecksClearedEvent) {
             // This is already valid Java 17
             return new HealthCheckFilterContext(null, null, null, null);
+        } else if (event instanceof ErrorBudgetBurnEvent burnEvent) {
+            return new HealthCheckFilterContext(burnEvent.name(), null, null, null);
         }
         return null; // Should ideally not happen if all HealthEvent types are covered
     }
@@ -348,6 +351,14 @@ public class StatusUpdateDelegate implements HealthEventListener, HealthEventLis
             );
         } else if (event instanceof AllHealthChecksClearedEvent) {
             listener.onAllHealthChecksCleared();
+        } else if (event instanceof ErrorBudgetBurnEvent burnEvent) {
+            listener.onErrorBudgetBurn(
+                    burnEvent.name(),
+                    burnEvent.alert(),
+                    burnEvent.longWindowBurnRate(),
+                    burnEvent.shortWindowBurnRate(),
+                    burnEvent.burning()
+            );
         }
     }
 
@@ -397,4 +408,10 @@ public class StatusUpdateDelegate implements HealthEventListener, HealthEventLis
         this.publish(new AllHealthChecksClearedEvent());
     }
 
+    @Override
+    public void onErrorBudgetBurn(@Nonnull String name, @Nonnull BurnAlert alert, double longWindowBurnRate,
+                                  double shortWindowBurnRate, boolean burning) {
+        this.publish(new ErrorBudgetBurnEvent(name, alert, longWindowBurnRate, shortWindowBurnRate, burning));
+    }
+
 }
\ No newline at end of file
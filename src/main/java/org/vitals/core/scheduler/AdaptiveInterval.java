@@ -0,0 +1,27 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+
+/**
+ * Lets a periodic health check back off while it stays healthy. After every run with the same healthy status as the
+ * run before, the interval is multiplied by {@code multiplier}, up to {@code maxInterval}. As soon as the status
+ * changes or the check reports anything other than healthy, the interval snaps back to the schedule's period.
+ *
+ * @param maxInterval the longest interval the check backs off to
+ * @param multiplier  the factor applied to the interval after each unchanged healthy run, greater than 1
+ */
+public record AdaptiveInterval(@Nonnull Duration maxInterval, double multiplier) {
+
+    public AdaptiveInterval {
+        Preconditions.checkNotNull(maxInterval, "Max interval must not be null");
+        Preconditions.checkArgument(maxInterval.compareTo(Duration.ZERO) > 0, "Max interval must be greater than zero");
+        Preconditions.checkArgument(multiplier > 1.0, "Multiplier must be greater than one");
+    }
+
+    public AdaptiveInterval(@Nonnull Duration maxInterval) {
+        this(maxInterval, 2.0);
+    }
+}
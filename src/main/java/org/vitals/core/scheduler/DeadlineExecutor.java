@@ -0,0 +1,102 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed number of threads that always take the queued task with the earliest deadline. Tasks with the same
+ * deadline run in the order they were submitted. Deadlines are {@code nanoTime} values and are compared by their
+ * difference, so they may wrap around.
+ */
+public final class DeadlineExecutor implements AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeadlineExecutor.class);
+
+    private final PriorityBlockingQueue<Entry> queue;
+    private final AtomicLong sequence;
+    private final List<Thread> workers;
+    private volatile boolean closed;
+
+    /**
+     * @param threads    the number of worker threads
+     * @param threadName the prefix of the worker thread names
+     */
+    public DeadlineExecutor(int threads, @Nonnull String threadName) {
+        Preconditions.checkArgument(threads > 0, "Thread count must be greater than zero");
+        Preconditions.checkNotNull(threadName, "Thread name must not be null");
+
+        this.queue = new PriorityBlockingQueue<>(64, DeadlineExecutor::compare);
+        this.sequence = new AtomicLong();
+        this.workers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::work, threadName + "-" + i);
+            worker.setDaemon(true);
+            this.workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a task.
+     *
+     * @param task          the task
+     * @param deadlineNanos the deadline that orders the task among the queued ones
+     * @throws RejectedExecutionException if the executor is closed
+     */
+    public void execute(@Nonnull Runnable task, long deadlineNanos) {
+        Preconditions.checkNotNull(task, "Task must not be null");
+        if (this.closed) {
+            throw new RejectedExecutionException("Deadline executor is closed");
+        }
+        this.queue.add(new Entry(task, deadlineNanos, this.sequence.getAndIncrement()));
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public int getQueuedTaskCount() {
+        return this.queue.size();
+    }
+
+    /**
+     * Stops the worker threads. Queued tasks are dropped, running tasks are interrupted.
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.workers.forEach(Thread::interrupt);
+        this.queue.clear();
+    }
+
+    private void work() {
+        while (!this.closed) {
+            Entry entry;
+            try {
+                entry = this.queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            try {
+                entry.task().run();
+            } catch (Exception e) {
+                LOGGER.error("Exception occurred while running a task: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static int compare(Entry first, Entry second) {
+        int byDeadline = Long.signum(first.deadlineNanos() - second.deadlineNanos());
+        return byDeadline != 0 ? byDeadline : Long.compare(first.sequence(), second.sequence());
+    }
+
+    private record Entry(Runnable task, long deadlineNanos, long sequence) {
+    }
+}
@@ -2,26 +2,157 @@ package org.vitals.core.scheduler;
 
 import com.google.common.base.Preconditions;
 import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.annotation.AsyncHealthCheck.OverrunPolicy;
+import org.vitals.core.annotation.AsyncHealthCheck.PhaseSpreading;
+import org.vitals.core.annotation.AsyncHealthCheck.ScheduleType;
+import org.vitals.core.event.HealthCheckStatusChangedEvent;
+import org.vitals.core.executor.DefaultHealthCheckExecutor.ExecutionResult;
 import org.vitals.core.executor.HealthCheckExecutor;
+import org.vitals.core.filter.HealthCheckFilter;
+import org.vitals.core.filter.HealthCheckFilterContext;
+import org.vitals.core.listener.HealthEventListener;
+import org.vitals.core.registry.HealthCheckRegistry;
+import org.vitals.core.scheduler.cron.CronExpression;
+import org.vitals.core.scheduler.cron.CronTimer;
+import org.vitals.core.scheduler.timer.ExecutorTaskTimer;
+import org.vitals.core.scheduler.timer.HashedWheelTimer;
+import org.vitals.core.scheduler.timer.TaskTimer;
+import org.vitals.core.util.TimeSource;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class DefaultHealthCheckScheduler implements AutoCloseable, HealthCheckScheduler {
+/**
+ * Default {@link HealthCheckScheduler}.
+ * <p>
+ * Periodic health checks are armed one tick at a time on a {@link TaskTimer}: each tick dispatches the check to the
+ * {@link HealthCheckExecutor} and re-arms the next tick. By default the timer is backed by the
+ * {@link InternalScheduler}; for very large numbers of periodic checks a {@link HashedWheelTimer} can be supplied
+ * instead. Cron-scheduled checks share a single {@link CronTimer} armed on the same timer.
+ * </p>
+ * <p>
+ * {@link ScheduleType#FIXED_RATE} checks without jitter or an adaptive interval are grouped into tick buckets: checks
+ * with the same period whose phases fall into the same slot of the bucket resolution share one timer entry, and each
+ * tick of the bucket dispatches all of its due checks as one batch on a bounded number of pool threads. A check's
+ * runs are moved to the end of its slot, so they start at most one resolution later than its phase offset asks for.
+ * </p>
+ * <p>
+ * Health checks can be paused, by {@link #pause(HealthCheckFilter)} or by a {@link MaintenanceWindow}. A paused
+ * check keeps its schedule but its ticks do not run it, and the executor reports
+ * {@link HealthCheck.HealthStatus#MAINTENANCE} for it. A check paused by several callers or windows resumes once
+ * all of them have released it.
+ * </p>
+ * <p>
+ * A periodic health check can be {@link #reschedule(String, ScheduleSpec) rescheduled} in place: its timing is
+ * swapped under the task's monitor, so no tick of the old schedule fires after the swap and a run in progress is
+ * neither repeated nor overlapped.
+ * </p>
+ * <p>
+ * Every run has a deadline: the nominal time of the check's next tick, or the expiry of its last result if that
+ * comes sooner. Runs that complete after their deadline are counted as deadline misses. In
+ * {@link DispatchMode#EARLIEST_DEADLINE_FIRST} mode runs wait for a thread in a {@link DeadlineExecutor}, so a
+ * check with a short period is not held up behind a queue of long-period checks.
+ * </p>
+ */
+public class DefaultHealthCheckScheduler implements AutoCloseable, HealthCheckScheduler, HealthEventListener {
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultHealthCheckScheduler.class);
+    private static final double GOLDEN_RATIO_CONJUGATE = 0.6180339887498949;
+    private static final Duration DEFAULT_BUCKET_RESOLUTION = Duration.ofMillis(10);
+    private static final Executor DIRECT_EXECUTOR = Runnable::run;
+    private static final String MANUAL_HOLD = "manual";
+    private static final String WINDOW_HOLD_PREFIX = "window:";
 
     private final InternalScheduler internalScheduler;
     private final HealthCheckExecutor healthCheckExecutor;
-    private final Map<String, ScheduledFuture<?>> scheduledTasks;
+    private final HealthCheckRegistry healthCheckRegistry;
+    private final TaskTimer taskTimer;
+    private final Map<String, ScheduledTask> scheduledTasks;
+    private final CronTimer cronTimer;
+    private final Map<Long, AtomicLong> phaseSequences;
+    private final LoadHistogram dispatchLoad;
+    private final SchedulerMetrics metrics;
+    private final Map<BucketKey, TickBucket> tickBuckets;
+    private final long bucketResolutionNanos;
+    private final int bucketConcurrency;
+    private final long originNanos;
+    private final TimeSource timeSource;
+    private final Executor dispatchExecutor;
+    private final DeadlineExecutor deadlineExecutor;
+    private final Map<String, Set<String>> pauseHolds;
+    private final CronTimer maintenanceTimer;
+    private final Map<String, OpenWindow> maintenanceWindows;
+    // taken over by the health checks scheduled afterwards
+    private final Map<String, SchedulePhase> restoredPhases;
+    // null to draw jitter from the thread's random generator
+    private final Long jitterSeed;
 
-    public DefaultHealthCheckScheduler(HealthCheckExecutor healthCheckExecutor, InternalScheduler internalScheduler) {
-        this.internalScheduler = internalScheduler;
-        this.healthCheckExecutor = healthCheckExecutor;
+    private DefaultHealthCheckScheduler(Builder builder) {
+        this.internalScheduler = builder.internalScheduler != null ? builder.internalScheduler
+                : InternalScheduler.getInstance();
+        this.healthCheckExecutor = Preconditions.checkNotNull(builder.healthCheckExecutor,
+                "Health check executor must not be null");
+        this.healthCheckRegistry = builder.healthCheckRegistry;
+        this.taskTimer = builder.taskTimer != null ? builder.taskTimer : new ExecutorTaskTimer(this.internalScheduler);
+        this.timeSource = builder.timeSource;
+        this.dispatchExecutor = builder.dispatchExecutor;
+        this.deadlineExecutor = builder.dispatchMode == DispatchMode.EARLIEST_DEADLINE_FIRST
+                ? new DeadlineExecutor(builder.dispatchThreads, "vitals-deadline-dispatch")
+                : null;
         this.scheduledTasks = new ConcurrentHashMap<>();
+        Clock clock = this.timeSource.toClock(ZoneId.systemDefault());
+        this.cronTimer = new CronTimer(this.taskTimer, clock);
+        this.phaseSequences = new ConcurrentHashMap<>();
+        this.dispatchLoad = new LoadHistogram(Duration.ofMillis(10), 6000, this.timeSource);
+        this.metrics = new SchedulerMetrics();
+        this.tickBuckets = new ConcurrentHashMap<>();
+        this.bucketResolutionNanos = builder.bucketResolution.toNanos();
+        this.bucketConcurrency = builder.bucketConcurrency;
+        this.originNanos = this.timeSource.nanoTime();
+        this.pauseHolds = new ConcurrentHashMap<>();
+        this.maintenanceTimer = new CronTimer(this.taskTimer, clock);
+        this.maintenanceWindows = new ConcurrentHashMap<>();
+        this.restoredPhases = new ConcurrentHashMap<>();
+        this.jitterSeed = builder.jitterSeed;
+    }
+
+    public DefaultHealthCheckScheduler(HealthCheckExecutor healthCheckExecutor,
+                                       @Nullable HealthCheckRegistry healthCheckRegistry,
+                                       InternalScheduler internalScheduler, TaskTimer taskTimer) {
+        this(new Builder().withHealthCheckExecutor(healthCheckExecutor)
+                .withHealthCheckRegistry(healthCheckRegistry)
+                .withInternalScheduler(internalScheduler)
+                .withTaskTimer(taskTimer));
+    }
+
+    public DefaultHealthCheckScheduler(HealthCheckExecutor healthCheckExecutor, InternalScheduler internalScheduler,
+                                       TaskTimer taskTimer) {
+        this(healthCheckExecutor, null, internalScheduler, taskTimer);
+    }
+
+    public DefaultHealthCheckScheduler(HealthCheckExecutor healthCheckExecutor, InternalScheduler internalScheduler) {
+        this(healthCheckExecutor, internalScheduler, new ExecutorTaskTimer(internalScheduler));
     }
 
     public DefaultHealthCheckScheduler(HealthCheckExecutor healthCheckExecutor) {
@@ -40,35 +171,115 @@ public class DefaultHealthCheckScheduler implements AutoCloseable, HealthCheckSc
      */
     @Override
     public void schedule(@Nonnull String healthCheckName, long initialDelay, long delay, @Nonnull TimeUnit timeUnit) {
-        Preconditions.checkNotNull(healthCheckName, "Health check healthCheckName must not be null");
-        Preconditions.checkArgument(!healthCheckName.trim().isEmpty(),
-                "Health check healthCheckName must not be empty");
         Preconditions.checkArgument(initialDelay >= 0, "Initial delay must be non-negative");
         Preconditions.checkArgument(delay > 0, "Delay must be greater than zero");
         Preconditions.checkNotNull(timeUnit, "Time unit must not be null");
 
-        if (this.scheduledTasks.containsKey(healthCheckName)) {
+        this.schedule(healthCheckName, new ScheduleSpec.Builder().withInitialDelay(initialDelay)
+                .withPeriod(delay)
+                .withTimeUnit(timeUnit)
+                .withScheduleType(ScheduleType.FIXED_DELAY)
+                .build());
+    }
+
+    /**
+     * Schedules a health check according to a {@link ScheduleSpec}.
+     *
+     * @param healthCheckName the healthCheckName of the health check
+     * @param scheduleSpec    the schedule to run the health check on
+     */
+    @Override
+    public void schedule(@Nonnull String healthCheckName, @Nonnull ScheduleSpec scheduleSpec) {
+        Preconditions.checkNotNull(healthCheckName, "Health check healthCheckName must not be null");
+        Preconditions.checkArgument(!healthCheckName.trim().isEmpty(),
+                "Health check healthCheckName must not be empty");
+        Preconditions.checkNotNull(scheduleSpec, "Schedule spec must not be null");
+
+        if (this.cronTimer.isScheduled(healthCheckName)) {
+            throw new IllegalStateException("Health check is already scheduled: " + healthCheckName);
+        }
+
+        ScheduledTask task = new ScheduledTask(healthCheckName, scheduleSpec,
+                this.phaseOffsetNanos(healthCheckName, scheduleSpec));
+        if (this.scheduledTasks.putIfAbsent(healthCheckName, task) != null) {
             throw new IllegalStateException("Health check is already scheduled: " + healthCheckName);
         }
 
         try {
-            ScheduledFuture<?> scheduledFuture = this.internalScheduler.scheduleWithFixedDelay(
-                    () -> this.healthCheckExecutor.executeAsync(healthCheckName)
-                            .thenAccept(result -> LOGGER.info("Scheduled health check executed: {}", result))
-                            .exceptionally(ex -> {
-                                LOGGER.error("Exception occurred while scheduling health check [{}]: {}",
-                                        healthCheckName, ex.getMessage(), ex);
-                                return null;
-                            }),
-                    initialDelay, delay, timeUnit);
-
-            this.scheduledTasks.put(healthCheckName, scheduledFuture);
+            task.start();
         } catch (Exception e) {
+            this.scheduledTasks.remove(healthCheckName, task);
             LOGGER.error("Exception occurred while scheduling health check [{}]: {}", healthCheckName, e.getMessage(),
                     e);
         }
     }
 
+    /**
+     * Schedules many health checks in one pass. Health checks that are already scheduled are skipped.
+     *
+     * @param scheduleSpecs the schedules by health check name
+     */
+    @Override
+    public void scheduleAll(@Nonnull Map<String, ScheduleSpec> scheduleSpecs) {
+        Preconditions.checkNotNull(scheduleSpecs, "Schedule specs must not be null");
+
+        List<ScheduledTask> added = new ArrayList<>(scheduleSpecs.size());
+        scheduleSpecs.forEach((healthCheckName, scheduleSpec) -> {
+            Preconditions.checkNotNull(scheduleSpec, "Schedule spec must not be null");
+            if (this.cronTimer.isScheduled(healthCheckName)) {
+                LOGGER.warn("Health check [{}] is already scheduled, skipping", healthCheckName);
+                return;
+            }
+            ScheduledTask task = new ScheduledTask(healthCheckName, scheduleSpec,
+                    this.phaseOffsetNanos(healthCheckName, scheduleSpec));
+            if (this.scheduledTasks.putIfAbsent(healthCheckName, task) != null) {
+                LOGGER.warn("Health check [{}] is already scheduled, skipping", healthCheckName);
+                return;
+            }
+            added.add(task);
+        });
+
+        for (ScheduledTask task : added) {
+            try {
+                task.start();
+            } catch (Exception e) {
+                this.scheduledTasks.remove(task.healthCheckName, task);
+                LOGGER.error("Exception occurred while scheduling health check [{}]: {}", task.healthCheckName,
+                        e.getMessage(), e);
+            }
+        }
+        LOGGER.info("Scheduled {} health check(s)", added.size());
+    }
+
+    /**
+     * Schedules many health checks using cron expressions, with a single update of the shared {@link CronTimer}.
+     * Health checks that are already scheduled or whose expression is malformed or never fires are skipped.
+     *
+     * @param cronExpressions the cron expressions by health check name
+     */
+    @Override
+    public void scheduleAllWithCron(@Nonnull Map<String, String> cronExpressions) {
+        Preconditions.checkNotNull(cronExpressions, "Cron expressions must not be null");
+
+        Map<String, CronExpression> parsed = new HashMap<>();
+        cronExpressions.forEach((healthCheckName, cronExpression) -> {
+            if (this.scheduledTasks.containsKey(healthCheckName)) {
+                LOGGER.warn("Health check [{}] is already scheduled, skipping", healthCheckName);
+                return;
+            }
+            try {
+                parsed.put(healthCheckName, CronExpression.parse(cronExpression));
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Health check [{}] has an invalid cron expression [{}]: {}", healthCheckName,
+                        cronExpression, e.getMessage());
+            }
+        });
+
+        Set<String> scheduled = this.cronTimer.scheduleAll(parsed,
+                healthCheckName -> () -> this.executeScheduled(healthCheckName));
+        LOGGER.info("Scheduled {} health check(s) with cron expressions", scheduled.size());
+    }
+
     /**
      * Cancels a scheduled health check.
      *
@@ -78,15 +289,66 @@ public class DefaultHealthCheckScheduler implements AutoCloseable, HealthCheckSc
     public void cancelScheduledHealthCheck(@Nonnull String healthCheckName) {
         Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
 
-        ScheduledFuture<?> future = this.scheduledTasks.remove(healthCheckName);
-        if (future != null) {
-            future.cancel(true);
+        if (this.pauseHolds.remove(healthCheckName) != null) {
+            this.healthCheckExecutor.setSuspended(healthCheckName, false);
+        }
+        ScheduledTask task = this.scheduledTasks.remove(healthCheckName);
+        if (task != null) {
+            task.cancel();
             LOGGER.info("Health check [{}] scheduling canceled", healthCheckName);
+        } else if (this.cronTimer.cancel(healthCheckName)) {
+            LOGGER.info("Health check [{}] cron scheduling canceled", healthCheckName);
         } else {
             LOGGER.warn("Health check [{}] was not scheduled", healthCheckName);
         }
     }
 
+    /**
+     * Replaces the schedule of a periodic health check without cancelling it. The next run is due one new period
+     * after the last nominal tick, or, if that has already passed, at the new schedule's phase offset from now. A run
+     * in progress is not interrupted and counts as the last tick; the counters, drift and metrics carry over.
+     *
+     * @param healthCheckName the healthCheckName of the health check
+     * @param scheduleSpec    the new schedule
+     * @throws IllegalStateException if the health check is not scheduled periodically
+     */
+    @Override
+    public void reschedule(@Nonnull String healthCheckName, @Nonnull ScheduleSpec scheduleSpec) {
+        Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
+        Preconditions.checkNotNull(scheduleSpec, "Schedule spec must not be null");
+
+        ScheduledTask task = this.scheduledTasks.get(healthCheckName);
+        if (task == null || !task.reschedule(scheduleSpec)) {
+            throw new IllegalStateException("Health check is not scheduled periodically: " + healthCheckName);
+        }
+        LOGGER.info("Health check [{}] rescheduled with period {} {}", healthCheckName, scheduleSpec.getPeriod(),
+                scheduleSpec.getTimeUnit());
+    }
+
+    /**
+     * Replaces the schedule of every periodic health check matching the filter, as
+     * {@link #reschedule(String, ScheduleSpec)} does. Cron-scheduled health checks are skipped.
+     *
+     * @param filter       the health checks to reschedule
+     * @param scheduleSpec the new schedule
+     * @return the names of the health checks that were rescheduled
+     */
+    @Override
+    public Set<String> reschedule(@Nonnull HealthCheckFilter filter, @Nonnull ScheduleSpec scheduleSpec) {
+        Preconditions.checkNotNull(filter, "Health check filter must not be null");
+        Preconditions.checkNotNull(scheduleSpec, "Schedule spec must not be null");
+
+        Set<String> rescheduled = new HashSet<>();
+        for (String healthCheckName : this.resolve(filter)) {
+            ScheduledTask task = this.scheduledTasks.get(healthCheckName);
+            if (task != null && task.reschedule(scheduleSpec)) {
+                rescheduled.add(healthCheckName);
+            }
+        }
+        LOGGER.info("Rescheduled {} health check(s)", rescheduled.size());
+        return rescheduled;
+    }
+
     /**
      * Checks if a health check is already scheduled.
      *
@@ -95,23 +357,1201 @@ public class DefaultHealthCheckScheduler implements AutoCloseable, HealthCheckSc
      */
     @Override
     public boolean isScheduled(@Nonnull String healthCheckName) {
-        return this.scheduledTasks.containsKey(healthCheckName);
+        return this.scheduledTasks.containsKey(healthCheckName) || this.cronTimer.isScheduled(healthCheckName);
     }
 
     /**
-     * Schedules a health check using a cron expression.
+     * Schedules a health check using a cron expression. All cron-scheduled health checks share a single
+     * {@link CronTimer}, evaluated in the system default time zone.
      *
      * @param healthCheckName the healthCheckName of the health check
      * @param cronExpression  the cron expression defining the schedule
+     * @throws IllegalArgumentException if the cron expression is malformed or never fires
      */
     @Override
     public void scheduleWithCron(@Nonnull String healthCheckName, @Nonnull String cronExpression) {
-        // Implementation for scheduling with cron expression
+        Preconditions.checkNotNull(healthCheckName, "Health check healthCheckName must not be null");
+        Preconditions.checkArgument(!healthCheckName.trim().isEmpty(),
+                "Health check healthCheckName must not be empty");
+        Preconditions.checkNotNull(cronExpression, "Cron expression must not be null");
+
+        if (this.isScheduled(healthCheckName)) {
+            throw new IllegalStateException("Health check is already scheduled: " + healthCheckName);
+        }
+
+        CronExpression expression = CronExpression.parse(cronExpression);
+        this.cronTimer.schedule(healthCheckName, expression, () -> this.executeScheduled(healthCheckName));
+        LOGGER.info("Health check [{}] scheduled with cron expression [{}]", healthCheckName, cronExpression);
+    }
+
+    /**
+     * Returns the current state of a periodic health check's schedule, including how far its runs drift from the
+     * nominal schedule. Cron-scheduled health checks are not covered.
+     *
+     * @param healthCheckName the healthCheckName of the health check
+     * @return the schedule state, or empty if the health check is not scheduled periodically
+     */
+    @Override
+    public Optional<ScheduledCheckInfo> getScheduleInfo(@Nonnull String healthCheckName) {
+        Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
+
+        ScheduledTask task = this.scheduledTasks.get(healthCheckName);
+        return task != null ? Optional.of(task.info()) : Optional.empty();
+    }
+
+    /**
+     * Returns where the schedule of every periodic health check stands. Cron-scheduled health checks are not
+     * covered, their runs follow the wall clock anyway.
+     *
+     * @return the phases by health check name
+     */
+    @Override
+    public Map<String, SchedulePhase> getSchedulePhases() {
+        Map<String, SchedulePhase> phases = new HashMap<>();
+        this.scheduledTasks.forEach((name, task) -> phases.put(name, task.phase()));
+        return phases;
+    }
+
+    /**
+     * Carries schedules over from another scheduler. A health check scheduled afterwards with the same period as its
+     * restored phase takes its first run at the next time the restored schedule would have run it, and starts from
+     * its restored interval within the bounds of its adaptive interval, instead of after its initial delay. Health
+     * checks that are already scheduled keep their schedules.
+     *
+     * @param phases the phases by health check name
+     */
+    @Override
+    public void restoreSchedulePhases(@Nonnull Map<String, SchedulePhase> phases) {
+        Preconditions.checkNotNull(phases, "Phases must not be null");
+        this.restoredPhases.putAll(phases);
+    }
+
+    /**
+     * Feeds results into the {@link AdaptiveInterval} of the health check's schedule, if it has one. Register the
+     * scheduler for {@link HealthCheckStatusChangedEvent}s to drive adaptive intervals.
+     */
+    @Override
+    public void onChanged(@Nonnull String name, @Nonnull Set<String> tags, @Nonnull HealthCheck healthCheck,
+                          @Nullable HealthCheck.HealthCheckResult original,
+                          @Nonnull HealthCheck.HealthCheckResult updated) {
+        ScheduledTask task = this.scheduledTasks.get(name);
+        if (task != null) {
+            task.adapt(original, updated);
+        }
+    }
+
+    /**
+     * Returns how many scheduled runs were dispatched in each 10ms slot of the last minute, to verify that checks
+     * sharing a period are spread over it.
+     *
+     * @return the dispatch load snapshot
+     */
+    @Override
+    public LoadHistogram.Snapshot getDispatchLoad() {
+        return this.dispatchLoad.snapshot();
+    }
+
+    /**
+     * Returns the fire lag, queue wait, missed and skipped fires and overruns of the periodic health checks.
+     * Cron-scheduled health checks are not covered.
+     *
+     * @return the metrics snapshot
+     */
+    @Override
+    public SchedulerMetrics.Snapshot getMetrics() {
+        return this.metrics.snapshot();
+    }
+
+    /**
+     * Pauses the scheduled health checks matching the filter until they are {@link #resume resumed}. Their ticks
+     * are counted but do not run them, and executing them reports {@link HealthCheck.HealthStatus#MAINTENANCE}.
+     *
+     * @param filter the health checks to pause
+     * @return the names of the health checks that were not paused before
+     */
+    @Override
+    public Set<String> pause(@Nonnull HealthCheckFilter filter) {
+        Preconditions.checkNotNull(filter, "Health check filter must not be null");
+
+        Set<String> paused = new HashSet<>();
+        for (String healthCheckName : this.resolve(filter)) {
+            if (this.hold(healthCheckName, MANUAL_HOLD)) {
+                paused.add(healthCheckName);
+            }
+        }
+        LOGGER.info("Paused {} health check(s)", paused.size());
+        return paused;
+    }
+
+    /**
+     * Resumes the health checks matching the filter that were paused by {@link #pause(HealthCheckFilter)}. A check
+     * that is also paused by an open maintenance window stays paused until the window closes.
+     *
+     * @param filter       the health checks to resume
+     * @param resumePolicy whether the resumed health checks run right away or at their next tick
+     * @return the names of the health checks that are no longer paused
+     */
+    @Override
+    public Set<String> resume(@Nonnull HealthCheckFilter filter, @Nonnull ResumePolicy resumePolicy) {
+        Preconditions.checkNotNull(filter, "Health check filter must not be null");
+        Preconditions.checkNotNull(resumePolicy, "Resume policy must not be null");
+
+        Set<String> resumed = new HashSet<>();
+        for (String healthCheckName : this.resolve(filter)) {
+            if (this.release(healthCheckName, MANUAL_HOLD, resumePolicy)) {
+                resumed.add(healthCheckName);
+            }
+        }
+        LOGGER.info("Resumed {} health check(s)", resumed.size());
+        return resumed;
+    }
+
+    @Override
+    public boolean isPaused(@Nonnull String healthCheckName) {
+        Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
+        return this.pauseHolds.containsKey(healthCheckName);
+    }
+
+    /**
+     * Adds a recurring maintenance window. It first opens the next time its cron expression fires, a window that
+     * would already be open at this moment is not opened retroactively.
+     *
+     * @param maintenanceWindow the maintenance window
+     * @throws IllegalArgumentException if the cron expression is malformed or never fires
+     * @throws IllegalStateException    if a window with the same name exists
+     */
+    @Override
+    public void addMaintenanceWindow(@Nonnull MaintenanceWindow maintenanceWindow) {
+        Preconditions.checkNotNull(maintenanceWindow, "Maintenance window must not be null");
+
+        CronExpression expression = CronExpression.parse(maintenanceWindow.cronExpression());
+        OpenWindow window = new OpenWindow(maintenanceWindow);
+        if (this.maintenanceWindows.putIfAbsent(maintenanceWindow.name(), window) != null) {
+            throw new IllegalStateException("Maintenance window already exists: " + maintenanceWindow.name());
+        }
+        this.maintenanceTimer.schedule(maintenanceWindow.name(), expression, window::open);
+        LOGGER.info("Maintenance window [{}] added with cron expression [{}] and duration {}",
+                maintenanceWindow.name(), maintenanceWindow.cronExpression(), maintenanceWindow.duration());
+    }
+
+    /**
+     * Removes a maintenance window. If it is open, the health checks it paused are released with its
+     * {@link MaintenanceWindow#resumePolicy() resume policy}.
+     *
+     * @param name the name of the maintenance window
+     * @return true if the window existed
+     */
+    @Override
+    public boolean removeMaintenanceWindow(@Nonnull String name) {
+        Preconditions.checkNotNull(name, "Maintenance window name must not be null");
+
+        OpenWindow window = this.maintenanceWindows.remove(name);
+        if (window == null) {
+            return false;
+        }
+        this.maintenanceTimer.cancel(name);
+        window.close();
+        LOGGER.info("Maintenance window [{}] removed", name);
+        return true;
+    }
+
+    /**
+     * Returns how many tick buckets are armed, i.e. how many timer entries the bucketed checks need between them.
+     *
+     * @return the number of tick buckets
+     */
+    public int getTickBucketCount() {
+        return this.tickBuckets.size();
     }
 
     @Override
     public void close() {
+        this.scheduledTasks.values().forEach(ScheduledTask::cancel);
+        this.scheduledTasks.clear();
+        this.tickBuckets.values().forEach(TickBucket::disarm);
+        this.tickBuckets.clear();
+        this.maintenanceTimer.close();
+        this.maintenanceWindows.values().forEach(OpenWindow::disarm);
+        this.maintenanceWindows.clear();
+        this.cronTimer.close();
+        this.taskTimer.close();
+        if (this.deadlineExecutor != null) {
+            this.deadlineExecutor.close();
+        }
         this.internalScheduler.shutdown();
     }
 
-}
\ No newline at end of file
+    /**
+     * Offset of a check's first run within its period. {@link PhaseSpreading#EVEN} places the n-th check of a given
+     * period at {@code frac(n * 0.618...) * period}; that sequence spreads every prefix almost evenly, so it needs
+     * no knowledge of how many checks will eventually share the period.
+     */
+    private long phaseOffsetNanos(String healthCheckName, ScheduleSpec scheduleSpec) {
+        long periodNanos = scheduleSpec.getPeriodNanos();
+        return switch (scheduleSpec.getPhaseSpreading()) {
+            case NONE -> 0L;
+            case EVEN -> {
+                long sequence = this.phaseSequences.computeIfAbsent(periodNanos, period -> new AtomicLong())
+                        .getAndIncrement();
+                yield (long) ((sequence * GOLDEN_RATIO_CONJUGATE) % 1.0 * periodNanos);
+            }
+            case HASHED -> Math.floorMod(mix(healthCheckName.hashCode()), periodNanos);
+        };
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer, String.hashCode alone clusters for names that differ in their last characters
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    private boolean isBucketed(ScheduleSpec scheduleSpec) {
+        return this.bucketResolutionNanos > 0 && scheduleSpec.getScheduleType() == ScheduleType.FIXED_RATE
+                && scheduleSpec.getJitterNanos() == 0 && scheduleSpec.getAdaptiveInterval().isEmpty()
+                && scheduleSpec.getPeriodNanos() > this.bucketResolutionNanos;
+    }
+
+    /**
+     * Dispatches the due checks of one bucket tick. Up to {@link #bucketConcurrency} pool threads take checks off the
+     * batch in turn and run them directly, so a tick costs a bounded number of pool submissions however many checks
+     * share it.
+     */
+    private void dispatchBatch(List<ScheduledTask> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (this.deadlineExecutor != null) {
+            // the deadline executor orders the runs, a batch only saves it nothing
+            batch.forEach(task -> task.dispatch(null));
+            return;
+        }
+        AtomicInteger cursor = new AtomicInteger();
+        Runnable worker = () -> {
+            int index;
+            while ((index = cursor.getAndIncrement()) < batch.size()) {
+                batch.get(index).dispatch(DIRECT_EXECUTOR);
+            }
+        };
+
+        int workers = Math.min(this.bucketConcurrency, batch.size());
+        int submitted = 0;
+        for (int i = 0; i < workers; i++) {
+            try {
+                if (this.dispatchExecutor != null) {
+                    this.dispatchExecutor.execute(worker);
+                } else {
+                    this.internalScheduler.execute(worker);
+                }
+                submitted++;
+            } catch (Exception e) {
+                LOGGER.error("Exception occurred while dispatching a batch of {} health check(s): {}", batch.size(),
+                        e.getMessage(), e);
+                break;
+            }
+        }
+        if (submitted == 0) {
+            batch.forEach(task -> task.onComplete(null));
+        }
+    }
+
+    /**
+     * Returns the names of the scheduled health checks matching the filter.
+     */
+    private Set<String> resolve(HealthCheckFilter filter) {
+        Set<String> names = new HashSet<>();
+        if (this.healthCheckRegistry != null) {
+            for (HealthCheck healthCheck : this.healthCheckRegistry.filterHealthChecks(filter)) {
+                if (this.isScheduled(healthCheck.getName())) {
+                    names.add(healthCheck.getName());
+                }
+            }
+        } else {
+            for (String healthCheckName : this.scheduledTasks.keySet()) {
+                if (filter.matches(new HealthCheckFilterContext(healthCheckName, null, null, Set.of()))) {
+                    names.add(healthCheckName);
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Adds a pause hold to a health check. The first hold suspends it in the executor and runs it once, so that it
+     * reports {@link HealthCheck.HealthStatus#MAINTENANCE} right away.
+     *
+     * @return true if the health check was not paused before
+     */
+    private boolean hold(String healthCheckName, String hold) {
+        boolean[] first = new boolean[1];
+        this.pauseHolds.compute(healthCheckName, (name, holds) -> {
+            Set<String> updated = holds != null ? holds : new HashSet<>();
+            first[0] = updated.isEmpty();
+            updated.add(hold);
+            return updated;
+        });
+        if (first[0]) {
+            this.healthCheckExecutor.setSuspended(healthCheckName, true);
+            this.execute(healthCheckName);
+        }
+        return first[0];
+    }
+
+    /**
+     * Removes a pause hold from a health check, and resumes it if that was the last one.
+     *
+     * @return true if the health check is no longer paused
+     */
+    private boolean release(String healthCheckName, String hold, ResumePolicy resumePolicy) {
+        boolean[] last = new boolean[1];
+        this.pauseHolds.computeIfPresent(healthCheckName, (name, holds) -> {
+            holds.remove(hold);
+            last[0] = holds.isEmpty();
+            return last[0] ? null : holds;
+        });
+        if (!last[0]) {
+            return false;
+        }
+        this.healthCheckExecutor.setSuspended(healthCheckName, false);
+        if (resumePolicy == ResumePolicy.RUN_IMMEDIATELY) {
+            ScheduledTask task = this.scheduledTasks.get(healthCheckName);
+            if (task != null) {
+                task.runNow();
+            } else if (this.cronTimer.isScheduled(healthCheckName)) {
+                this.execute(healthCheckName);
+            }
+        }
+        return true;
+    }
+
+    private void executeScheduled(String healthCheckName) {
+        if (this.pauseHolds.containsKey(healthCheckName)) {
+            LOGGER.debug("Health check [{}] is paused, skipping its cron run", healthCheckName);
+            return;
+        }
+        this.execute(healthCheckName);
+    }
+
+    private void execute(String healthCheckName) {
+        try {
+            this.healthCheckExecutor.executeAsync(healthCheckName)
+                    .whenComplete((result, ex) -> logScheduledResult(healthCheckName, result, ex));
+        } catch (Exception e) {
+            LOGGER.error("Exception occurred while executing health check [{}]: {}", healthCheckName, e.getMessage(),
+                    e);
+        }
+    }
+
+    private static void logScheduledResult(String healthCheckName, Object result, Throwable ex) {
+        if (ex == null) {
+            LOGGER.debug("Scheduled health check executed: {}", result);
+        } else if (ex instanceof TimeoutException) {
+            LOGGER.warn("Scheduled health check [{}] did not complete in time, continuing with its schedule",
+                    healthCheckName);
+        } else {
+            LOGGER.error("Exception occurred while scheduling health check [{}]: {}", healthCheckName,
+                    ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * A periodic health check driven by the task timer.
+     * <p>
+     * A {@link ScheduleType#FIXED_DELAY} task arms its next tick when the previous run completes, a
+     * {@link ScheduleType#TIME_TO_LIVE} task does so too but waits for as long as the result stays fresh. A
+     * {@link ScheduleType#FIXED_RATE} task arms every tick on its nominal schedule; ticks that come due while a run
+     * is still in progress, or that were passed while the timer was late, are handled by the {@link OverrunPolicy}.
+     * Either way a run never overlaps the previous one: the task waits for it to complete, or for the
+     * {@link ScheduleSpec#getTimeout() timeout}, and the executor joins calls made while a timed out run is still
+     * going. With an {@link AdaptiveInterval} the interval between ticks changes with the check's results. A result
+     * with a time to live shorter than the longest interval moves the deadline of the next run forward to its expiry.
+     * </p>
+     * <p>
+     * All state is guarded by the task's monitor, runs are dispatched outside of it. Every arming gets a new
+     * generation, so a tick that was replaced by a later arming does nothing when it fires. A bucketed task arms no
+     * ticks of its own, its {@link TickBucket} calls {@link #onBucketTick(BucketKey, long, long)} instead. The
+     * timing fields change only when the task is {@link #reschedule(ScheduleSpec) rescheduled}.
+     * </p>
+     */
+    private final class ScheduledTask {
+        private final String healthCheckName;
+        private final SplittableRandom jitterRandom;
+        // read without the monitor when a run is dispatched
+        private volatile ScheduleSpec scheduleSpec;
+        private long periodNanos;
+        private long phaseOffsetNanos;
+        private long maxPeriodNanos;
+        private double backoffMultiplier;
+        private boolean bucketed;
+        private SchedulerMetrics.CheckMetrics checkMetrics;
+        private BucketKey bucketKey;
+        private TaskTimer.Timeout timeout;
+        private long generation;
+        private long currentPeriodNanos;
+        private boolean cancelled;
+        private boolean running;
+        private long nextNominalNanos;
+        private long armedJitterNanos;
+        private long pendingTicks;
+        private long executions;
+        private long overrunTicks;
+        private long skippedTicks;
+        private long overlapPreventedTicks;
+        private long timedOutRuns;
+        private long pausedTicks;
+        private long dispatchedNanos;
+        private long deadlineNanos;
+        private boolean resultExpires;
+        private long resultExpiryNanos;
+        private long lastTimeToLiveNanos;
+        private long lastDriftNanos;
+        private long maxDriftNanos;
+
+        private ScheduledTask(String healthCheckName, ScheduleSpec scheduleSpec, long phaseOffsetNanos) {
+            this.healthCheckName = healthCheckName;
+            // a stream of its own per check, so its jitter does not depend on how the other checks interleave
+            this.jitterRandom = jitterSeed != null ? new SplittableRandom(jitterSeed + healthCheckName.hashCode())
+                    : null;
+            this.applySpec(scheduleSpec, phaseOffsetNanos);
+        }
+
+        private void applySpec(ScheduleSpec scheduleSpec, long phaseOffsetNanos) {
+            this.scheduleSpec = scheduleSpec;
+            this.periodNanos = scheduleSpec.getPeriodNanos();
+            this.phaseOffsetNanos = phaseOffsetNanos;
+            this.maxPeriodNanos = scheduleSpec.getAdaptiveInterval()
+                    .map(adaptive -> adaptive.maxInterval().toNanos())
+                    .orElse(this.periodNanos);
+            this.backoffMultiplier = scheduleSpec.getAdaptiveInterval().map(AdaptiveInterval::multiplier).orElse(1.0);
+            this.currentPeriodNanos = this.periodNanos;
+            this.bucketed = isBucketed(scheduleSpec);
+        }
+
+        private synchronized void start() {
+            this.checkMetrics = metrics.register(this.healthCheckName);
+            long now = timeSource.nanoTime();
+            this.nextNominalNanos = now + this.scheduleSpec.getInitialDelayNanos() + this.phaseOffsetNanos;
+            SchedulePhase phase = restoredPhases.remove(this.healthCheckName);
+            if (phase != null && phase.period().toNanos() == this.periodNanos) {
+                this.restore(phase, now);
+            }
+            this.armNext(now);
+        }
+
+        private void restore(SchedulePhase phase, long now) {
+            this.currentPeriodNanos = Math.max(this.periodNanos,
+                    Math.min(phase.currentInterval().toNanos(), this.maxPeriodNanos));
+            long untilNanos;
+            try {
+                untilNanos = Duration.between(timeSource.instant(), phase.nextRun()).toNanos();
+            } catch (ArithmeticException e) {
+                LOGGER.warn("Ignoring the restored schedule of health check [{}], its next run is out of range",
+                        this.healthCheckName);
+                return;
+            }
+            // the next run of the restored schedule from now on
+            this.nextNominalNanos = now + Math.floorMod(untilNanos, this.currentPeriodNanos);
+        }
+
+        private synchronized SchedulePhase phase() {
+            long now = timeSource.nanoTime();
+            return new SchedulePhase(timeSource.instant().plusNanos(this.nextNominalNanos - now),
+                    Duration.ofNanos(this.periodNanos), Duration.ofNanos(this.currentPeriodNanos));
+        }
+
+        /**
+         * Arms the tick at {@link #nextNominalNanos}, or joins the task's tick bucket for it.
+         */
+        private void armNext(long now) {
+            if (!this.bucketed) {
+                this.armJittered(this.nextNominalNanos - now);
+                return;
+            }
+            // move the first run to the end of its slot so that all runs of the bucket share one nominal schedule
+            long phaseNanos = Math.floorMod(this.nextNominalNanos - originNanos, this.periodNanos);
+            long slotPhaseNanos = ceilDiv(phaseNanos, bucketResolutionNanos) * bucketResolutionNanos;
+            if (slotPhaseNanos >= this.periodNanos) {
+                slotPhaseNanos = 0L;
+            }
+            this.nextNominalNanos += Math.floorMod(slotPhaseNanos - phaseNanos, this.periodNanos);
+            this.bucketKey = new BucketKey(this.periodNanos, slotPhaseNanos);
+            long firstNominalNanos = this.nextNominalNanos;
+            tickBuckets.compute(this.bucketKey, (key, bucket) -> {
+                TickBucket joined = bucket != null ? bucket : new TickBucket(key);
+                joined.join(this, firstNominalNanos);
+                return joined;
+            });
+        }
+
+        /**
+         * Swaps the task's timing. The armed tick, or the membership in a tick bucket, is dropped first; a new one is
+         * armed unless the new schedule is not {@link ScheduleType#FIXED_RATE} and a run is in progress, whose
+         * completion arms it.
+         *
+         * @return false if the task was cancelled
+         */
+        private synchronized boolean reschedule(ScheduleSpec scheduleSpec) {
+            if (this.cancelled) {
+                return false;
+            }
+            if (this.timeout != null) {
+                this.timeout.cancel();
+            }
+            this.generation++;
+            this.leaveBucket();
+
+            long lastNominalNanos = this.nextNominalNanos - this.currentPeriodNanos;
+            long phaseOffsetNanos = scheduleSpec.getPeriodNanos() == this.periodNanos ? this.phaseOffsetNanos
+                    : phaseOffsetNanos(this.healthCheckName, scheduleSpec);
+            this.applySpec(scheduleSpec, phaseOffsetNanos);
+
+            if (this.armsOnCompletion()) {
+                // a fixed delay schedule replays no backlog
+                this.pendingTicks = 0;
+                if (this.running) {
+                    return true;
+                }
+            }
+            long now = timeSource.nanoTime();
+            long nextNominalNanos = lastNominalNanos + this.periodNanos;
+            // an overdue check starts at its phase offset rather than at once, so that checks rescheduled together
+            // stay spread over the new period
+            this.nextNominalNanos = nextNominalNanos >= now ? nextNominalNanos : now + this.phaseOffsetNanos;
+            this.armNext(now);
+            return true;
+        }
+
+        private void fire(long armedGeneration) {
+            long nominalNanos;
+            synchronized (this) {
+                if (this.cancelled || armedGeneration != this.generation) {
+                    return;
+                }
+                long now = timeSource.nanoTime();
+                nominalNanos = this.nextNominalNanos;
+                // drift is measured against the jittered fire time, the jitter itself is intended
+                long targetNanos = nominalNanos + this.armedJitterNanos;
+
+                if (this.armsOnCompletion()) {
+                    if (pauseHolds.containsKey(this.healthCheckName)) {
+                        this.pausedTicks++;
+                        this.nextNominalNanos = now + this.currentPeriodNanos;
+                        this.armJittered(this.currentPeriodNanos);
+                        return;
+                    }
+                    // armed only once the previous run completed, so there is never one in progress
+                    this.startRun(now, targetNanos);
+                } else {
+                    long dueTicks = this.advance(now);
+                    this.armJittered(this.nextNominalNanos - now);
+                    if (!this.onTick(now, targetNanos, dueTicks)) {
+                        return;
+                    }
+                }
+            }
+            this.dispatch(null);
+        }
+
+        /**
+         * Handles a tick of the task's bucket. Does nothing if the task is not due yet, which happens when it joined
+         * the bucket after the tick was armed, or if it is no longer a member of the bucket.
+         *
+         * @return true if a run was started and must be dispatched
+         */
+        private synchronized boolean onBucketTick(BucketKey key, long now, long bucketNominalNanos) {
+            // a task rescheduled out of the bucket may still be in the batch of a tick that fired concurrently
+            if (this.cancelled || !key.equals(this.bucketKey) || this.nextNominalNanos > bucketNominalNanos) {
+                return false;
+            }
+            long nominalNanos = this.nextNominalNanos;
+            return this.onTick(now, nominalNanos, this.advance(now));
+        }
+
+        /**
+         * Moves the nominal schedule past {@code now} and returns how many ticks came due, more than one if the timer
+         * was late.
+         */
+        private long advance(long now) {
+            long nominalNanos = this.nextNominalNanos;
+            long dueTicks = now > nominalNanos ? 1 + (now - nominalNanos) / this.currentPeriodNanos : 1;
+            this.nextNominalNanos = nominalNanos + dueTicks * this.currentPeriodNanos;
+            if (dueTicks > 1) {
+                this.checkMetrics.recordMissedFires(dueTicks - 1);
+            }
+            return dueTicks;
+        }
+
+        private boolean onTick(long now, long targetNanos, long dueTicks) {
+            if (pauseHolds.containsKey(this.healthCheckName)) {
+                this.pausedTicks += dueTicks;
+                return false;
+            }
+            if (this.running) {
+                this.overlapPreventedTicks += dueTicks;
+                this.onOverrun(dueTicks);
+                return false;
+            }
+            if (dueTicks > 1) {
+                this.onOverrun(dueTicks - 1);
+            }
+            this.startRun(now, targetNanos);
+            return true;
+        }
+
+        /**
+         * @param executor the executor to run the health check on, or null for the deadline executor or the
+         *                 dispatch executor if one is configured, otherwise the health check executor's pool
+         */
+        private void dispatch(@Nullable Executor executor) {
+            long runDeadlineNanos;
+            synchronized (this) {
+                runDeadlineNanos = this.deadlineNanos;
+            }
+            CompletableFuture<HealthCheck.HealthCheckResult> execution;
+            try {
+                if (healthCheckExecutor.isExecuting(this.healthCheckName)) {
+                    // a timed out run is still going, the executor joins it instead of starting another
+                    synchronized (this) {
+                        this.overlapPreventedTicks++;
+                    }
+                }
+                Executor target = executor;
+                if (target == null) {
+                    target = deadlineExecutor != null
+                            ? command -> deadlineExecutor.execute(command, runDeadlineNanos)
+                            : dispatchExecutor;
+                }
+                execution = target != null ? healthCheckExecutor.executeAsync(this.healthCheckName, target)
+                        : healthCheckExecutor.executeAsync(this.healthCheckName);
+            } catch (Exception e) {
+                LOGGER.error("Exception occurred while scheduling health check [{}]: {}", this.healthCheckName,
+                        e.getMessage(), e);
+                synchronized (this) {
+                    // do not replay a backlog against a check that cannot be dispatched
+                    this.pendingTicks = 0;
+                }
+                this.onComplete(null);
+                return;
+            }
+
+            Optional<Duration> timeout = this.scheduleSpec.getTimeout();
+            if (timeout.isPresent()) {
+                execution = execution.orTimeout(timeout.get().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            execution.whenComplete((result, ex) -> {
+                logScheduledResult(this.healthCheckName, result, ex);
+                this.recordQueueWait(result);
+                this.recordDeadline(result, runDeadlineNanos);
+                this.onComplete(ex);
+            });
+        }
+
+        /**
+         * The time from dispatch to completion that the health check did not spend executing. Results of a run
+         * started before this dispatch, joined by the executor, are not counted.
+         */
+        private void recordQueueWait(HealthCheck.HealthCheckResult result) {
+            if (!(result instanceof ExecutionResult executionResult)) {
+                return;
+            }
+            long dispatchedNanos;
+            synchronized (this) {
+                dispatchedNanos = this.dispatchedNanos;
+            }
+            long waitNanos = timeSource.nanoTime() - dispatchedNanos
+                    - executionResult.getExecutionDuration().toNanos();
+            if (waitNanos >= 0) {
+                this.checkMetrics.recordQueueWait(waitNanos);
+            }
+        }
+
+        /**
+         * Counts a deadline miss if the run completed late, and keeps the time to live of the result for the deadline
+         * and, with a {@link ScheduleType#TIME_TO_LIVE} schedule, the start of the next run.
+         */
+        private void recordDeadline(HealthCheck.HealthCheckResult result, long runDeadlineNanos) {
+            long now = timeSource.nanoTime();
+            if (now - runDeadlineNanos > 0) {
+                this.checkMetrics.recordDeadlineMiss();
+            }
+            long timeToLiveNanos = result != null ? TimeUnit.NANOSECONDS.convert(result.getTimeToLive()) : 0L;
+            synchronized (this) {
+                this.lastTimeToLiveNanos = timeToLiveNanos;
+                // a result that outlives every interval never decides the deadline of a periodic schedule
+                this.resultExpires = timeToLiveNanos > 0 && (timeToLiveNanos < this.maxPeriodNanos
+                        || this.scheduleSpec.getScheduleType() == ScheduleType.TIME_TO_LIVE);
+                this.resultExpiryNanos = now + timeToLiveNanos;
+            }
+        }
+
+        private void onComplete(Throwable ex) {
+            synchronized (this) {
+                this.running = false;
+                if (ex instanceof TimeoutException) {
+                    this.timedOutRuns++;
+                    this.checkMetrics.recordTimeout();
+                }
+                if (this.cancelled) {
+                    return;
+                }
+                long now = timeSource.nanoTime();
+                if (this.armsOnCompletion()) {
+                    long delayNanos = this.nextDelayNanos(now);
+                    this.nextNominalNanos = now + delayNanos;
+                    this.armJittered(delayNanos);
+                    return;
+                }
+                if (this.pendingTicks == 0) {
+                    return;
+                }
+                if (pauseHolds.containsKey(this.healthCheckName)) {
+                    // do not replay a backlog against a paused check
+                    this.pausedTicks += this.pendingTicks;
+                    this.pendingTicks = 0;
+                    return;
+                }
+                // the oldest tick still waiting, the ticks up to the armed one are contiguous
+                long nominalNanos = this.nextNominalNanos - this.pendingTicks * this.currentPeriodNanos;
+                this.pendingTicks--;
+                this.startRun(now, nominalNanos);
+            }
+            this.dispatch(null);
+        }
+
+        /**
+         * Whether the next tick is armed when a run completes rather than on a nominal schedule.
+         */
+        private boolean armsOnCompletion() {
+            return this.scheduleSpec.getScheduleType() != ScheduleType.FIXED_RATE;
+        }
+
+        /**
+         * The delay from the completion of a run to the next tick. A {@link ScheduleType#TIME_TO_LIVE} schedule starts
+         * the next run ahead of the result's expiry by as long as the run took, so that a fresh result is there when
+         * the old one expires.
+         */
+        private long nextDelayNanos(long now) {
+            if (this.scheduleSpec.getScheduleType() != ScheduleType.TIME_TO_LIVE) {
+                return this.currentPeriodNanos;
+            }
+            long delayNanos = this.lastTimeToLiveNanos > 0 ? this.lastTimeToLiveNanos - (now - this.dispatchedNanos)
+                    : this.currentPeriodNanos;
+            return this.scheduleSpec.getIntervalBounds().clamp(delayNanos);
+        }
+
+        private void onOverrun(long ticks) {
+            this.overrunTicks += ticks;
+            long skipped = switch (this.scheduleSpec.getOverrunPolicy()) {
+                case SKIP -> ticks;
+                case COALESCE -> {
+                    long coalesced = this.pendingTicks == 0 ? ticks - 1 : ticks;
+                    this.pendingTicks = 1;
+                    yield coalesced;
+                }
+                case QUEUE -> {
+                    this.pendingTicks += ticks;
+                    yield 0L;
+                }
+            };
+            this.skippedTicks += skipped;
+            this.checkMetrics.recordOverruns(ticks, skipped);
+        }
+
+        /**
+         * Starts a run right away, unless one is in progress. The run is not a tick: a fixed rate schedule keeps its
+         * armed tick, a fixed delay schedule drops it and arms the next one when this run completes.
+         */
+        private void runNow() {
+            synchronized (this) {
+                if (this.cancelled || this.running) {
+                    return;
+                }
+                long now = timeSource.nanoTime();
+                if (this.armsOnCompletion()) {
+                    if (this.timeout != null) {
+                        this.timeout.cancel();
+                    }
+                    this.generation++;
+                }
+                this.startRun(now, now);
+            }
+            this.dispatch(null);
+        }
+
+        private void startRun(long now, long nominalNanos) {
+            this.running = true;
+            this.executions++;
+            this.dispatchedNanos = now;
+            // a fixed rate schedule has already moved on to the next tick, the others arm it on completion
+            long nextTickNanos = this.armsOnCompletion()
+                    ? now + this.currentPeriodNanos
+                    : this.nextNominalNanos;
+            this.deadlineNanos = this.resultExpires && this.resultExpiryNanos - nextTickNanos < 0
+                    ? this.resultExpiryNanos
+                    : nextTickNanos;
+            this.lastDriftNanos = now - nominalNanos;
+            this.maxDriftNanos = Math.max(this.maxDriftNanos, this.lastDriftNanos);
+            dispatchLoad.record(now);
+            this.checkMetrics.recordFireLag(this.lastDriftNanos);
+        }
+
+        private void armJittered(long delayNanos) {
+            long jitterNanos = this.scheduleSpec.getJitterNanos();
+            this.armedJitterNanos = jitterNanos <= 0 ? 0L
+                    : this.jitterRandom != null ? this.jitterRandom.nextLong(jitterNanos + 1)
+                    : ThreadLocalRandom.current().nextLong(jitterNanos + 1);
+            if (!this.cancelled) {
+                long armedGeneration = ++this.generation;
+                this.timeout = taskTimer.schedule(() -> this.fire(armedGeneration),
+                        Math.max(0L, delayNanos + this.armedJitterNanos), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /**
+         * Applies the adaptive interval after a result: back off while the check stays healthy, otherwise return to
+         * the base period. When the interval snaps back while a backed-off tick is armed, the tick is moved forward.
+         */
+        private synchronized void adapt(HealthCheck.HealthCheckResult original,
+                                        HealthCheck.HealthCheckResult updated) {
+            if (this.cancelled || this.maxPeriodNanos == this.periodNanos) {
+                return;
+            }
+            boolean stable = original != null && original.getStatus() == updated.getStatus()
+                    && updated.getStatus() == HealthCheck.HealthStatus.HEALTHY;
+            if (stable) {
+                this.currentPeriodNanos = (long) Math.min(this.currentPeriodNanos * this.backoffMultiplier,
+                        this.maxPeriodNanos);
+                return;
+            }
+            if (this.currentPeriodNanos == this.periodNanos) {
+                return;
+            }
+            this.currentPeriodNanos = this.periodNanos;
+            long now = timeSource.nanoTime();
+            if (!this.running && this.nextNominalNanos - now > this.periodNanos) {
+                if (this.timeout != null) {
+                    this.timeout.cancel();
+                }
+                this.nextNominalNanos = now + this.periodNanos;
+                this.armJittered(this.periodNanos);
+            }
+        }
+
+        private synchronized ScheduledCheckInfo info() {
+            return new ScheduledCheckInfo(this.healthCheckName, this.scheduleSpec,
+                    Duration.ofNanos(this.phaseOffsetNanos), Duration.ofNanos(this.currentPeriodNanos),
+                    this.executions, this.overrunTicks, this.skippedTicks, this.pendingTicks,
+                    this.overlapPreventedTicks, this.timedOutRuns, this.running, Duration.ofNanos(this.lastDriftNanos),
+                    Duration.ofNanos(this.maxDriftNanos), pauseHolds.containsKey(this.healthCheckName),
+                    this.pausedTicks);
+        }
+
+        private synchronized void cancel() {
+            this.cancelled = true;
+            if (this.timeout != null) {
+                this.timeout.cancel();
+            }
+            if (this.checkMetrics != null) {
+                metrics.remove(this.healthCheckName, this.checkMetrics);
+            }
+            this.leaveBucket();
+        }
+
+        private void leaveBucket() {
+            if (this.bucketKey != null) {
+                tickBuckets.computeIfPresent(this.bucketKey, (key, bucket) -> bucket.leave(this) ? null : bucket);
+                this.bucketKey = null;
+            }
+        }
+    }
+
+    /**
+     * Identifies the checks that share one tick: the same period, and phases rounded up to the same slot.
+     *
+     * @param periodNanos    the period of the checks
+     * @param slotPhaseNanos the phase of the tick within the period
+     */
+    private record BucketKey(long periodNanos, long slotPhaseNanos) {
+    }
+
+    /**
+     * One timer entry for all bucketed tasks with the same {@link BucketKey}. Members join and leave while the map
+     * entry is locked, so an emptied bucket is disarmed and removed before anyone can join it again. The members and
+     * the armed tick are guarded by the bucket's monitor; the armed tick, like a task's, carries a generation. A tick
+     * walks a copy of the members in the order they joined, taken again only after they changed.
+     */
+    private final class TickBucket {
+        private final BucketKey key;
+        private final Set<ScheduledTask> members;
+        private ScheduledTask[] snapshot;
+        private TaskTimer.Timeout timeout;
+        private long generation;
+        private long nextNominalNanos;
+        private boolean armed;
+
+        private TickBucket(BucketKey key) {
+            this.key = key;
+            this.members = new LinkedHashSet<>();
+        }
+
+        private synchronized void join(ScheduledTask task, long firstNominalNanos) {
+            this.members.add(task);
+            this.snapshot = null;
+            if (!this.armed || firstNominalNanos < this.nextNominalNanos) {
+                this.arm(firstNominalNanos, timeSource.nanoTime());
+            }
+        }
+
+        /**
+         * @return true if the bucket is empty now and was disarmed
+         */
+        private synchronized boolean leave(ScheduledTask task) {
+            this.members.remove(task);
+            this.snapshot = null;
+            if (!this.members.isEmpty()) {
+                return false;
+            }
+            this.disarm();
+            return true;
+        }
+
+        private void fire(long armedGeneration) {
+            long now;
+            long nominalNanos;
+            ScheduledTask[] tickMembers;
+            synchronized (this) {
+                if (!this.armed || armedGeneration != this.generation) {
+                    return;
+                }
+                now = timeSource.nanoTime();
+                nominalNanos = this.nextNominalNanos;
+                long dueTicks = now > nominalNanos ? 1 + (now - nominalNanos) / this.key.periodNanos() : 1;
+                this.arm(nominalNanos + dueTicks * this.key.periodNanos(), now);
+                if (this.snapshot == null) {
+                    this.snapshot = this.members.toArray(new ScheduledTask[0]);
+                }
+                tickMembers = this.snapshot;
+            }
+
+            List<ScheduledTask> batch = new ArrayList<>(tickMembers.length);
+            for (ScheduledTask member : tickMembers) {
+                if (member.onBucketTick(this.key, now, nominalNanos)) {
+                    batch.add(member);
+                }
+            }
+            dispatchBatch(batch);
+        }
+
+        private void arm(long nominalNanos, long now) {
+            if (this.timeout != null) {
+                this.timeout.cancel();
+            }
+            this.armed = true;
+            this.nextNominalNanos = nominalNanos;
+            long armedGeneration = ++this.generation;
+            this.timeout = taskTimer.schedule(() -> this.fire(armedGeneration), Math.max(0L, nominalNanos - now),
+                    TimeUnit.NANOSECONDS);
+        }
+
+        private synchronized void disarm() {
+            this.armed = false;
+            if (this.timeout != null) {
+                this.timeout.cancel();
+            }
+        }
+    }
+
+    /**
+     * The state of a {@link MaintenanceWindow}: the health checks it paused while open, and the armed closing. A
+     * window that opens again before it closed extends itself; every arming gets a new generation, like a task's.
+     */
+    private final class OpenWindow {
+        private final MaintenanceWindow maintenanceWindow;
+        private final String hold;
+        private Set<String> paused;
+        private TaskTimer.Timeout closing;
+        private long generation;
+
+        private OpenWindow(MaintenanceWindow maintenanceWindow) {
+            this.maintenanceWindow = maintenanceWindow;
+            this.hold = WINDOW_HOLD_PREFIX + maintenanceWindow.name();
+            this.paused = new HashSet<>();
+        }
+
+        private void open() {
+            Set<String> names = resolve(this.maintenanceWindow.filter());
+            synchronized (this) {
+                if (this.closing != null) {
+                    this.closing.cancel();
+                }
+                this.paused.addAll(names);
+                long armedGeneration = ++this.generation;
+                this.closing = taskTimer.schedule(() -> this.close(armedGeneration),
+                        this.maintenanceWindow.duration().toNanos(), TimeUnit.NANOSECONDS);
+            }
+            names.forEach(healthCheckName -> hold(healthCheckName, this.hold));
+            LOGGER.info("Maintenance window [{}] opened, pausing {} health check(s)", this.maintenanceWindow.name(),
+                    names.size());
+        }
+
+        private void close() {
+            long armedGeneration;
+            synchronized (this) {
+                armedGeneration = this.generation;
+            }
+            this.close(armedGeneration);
+        }
+
+        private void close(long armedGeneration) {
+            Set<String> names;
+            synchronized (this) {
+                if (armedGeneration != this.generation || this.paused.isEmpty()) {
+                    return;
+                }
+                names = this.paused;
+                this.paused = new HashSet<>();
+                this.closing = null;
+            }
+            names.forEach(healthCheckName -> release(healthCheckName, this.hold,
+                    this.maintenanceWindow.resumePolicy()));
+            LOGGER.info("Maintenance window [{}] closed, resuming {} health check(s)", this.maintenanceWindow.name(),
+                    names.size());
+        }
+
+        private synchronized void disarm() {
+            this.generation++;
+            if (this.closing != null) {
+                this.closing.cancel();
+            }
+        }
+    }
+
+    /**
+     * Builder for {@link DefaultHealthCheckScheduler}. Only the health check executor is required.
+     */
+    public static class Builder {
+        private HealthCheckExecutor healthCheckExecutor;
+        private HealthCheckRegistry healthCheckRegistry;
+        private InternalScheduler internalScheduler;
+        private TaskTimer taskTimer;
+        private Duration bucketResolution = DEFAULT_BUCKET_RESOLUTION;
+        private int bucketConcurrency = Math.max(2, Runtime.getRuntime().availableProcessors());
+        private TimeSource timeSource = TimeSource.SYSTEM;
+        private Executor dispatchExecutor;
+        private DispatchMode dispatchMode = DispatchMode.FIFO;
+        private int dispatchThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        private Long jitterSeed;
+
+        public Builder withHealthCheckExecutor(@Nonnull HealthCheckExecutor healthCheckExecutor) {
+            this.healthCheckExecutor = Preconditions.checkNotNull(healthCheckExecutor,
+                    "Health check executor must not be null");
+            return this;
+        }
+
+        /**
+         * @param healthCheckRegistry the registry that filters passed to {@link #pause(HealthCheckFilter)} and
+         *                            maintenance windows are evaluated against, or null to match them against the
+         *                            names of the periodic checks only
+         */
+        public Builder withHealthCheckRegistry(@Nullable HealthCheckRegistry healthCheckRegistry) {
+            this.healthCheckRegistry = healthCheckRegistry;
+            return this;
+        }
+
+        /**
+         * @param internalScheduler the pool that batches of bucketed checks run on, shut down when the scheduler is
+         *                          closed; defaults to the shared instance
+         */
+        public Builder withInternalScheduler(@Nonnull InternalScheduler internalScheduler) {
+            this.internalScheduler = Preconditions.checkNotNull(internalScheduler,
+                    "Internal scheduler must not be null");
+            return this;
+        }
+
+        /**
+         * @param taskTimer the timer that arms the ticks; defaults to one backed by the internal scheduler
+         */
+        public Builder withTaskTimer(@Nonnull TaskTimer taskTimer) {
+            this.taskTimer = Preconditions.checkNotNull(taskTimer, "Task timer must not be null");
+            return this;
+        }
+
+        /**
+         * @param bucketResolution the slot width that groups checks sharing a period into one tick, or
+         *                         {@link Duration#ZERO} to give every check its own timer entry
+         */
+        public Builder withBucketResolution(@Nonnull Duration bucketResolution) {
+            Preconditions.checkNotNull(bucketResolution, "Bucket resolution must not be null");
+            Preconditions.checkArgument(!bucketResolution.isNegative(), "Bucket resolution must be non-negative");
+            this.bucketResolution = bucketResolution;
+            return this;
+        }
+
+        /**
+         * @param bucketConcurrency how many threads one batch of a tick bucket may use at most
+         */
+        public Builder withBucketConcurrency(int bucketConcurrency) {
+            Preconditions.checkArgument(bucketConcurrency > 0, "Bucket concurrency must be greater than zero");
+            this.bucketConcurrency = bucketConcurrency;
+            return this;
+        }
+
+        /**
+         * @param timeSource the time source for ticks, drift and cron expressions; must be the one the task timer
+         *                   runs on
+         */
+        public Builder withTimeSource(@Nonnull TimeSource timeSource) {
+            this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
+            return this;
+        }
+
+        /**
+         * @param dispatchExecutor the executor that scheduled runs execute on instead of the health check
+         *                         executor's pool, for example {@code Runnable::run} to run them on the timer
+         *                         thread in a simulation
+         */
+        public Builder withDispatchExecutor(@Nonnull Executor dispatchExecutor) {
+            this.dispatchExecutor = Preconditions.checkNotNull(dispatchExecutor,
+                    "Dispatch executor must not be null");
+            return this;
+        }
+
+        /**
+         * @param dispatchMode the order in which scheduled runs get a thread; defaults to {@link DispatchMode#FIFO}
+         */
+        public Builder withDispatchMode(@Nonnull DispatchMode dispatchMode) {
+            this.dispatchMode = Preconditions.checkNotNull(dispatchMode, "Dispatch mode must not be null");
+            return this;
+        }
+
+        /**
+         * @param dispatchThreads the number of threads of the deadline executor in
+         *                        {@link DispatchMode#EARLIEST_DEADLINE_FIRST} mode
+         */
+        public Builder withDispatchThreads(int dispatchThreads) {
+            Preconditions.checkArgument(dispatchThreads > 0, "Dispatch threads must be greater than zero");
+            this.dispatchThreads = dispatchThreads;
+            return this;
+        }
+
+        /**
+         * @param jitterSeed the seed that the jitter of every check is drawn from, so that a simulation in virtual
+         *                   time jitters the same way on every run; without one the jitter is drawn from
+         *                   {@link ThreadLocalRandom}
+         */
+        public Builder withJitterSeed(long jitterSeed) {
+            this.jitterSeed = jitterSeed;
+            return this;
+        }
+
+        public DefaultHealthCheckScheduler build() {
+            Preconditions.checkState(this.dispatchMode == DispatchMode.FIFO || this.dispatchExecutor == null,
+                    "A dispatch executor cannot be combined with earliest deadline first dispatch");
+            return new DefaultHealthCheckScheduler(this);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.vitals.core.scheduler;
+
+/**
+ * The order in which scheduled runs that are waiting for a thread get one.
+ */
+public enum DispatchMode {
+    /**
+     * Runs wait in the health check executor's pool in the order they were dispatched.
+     */
+    FIFO,
+    /**
+     * Runs wait in a lane of the scheduler's own and the most urgent one runs first: the one whose next tick, or the
+     * expiry of whose last result, comes soonest.
+     */
+    EARLIEST_DEADLINE_FIRST
+}
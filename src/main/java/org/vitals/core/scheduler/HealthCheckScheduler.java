@@ -1,17 +1,51 @@
 package org.vitals.core.scheduler;
 
 import jakarta.annotation.Nonnull;
+import org.vitals.core.filter.HealthCheckFilter;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 public interface HealthCheckScheduler {
 
     void schedule(@Nonnull String healthCheckName, long initialDelay, long delay, @Nonnull TimeUnit timeUnit);
 
+    void schedule(@Nonnull String healthCheckName, @Nonnull ScheduleSpec scheduleSpec);
+
+    void scheduleAll(@Nonnull Map<String, ScheduleSpec> scheduleSpecs);
+
     void scheduleWithCron(@Nonnull String healthCheckName, @Nonnull String cronExpression);
 
+    void scheduleAllWithCron(@Nonnull Map<String, String> cronExpressions);
+
     boolean isScheduled(@Nonnull String healthCheckName);
 
     void cancelScheduledHealthCheck(@Nonnull String healthCheckName);
 
+    void reschedule(@Nonnull String healthCheckName, @Nonnull ScheduleSpec scheduleSpec);
+
+    Set<String> reschedule(@Nonnull HealthCheckFilter filter, @Nonnull ScheduleSpec scheduleSpec);
+
+    Optional<ScheduledCheckInfo> getScheduleInfo(@Nonnull String healthCheckName);
+
+    Map<String, SchedulePhase> getSchedulePhases();
+
+    void restoreSchedulePhases(@Nonnull Map<String, SchedulePhase> phases);
+
+    LoadHistogram.Snapshot getDispatchLoad();
+
+    SchedulerMetrics.Snapshot getMetrics();
+
+    Set<String> pause(@Nonnull HealthCheckFilter filter);
+
+    Set<String> resume(@Nonnull HealthCheckFilter filter, @Nonnull ResumePolicy resumePolicy);
+
+    boolean isPaused(@Nonnull String healthCheckName);
+
+    void addMaintenanceWindow(@Nonnull MaintenanceWindow maintenanceWindow);
+
+    boolean removeMaintenanceWindow(@Nonnull String name);
+
 }
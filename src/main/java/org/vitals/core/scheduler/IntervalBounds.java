@@ -0,0 +1,42 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the interval of a {@link org.vitals.core.annotation.AsyncHealthCheck.ScheduleType#TIME_TO_LIVE} schedule
+ * within limits, whatever time to live its results report.
+ *
+ * @param minInterval the shortest interval between the completion of a run and the start of the next one
+ * @param maxInterval the longest interval between the completion of a run and the start of the next one
+ */
+public record IntervalBounds(@Nonnull Duration minInterval, @Nonnull Duration maxInterval) {
+
+    /**
+     * Bounds that let the time to live alone decide.
+     */
+    public static final IntervalBounds UNBOUNDED = new IntervalBounds(Duration.ZERO, Duration.ofNanos(Long.MAX_VALUE));
+
+    public IntervalBounds {
+        Preconditions.checkNotNull(minInterval, "Min interval must not be null");
+        Preconditions.checkNotNull(maxInterval, "Max interval must not be null");
+        Preconditions.checkArgument(!minInterval.isNegative(), "Min interval must be non-negative");
+        Preconditions.checkArgument(maxInterval.compareTo(minInterval) >= 0 && !maxInterval.isZero(),
+                "Max interval must be greater than zero and not less than the min interval");
+    }
+
+    /**
+     * Clamps an interval to the bounds.
+     *
+     * @param intervalNanos the interval in nanoseconds
+     * @return the interval in nanoseconds, between the min and max interval
+     */
+    public long clamp(long intervalNanos) {
+        long minNanos = TimeUnit.NANOSECONDS.convert(this.minInterval);
+        long maxNanos = TimeUnit.NANOSECONDS.convert(this.maxInterval);
+        return Math.min(Math.max(intervalNanos, minNanos), maxNanos);
+    }
+}
@@ -0,0 +1,121 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of durations in power-of-two buckets, from under 1µs up to about 36 minutes. Recording is lock-free:
+ * an increment of one bucket, an add to the sum and, only when a new maximum is seen, a compare-and-set.
+ * <p>
+ * Bucket {@code i} counts durations below {@code 2^(i + 10)} nanoseconds that did not fit the previous bucket, the
+ * last bucket counts everything longer. Percentiles are therefore reported as the upper bound of the bucket they
+ * fall into, capped at the largest recorded duration.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    public static final int BUCKET_COUNT = 32;
+    private static final int MIN_SHIFT = 10;
+
+    private final AtomicLongArray buckets;
+    private final LongAdder sumNanos;
+    private final AtomicLong maxNanos;
+
+    public LatencyHistogram() {
+        this.buckets = new AtomicLongArray(BUCKET_COUNT);
+        this.sumNanos = new LongAdder();
+        this.maxNanos = new AtomicLong();
+    }
+
+    /**
+     * Returns the exclusive upper bound of a bucket.
+     *
+     * @param bucket the bucket index
+     * @return the upper bound in nanoseconds, or {@link Long#MAX_VALUE} for the last bucket
+     */
+    public static long upperBoundNanos(int bucket) {
+        return bucket >= BUCKET_COUNT - 1 ? Long.MAX_VALUE : 1L << (bucket + MIN_SHIFT);
+    }
+
+    /**
+     * Records one duration, negative durations are recorded as zero.
+     *
+     * @param nanos the duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0L, nanos);
+        int bits = 64 - Long.numberOfLeadingZeros(value);
+        this.buckets.incrementAndGet(Math.min(Math.max(0, bits - MIN_SHIFT), BUCKET_COUNT - 1));
+        this.sumNanos.add(value);
+        if (value > this.maxNanos.get()) {
+            this.maxNanos.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns a copy of the counts. The copy is not atomic across buckets, a concurrent recording may show up in the
+     * sum but not yet in its bucket.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] = this.buckets.get(i);
+            count += counts[i];
+        }
+        return new Snapshot(count, this.sumNanos.sum(), this.maxNanos.get(), counts);
+    }
+
+    /**
+     * Point-in-time copy of a {@link LatencyHistogram}.
+     *
+     * @param count    the number of recorded durations
+     * @param sumNanos the sum of the recorded durations
+     * @param maxNanos the largest recorded duration
+     * @param counts   the number of durations in each bucket
+     */
+    public record Snapshot(long count, long sumNanos, long maxNanos, long[] counts) {
+
+        public Duration mean() {
+            return this.count == 0 ? Duration.ZERO : Duration.ofNanos(this.sumNanos / this.count);
+        }
+
+        public Duration max() {
+            return Duration.ofNanos(this.maxNanos);
+        }
+
+        /**
+         * Returns the duration below which the given fraction of the recorded durations fall.
+         *
+         * @param quantile the fraction, between 0 and 1
+         * @return the upper bound of the bucket that holds the quantile, or zero if nothing was recorded
+         */
+        public Duration percentile(double quantile) {
+            Preconditions.checkArgument(quantile >= 0.0 && quantile <= 1.0, "Quantile must be between 0 and 1");
+            if (this.count == 0) {
+                return Duration.ZERO;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * this.count));
+            long seen = 0;
+            for (int i = 0; i < this.counts.length; i++) {
+                seen += this.counts[i];
+                if (seen >= rank) {
+                    return Duration.ofNanos(Math.min(upperBoundNanos(i), this.maxNanos));
+                }
+            }
+            return Duration.ofNanos(this.maxNanos);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{count=" + this.count + ", mean=" + this.mean() + ", p99=" + this.percentile(0.99)
+                    + ", max=" + this.max() + "}";
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.vitals.core.util.TimeSource;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts events per fixed-width time slot over a rolling window, for example how many scheduled runs were dispatched
+ * in each 10ms slot of the last minute. Recording is lock-free.
+ * <p>
+ * Each slot packs the index of the time slot it currently counts for and the count itself into one {@code long}, so
+ * a slot that is reused for a newer time slot is reset and incremented in a single compare-and-set.
+ * </p>
+ */
+public final class LoadHistogram {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final long slotNanos;
+    private final TimeSource timeSource;
+    private final long originNanos;
+    private final AtomicLongArray slots;
+
+    /**
+     * @param slotWidth  the width of one time slot
+     * @param slotCount  the number of slots kept, so the window covers {@code slotWidth * slotCount}
+     * @param timeSource the time source that event times come from
+     */
+    public LoadHistogram(@Nonnull Duration slotWidth, int slotCount, @Nonnull TimeSource timeSource) {
+        Preconditions.checkNotNull(slotWidth, "Slot width must not be null");
+        Preconditions.checkArgument(slotWidth.toNanos() > 0, "Slot width must be greater than zero");
+        Preconditions.checkArgument(slotCount > 0, "Slot count must be greater than zero");
+        this.slotNanos = slotWidth.toNanos();
+        this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
+        this.originNanos = timeSource.nanoTime();
+        this.slots = new AtomicLongArray(slotCount);
+    }
+
+    public LoadHistogram(@Nonnull Duration slotWidth, int slotCount) {
+        this(slotWidth, slotCount, TimeSource.SYSTEM);
+    }
+
+    public void record() {
+        this.record(this.timeSource.nanoTime());
+    }
+
+    /**
+     * Counts one event at the given time.
+     *
+     * @param nanoTime the {@link TimeSource#nanoTime()} of the event
+     */
+    public void record(long nanoTime) {
+        long epoch = this.epoch(nanoTime);
+        if (epoch < 0) {
+            return;
+        }
+        int index = (int) (epoch % this.slots.length());
+        while (true) {
+            long current = this.slots.get(index);
+            long currentEpoch = current >>> COUNT_BITS;
+            long next;
+            if (currentEpoch == epoch) {
+                if ((current & COUNT_MASK) == COUNT_MASK) {
+                    return;
+                }
+                next = current + 1;
+            } else if (currentEpoch < epoch) {
+                next = (epoch << COUNT_BITS) | 1;
+            } else {
+                // the slot already moved on to a newer time slot, this event is outside the window
+                return;
+            }
+            if (this.slots.compareAndSet(index, current, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the counts of the slots in the window, oldest first, ending with the slot that is currently counting.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        int slotCount = this.slots.length();
+        long now = this.epoch(this.timeSource.nanoTime());
+        long[] counts = new long[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            long epoch = now - (slotCount - 1) + i;
+            if (epoch < 0) {
+                continue;
+            }
+            long value = this.slots.get((int) (epoch % slotCount));
+            if (value >>> COUNT_BITS == epoch) {
+                counts[i] = value & COUNT_MASK;
+            }
+        }
+        return new Snapshot(Duration.ofNanos(this.slotNanos), counts);
+    }
+
+    private long epoch(long nanoTime) {
+        return Math.floorDiv(nanoTime - this.originNanos, this.slotNanos);
+    }
+
+    /**
+     * Counts per time slot, oldest first.
+     *
+     * @param slotWidth the width of one time slot
+     * @param counts    the number of events in each slot
+     */
+    public record Snapshot(Duration slotWidth, long[] counts) {
+
+        public long total() {
+            return Arrays.stream(this.counts).sum();
+        }
+
+        public long max() {
+            return Arrays.stream(this.counts).max().orElse(0L);
+        }
+
+        public double mean() {
+            return this.counts.length == 0 ? 0.0 : (double) this.total() / this.counts.length;
+        }
+
+        /**
+         * Ratio of the busiest slot to the average slot; 1.0 means perfectly even load.
+         *
+         * @return the peak-to-mean ratio, or 0 if nothing was recorded
+         */
+        public double peakToMean() {
+            double mean = this.mean();
+            return mean == 0.0 ? 0.0 : this.max() / mean;
+        }
+    }
+}
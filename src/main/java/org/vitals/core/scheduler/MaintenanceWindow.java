@@ -0,0 +1,34 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import org.vitals.core.filter.HealthCheckFilter;
+
+import java.time.Duration;
+
+/**
+ * A recurring period during which the scheduled health checks matching a filter are paused. The window opens
+ * whenever its cron expression fires and closes after its duration; the filter is evaluated when the window opens.
+ *
+ * @param name           the name of the window
+ * @param cronExpression when the window opens
+ * @param duration       how long the window stays open
+ * @param filter         the health checks paused by the window
+ * @param resumePolicy   what the health checks do when the window closes
+ */
+public record MaintenanceWindow(String name, String cronExpression, Duration duration, HealthCheckFilter filter,
+                                ResumePolicy resumePolicy) {
+
+    public MaintenanceWindow {
+        Preconditions.checkNotNull(name, "Maintenance window name must not be null");
+        Preconditions.checkArgument(!name.trim().isEmpty(), "Maintenance window name must not be empty");
+        Preconditions.checkNotNull(cronExpression, "Cron expression must not be null");
+        Preconditions.checkNotNull(duration, "Duration must not be null");
+        Preconditions.checkArgument(duration.toNanos() > 0, "Duration must be greater than zero");
+        Preconditions.checkNotNull(filter, "Health check filter must not be null");
+        Preconditions.checkNotNull(resumePolicy, "Resume policy must not be null");
+    }
+
+    public MaintenanceWindow(String name, String cronExpression, Duration duration, HealthCheckFilter filter) {
+        this(name, cronExpression, duration, filter, ResumePolicy.NEXT_TICK);
+    }
+}
@@ -0,0 +1,15 @@
+package org.vitals.core.scheduler;
+
+/**
+ * What a paused health check does when it is resumed.
+ */
+public enum ResumePolicy {
+    /**
+     * Run the health check once right away, then continue with its schedule.
+     */
+    RUN_IMMEDIATELY,
+    /**
+     * Wait for the next tick of the health check's schedule.
+     */
+    NEXT_TICK
+}
@@ -0,0 +1,25 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Where the schedule of a periodic health check stands, so that another scheduler can carry it on, for example after
+ * a restart.
+ *
+ * @param nextRun         the wall-clock time of the next nominal run
+ * @param period          the period of the schedule, a phase only carries over to a schedule with the same period
+ * @param currentInterval the interval currently used between runs, longer than the period while an adaptive
+ *                        interval backs off
+ */
+public record SchedulePhase(@Nonnull Instant nextRun, @Nonnull Duration period, @Nonnull Duration currentInterval) {
+
+    public SchedulePhase {
+        Preconditions.checkNotNull(nextRun, "Next run must not be null");
+        Preconditions.checkNotNull(period, "Period must not be null");
+        Preconditions.checkNotNull(currentInterval, "Current interval must not be null");
+    }
+}
@@ -0,0 +1,273 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.vitals.core.annotation.AsyncHealthCheck;
+import org.vitals.core.annotation.AsyncHealthCheck.OverrunPolicy;
+import org.vitals.core.annotation.AsyncHealthCheck.PhaseSpreading;
+import org.vitals.core.annotation.AsyncHealthCheck.ScheduleType;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Describes how a periodic health check is scheduled: its period, initial delay, whether runs are aligned to a fixed
+ * rate or separated by a fixed delay, what happens to ticks that are missed while a run is still in progress and how
+ * long a run may take before the schedule moves on. To avoid load spikes, the first run can be offset within the
+ * period by {@link PhaseSpreading} and each tick delayed by a random jitter. An {@link AdaptiveInterval} lets a
+ * stable check back off beyond its period. A {@link ScheduleType#TIME_TO_LIVE} schedule follows the time to live of
+ * the check's results instead, within its {@link IntervalBounds}.
+ * <p>
+ * Instances are immutable. Use the {@link Builder} to create them, or {@link #from(AsyncHealthCheck)} to read them
+ * from the annotation.
+ * </p>
+ */
+public final class ScheduleSpec {
+
+    private final long initialDelay;
+    private final long period;
+    private final TimeUnit timeUnit;
+    private final ScheduleType scheduleType;
+    private final OverrunPolicy overrunPolicy;
+    private final Duration timeout;
+    private final PhaseSpreading phaseSpreading;
+    private final long jitter;
+    private final AdaptiveInterval adaptiveInterval;
+    private final IntervalBounds intervalBounds;
+
+    private ScheduleSpec(Builder builder) {
+        this.initialDelay = builder.initialDelay;
+        this.period = builder.period;
+        this.timeUnit = builder.timeUnit;
+        this.scheduleType = builder.scheduleType;
+        this.overrunPolicy = builder.overrunPolicy;
+        this.timeout = builder.timeout;
+        this.phaseSpreading = builder.phaseSpreading;
+        this.jitter = builder.jitter;
+        this.adaptiveInterval = builder.adaptiveInterval;
+        this.intervalBounds = builder.intervalBounds;
+    }
+
+    /**
+     * Creates a spec from an {@link AsyncHealthCheck} annotation.
+     *
+     * @param asyncHealthCheck the annotation
+     * @return the schedule described by the annotation
+     */
+    public static ScheduleSpec from(@Nonnull AsyncHealthCheck asyncHealthCheck) {
+        Preconditions.checkNotNull(asyncHealthCheck, "Async health check must not be null");
+        AdaptiveInterval adaptiveInterval = asyncHealthCheck.maxPeriod() > 0
+                ? new AdaptiveInterval(Duration.ofNanos(asyncHealthCheck.unit().toNanos(asyncHealthCheck.maxPeriod())))
+                : null;
+        return new Builder().withInitialDelay(asyncHealthCheck.initialDelay())
+                .withPeriod(asyncHealthCheck.period())
+                .withTimeUnit(asyncHealthCheck.unit())
+                .withScheduleType(asyncHealthCheck.scheduleType())
+                .withOverrunPolicy(asyncHealthCheck.overrunPolicy())
+                .withPhaseSpreading(asyncHealthCheck.phaseSpreading())
+                .withJitter(asyncHealthCheck.jitter())
+                .withAdaptiveInterval(adaptiveInterval)
+                .build();
+    }
+
+    /**
+     * Returns a builder initialized with this spec's settings.
+     *
+     * @return a new builder
+     */
+    public Builder toBuilder() {
+        return new Builder().withInitialDelay(this.initialDelay)
+                .withPeriod(this.period)
+                .withTimeUnit(this.timeUnit)
+                .withScheduleType(this.scheduleType)
+                .withOverrunPolicy(this.overrunPolicy)
+                .withTimeout(this.timeout)
+                .withPhaseSpreading(this.phaseSpreading)
+                .withJitter(this.jitter)
+                .withAdaptiveInterval(this.adaptiveInterval)
+                .withIntervalBounds(this.intervalBounds);
+    }
+
+    public long getInitialDelay() {
+        return this.initialDelay;
+    }
+
+    public long getPeriod() {
+        return this.period;
+    }
+
+    public TimeUnit getTimeUnit() {
+        return this.timeUnit;
+    }
+
+    public ScheduleType getScheduleType() {
+        return this.scheduleType;
+    }
+
+    public OverrunPolicy getOverrunPolicy() {
+        return this.overrunPolicy;
+    }
+
+    /**
+     * How long the scheduler waits for a run to complete before it treats the run as finished and carries on with
+     * the schedule. The run itself is not interrupted.
+     *
+     * @return the timeout, or empty to wait for as long as the run takes
+     */
+    public Optional<Duration> getTimeout() {
+        return Optional.ofNullable(this.timeout);
+    }
+
+    public PhaseSpreading getPhaseSpreading() {
+        return this.phaseSpreading;
+    }
+
+    public long getJitter() {
+        return this.jitter;
+    }
+
+    public Optional<AdaptiveInterval> getAdaptiveInterval() {
+        return Optional.ofNullable(this.adaptiveInterval);
+    }
+
+    /**
+     * The limits on the interval of a {@link ScheduleType#TIME_TO_LIVE} schedule, ignored by the other types.
+     *
+     * @return the interval bounds, {@link IntervalBounds#UNBOUNDED} unless set
+     */
+    public IntervalBounds getIntervalBounds() {
+        return this.intervalBounds;
+    }
+
+    long getInitialDelayNanos() {
+        return this.timeUnit.toNanos(this.initialDelay);
+    }
+
+    long getPeriodNanos() {
+        return this.timeUnit.toNanos(this.period);
+    }
+
+    long getJitterNanos() {
+        return this.timeUnit.toNanos(this.jitter);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof ScheduleSpec that))
+            return false;
+        return this.getInitialDelayNanos() == that.getInitialDelayNanos()
+                && this.getPeriodNanos() == that.getPeriodNanos() && this.scheduleType == that.scheduleType
+                && this.overrunPolicy == that.overrunPolicy && Objects.equals(this.timeout, that.timeout)
+                && this.phaseSpreading == that.phaseSpreading && this.getJitterNanos() == that.getJitterNanos()
+                && Objects.equals(this.adaptiveInterval, that.adaptiveInterval)
+                && this.intervalBounds.equals(that.intervalBounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.getInitialDelayNanos(), this.getPeriodNanos(), this.scheduleType,
+                this.overrunPolicy, this.timeout, this.phaseSpreading, this.getJitterNanos(), this.adaptiveInterval,
+                this.intervalBounds);
+    }
+
+    @Override
+    public String toString() {
+        return "ScheduleSpec{" + "initialDelay=" + this.initialDelay +
+                ", period=" + this.period +
+                ", timeUnit=" + this.timeUnit +
+                ", scheduleType=" + this.scheduleType +
+                ", overrunPolicy=" + this.overrunPolicy +
+                ", timeout=" + this.timeout +
+                ", phaseSpreading=" + this.phaseSpreading +
+                ", jitter=" + this.jitter +
+                ", adaptiveInterval=" + this.adaptiveInterval +
+                ", intervalBounds=" + this.intervalBounds +
+                '}';
+    }
+
+    public static class Builder {
+        private long initialDelay = 0L;
+        private long period;
+        private TimeUnit timeUnit = TimeUnit.SECONDS;
+        private ScheduleType scheduleType = ScheduleType.FIXED_RATE;
+        private OverrunPolicy overrunPolicy = OverrunPolicy.SKIP;
+        private Duration timeout;
+        private PhaseSpreading phaseSpreading = PhaseSpreading.NONE;
+        private long jitter = 0L;
+        private AdaptiveInterval adaptiveInterval;
+        private IntervalBounds intervalBounds = IntervalBounds.UNBOUNDED;
+
+        public Builder withInitialDelay(long initialDelay) {
+            this.initialDelay = initialDelay;
+            return this;
+        }
+
+        public Builder withPeriod(long period) {
+            this.period = period;
+            return this;
+        }
+
+        public Builder withTimeUnit(@Nonnull TimeUnit timeUnit) {
+            this.timeUnit = Preconditions.checkNotNull(timeUnit, "Time unit must not be null");
+            return this;
+        }
+
+        public Builder withScheduleType(@Nonnull ScheduleType scheduleType) {
+            this.scheduleType = Preconditions.checkNotNull(scheduleType, "Schedule type must not be null");
+            return this;
+        }
+
+        public Builder withOverrunPolicy(@Nonnull OverrunPolicy overrunPolicy) {
+            this.overrunPolicy = Preconditions.checkNotNull(overrunPolicy, "Overrun policy must not be null");
+            return this;
+        }
+
+        public Builder withTimeout(Duration timeout) {
+            Preconditions.checkArgument(timeout == null || timeout.compareTo(Duration.ZERO) > 0,
+                    "Timeout must be greater than zero");
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder withPhaseSpreading(@Nonnull PhaseSpreading phaseSpreading) {
+            this.phaseSpreading = Preconditions.checkNotNull(phaseSpreading, "Phase spreading must not be null");
+            return this;
+        }
+
+        /**
+         * Sets the upper bound of a random delay added to every tick, in the spec's time unit.
+         *
+         * @param jitter the maximum jitter, less than the period
+         * @return this builder
+         */
+        public Builder withJitter(long jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        public Builder withAdaptiveInterval(AdaptiveInterval adaptiveInterval) {
+            this.adaptiveInterval = adaptiveInterval;
+            return this;
+        }
+
+        public Builder withIntervalBounds(@Nonnull IntervalBounds intervalBounds) {
+            this.intervalBounds = Preconditions.checkNotNull(intervalBounds, "Interval bounds must not be null");
+            return this;
+        }
+
+        public ScheduleSpec build() {
+            Preconditions.checkArgument(this.initialDelay >= 0, "Initial delay must be non-negative");
+            Preconditions.checkArgument(this.period > 0, "Period must be greater than zero");
+            Preconditions.checkArgument(this.jitter >= 0 && this.jitter < this.period,
+                    "Jitter must be non-negative and less than the period");
+            Preconditions.checkArgument(this.adaptiveInterval == null
+                            || this.adaptiveInterval.maxInterval().toNanos() > this.timeUnit.toNanos(this.period),
+                    "Max interval must be greater than the period");
+            return new ScheduleSpec(this);
+        }
+    }
+}
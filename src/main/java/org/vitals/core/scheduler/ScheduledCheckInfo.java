@@ -0,0 +1,30 @@
+package org.vitals.core.scheduler;
+
+import java.time.Duration;
+
+/**
+ * Point-in-time view of a periodic health check's schedule.
+ *
+ * @param healthCheckName       the name of the health check
+ * @param scheduleSpec          the schedule the check runs on
+ * @param phaseOffset           offset of the first run within the period, from phase spreading
+ * @param currentInterval       the interval currently used between ticks; differs from the period only with an
+ *                              adaptive interval
+ * @param executions            number of runs dispatched so far
+ * @param overrunTicks          ticks that came due while the previous run was still in progress or the
+ *                              scheduler was late
+ * @param skippedTicks          overrun ticks that were dropped without a run of their own
+ * @param pendingTicks          overrun ticks still waiting to run
+ * @param overlapPreventedTicks ticks that would have overlapped a run still in progress
+ * @param timedOutRuns          runs the scheduler stopped waiting for after the schedule's timeout
+ * @param running               whether a run is currently in progress
+ * @param lastDrift             start of the last run minus its nominal start time
+ * @param maxDrift              largest drift observed so far
+ * @param paused                whether the check is paused, by a call to pause or a maintenance window
+ * @param pausedTicks           ticks that came due while the check was paused
+ */
+public record ScheduledCheckInfo(String healthCheckName, ScheduleSpec scheduleSpec, Duration phaseOffset,
+                                 Duration currentInterval, long executions, long overrunTicks, long skippedTicks,
+                                 long pendingTicks, long overlapPreventedTicks, long timedOutRuns, boolean running,
+                                 Duration lastDrift, Duration maxDrift, boolean paused, long pausedTicks) {
+}
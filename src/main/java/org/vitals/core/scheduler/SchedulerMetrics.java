@@ -0,0 +1,230 @@
+package org.vitals.core.scheduler;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Records whether periodic health checks run on time, per health check and across all of them:
+ * <ul>
+ * <li>fire lag, how long after its nominal start a run was dispatched,</li>
+ * <li>queue wait, how long a dispatched run waited for a thread before the health check started,</li>
+ * <li>missed fires, ticks that passed while the timer was late and got no fire of their own,</li>
+ * <li>skipped fires, ticks dropped by the {@link org.vitals.core.annotation.AsyncHealthCheck.OverrunPolicy},</li>
+ * <li>overruns, ticks that came due while a run was in progress or was late,</li>
+ * <li>timed out runs,</li>
+ * <li>deadline misses, runs that completed after their next tick or after their last result expired.</li>
+ * </ul>
+ * All recording is lock-free. A snapshot can be exported in the Prometheus text format.
+ */
+public final class SchedulerMetrics {
+
+    private static final String PREFIX = "vitals_scheduler_";
+
+    private final CheckMetrics global;
+    private final Map<String, CheckMetrics> checks;
+
+    public SchedulerMetrics() {
+        this.global = new CheckMetrics(null);
+        this.checks = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Starts the metrics of a newly scheduled health check. Recording goes through the returned handle, so the hot
+     * path does no map lookups and a run completing after the check was cancelled does not bring it back.
+     */
+    CheckMetrics register(String healthCheckName) {
+        CheckMetrics check = new CheckMetrics(this.global);
+        this.checks.put(healthCheckName, check);
+        return check;
+    }
+
+    /**
+     * Drops the metrics of a health check that is no longer scheduled. The global metrics keep its counts.
+     */
+    void remove(String healthCheckName, CheckMetrics check) {
+        this.checks.remove(healthCheckName, check);
+    }
+
+    public Snapshot snapshot() {
+        Map<String, CheckSnapshot> snapshots = new TreeMap<>();
+        this.checks.forEach((healthCheckName, check) -> snapshots.put(healthCheckName, check.snapshot()));
+        return new Snapshot(this.global.snapshot(), Collections.unmodifiableMap(snapshots));
+    }
+
+    public Optional<CheckSnapshot> snapshot(@Nonnull String healthCheckName) {
+        Preconditions.checkNotNull(healthCheckName, "Health check name must not be null");
+
+        CheckMetrics check = this.checks.get(healthCheckName);
+        return check != null ? Optional.of(check.snapshot()) : Optional.empty();
+    }
+
+    /**
+     * The metrics of one health check. Every recording also goes to the global metrics, if any.
+     */
+    static final class CheckMetrics {
+        private final CheckMetrics global;
+        private final LatencyHistogram fireLag = new LatencyHistogram();
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LongAdder missedFires = new LongAdder();
+        private final LongAdder skippedFires = new LongAdder();
+        private final LongAdder overruns = new LongAdder();
+        private final LongAdder timedOutRuns = new LongAdder();
+        private final LongAdder deadlineMisses = new LongAdder();
+
+        private CheckMetrics(CheckMetrics global) {
+            this.global = global;
+        }
+
+        void recordFireLag(long lagNanos) {
+            this.fireLag.record(lagNanos);
+            if (this.global != null) {
+                this.global.recordFireLag(lagNanos);
+            }
+        }
+
+        void recordQueueWait(long waitNanos) {
+            this.queueWait.record(waitNanos);
+            if (this.global != null) {
+                this.global.recordQueueWait(waitNanos);
+            }
+        }
+
+        void recordMissedFires(long ticks) {
+            this.missedFires.add(ticks);
+            if (this.global != null) {
+                this.global.recordMissedFires(ticks);
+            }
+        }
+
+        void recordOverruns(long overrunTicks, long skippedTicks) {
+            this.overruns.add(overrunTicks);
+            this.skippedFires.add(skippedTicks);
+            if (this.global != null) {
+                this.global.recordOverruns(overrunTicks, skippedTicks);
+            }
+        }
+
+        void recordTimeout() {
+            this.timedOutRuns.increment();
+            if (this.global != null) {
+                this.global.recordTimeout();
+            }
+        }
+
+        void recordDeadlineMiss() {
+            this.deadlineMisses.increment();
+            if (this.global != null) {
+                this.global.recordDeadlineMiss();
+            }
+        }
+
+        private CheckSnapshot snapshot() {
+            return new CheckSnapshot(this.fireLag.snapshot(), this.queueWait.snapshot(), this.missedFires.sum(),
+                    this.skippedFires.sum(), this.overruns.sum(), this.timedOutRuns.sum(), this.deadlineMisses.sum());
+        }
+    }
+
+    /**
+     * Scheduler metrics of one health check, or of all of them.
+     *
+     * @param fireLag        the delay between nominal start and dispatch of each run
+     * @param queueWait      the delay between dispatch and start of each run
+     * @param missedFires    the ticks passed while the timer was late
+     * @param skippedFires   the ticks dropped by the overrun policy
+     * @param overruns       the ticks that came due while a run was in progress or was late
+     * @param timedOutRuns   the runs that did not complete within the schedule's timeout
+     * @param deadlineMisses the runs that completed after their deadline
+     */
+    public record CheckSnapshot(LatencyHistogram.Snapshot fireLag, LatencyHistogram.Snapshot queueWait,
+                                long missedFires, long skippedFires, long overruns, long timedOutRuns,
+                                long deadlineMisses) {
+    }
+
+    /**
+     * @param global the metrics across all health checks, including ones that are no longer scheduled
+     * @param checks the metrics of each scheduled health check, by name
+     */
+    public record Snapshot(CheckSnapshot global, Map<String, CheckSnapshot> checks) {
+
+        /**
+         * Formats the snapshot in the Prometheus text exposition format. Global series have no labels, per health
+         * check series carry a {@code check} label.
+         *
+         * @return the exposition text
+         */
+        public String toPrometheusText() {
+            StringBuilder out = new StringBuilder();
+            writeHistogram(out, "fire_lag_seconds", "Delay between the nominal start and the dispatch of a run",
+                    CheckSnapshot::fireLag);
+            writeHistogram(out, "queue_wait_seconds", "Delay between the dispatch and the start of a run",
+                    CheckSnapshot::queueWait);
+            writeCounter(out, "missed_fires_total", "Ticks passed while the timer was late",
+                    CheckSnapshot::missedFires);
+            writeCounter(out, "skipped_fires_total", "Ticks dropped by the overrun policy",
+                    CheckSnapshot::skippedFires);
+            writeCounter(out, "overruns_total", "Ticks that came due while a run was in progress or was late",
+                    CheckSnapshot::overruns);
+            writeCounter(out, "timed_out_runs_total", "Runs that did not complete within their timeout",
+                    CheckSnapshot::timedOutRuns);
+            writeCounter(out, "deadline_misses_total", "Runs that completed after their deadline",
+                    CheckSnapshot::deadlineMisses);
+            return out.toString();
+        }
+
+        private void writeCounter(StringBuilder out, String name, String help,
+                                  ToLongFunction<CheckSnapshot> value) {
+            writeHeader(out, name, help, "counter");
+            out.append(PREFIX).append(name).append(' ').append(value.applyAsLong(this.global)).append('\n');
+            this.checks.forEach((healthCheckName, check) -> out.append(PREFIX).append(name).append("{check=\"")
+                    .append(escape(healthCheckName)).append("\"} ").append(value.applyAsLong(check)).append('\n'));
+        }
+
+        private void writeHistogram(StringBuilder out, String name, String help,
+                                    Function<CheckSnapshot, LatencyHistogram.Snapshot> value) {
+            writeHeader(out, name, help, "histogram");
+            writeHistogramSeries(out, name, "", value.apply(this.global));
+            this.checks.forEach((healthCheckName, check) -> writeHistogramSeries(out, name,
+                    "check=\"" + escape(healthCheckName) + "\"", value.apply(check)));
+        }
+
+        private static void writeHistogramSeries(StringBuilder out, String name, String labels,
+                                                 LatencyHistogram.Snapshot histogram) {
+            String separator = labels.isEmpty() ? "" : ",";
+            long cumulative = 0;
+            for (int i = 0; i < histogram.counts().length; i++) {
+                cumulative += histogram.counts()[i];
+                long upperBound = LatencyHistogram.upperBoundNanos(i);
+                String le = upperBound == Long.MAX_VALUE ? "+Inf" : Double.toString(toSeconds(upperBound));
+                out.append(PREFIX).append(name).append("_bucket{").append(labels).append(separator)
+                        .append("le=\"").append(le).append("\"} ").append(cumulative).append('\n');
+            }
+            String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+            out.append(PREFIX).append(name).append("_sum").append(suffix)
+                    .append(toSeconds(histogram.sumNanos())).append('\n');
+            out.append(PREFIX).append(name).append("_count").append(suffix).append(cumulative).append('\n');
+        }
+
+        private static void writeHeader(StringBuilder out, String name, String help, String type) {
+            out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+        }
+
+        private static double toSeconds(long nanos) {
+            return (double) nanos / TimeUnit.SECONDS.toNanos(1);
+        }
+
+        private static String escape(String labelValue) {
+            return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
+    }
+}
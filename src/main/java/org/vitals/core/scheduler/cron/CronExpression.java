@@ -0,0 +1,362 @@
+package org.vitals.core.scheduler.cron;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A precompiled cron expression.
+ * <p>
+ * Both the classic five field form ({@code minute hour day-of-month month day-of-week}) and the six field form
+ * with a leading seconds field are accepted, as well as the {@code @yearly}, {@code @monthly}, {@code @weekly},
+ * {@code @daily} and {@code @hourly} macros. Every field is compiled into a bit mask once, so computing the next
+ * fire time is a handful of mask lookups per field instead of a scan over candidate timestamps.
+ * </p>
+ * <p>
+ * Day matching follows Vixie cron: when both day-of-month and day-of-week are restricted, a day matches if
+ * either field matches. A field that starts with {@code *}, such as {@code *}{@code /2}, does not count as
+ * restricted, so a day must match both fields: {@code 0 0 *}{@code /2 * MON} fires on odd days that are Mondays.
+ * Across daylight saving transitions, fire times that fall into a gap are shifted forward by the length of the gap,
+ * and fire times that fall into an overlap fire once, unless the expression runs every hour, in which case the
+ * repeated hour is run through as well.
+ * </p>
+ * <p>
+ * Instances are immutable and thread-safe.
+ * </p>
+ */
+public final class CronExpression {
+
+    private static final int MAX_YEARS_AHEAD = 8;
+    private static final long ALL_HOURS = (1L << 24) - 1;
+    private static final long ALL_DAYS_OF_WEEK = (1L << 7) - 1;
+
+    private static final Map<String, String> MACROS = Map.of(
+            "@yearly", "0 0 0 1 1 *",
+            "@annually", "0 0 0 1 1 *",
+            "@monthly", "0 0 0 1 * *",
+            "@weekly", "0 0 0 * * 0",
+            "@daily", "0 0 0 * * *",
+            "@midnight", "0 0 0 * * *",
+            "@hourly", "0 0 * * * *");
+
+    private static final String[] MONTH_NAMES = {"JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP",
+            "OCT", "NOV", "DEC"};
+    private static final String[] DAY_NAMES = {"SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT"};
+
+    private final String expression;
+    private final long seconds;
+    private final long minutes;
+    private final long hours;
+    private final long daysOfMonth;
+    private final long months;
+    private final long daysOfWeek;
+    private final boolean daysOfMonthRestricted;
+    private final boolean daysOfWeekRestricted;
+
+    private CronExpression(String expression, String[] fields) {
+        this.expression = expression;
+        this.seconds = parseField(fields[0], 0, 59, null, "seconds");
+        this.minutes = parseField(fields[1], 0, 59, null, "minutes");
+        this.hours = parseField(fields[2], 0, 23, null, "hours");
+        this.daysOfMonth = parseField(fields[3], 1, 31, null, "day-of-month");
+        this.months = parseField(fields[4], 1, 12, MONTH_NAMES, "month");
+
+        long dow = parseField(fields[5], 0, 7, DAY_NAMES, "day-of-week");
+        // 7 is an alias for Sunday
+        this.daysOfWeek = (dow & (1L << 7)) != 0 ? (dow | 1L) & ~(1L << 7) : dow;
+
+        this.daysOfMonthRestricted = !isUnrestricted(fields[3]);
+        this.daysOfWeekRestricted = !isUnrestricted(fields[5]);
+    }
+
+    /**
+     * Parses and compiles a cron expression.
+     *
+     * @param expression the cron expression
+     * @return the compiled expression
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static CronExpression parse(@Nonnull String expression) {
+        Preconditions.checkNotNull(expression, "Cron expression must not be null");
+        String trimmed = expression.trim();
+        Preconditions.checkArgument(!trimmed.isEmpty(), "Cron expression must not be empty");
+
+        String normalized = MACROS.getOrDefault(trimmed.toLowerCase(Locale.ROOT), trimmed);
+        String[] fields = normalized.split("\\s+");
+        if (fields.length == 5) {
+            String[] withSeconds = new String[6];
+            withSeconds[0] = "0";
+            System.arraycopy(fields, 0, withSeconds, 1, 5);
+            fields = withSeconds;
+        } else if (fields.length != 6) {
+            throw new IllegalArgumentException(
+                    "Cron expression must have 5 or 6 fields but has " + fields.length + ": " + expression);
+        }
+        return new CronExpression(trimmed, fields);
+    }
+
+    private static boolean isUnrestricted(String field) {
+        return field.startsWith("*") || "?".equals(field);
+    }
+
+    private static long parseField(String field, int min, int max, String[] names, String fieldName) {
+        long bits = 0L;
+        for (String part : field.split(",")) {
+            bits |= parsePart(part, min, max, names, fieldName);
+        }
+        return bits;
+    }
+
+    private static long parsePart(String part, int min, int max, String[] names, String fieldName) {
+        if (part.isEmpty()) {
+            throw new IllegalArgumentException("Empty element in " + fieldName + " field");
+        }
+
+        int step = 1;
+        String range = part;
+        int slash = part.indexOf('/');
+        if (slash >= 0) {
+            step = parseNumber(part.substring(slash + 1), null, fieldName);
+            if (step <= 0) {
+                throw new IllegalArgumentException("Step must be positive in " + fieldName + " field: " + part);
+            }
+            range = part.substring(0, slash);
+        }
+
+        int from;
+        int to;
+        if ("*".equals(range) || "?".equals(range)) {
+            from = min;
+            to = max;
+        } else {
+            int dash = range.indexOf('-');
+            if (dash > 0) {
+                from = parseNumber(range.substring(0, dash), names, fieldName);
+                to = parseNumber(range.substring(dash + 1), names, fieldName);
+            } else {
+                from = parseNumber(range, names, fieldName);
+                // "a/s" means "from a to the end of the range, every s"
+                to = slash >= 0 ? max : from;
+            }
+        }
+
+        if (from < min || to > max || from > to) {
+            throw new IllegalArgumentException(
+                    "Value out of range [" + min + "-" + max + "] in " + fieldName + " field: " + part);
+        }
+
+        long bits = 0L;
+        for (int i = from; i <= to; i += step) {
+            bits |= 1L << i;
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String value, String[] names, String fieldName) {
+        if (names != null) {
+            String upper = value.toUpperCase(Locale.ROOT);
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(upper)) {
+                    // month names are 1-based, day names are 0-based
+                    return names.length == 12 ? i + 1 : i;
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid value in " + fieldName + " field: " + value, e);
+        }
+    }
+
+    private static int nextSetBit(long bits, int from) {
+        if (from > 63) {
+            return -1;
+        }
+        long masked = bits & (-1L << from);
+        return masked == 0 ? -1 : Long.numberOfTrailingZeros(masked);
+    }
+
+    /**
+     * Computes the next fire time strictly after the given instant.
+     *
+     * @param after the reference instant
+     * @param zone  the time zone in which the expression is evaluated
+     * @return the next fire time, or {@code null} if the expression never fires again
+     */
+    @Nullable
+    public Instant next(@Nonnull Instant after, @Nonnull ZoneId zone) {
+        Preconditions.checkNotNull(after, "Instant must not be null");
+        Preconditions.checkNotNull(zone, "Zone must not be null");
+
+        ZonedDateTime zonedAfter = after.atZone(zone);
+        LocalDateTime local = nextLocal(zonedAfter.toLocalDateTime());
+        while (local != null) {
+            // prefer the current offset so that the second pass through an overlap keeps moving forward
+            Instant candidate = ZonedDateTime.ofLocal(local, zone, zonedAfter.getOffset()).toInstant();
+            if (candidate.isAfter(after)) {
+                return replayOverlap(after, zone, candidate);
+            }
+            local = nextLocal(local);
+        }
+        return null;
+    }
+
+    /**
+     * Computes the next fire time strictly after the given date-time, in the date-time's zone.
+     *
+     * @param after the reference date-time
+     * @return the next fire time, or {@code null} if the expression never fires again
+     */
+    @Nullable
+    public ZonedDateTime next(@Nonnull ZonedDateTime after) {
+        Preconditions.checkNotNull(after, "Date-time must not be null");
+        Instant next = next(after.toInstant(), after.getZone());
+        return next != null ? next.atZone(after.getZone()) : null;
+    }
+
+    private Instant replayOverlap(Instant after, ZoneId zone, Instant candidate) {
+        if (this.hours != ALL_HOURS) {
+            return candidate;
+        }
+        ZoneOffsetTransition transition = zone.getRules().nextTransition(after);
+        if (transition == null || !transition.isOverlap() || transition.getInstant().isAfter(candidate)) {
+            return candidate;
+        }
+        // the local times between dateTimeAfter and dateTimeBefore repeat with the later offset
+        LocalDateTime replay = nextLocal(transition.getDateTimeAfter().minusSeconds(1));
+        if (replay != null && replay.isBefore(transition.getDateTimeBefore())) {
+            Instant replayInstant = replay.toInstant(transition.getOffsetAfter());
+            if (replayInstant.isAfter(after) && replayInstant.isBefore(candidate)) {
+                return replayInstant;
+            }
+        }
+        return candidate;
+    }
+
+    private LocalDateTime nextLocal(LocalDateTime after) {
+        LocalDateTime t = after.withNano(0).plusSeconds(1);
+        int yearLimit = t.getYear() + MAX_YEARS_AHEAD;
+
+        while (t.getYear() <= yearLimit) {
+            int month = nextSetBit(this.months, t.getMonthValue());
+            if (month != t.getMonthValue()) {
+                t = month < 0
+                        ? LocalDateTime.of(t.getYear() + 1, nextSetBit(this.months, 1), 1, 0, 0)
+                        : LocalDateTime.of(t.getYear(), month, 1, 0, 0);
+                continue;
+            }
+
+            int day = nextSetBit(dayMask(t.getYear(), month), t.getDayOfMonth());
+            if (day != t.getDayOfMonth()) {
+                t = day < 0
+                        ? LocalDate.of(t.getYear(), month, 1).plusMonths(1).atStartOfDay()
+                        : LocalDateTime.of(t.getYear(), month, day, 0, 0);
+                continue;
+            }
+
+            int hour = nextSetBit(this.hours, t.getHour());
+            if (hour != t.getHour()) {
+                t = hour < 0
+                        ? t.toLocalDate().plusDays(1).atStartOfDay()
+                        : t.withHour(hour).withMinute(0).withSecond(0);
+                continue;
+            }
+
+            int minute = nextSetBit(this.minutes, t.getMinute());
+            if (minute != t.getMinute()) {
+                t = minute < 0
+                        ? t.withMinute(0).withSecond(0).plusHours(1)
+                        : t.withMinute(minute).withSecond(0);
+                continue;
+            }
+
+            int second = nextSetBit(this.seconds, t.getSecond());
+            if (second != t.getSecond()) {
+                t = second < 0 ? t.withSecond(0).plusMinutes(1) : t.withSecond(second);
+                continue;
+            }
+
+            return t;
+        }
+        return null;
+    }
+
+    /**
+     * Builds the mask of matching days (bits 1-31) for a given month. Either day field matches when both are
+     * restricted, otherwise both must match.
+     */
+    private long dayMask(int year, int month) {
+        int length = YearMonth.of(year, month).lengthOfMonth();
+        long validDays = ((1L << length) - 1) << 1;
+
+        if (!this.daysOfWeekRestricted && this.daysOfWeek == ALL_DAYS_OF_WEEK) {
+            return this.daysOfMonth & validDays;
+        }
+
+        // Sunday is 0 in cron and 7 in java.time
+        int firstDow = LocalDate.of(year, month, 1).getDayOfWeek().getValue() % 7;
+        long dowDays = 0L;
+        for (int day = 1; day <= length; day++) {
+            if ((this.daysOfWeek & (1L << ((firstDow + day - 1) % 7))) != 0) {
+                dowDays |= 1L << day;
+            }
+        }
+
+        if (this.daysOfMonthRestricted && this.daysOfWeekRestricted) {
+            return (this.daysOfMonth | dowDays) & validDays;
+        }
+        return this.daysOfMonth & dowDays & validDays;
+    }
+
+    /**
+     * Checks whether the expression matches the given date-time, at second resolution.
+     *
+     * @param dateTime the date-time to check
+     * @return true if the expression fires at the given date-time
+     */
+    public boolean matches(@Nonnull LocalDateTime dateTime) {
+        Preconditions.checkNotNull(dateTime, "Date-time must not be null");
+        return (this.seconds & (1L << dateTime.getSecond())) != 0
+                && (this.minutes & (1L << dateTime.getMinute())) != 0
+                && (this.hours & (1L << dateTime.getHour())) != 0
+                && (this.months & (1L << dateTime.getMonthValue())) != 0
+                && (dayMask(dateTime.getYear(), dateTime.getMonthValue()) & (1L << dateTime.getDayOfMonth())) != 0;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof CronExpression that))
+            return false;
+        return seconds == that.seconds && minutes == that.minutes && hours == that.hours
+                && daysOfMonth == that.daysOfMonth && months == that.months && daysOfWeek == that.daysOfWeek
+                && daysOfMonthRestricted == that.daysOfMonthRestricted
+                && daysOfWeekRestricted == that.daysOfWeekRestricted;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(seconds ^ minutes ^ hours ^ daysOfMonth ^ months ^ daysOfWeek);
+    }
+
+    @Override
+    public String toString() {
+        return "CronExpression{" + expression + '}';
+    }
+}
@@ -0,0 +1,280 @@
+package org.vitals.core.scheduler.cron;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vitals.core.scheduler.timer.TaskTimer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A single timer shared by all cron-scheduled tasks.
+ * <p>
+ * Entries are kept in a priority queue ordered by their next fire time and only the earliest one is armed on the
+ * {@link TaskTimer}, so the number of pending timer tasks stays at one regardless of how many cron tasks are
+ * registered. The armed delay is capped so that wall-clock adjustments are picked up within
+ * {@link #MAX_ARM_DELAY}.
+ * </p>
+ * <p>
+ * When the timer wakes up late, for example after a long GC pause or a suspended host, an entry whose fire times
+ * were missed runs once and then continues from the next fire time after now; the skipped fire times are counted.
+ * </p>
+ */
+public final class CronTimer implements AutoCloseable {
+
+    static final Duration MAX_ARM_DELAY = Duration.ofMinutes(1);
+    private static final Logger LOGGER = LoggerFactory.getLogger(CronTimer.class);
+    private static final int MAX_COUNTED_MISSED_FIRES = 10_000;
+
+    private final TaskTimer taskTimer;
+    private final Clock clock;
+    private final PriorityQueue<Entry> queue;
+    private final Map<String, Entry> entries;
+
+    private TaskTimer.Timeout armedTimeout;
+    private Instant armedFor;
+    private boolean closed;
+
+    public CronTimer(@Nonnull TaskTimer taskTimer, @Nonnull Clock clock) {
+        this.taskTimer = Preconditions.checkNotNull(taskTimer, "Task timer must not be null");
+        this.clock = Preconditions.checkNotNull(clock, "Clock must not be null");
+        this.queue = new PriorityQueue<>(Comparator.comparing((Entry entry) -> entry.nextFireTime));
+        this.entries = new HashMap<>();
+    }
+
+    public CronTimer(@Nonnull TaskTimer taskTimer) {
+        this(taskTimer, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Registers a task to run whenever the cron expression fires.
+     *
+     * @param name           unique name of the task
+     * @param cronExpression the compiled cron expression
+     * @param task           the task to run; it should hand off any blocking work
+     * @throws IllegalStateException    if a task with the same name is already registered
+     * @throws IllegalArgumentException if the expression never fires
+     */
+    public synchronized void schedule(@Nonnull String name, @Nonnull CronExpression cronExpression,
+                                      @Nonnull Runnable task) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkNotNull(cronExpression, "Cron expression must not be null");
+        Preconditions.checkNotNull(task, "Task must not be null");
+        Preconditions.checkState(!this.closed, "Cron timer is closed");
+
+        if (this.entries.containsKey(name)) {
+            throw new IllegalStateException("Cron task is already scheduled: " + name);
+        }
+
+        this.add(name, cronExpression, task);
+        this.rearm();
+    }
+
+    /**
+     * Registers many tasks with a single update of the armed timer. Tasks whose name is already registered or whose
+     * expression never fires are skipped.
+     *
+     * @param cronExpressions the compiled cron expressions by task name
+     * @param tasks           creates the task to run for a name
+     * @return the names of the tasks that were registered
+     */
+    public synchronized Set<String> scheduleAll(@Nonnull Map<String, CronExpression> cronExpressions,
+                                                @Nonnull Function<String, Runnable> tasks) {
+        Preconditions.checkNotNull(cronExpressions, "Cron expressions must not be null");
+        Preconditions.checkNotNull(tasks, "Tasks must not be null");
+        Preconditions.checkState(!this.closed, "Cron timer is closed");
+
+        Set<String> scheduled = new HashSet<>();
+        cronExpressions.forEach((name, cronExpression) -> {
+            if (this.entries.containsKey(name)) {
+                LOGGER.warn("Cron task [{}] is already scheduled, skipping", name);
+                return;
+            }
+            try {
+                this.add(name, cronExpression, tasks.apply(name));
+                scheduled.add(name);
+            } catch (IllegalArgumentException e) {
+                LOGGER.error("Cron task [{}] not scheduled: {}", name, e.getMessage());
+            }
+        });
+        this.rearm();
+        return scheduled;
+    }
+
+    private void add(String name, CronExpression cronExpression, Runnable task) {
+        Instant next = cronExpression.next(this.clock.instant(), this.clock.getZone());
+        if (next == null) {
+            throw new IllegalArgumentException("Cron expression never fires: " + cronExpression.getExpression());
+        }
+
+        Entry entry = new Entry(name, cronExpression, task, next);
+        this.entries.put(name, entry);
+        this.queue.add(entry);
+    }
+
+    /**
+     * Removes a task.
+     *
+     * @param name the name of the task
+     * @return true if the task was registered
+     */
+    public synchronized boolean cancel(@Nonnull String name) {
+        Entry entry = this.entries.remove(name);
+        if (entry == null) {
+            return false;
+        }
+        this.queue.remove(entry);
+        this.rearm();
+        return true;
+    }
+
+    public synchronized boolean isScheduled(@Nonnull String name) {
+        return this.entries.containsKey(name);
+    }
+
+    /**
+     * Returns the number of fire times that were skipped because the timer woke up too late.
+     *
+     * @param name the name of the task
+     * @return the number of missed fire times, or 0 if the task is unknown
+     */
+    public synchronized long getMissedFires(@Nonnull String name) {
+        Entry entry = this.entries.get(name);
+        return entry != null ? entry.missedFires : 0L;
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.entries.clear();
+        this.queue.clear();
+        if (this.armedTimeout != null) {
+            this.armedTimeout.cancel();
+            this.armedTimeout = null;
+            this.armedFor = null;
+        }
+    }
+
+    private void rearm() {
+        if (this.closed) {
+            return;
+        }
+
+        Entry head = this.queue.peek();
+        if (head == null) {
+            if (this.armedTimeout != null) {
+                this.armedTimeout.cancel();
+                this.armedTimeout = null;
+                this.armedFor = null;
+            }
+            return;
+        }
+
+        if (this.armedTimeout != null && !this.armedTimeout.isExpired() && this.armedFor != null
+                && !head.nextFireTime.isBefore(this.armedFor)) {
+            // the armed wakeup already comes early enough
+            return;
+        }
+
+        if (this.armedTimeout != null) {
+            this.armedTimeout.cancel();
+        }
+
+        Instant now = this.clock.instant();
+        Duration delay = Duration.between(now, head.nextFireTime);
+        if (delay.isNegative()) {
+            delay = Duration.ZERO;
+        } else if (delay.compareTo(MAX_ARM_DELAY) > 0) {
+            delay = MAX_ARM_DELAY;
+        }
+
+        this.armedFor = now.plus(delay);
+        try {
+            this.armedTimeout = this.taskTimer.schedule(this::onTimer, delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (IllegalStateException e) {
+            LOGGER.error("Failed to arm cron timer: {}", e.getMessage(), e);
+            this.armedTimeout = null;
+            this.armedFor = null;
+        }
+    }
+
+    private void onTimer() {
+        List<Entry> due = new ArrayList<>();
+        synchronized (this) {
+            this.armedTimeout = null;
+            this.armedFor = null;
+
+            Instant now = this.clock.instant();
+            while (!this.queue.isEmpty() && !this.queue.peek().nextFireTime.isAfter(now)) {
+                Entry entry = this.queue.poll();
+                Instant next = entry.cronExpression.next(now, this.clock.getZone());
+
+                long missed = countMissedFires(entry, now);
+                if (missed > 0) {
+                    entry.missedFires += missed;
+                    LOGGER.warn("Cron task [{}] missed {} fire time(s), running once", entry.name, missed);
+                }
+
+                due.add(entry);
+                if (next != null) {
+                    entry.nextFireTime = next;
+                    this.queue.add(entry);
+                } else {
+                    this.entries.remove(entry.name);
+                }
+            }
+            this.rearm();
+        }
+
+        // run outside the lock so that slow tasks do not hold up scheduling
+        for (Entry entry : due) {
+            try {
+                entry.task.run();
+            } catch (Exception e) {
+                LOGGER.error("Exception occurred while running cron task [{}]: {}", entry.name, e.getMessage(), e);
+            }
+        }
+    }
+
+    private long countMissedFires(Entry entry, Instant now) {
+        long missed = 0;
+        Instant fire = entry.cronExpression.next(entry.nextFireTime, this.clock.getZone());
+        while (fire != null && !fire.isAfter(now) && missed < MAX_COUNTED_MISSED_FIRES) {
+            missed++;
+            fire = entry.cronExpression.next(fire, this.clock.getZone());
+        }
+        return missed;
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final CronExpression cronExpression;
+        private final Runnable task;
+        private Instant nextFireTime;
+        private long missedFires;
+
+        private Entry(String name, CronExpression cronExpression, Runnable task, Instant nextFireTime) {
+            this.name = name;
+            this.cronExpression = cronExpression;
+            this.task = task;
+            this.nextFireTime = nextFireTime;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.vitals.core.scheduler.timer;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.vitals.core.scheduler.InternalScheduler;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskTimer} backed by the {@link InternalScheduler}'s delay queue.
+ * <p>
+ * Every pending task is one entry in the executor's heap, so inserts are O(log n). This is the default timer and
+ * is the right choice for up to a few thousand scheduled health checks. The internal scheduler is shared and is
+ * not shut down when this timer is closed.
+ * </p>
+ */
+public class ExecutorTaskTimer implements TaskTimer {
+
+    private final InternalScheduler internalScheduler;
+
+    public ExecutorTaskTimer(@Nonnull InternalScheduler internalScheduler) {
+        this.internalScheduler = Preconditions.checkNotNull(internalScheduler, "Internal scheduler must not be null");
+    }
+
+    public ExecutorTaskTimer() {
+        this(InternalScheduler.getInstance());
+    }
+
+    @Override
+    public Timeout schedule(@Nonnull Runnable task, long delay, @Nonnull TimeUnit unit) {
+        Preconditions.checkNotNull(task, "Task must not be null");
+        Preconditions.checkNotNull(unit, "Time unit must not be null");
+
+        return new FutureTimeout(this.internalScheduler.schedule(task, Math.max(0L, delay), unit));
+    }
+
+    @Override
+    public void close() {
+        // the internal scheduler is shared and owns its own lifecycle
+    }
+
+    private record FutureTimeout(ScheduledFuture<?> future) implements Timeout {
+
+        @Override
+        public boolean cancel() {
+            return this.future.cancel(false);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.future.isCancelled();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return this.future.isDone() && !this.future.isCancelled();
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package org.vitals.core.scheduler.timer;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TaskTimer} based on a hashed timing wheel.
+ * <p>
+ * The wheel is an array of buckets that a single worker thread visits once per tick. A task lands in the bucket of
+ * its deadline tick, and tasks further away than one revolution carry a round counter that is decremented on each
+ * visit. Scheduling and cancelling are O(1) and lock-free: new and cancelled tasks are handed to the worker through
+ * concurrent queues, and only the worker touches the buckets.
+ * </p>
+ * <p>
+ * Deadlines are rounded up to the tick duration, so the timer trades precision for scalability. It is meant for
+ * very large numbers of periodic health checks, where the heap-based delay queue of a
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor} becomes a contention point. Expired tasks run on the
+ * worker thread and must hand off real work.
+ * </p>
+ */
+public final class HashedWheelTimer implements TaskTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    private static final int WORKER_SHUTDOWN = 2;
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<WheelTimeout> pendingTimeouts;
+    private final Queue<WheelTimeout> cancelledTimeouts;
+    private final AtomicLong pendingCount;
+    private final AtomicInteger workerState;
+    private final CountDownLatch startLatch;
+    private final Thread workerThread;
+
+    private volatile long startTime;
+    private volatile long tickCount;
+    private volatile long tickNanosTotal;
+
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tickDuration  the duration of one tick
+     * @param unit          the time unit of the tick duration
+     * @param ticksPerWheel the number of buckets, rounded up to a power of two
+     * @param threadName    the name of the worker thread
+     */
+    public HashedWheelTimer(long tickDuration, @Nonnull TimeUnit unit, int ticksPerWheel, @Nonnull String threadName) {
+        Preconditions.checkArgument(tickDuration > 0, "Tick duration must be greater than zero");
+        Preconditions.checkNotNull(unit, "Time unit must not be null");
+        Preconditions.checkArgument(ticksPerWheel > 0 && ticksPerWheel <= 1 << 30,
+                "Ticks per wheel must be between 1 and 2^30");
+        Preconditions.checkNotNull(threadName, "Thread name must not be null");
+
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        size = Math.max(size, 1);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+
+        this.pendingTimeouts = new ConcurrentLinkedQueue<>();
+        this.cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicLong();
+        this.workerState = new AtomicInteger(WORKER_INIT);
+        this.startLatch = new CountDownLatch(1);
+
+        this.workerThread = new Thread(this::runWorker, threadName);
+        this.workerThread.setDaemon(true);
+    }
+
+    public HashedWheelTimer(long tickDuration, @Nonnull TimeUnit unit) {
+        this(tickDuration, unit, DEFAULT_TICKS_PER_WHEEL, "VitalsWheelTimer");
+    }
+
+    public HashedWheelTimer() {
+        this(DEFAULT_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Timeout schedule(@Nonnull Runnable task, long delay, @Nonnull TimeUnit unit) {
+        Preconditions.checkNotNull(task, "Task must not be null");
+        Preconditions.checkNotNull(unit, "Time unit must not be null");
+
+        this.start();
+
+        long deadline = System.nanoTime() + Math.max(0L, unit.toNanos(delay)) - this.startTime;
+        // guard against overflow for very long delays
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+
+        WheelTimeout timeout = new WheelTimeout(this, task, deadline);
+        this.pendingCount.incrementAndGet();
+        this.pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void close() {
+        if (this.workerState.getAndSet(WORKER_SHUTDOWN) != WORKER_STARTED) {
+            return;
+        }
+        if (Thread.currentThread() != this.workerThread) {
+            this.workerThread.interrupt();
+            try {
+                this.workerThread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks that are scheduled but have neither run nor been cancelled.
+     *
+     * @return the number of pending tasks
+     */
+    public long getPendingTimeouts() {
+        return this.pendingCount.get();
+    }
+
+    public long getTickNanos() {
+        return this.tickNanos;
+    }
+
+    public int getWheelSize() {
+        return this.wheel.length;
+    }
+
+    /**
+     * Returns the number of ticks processed by the worker so far.
+     *
+     * @return the number of processed ticks
+     */
+    public long getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+     * Returns the total time the worker has spent processing ticks, including running the expired tasks.
+     *
+     * @return the total tick processing time in nanoseconds
+     */
+    public long getTickNanosTotal() {
+        return this.tickNanosTotal;
+    }
+
+    private void start() {
+        switch (this.workerState.get()) {
+            case WORKER_INIT:
+                if (this.workerState.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+                    this.workerThread.start();
+                }
+                break;
+            case WORKER_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("Wheel timer is closed");
+        }
+
+        while (this.startTime == 0) {
+            try {
+                this.startLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting wheel timer", e);
+            }
+        }
+    }
+
+    private void runWorker() {
+        long now = System.nanoTime();
+        // 0 is used as the "not started" marker
+        this.startTime = now == 0 ? 1 : now;
+        this.startLatch.countDown();
+
+        long tick = 0;
+        while (this.workerState.get() == WORKER_STARTED) {
+            if (!this.waitForNextTick(tick)) {
+                continue;
+            }
+
+            long begin = System.nanoTime();
+            this.processCancelled();
+            this.transferPending(tick);
+            this.wheel[(int) (tick & this.mask)].expire();
+            tick++;
+
+            this.tickNanosTotal += System.nanoTime() - begin;
+            this.tickCount = tick;
+        }
+    }
+
+    private boolean waitForNextTick(long tick) {
+        long deadline = this.tickNanos * (tick + 1);
+
+        while (true) {
+            long currentTime = System.nanoTime() - this.startTime;
+            long sleepMillis = (deadline - currentTime + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return true;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (this.workerState.get() == WORKER_SHUTDOWN) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void transferPending(long tick) {
+        int transferred = 0;
+        while (transferred < MAX_TRANSFERS_PER_TICK) {
+            WheelTimeout timeout = this.pendingTimeouts.poll();
+            if (timeout == null) {
+                break;
+            }
+            if (timeout.state() == WheelTimeout.ST_CANCELLED) {
+                continue;
+            }
+            transferred++;
+
+            long calculated = timeout.deadline / this.tickNanos;
+            timeout.remainingRounds = (calculated - tick) / this.wheel.length;
+
+            // never schedule into the past, expire on the current tick instead
+            long ticks = Math.max(calculated, tick);
+            this.wheel[(int) (ticks & this.mask)].add(timeout);
+            timeout.transferred = true;
+        }
+    }
+
+    private void processCancelled() {
+        WheelTimeout timeout;
+        while ((timeout = this.cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private static final class WheelTimeout implements Timeout {
+
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(WheelTimeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline;
+
+        @SuppressWarnings("unused")
+        private volatile int state = ST_INIT;
+        private volatile boolean transferred;
+
+        // only accessed by the worker thread
+        private long remainingRounds;
+        private WheelTimeout next;
+        private WheelTimeout prev;
+        private Bucket bucket;
+
+        private WheelTimeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        private int state() {
+            return this.state;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            this.timer.pendingCount.decrementAndGet();
+            // timeouts still in the hand-off queue are dropped on transfer; a timeout that races with its
+            // transfer is removed lazily when its bucket is visited
+            if (this.transferred) {
+                this.timer.cancelledTimeouts.add(this);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.state == ST_CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return this.state == ST_EXPIRED;
+        }
+
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            this.timer.pendingCount.decrementAndGet();
+            try {
+                this.task.run();
+            } catch (Exception e) {
+                LOGGER.error("Exception occurred while running timer task: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, only accessed by the worker thread.
+     */
+    private static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        private void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+            if (this.head == null) {
+                this.head = this.tail = timeout;
+            } else {
+                this.tail.next = timeout;
+                timeout.prev = this.tail;
+                this.tail = timeout;
+            }
+        }
+
+        private void expire() {
+            WheelTimeout timeout = this.head;
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    this.remove(timeout);
+                    timeout.expire();
+                } else if (timeout.isCancelled()) {
+                    this.remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(WheelTimeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            WheelTimeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == this.head) {
+                this.head = next;
+            }
+            if (timeout == this.tail) {
+                this.tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package org.vitals.core.scheduler.timer;
+
+import jakarta.annotation.Nonnull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Minimal one-shot timer used by the health check scheduler to arm its ticks.
+ * <p>
+ * Implementations run expired tasks on their own timer thread(s), so tasks are expected to be short and to hand
+ * off any real work, such as running a health check, to an executor.
+ * </p>
+ */
+public interface TaskTimer extends AutoCloseable {
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  the task to run
+     * @param delay the delay before the task runs
+     * @param unit  the time unit of the delay
+     * @return a handle that can be used to cancel the task
+     * @throws IllegalStateException if the timer has been closed
+     */
+    Timeout schedule(@Nonnull Runnable task, long delay, @Nonnull TimeUnit unit);
+
+    /**
+     * Stops the timer. Pending tasks are discarded.
+     */
+    @Override
+    void close();
+
+    /**
+     * Handle to a task scheduled on a {@link TaskTimer}.
+     */
+    interface Timeout {
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return true if the task was cancelled by this call
+         */
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+}
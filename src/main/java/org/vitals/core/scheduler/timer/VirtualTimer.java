@@ -0,0 +1,235 @@
+package org.vitals.core.scheduler.timer;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.vitals.core.util.TimeSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskTimer} and {@link TimeSource} driven by virtual time, for tests and simulations.
+ * <p>
+ * Time only moves when {@link #advance(Duration)} is called. Expired tasks then run on the calling thread in deadline
+ * order, ties in the order they were scheduled, with the clock set to each task's deadline while it runs. Tasks may
+ * schedule further tasks; those run within the same call if they come due before its end. Given the same calls, a
+ * simulation therefore always runs the same way, however much virtual time it covers.
+ * </p>
+ * <p>
+ * Pending tasks are kept in a binary heap ordered on deadline and sequence, held in primitive arrays beside the
+ * timeouts so that sifting through a large heap compares longs instead of dereferencing every timeout it passes.
+ * </p>
+ */
+public final class VirtualTimer implements TaskTimer, TimeSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualTimer.class);
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Instant epoch;
+    private long[] deadlines;
+    private long[] sequences;
+    private VirtualTimeout[] timeouts;
+    private int size;
+    private long nowNanos;
+    private long sequence;
+    private boolean closed;
+
+    /**
+     * @param epoch the wall-clock time at virtual time zero
+     */
+    public VirtualTimer(@Nonnull Instant epoch) {
+        this.epoch = Preconditions.checkNotNull(epoch, "Epoch must not be null");
+        this.deadlines = new long[INITIAL_CAPACITY];
+        this.sequences = new long[INITIAL_CAPACITY];
+        this.timeouts = new VirtualTimeout[INITIAL_CAPACITY];
+    }
+
+    public VirtualTimer() {
+        this(Instant.EPOCH);
+    }
+
+    @Override
+    public synchronized long nanoTime() {
+        return this.nowNanos;
+    }
+
+    @Override
+    public synchronized Instant instant() {
+        return this.epoch.plusNanos(this.nowNanos);
+    }
+
+    @Override
+    public synchronized Timeout schedule(@Nonnull Runnable task, long delay, @Nonnull TimeUnit unit) {
+        Preconditions.checkNotNull(task, "Task must not be null");
+        Preconditions.checkNotNull(unit, "Time unit must not be null");
+        if (this.closed) {
+            throw new IllegalStateException("Timer is closed");
+        }
+
+        VirtualTimeout timeout = new VirtualTimeout(task, this.nowNanos + Math.max(0L, unit.toNanos(delay)));
+        this.offer(timeout, this.sequence++);
+        return timeout;
+    }
+
+    /**
+     * Moves virtual time forward, running every task that comes due on the way.
+     *
+     * @param duration how far to move
+     * @return the number of tasks that ran
+     */
+    public long advance(@Nonnull Duration duration) {
+        Preconditions.checkNotNull(duration, "Duration must not be null");
+        Preconditions.checkArgument(!duration.isNegative(), "Duration must be non-negative");
+
+        long targetNanos;
+        synchronized (this) {
+            targetNanos = this.nowNanos + duration.toNanos();
+        }
+        long ran = 0;
+        while (true) {
+            VirtualTimeout next;
+            synchronized (this) {
+                if (this.closed || this.size == 0 || this.deadlines[0] > targetNanos) {
+                    this.nowNanos = Math.max(this.nowNanos, targetNanos);
+                    return ran;
+                }
+                next = this.poll();
+                this.nowNanos = Math.max(this.nowNanos, next.deadlineNanos);
+                if (!next.expire()) {
+                    continue;
+                }
+            }
+            try {
+                next.task.run();
+            } catch (RuntimeException e) {
+                LOGGER.error("Exception occurred while running a timer task: {}", e.getMessage(), e);
+            }
+            ran++;
+        }
+    }
+
+    /**
+     * Returns the number of tasks waiting to run, including cancelled ones not yet discarded.
+     *
+     * @return the number of pending tasks
+     */
+    public synchronized int getPendingTimeouts() {
+        return this.size;
+    }
+
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        Arrays.fill(this.timeouts, 0, this.size, null);
+        this.size = 0;
+    }
+
+    private void offer(VirtualTimeout timeout, long sequence) {
+        if (this.size == this.timeouts.length) {
+            int capacity = this.size * 2;
+            this.deadlines = Arrays.copyOf(this.deadlines, capacity);
+            this.sequences = Arrays.copyOf(this.sequences, capacity);
+            this.timeouts = Arrays.copyOf(this.timeouts, capacity);
+        }
+        int i = this.size++;
+        long deadline = timeout.deadlineNanos;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!this.before(deadline, sequence, parent)) {
+                break;
+            }
+            this.move(parent, i);
+            i = parent;
+        }
+        this.set(i, deadline, sequence, timeout);
+    }
+
+    private VirtualTimeout poll() {
+        VirtualTimeout head = this.timeouts[0];
+        int last = --this.size;
+        long deadline = this.deadlines[last];
+        long sequence = this.sequences[last];
+        VirtualTimeout timeout = this.timeouts[last];
+        this.timeouts[last] = null;
+        if (last > 0) {
+            int i = 0;
+            int child;
+            while ((child = 2 * i + 1) < last) {
+                if (child + 1 < last && this.before(this.deadlines[child + 1], this.sequences[child + 1], child)) {
+                    child++;
+                }
+                if (this.before(deadline, sequence, child)) {
+                    break;
+                }
+                this.move(child, i);
+                i = child;
+            }
+            this.set(i, deadline, sequence, timeout);
+        }
+        return head;
+    }
+
+    /**
+     * @return true if a deadline and sequence come before the entry at an index
+     */
+    private boolean before(long deadline, long sequence, int index) {
+        long other = this.deadlines[index];
+        return deadline < other || deadline == other && sequence < this.sequences[index];
+    }
+
+    private void move(int from, int to) {
+        this.set(to, this.deadlines[from], this.sequences[from], this.timeouts[from]);
+    }
+
+    private void set(int index, long deadline, long sequence, VirtualTimeout timeout) {
+        this.deadlines[index] = deadline;
+        this.sequences[index] = sequence;
+        this.timeouts[index] = timeout;
+    }
+
+    private static final class VirtualTimeout implements Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadlineNanos;
+        private volatile int state;
+
+        private VirtualTimeout(Runnable task, long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        private synchronized boolean expire() {
+            if (this.state != PENDING) {
+                return false;
+            }
+            this.state = EXPIRED;
+            return true;
+        }
+
+        @Override
+        public synchronized boolean cancel() {
+            if (this.state != PENDING) {
+                return false;
+            }
+            this.state = CANCELLED;
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.state == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return this.state == EXPIRED;
+        }
+    }
+}
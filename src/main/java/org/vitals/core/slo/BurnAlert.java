@@ -0,0 +1,43 @@
+package org.vitals.core.slo;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A multi-window error budget burn alert. It fires while the budget burns at least at the given rate over both
+ * windows: the long window makes sure enough budget was spent to matter, the short one that it is still being spent,
+ * so that the alert clears soon after a recovery.
+ *
+ * @param longWindow  the long window
+ * @param shortWindow the short window, at most as long as the long one
+ * @param burnRate    the burn rate at which the alert fires, 1 spends exactly the budget over the SLO window
+ */
+public record BurnAlert(@Nonnull Duration longWindow, @Nonnull Duration shortWindow, double burnRate) {
+
+    /**
+     * Spends 2% of a 30 day budget in an hour.
+     */
+    public static final BurnAlert FAST_BURN = new BurnAlert(Duration.ofHours(1), Duration.ofMinutes(5), 14.4);
+    /**
+     * Spends 5% of a 30 day budget in six hours.
+     */
+    public static final BurnAlert SLOW_BURN = new BurnAlert(Duration.ofHours(6), Duration.ofMinutes(30), 6);
+    /**
+     * Spends 10% of a 30 day budget in three days.
+     */
+    public static final BurnAlert STEADY_BURN = new BurnAlert(Duration.ofDays(3), Duration.ofHours(6), 1);
+    public static final List<BurnAlert> DEFAULTS = List.of(FAST_BURN, SLOW_BURN, STEADY_BURN);
+
+    public BurnAlert {
+        Preconditions.checkNotNull(longWindow, "Long window must not be null");
+        Preconditions.checkNotNull(shortWindow, "Short window must not be null");
+        Preconditions.checkArgument(shortWindow.compareTo(Duration.ofSeconds(1)) >= 0,
+                "Short window must be at least one second");
+        Preconditions.checkArgument(shortWindow.compareTo(longWindow) <= 0,
+                "Short window must not be longer than the long window");
+        Preconditions.checkArgument(burnRate > 0, "Burn rate must be greater than zero");
+    }
+}
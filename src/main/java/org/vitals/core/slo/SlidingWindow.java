@@ -0,0 +1,118 @@
+package org.vitals.core.slo;
+
+import java.time.Duration;
+
+/**
+ * The time available and unavailable and the failures over a sliding window, in a ring of 60 buckets of a sixtieth
+ * of the window each, with running totals. The window reaches back over the current bucket and the 59 before it, so
+ * it spans between 59 and 60 sixtieths of its length. Times are nanoseconds since the tracking started. Not
+ * thread-safe.
+ */
+final class SlidingWindow {
+
+    static final int BUCKETS = 60;
+
+    private final Duration window;
+    private final long widthNanos;
+    private final long[] availableNanos;
+    private final long[] unavailableNanos;
+    private final long[] failures;
+    private boolean started;
+    private long newestId;
+    private long totalAvailableNanos;
+    private long totalUnavailableNanos;
+    private long totalFailures;
+
+    SlidingWindow(Duration window) {
+        this.window = window;
+        long nanos = window.toNanos();
+        this.widthNanos = Math.max(1, nanos / BUCKETS + (nanos % BUCKETS == 0 ? 0 : 1));
+        this.availableNanos = new long[BUCKETS];
+        this.unavailableNanos = new long[BUCKETS];
+        this.failures = new long[BUCKETS];
+    }
+
+    Duration window() {
+        return this.window;
+    }
+
+    /**
+     * Moves the window on to a time, dropping the buckets that fall out of it. Takes at most one step per bucket.
+     */
+    void advance(long nowNanos) {
+        long id = Math.floorDiv(nowNanos, this.widthNanos);
+        if (!this.started) {
+            this.started = true;
+            this.newestId = id;
+            return;
+        }
+        if (id <= this.newestId) {
+            return;
+        }
+        long cleared = Math.min(id - this.newestId, BUCKETS);
+        for (long i = 1; i <= cleared; i++) {
+            int bucket = this.index(this.newestId + i);
+            this.totalAvailableNanos -= this.availableNanos[bucket];
+            this.totalUnavailableNanos -= this.unavailableNanos[bucket];
+            this.totalFailures -= this.failures[bucket];
+            this.availableNanos[bucket] = 0;
+            this.unavailableNanos[bucket] = 0;
+            this.failures[bucket] = 0;
+        }
+        this.newestId = id;
+    }
+
+    /**
+     * Adds the time between two times, the part of it still in the window. The window must have been advanced to
+     * the end of it.
+     */
+    void addTime(boolean available, long fromNanos, long toNanos) {
+        long from = Math.max(fromNanos, (this.newestId - BUCKETS + 1) * this.widthNanos);
+        while (from < toNanos) {
+            long id = Math.floorDiv(from, this.widthNanos);
+            long end = Math.min(toNanos, (id + 1) * this.widthNanos);
+            int bucket = this.index(id);
+            if (available) {
+                this.availableNanos[bucket] += end - from;
+                this.totalAvailableNanos += end - from;
+            } else {
+                this.unavailableNanos[bucket] += end - from;
+                this.totalUnavailableNanos += end - from;
+            }
+            from = end;
+        }
+    }
+
+    /**
+     * Counts a failure in the newest bucket.
+     */
+    void countFailure() {
+        this.failures[this.index(this.newestId)]++;
+        this.totalFailures++;
+    }
+
+    long availableNanos() {
+        return this.totalAvailableNanos;
+    }
+
+    long unavailableNanos() {
+        return this.totalUnavailableNanos;
+    }
+
+    long failures() {
+        return this.totalFailures;
+    }
+
+    /**
+     * @return the share of the observed time that was unavailable, over the share the error budget allows, or zero
+     * if no time was observed
+     */
+    double burnRate(double errorBudget) {
+        long observed = this.totalAvailableNanos + this.totalUnavailableNanos;
+        return observed > 0 ? (double) this.totalUnavailableNanos / observed / errorBudget : 0;
+    }
+
+    private int index(long id) {
+        return (int) Math.floorMod(id, (long) BUCKETS);
+    }
+}
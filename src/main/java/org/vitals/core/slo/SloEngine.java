@@ -0,0 +1,137 @@
+package org.vitals.core.slo;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+import jakarta.annotation.Nullable;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+import org.vitals.core.event.ErrorBudgetBurnEvent;
+import org.vitals.core.event.HealthEventPublisher;
+import org.vitals.core.listener.HealthEventListener;
+import org.vitals.core.util.TimeSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks every health check and aggregator against a {@link SloSettings service level objective}, fed by their status
+ * changed and aggregated result changed events. A status counts as available, unavailable or unobserved as in
+ * {@link org.vitals.core.history.RollupBucket}, and becoming unavailable counts as a failure.
+ * <p>
+ * Each health check takes fixed memory, a few kilobytes: a {@link SlidingWindow} of 60 buckets with running totals
+ * for the SLO window and for each distinct alert window. Time is added to the windows when the status changes and
+ * when it is read, so {@link #getReport} and {@link #evaluate} take time proportional to the number of windows, not
+ * to the number of status changes.
+ * </p>
+ * <p>
+ * {@link #evaluate()} checks the {@link BurnAlert burn alerts} and publishes an {@link ErrorBudgetBurnEvent} when one
+ * starts or stops firing. It runs on every status change and should also run every
+ * {@link #getEvaluationInterval() evaluation interval}, so that alerts follow an outage that goes on.
+ * </p>
+ */
+public class SloEngine implements HealthEventListener {
+
+    private final SloSettings settings;
+    private final HealthEventPublisher domainEventPublisher;
+    private final TimeSource timeSource;
+    private final Map<String, SloTracker> trackers;
+
+    /**
+     * @param settings             the objective
+     * @param domainEventPublisher the publisher of budget burn events
+     * @param timeSource           the time source that windows are measured by
+     */
+    public SloEngine(@Nonnull SloSettings settings, @Nonnull HealthEventPublisher domainEventPublisher,
+                     @Nonnull TimeSource timeSource) {
+        this.settings = Preconditions.checkNotNull(settings, "Settings must not be null");
+        this.domainEventPublisher = Preconditions.checkNotNull(domainEventPublisher,
+                "Domain event publisher must not be null");
+        this.timeSource = Preconditions.checkNotNull(timeSource, "Time source must not be null");
+        this.trackers = new ConcurrentHashMap<>();
+    }
+
+    public SloSettings getSettings() {
+        return this.settings;
+    }
+
+    /**
+     * @return how often {@link #evaluate()} should run: a bucket of the shortest alert window, at least a second
+     */
+    public Duration getEvaluationInterval() {
+        Duration shortest = this.settings.alerts().stream()
+                .map(BurnAlert::shortWindow)
+                .min(Duration::compareTo)
+                .orElse(this.settings.window());
+        return Duration.ofNanos(Math.max(Duration.ofSeconds(1).toNanos(),
+                shortest.toNanos() / SlidingWindow.BUCKETS));
+    }
+
+    @Override
+    public void onChanged(@Nonnull String name, @Nonnull Set<String> tags, @Nonnull HealthCheck healthCheck,
+                          @Nullable HealthCheckResult original, @Nonnull HealthCheckResult updated) {
+        this.record(name, updated.getStatus());
+    }
+
+    @Override
+    public void onAggregatedResultChanged(@Nonnull String aggregatorName,
+                                          @Nullable HealthCheckResult previousAggregated,
+                                          @Nonnull HealthCheckResult updatedAggregated) {
+        this.record(aggregatorName, updatedAggregated.getStatus());
+    }
+
+    /**
+     * Takes the new status of a health check or aggregator, tracking it from now on if it is new, and checks its
+     * burn alerts.
+     *
+     * @param name   the name of the health check or aggregator
+     * @param status the status
+     */
+    public void record(@Nonnull String name, @Nonnull HealthStatus status) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        Preconditions.checkNotNull(status, "Status must not be null");
+
+        long nowNanos = this.timeSource.nanoTime();
+        SloTracker tracker = this.trackers.computeIfAbsent(name, key -> new SloTracker(this.settings, nowNanos));
+        tracker.record(status, nowNanos);
+        this.publish(tracker.evaluate(name, nowNanos));
+    }
+
+    /**
+     * Checks the burn alerts of every health check and aggregator, publishing an {@link ErrorBudgetBurnEvent} for
+     * each alert that started or stopped firing.
+     */
+    public void evaluate() {
+        long nowNanos = this.timeSource.nanoTime();
+        this.trackers.forEach((name, tracker) -> this.publish(tracker.evaluate(name, nowNanos)));
+    }
+
+    private void publish(List<ErrorBudgetBurnEvent> events) {
+        events.forEach(this.domainEventPublisher::publish);
+    }
+
+    /**
+     * @param name the name of the health check or aggregator
+     * @return where it stands against the objective, or empty if it has not changed status since tracking started
+     */
+    public Optional<SloReport> getReport(@Nonnull String name) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+
+        SloTracker tracker = this.trackers.get(name);
+        return tracker != null ? Optional.of(tracker.report(name, this.timeSource.nanoTime())) : Optional.empty();
+    }
+
+    /**
+     * Stops tracking a health check or aggregator, for example once it is unregistered.
+     *
+     * @param name the name of the health check or aggregator
+     */
+    public void remove(@Nonnull String name) {
+        Preconditions.checkNotNull(name, "Name must not be null");
+        this.trackers.remove(name);
+    }
+}
@@ -0,0 +1,33 @@
+package org.vitals.core.slo;
+
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * Where a health check or aggregator stands against its {@link SloSettings service level objective}. Everything but
+ * the burn rates is measured over the SLO window.
+ *
+ * @param name                    the name of the health check or aggregator
+ * @param availability            the share of the observed time it was available, or empty if none was observed
+ * @param errorBudgetRemaining    the share of the error budget left, negative once it is overspent
+ * @param burnRates               the burn rate over the SLO window and over each alert window, by window length
+ * @param failures                the number of times it became unavailable
+ * @param meanTimeToRecover       the time it was unavailable per failure, or empty without failures
+ * @param meanTimeBetweenFailures the time it was available per failure, or empty without failures
+ * @param burningAlerts           the alerts that fire
+ */
+public record SloReport(@Nonnull String name, @Nonnull OptionalDouble availability, double errorBudgetRemaining,
+                        @Nonnull Map<Duration, Double> burnRates, long failures,
+                        @Nonnull Optional<Duration> meanTimeToRecover,
+                        @Nonnull Optional<Duration> meanTimeBetweenFailures, @Nonnull Set<BurnAlert> burningAlerts) {
+
+    public SloReport {
+        burnRates = Map.copyOf(burnRates);
+        burningAlerts = Set.copyOf(burningAlerts);
+    }
+}
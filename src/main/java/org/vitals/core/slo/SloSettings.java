@@ -0,0 +1,37 @@
+package org.vitals.core.slo;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * The service level objective that an {@link SloEngine} tracks every health check and aggregator against.
+ *
+ * @param target the share of the observed time a health check should be available, between 0 and 1 exclusive
+ * @param window the window the target applies to
+ * @param alerts the burn alerts to raise
+ */
+public record SloSettings(double target, @Nonnull Duration window, @Nonnull List<BurnAlert> alerts) {
+
+    /**
+     * Available 99.9% of the last 30 days, with the {@link BurnAlert#DEFAULTS default alerts}.
+     */
+    public static final SloSettings DEFAULT = new SloSettings(0.999, Duration.ofDays(30), BurnAlert.DEFAULTS);
+
+    public SloSettings {
+        Preconditions.checkArgument(target > 0 && target < 1, "Target must be between 0 and 1 exclusive");
+        Preconditions.checkNotNull(window, "Window must not be null");
+        Preconditions.checkArgument(window.compareTo(Duration.ofSeconds(1)) >= 0, "Window must be at least one second");
+        Preconditions.checkNotNull(alerts, "Alerts must not be null");
+        alerts = List.copyOf(alerts);
+    }
+
+    /**
+     * @return the error budget, the share of the observed time a health check may be unavailable
+     */
+    public double errorBudget() {
+        return 1 - this.target;
+    }
+}
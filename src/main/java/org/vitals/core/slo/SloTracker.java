@@ -0,0 +1,140 @@
+package org.vitals.core.slo;
+
+import org.vitals.core.HealthCheck.HealthStatus;
+import org.vitals.core.event.ErrorBudgetBurnEvent;
+import org.vitals.core.history.RollupBucket;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.Set;
+
+/**
+ * The SLO state of one health check or aggregator: a {@link SlidingWindow} for the SLO window and one for each
+ * distinct alert window, fed with the time since the latest status change whenever it changes again or is read.
+ * Updates and reads are serialized on the tracker's monitor.
+ */
+final class SloTracker {
+
+    private final SloSettings settings;
+    private final SlidingWindow[] windows;
+    // the windows of each alert
+    private final SlidingWindow[] longWindows;
+    private final SlidingWindow[] shortWindows;
+    private final boolean[] burning;
+    // the windows are fed times since then, so that they never see the nano time wrap around
+    private final long originNanos;
+    private Observation current;
+    private long sinceNanos;
+
+    SloTracker(SloSettings settings, long nowNanos) {
+        this.settings = settings;
+        Map<Duration, SlidingWindow> byLength = new LinkedHashMap<>();
+        byLength.put(settings.window(), new SlidingWindow(settings.window()));
+        List<BurnAlert> alerts = settings.alerts();
+        this.longWindows = new SlidingWindow[alerts.size()];
+        this.shortWindows = new SlidingWindow[alerts.size()];
+        for (int i = 0; i < alerts.size(); i++) {
+            this.longWindows[i] = byLength.computeIfAbsent(alerts.get(i).longWindow(), SlidingWindow::new);
+            this.shortWindows[i] = byLength.computeIfAbsent(alerts.get(i).shortWindow(), SlidingWindow::new);
+        }
+        this.windows = byLength.values().toArray(new SlidingWindow[0]);
+        this.burning = new boolean[alerts.size()];
+        this.current = Observation.UNOBSERVED;
+        // nano times only mean something as differences, tracking starts at the first one seen
+        this.originNanos = nowNanos;
+        this.sinceNanos = nowNanos;
+        this.advance(nowNanos);
+    }
+
+    /**
+     * Takes a new status. Becoming unavailable counts as a failure.
+     */
+    synchronized void record(HealthStatus status, long nowNanos) {
+        this.advance(nowNanos);
+        Observation next = Observation.of(status);
+        if (next == Observation.UNAVAILABLE && this.current != Observation.UNAVAILABLE) {
+            for (SlidingWindow window : this.windows) {
+                window.countFailure();
+            }
+        }
+        this.current = next;
+    }
+
+    /**
+     * Checks the burn alerts.
+     *
+     * @return the alerts that started or stopped firing since the last evaluation
+     */
+    synchronized List<ErrorBudgetBurnEvent> evaluate(String name, long nowNanos) {
+        this.advance(nowNanos);
+        List<ErrorBudgetBurnEvent> events = new ArrayList<>(0);
+        double errorBudget = this.settings.errorBudget();
+        List<BurnAlert> alerts = this.settings.alerts();
+        for (int i = 0; i < alerts.size(); i++) {
+            BurnAlert alert = alerts.get(i);
+            double longRate = this.longWindows[i].burnRate(errorBudget);
+            double shortRate = this.shortWindows[i].burnRate(errorBudget);
+            boolean burning = longRate >= alert.burnRate() && shortRate >= alert.burnRate();
+            if (burning != this.burning[i]) {
+                this.burning[i] = burning;
+                events.add(new ErrorBudgetBurnEvent(name, alert, longRate, shortRate, burning));
+            }
+        }
+        return events;
+    }
+
+    synchronized SloReport report(String name, long nowNanos) {
+        this.advance(nowNanos);
+        SlidingWindow slo = this.windows[0];
+        double errorBudget = this.settings.errorBudget();
+        long observed = slo.availableNanos() + slo.unavailableNanos();
+        Map<Duration, Double> burnRates = new LinkedHashMap<>();
+        for (SlidingWindow window : this.windows) {
+            burnRates.put(window.window(), window.burnRate(errorBudget));
+        }
+        Set<BurnAlert> burningAlerts = new HashSet<>();
+        for (int i = 0; i < this.burning.length; i++) {
+            if (this.burning[i]) {
+                burningAlerts.add(this.settings.alerts().get(i));
+            }
+        }
+        long failures = slo.failures();
+        return new SloReport(name,
+                observed > 0 ? OptionalDouble.of((double) slo.availableNanos() / observed) : OptionalDouble.empty(),
+                1 - slo.burnRate(errorBudget), burnRates, failures,
+                failures > 0 ? Optional.of(Duration.ofNanos(slo.unavailableNanos() / failures)) : Optional.empty(),
+                failures > 0 ? Optional.of(Duration.ofNanos(slo.availableNanos() / failures)) : Optional.empty(),
+                burningAlerts);
+    }
+
+    /**
+     * Adds the time since the latest change to the current status, up to now. A time before the latest one seen,
+     * compared by difference, counts as the latest one.
+     */
+    private void advance(long nowNanos) {
+        long now = nowNanos - this.sinceNanos > 0 ? nowNanos : this.sinceNanos;
+        long elapsed = now - this.originNanos;
+        for (SlidingWindow window : this.windows) {
+            window.advance(elapsed);
+            if (this.current != Observation.UNOBSERVED) {
+                window.addTime(this.current == Observation.AVAILABLE, this.sinceNanos - this.originNanos, elapsed);
+            }
+        }
+        this.sinceNanos = now;
+    }
+
+    private enum Observation {
+        AVAILABLE, UNAVAILABLE, UNOBSERVED;
+
+        static Observation of(HealthStatus status) {
+            return RollupBucket.AVAILABLE.contains(status) ? AVAILABLE
+                    : RollupBucket.UNOBSERVED.contains(status) ? UNOBSERVED : UNAVAILABLE;
+        }
+    }
+}
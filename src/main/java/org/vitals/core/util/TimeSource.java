@@ -0,0 +1,56 @@
+package org.vitals.core.util;
+
+import com.google.common.base.Preconditions;
+import jakarta.annotation.Nonnull;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * Source of the current time for the scheduler, the executor and result timestamps: a monotonic nanosecond counter
+ * for measuring delays and a wall-clock {@link Instant} for timestamps and cron expressions. Tests and simulations
+ * replace {@link #SYSTEM} with a virtual time source, such as
+ * {@link org.vitals.core.scheduler.timer.VirtualTimer}, to control time.
+ */
+public interface TimeSource {
+
+    /**
+     * The system clocks, {@link System#nanoTime()} and {@link Instant#now()}.
+     */
+    TimeSource SYSTEM = new TimeSource() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.now();
+        }
+    };
+
+    /**
+     * Returns the current value of a monotonic counter, only meaningful as a difference to another value.
+     *
+     * @return the current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Returns the current wall-clock time.
+     *
+     * @return the current instant
+     */
+    Instant instant();
+
+    /**
+     * Returns a {@link Clock} reading {@link #instant()}, for code that works with {@code java.time}.
+     *
+     * @param zone the time zone of the clock
+     * @return the clock
+     */
+    default Clock toClock(@Nonnull ZoneId zone) {
+        return new TimeSourceClock(this, Preconditions.checkNotNull(zone, "Zone must not be null"));
+    }
+}
@@ -0,0 +1,34 @@
+package org.vitals.core.util;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+
+/**
+ * {@link Clock} view of a {@link TimeSource}.
+ */
+final class TimeSourceClock extends Clock {
+
+    private final TimeSource timeSource;
+    private final ZoneId zone;
+
+    TimeSourceClock(TimeSource timeSource, ZoneId zone) {
+        this.timeSource = timeSource;
+        this.zone = zone;
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return this.zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return zone.equals(this.zone) ? this : new TimeSourceClock(this.timeSource, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return this.timeSource.instant();
+    }
+}
@@ -0,0 +1,81 @@
+package aggregator;
+
+import org.junit.jupiter.api.Test;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+import org.vitals.core.aggregator.MostSevereStateAggregator;
+import org.vitals.core.aggregator.StatusCountingAggregator;
+import org.vitals.core.aggregator.WeightedScoringAggregator;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusCountingAggregatorTest {
+
+    private static final List<HealthStatus> STATUSES = List.of(HealthStatus.values());
+
+    private static HealthCheckResult result(HealthStatus status) {
+        return HealthCheckResult.builder().status(status).build();
+    }
+
+    @Test
+    void incrementalResultShouldMatchFullAggregation() {
+        Random random = new Random(42);
+        List<StatusCountingAggregator> aggregators = List.of(new MostSevereStateAggregator(),
+                new WeightedScoringAggregator());
+        Map<HealthCheck, HealthCheckResult> latestResults = new HashMap<>();
+        List<HealthCheck> healthChecks = IntStream.range(0, 20)
+                .mapToObj(i -> (HealthCheck) new TestCheck("check-" + i))
+                .toList();
+
+        for (int i = 0; i < 1000; i++) {
+            HealthCheck healthCheck = healthChecks.get(random.nextInt(healthChecks.size()));
+            // now and then a health check stops being counted
+            HealthCheckResult current = random.nextInt(10) == 0 ? null
+                    : result(STATUSES.get(random.nextInt(STATUSES.size())));
+            HealthCheckResult previous = current != null ? latestResults.put(healthCheck, current)
+                    : latestResults.remove(healthCheck);
+            for (StatusCountingAggregator aggregator : aggregators) {
+                aggregator.onResult(healthCheck, previous, current);
+                assertEquals(aggregator.aggregate(latestResults).getStatus(), aggregator.currentResult().getStatus());
+            }
+        }
+    }
+
+    @Test
+    void mostSevereShouldRankStatusesOutsideThePriorityOrderFirst() {
+        MostSevereStateAggregator aggregator = new MostSevereStateAggregator();
+        HealthCheck first = new TestCheck("first");
+        HealthCheck second = new TestCheck("second");
+
+        aggregator.onResult(first, null, result(HealthStatus.CRITICAL));
+        aggregator.onResult(second, null, result(HealthStatus.FAILED));
+
+        assertEquals(HealthStatus.FAILED, aggregator.currentResult().getStatus());
+    }
+
+    @Test
+    void emptyAggregationShouldBeUnknown() {
+        assertEquals(HealthStatus.UNKNOWN, new WeightedScoringAggregator().aggregate(Map.of()).getStatus());
+        assertEquals(HealthStatus.UNKNOWN, new MostSevereStateAggregator().currentResult().getStatus());
+    }
+
+    private static final class TestCheck extends AbstractHealthCheck {
+
+        private TestCheck(String name) {
+            super(name);
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return result(HealthStatus.HEALTHY);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.aggregator.MostSevereStateAggregator;
+import org.vitals.core.aggregator.WeightedScoringAggregator;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of taking one new result into account and reading the aggregated result of {@link MostSevereStateAggregator}
+ * and {@link WeightedScoringAggregator}, as the number of health checks grows. {@code full} aggregates the latest
+ * results of all health checks, {@code incremental} updates the aggregators' status counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AggregationBenchmark {
+
+    private static final HealthCheck.HealthCheckResult HEALTHY = HealthCheck.HealthCheckResult.builder()
+            .status(HealthCheck.HealthStatus.HEALTHY)
+            .build();
+    private static final HealthCheck.HealthCheckResult DEGRADED = HealthCheck.HealthCheckResult.builder()
+            .status(HealthCheck.HealthStatus.DEGRADED)
+            .build();
+
+    @Param({"10", "1000", "100000"})
+    private int checks;
+
+    @Param({"full", "incremental"})
+    private String mode;
+
+    private HealthCheck[] healthChecks;
+    private Map<HealthCheck, HealthCheck.HealthCheckResult> latestResults;
+    private MostSevereStateAggregator mostSevere;
+    private WeightedScoringAggregator weighted;
+    private int next;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(AggregationBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.healthChecks = new HealthCheck[this.checks];
+        this.latestResults = new HashMap<>();
+        this.mostSevere = new MostSevereStateAggregator();
+        this.weighted = new WeightedScoringAggregator();
+        for (int i = 0; i < this.checks; i++) {
+            this.healthChecks[i] = new BenchmarkCheck("check-" + i);
+            this.latestResults.put(this.healthChecks[i], HEALTHY);
+            this.mostSevere.onResult(this.healthChecks[i], null, HEALTHY);
+            this.weighted.onResult(this.healthChecks[i], null, HEALTHY);
+        }
+    }
+
+    @Benchmark
+    public void updateAndAggregate(Blackhole blackhole) {
+        HealthCheck healthCheck = this.healthChecks[this.next];
+        this.next = (this.next + 1) % this.checks;
+        HealthCheck.HealthCheckResult previous = this.latestResults.get(healthCheck);
+        HealthCheck.HealthCheckResult current = previous == HEALTHY ? DEGRADED : HEALTHY;
+        this.latestResults.put(healthCheck, current);
+
+        if ("full".equals(this.mode)) {
+            blackhole.consume(this.mostSevere.aggregate(this.latestResults));
+            blackhole.consume(this.weighted.aggregate(this.latestResults));
+        } else {
+            this.mostSevere.onResult(healthCheck, previous, current);
+            this.weighted.onResult(healthCheck, previous, current);
+            blackhole.consume(this.mostSevere.currentResult());
+            blackhole.consume(this.weighted.currentResult());
+        }
+    }
+
+    private static final class BenchmarkCheck extends AbstractHealthCheck {
+
+        private BenchmarkCheck(String name) {
+            super(name);
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return HEALTHY;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.aggregator.MostSevereStateAggregator;
+import org.vitals.core.aggregator.WeightedScoringAggregator;
+import org.vitals.core.history.DefaultHealthCheckHistory;
+import org.vitals.core.registry.DefaultHealthCheckRegistry;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throughput of recording results in {@link DefaultHealthCheckHistory}, with every writer thread recording its own
+ * health check as the executor does, and with all of them recording the same one. In {@code readWhileWriting} one
+ * thread in four reads snapshots of a history that the other three keep writing to. Each benchmark runs without
+ * aggregators and with two of them registered.
+ * <p>
+ * {@link #main} runs the benchmarks at 1, 8 and 64 threads.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    private static final int CHECKS = 64;
+    private static final HealthCheck.HealthCheckResult HEALTHY = HealthCheck.HealthCheckResult.builder()
+            .status(HealthCheck.HealthStatus.HEALTHY)
+            .build();
+
+    @Param({"0", "2"})
+    private int aggregators;
+
+    private DefaultHealthCheckHistory history;
+    private HealthCheck[] healthChecks;
+    private final AtomicInteger nextCheck = new AtomicInteger();
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 8, 64}) {
+            Options options = new OptionsBuilder().include(HistoryBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DefaultHealthCheckRegistry registry = new DefaultHealthCheckRegistry(event -> {
+        });
+        this.history = new DefaultHealthCheckHistory(64, event -> {
+        }, registry);
+        this.healthChecks = new HealthCheck[CHECKS];
+        for (int i = 0; i < CHECKS; i++) {
+            this.healthChecks[i] = new BenchmarkCheck("check-" + i);
+            registry.registerHealthCheck(this.healthChecks[i]);
+        }
+        if (this.aggregators > 0) {
+            registry.registerAggregator(new MostSevereStateAggregator());
+        }
+        if (this.aggregators > 1) {
+            registry.registerAggregator(new WeightedScoringAggregator());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private HealthCheck healthCheck;
+
+        @Setup(Level.Trial)
+        public void setUp(HistoryBenchmark benchmark) {
+            this.healthCheck = benchmark.healthChecks[benchmark.nextCheck.getAndIncrement() % CHECKS];
+        }
+    }
+
+    @Benchmark
+    public void addOwnCheck(Writer writer) {
+        this.history.addHistoryInternal(writer.healthCheck, HEALTHY);
+    }
+
+    @Benchmark
+    public void addSharedCheck() {
+        this.history.addHistoryInternal(this.healthChecks[0], HEALTHY);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(3)
+    public void write(Writer writer) {
+        this.history.addHistoryInternal(writer.healthCheck, HEALTHY);
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    public List<HealthCheck.HealthCheckResult> readLatest() {
+        return this.history.getHistory(this.healthChecks[0].getName());
+    }
+
+    private static final class BenchmarkCheck extends AbstractHealthCheck {
+
+        private BenchmarkCheck(String name) {
+            super(name);
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return HEALTHY;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import org.vitals.core.HealthCheck;
+import org.vitals.core.history.DefaultHealthCheckHistory;
+import org.vitals.core.history.HistoryJournal;
+import org.vitals.core.history.HistoryRetention;
+import org.vitals.core.history.JournalSettings;
+import org.vitals.core.registry.DefaultHealthCheckRegistry;
+import org.vitals.core.util.TimeSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Measures how fast results are journaled and how long reopening the journal and restoring a
+ * {@link DefaultHealthCheckHistory} from it takes, for 1M and 5M journaled results of 1000 health checks that keep
+ * their latest 100 results each.
+ */
+public final class JournalRecovery {
+
+    private static final int[] RESULTS = {1_000_000, 5_000_000};
+    private static final int CHECKS = 1000;
+    private static final HistoryRetention RETENTION = HistoryRetention.ofMaxResults(100);
+
+    private JournalRecovery() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        for (int results : RESULTS) {
+            measure(results);
+        }
+    }
+
+    private static void measure(int results) throws IOException {
+        Path directory = Files.createTempDirectory("journal-recovery");
+        JournalSettings settings = new JournalSettings(64 * 1024 * 1024, Duration.ofDays(7), 4L * 1024 * 1024 * 1024);
+        HealthCheck.HealthCheckResult[] statuses = {
+                HealthCheck.HealthCheckResult.builder().status(HealthCheck.HealthStatus.HEALTHY).message("ok").build(),
+                HealthCheck.HealthCheckResult.builder().status(HealthCheck.HealthStatus.DEGRADED)
+                        .message("slow response").build()
+        };
+        try {
+            long writeStart = System.nanoTime();
+            try (HistoryJournal journal = HistoryJournal.open(directory, settings)) {
+                long epochNanos = System.currentTimeMillis() * 1_000_000L;
+                for (int i = 0; i < results; i++) {
+                    journal.append("check-" + (i % CHECKS), statuses[(i / CHECKS) % 2], epochNanos + i);
+                }
+            }
+            long writeNanos = System.nanoTime() - writeStart;
+
+            long recoveryStart = System.nanoTime();
+            int restored;
+            try (HistoryJournal journal = HistoryJournal.open(directory, settings)) {
+                DefaultHealthCheckRegistry registry = new DefaultHealthCheckRegistry(event -> {
+                });
+                DefaultHealthCheckHistory history = new DefaultHealthCheckHistory(RETENTION, event -> {
+                }, registry, TimeSource.SYSTEM);
+                restored = history.restore(journal);
+            }
+            long recoveryNanos = System.nanoTime() - recoveryStart;
+
+            System.out.printf("results=%,10d  append=%5d ns/result  recovery=%,6d ms  restored=%,d%n", results,
+                    writeNanos / results, recoveryNanos / 1_000_000, restored);
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.scheduler.timer.ExecutorTaskTimer;
+import org.vitals.core.scheduler.timer.HashedWheelTimer;
+import org.vitals.core.scheduler.timer.TaskTimer;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of arming one timer task while the timer already holds {@code schedules} pending tasks, for the hashed
+ * wheel and for the executor-backed delay queue, uncontended and with concurrent re-arming.
+ * <p>
+ * Run with {@code -prof gc} to see {@code gc.alloc.rate.norm}, the bytes allocated per armed task. Tick overhead
+ * and retained memory per scheduled check are measured by {@link TimingWheelFootprint}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TimingWheelBenchmark {
+
+    private static final Runnable NOOP = () -> {
+    };
+
+    @Param({"1000", "100000", "1000000"})
+    private int schedules;
+
+    @Param({"wheel", "executor"})
+    private String timer;
+
+    private TaskTimer taskTimer;
+    private InternalScheduler internalScheduler;
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(TimingWheelBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("wheel".equals(this.timer)) {
+            // 1ms ticks keep the hand-off queue short even at tens of millions of operations per second
+            this.taskTimer = new HashedWheelTimer(1, TimeUnit.MILLISECONDS, 4096, "benchmark-wheel");
+        } else {
+            this.internalScheduler = InternalScheduler.newInstance(
+                    new InternalScheduler.SchedulerConfig.Builder().withPoolSize(1).build());
+            this.taskTimer = new ExecutorTaskTimer(this.internalScheduler);
+        }
+
+        // pending checks spread over 10 to 20 minutes so that none of them fires during the run
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < this.schedules; i++) {
+            this.taskTimer.schedule(NOOP, random.nextLong(600, 1200), TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.taskTimer.close();
+        if (this.internalScheduler != null) {
+            this.internalScheduler.shutdown();
+        }
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel() {
+        TaskTimer.Timeout timeout = this.taskTimer.schedule(NOOP, 900, TimeUnit.SECONDS);
+        return timeout.cancel();
+    }
+
+    /**
+     * Same as {@link #scheduleAndCancel()} with eight threads re-arming concurrently, which is what a pool of
+     * executor threads completing health checks does.
+     */
+    @Benchmark
+    @Threads(8)
+    public boolean scheduleAndCancelContended() {
+        TaskTimer.Timeout timeout = this.taskTimer.schedule(NOOP, 900, TimeUnit.SECONDS);
+        return timeout.cancel();
+    }
+}
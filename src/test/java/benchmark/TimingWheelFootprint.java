@@ -0,0 +1,89 @@
+package benchmark;
+
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.scheduler.timer.ExecutorTaskTimer;
+import org.vitals.core.scheduler.timer.HashedWheelTimer;
+import org.vitals.core.scheduler.timer.TaskTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures retained heap per scheduled check and the wheel's per-tick processing time at 1k, 100k and 1M pending
+ * schedules. Retained memory is a best-effort number from {@link Runtime} after explicit GCs, so run with a fixed
+ * heap, e.g. {@code -Xms4g -Xmx4g}.
+ */
+public final class TimingWheelFootprint {
+
+    private static final int[] SCHEDULES = {1_000, 100_000, 1_000_000};
+    private static final long TICK_WINDOW_MILLIS = 3_000;
+
+    private TimingWheelFootprint() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int schedules : SCHEDULES) {
+            measureWheel(schedules);
+            measureExecutor(schedules);
+        }
+    }
+
+    private static void measureWheel(int schedules) throws InterruptedException {
+        HashedWheelTimer wheel = new HashedWheelTimer(100, TimeUnit.MILLISECONDS, 512, "footprint-wheel");
+        // start the worker before the baseline so that its fixed cost is excluded
+        wheel.schedule(() -> {
+        }, 1, TimeUnit.DAYS);
+        long before = usedHeap();
+
+        List<TaskTimer.Timeout> handles = load(wheel, schedules);
+        // let the worker move everything from the hand-off queue into the buckets
+        TimeUnit.MILLISECONDS.sleep(500);
+        long after = usedHeap();
+
+        long ticksBefore = wheel.getTickCount();
+        long nanosBefore = wheel.getTickNanosTotal();
+        TimeUnit.MILLISECONDS.sleep(TICK_WINDOW_MILLIS);
+        long ticks = wheel.getTickCount() - ticksBefore;
+        long tickNanos = ticks == 0 ? 0 : (wheel.getTickNanosTotal() - nanosBefore) / ticks;
+
+        System.out.printf("wheel    schedules=%,9d  bytes/check=%5d  avg tick=%,8d ns%n", schedules,
+                (after - before) / schedules, tickNanos);
+        wheel.close();
+        handles.clear();
+    }
+
+    private static void measureExecutor(int schedules) {
+        InternalScheduler internalScheduler = InternalScheduler.newInstance(
+                new InternalScheduler.SchedulerConfig.Builder().withPoolSize(1).build());
+        ExecutorTaskTimer timer = new ExecutorTaskTimer(internalScheduler);
+        long before = usedHeap();
+
+        List<TaskTimer.Timeout> handles = load(timer, schedules);
+        long after = usedHeap();
+
+        System.out.printf("executor schedules=%,9d  bytes/check=%5d%n", schedules, (after - before) / schedules);
+        internalScheduler.shutdown();
+        handles.clear();
+    }
+
+    private static List<TaskTimer.Timeout> load(TaskTimer timer, int schedules) {
+        // handles are retained by the scheduler in practice too, so they count towards the footprint
+        List<TaskTimer.Timeout> handles = new ArrayList<>(schedules);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < schedules; i++) {
+            handles.add(timer.schedule(() -> {
+            }, random.nextLong(600, 1200), TimeUnit.SECONDS));
+        }
+        return handles;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
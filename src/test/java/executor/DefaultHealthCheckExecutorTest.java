@@ -0,0 +1,132 @@
+package executor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.executor.DefaultHealthCheckExecutor;
+import org.vitals.core.executor.DefaultHealthCheckExecutor.ExecutionResult;
+import org.vitals.core.executor.strategy.NoOpExecutionStrategy;
+import org.vitals.core.history.HealthCheckHistory;
+import org.vitals.core.listener.StatusUpdateDelegate;
+import org.vitals.core.registry.HealthCheckRegistry;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.scheduler.timer.VirtualTimer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DefaultHealthCheckExecutorTest {
+
+    private InternalScheduler internalScheduler;
+    private DefaultHealthCheckExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        internalScheduler = InternalScheduler.newInstance(
+                new InternalScheduler.SchedulerConfig.Builder().withPoolSize(4).build());
+        executor = new DefaultHealthCheckExecutor(mock(HealthCheckRegistry.class),
+                new StatusUpdateDelegate(internalScheduler), mock(HealthCheckHistory.class), internalScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void concurrentExecutionsOfTheSameCheckShouldBeJoined() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        HealthCheck healthCheck = new HealthCheck() {
+            @Override
+            public HealthCheckResult check() throws Exception {
+                runs.incrementAndGet();
+                release.await(2, TimeUnit.SECONDS);
+                return HealthCheckResult.builder().status(HealthStatus.HEALTHY).build();
+            }
+
+            @Override
+            public String getName() {
+                return "slow-check";
+            }
+        };
+
+        CompletableFuture<HealthCheck.HealthCheckResult> first = executor.executeAsync(healthCheck);
+        CompletableFuture<HealthCheck.HealthCheckResult> second = executor.executeAsync(healthCheck);
+        assertTrue(executor.isExecuting("slow-check"));
+
+        second.cancel(false);
+        release.countDown();
+
+        assertEquals(HealthCheck.HealthStatus.HEALTHY, first.get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, runs.get());
+        assertFalse(executor.isExecuting("slow-check"));
+
+        executor.executeAsync(healthCheck).get(2, TimeUnit.SECONDS);
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void suspendedCheckShouldReportMaintenanceWithoutRunning() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        HealthCheck healthCheck = new HealthCheck() {
+            @Override
+            public HealthCheckResult check() {
+                runs.incrementAndGet();
+                return HealthCheckResult.builder().status(HealthStatus.HEALTHY).build();
+            }
+
+            @Override
+            public String getName() {
+                return "paused-check";
+            }
+        };
+
+        executor.setSuspended("paused-check", true);
+        assertEquals(HealthCheck.HealthStatus.MAINTENANCE,
+                executor.executeAsync(healthCheck).get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(0, runs.get());
+
+        executor.setSuspended("paused-check", false);
+        assertEquals(HealthCheck.HealthStatus.HEALTHY,
+                executor.executeAsync(healthCheck).get(2, TimeUnit.SECONDS).getStatus());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void resultsShouldExpireByTheExecutorsTimeSource() throws Exception {
+        VirtualTimer timer = new VirtualTimer(Instant.parse("2024-01-01T00:00:00Z"));
+        DefaultHealthCheckExecutor virtualExecutor = new DefaultHealthCheckExecutor(new NoOpExecutionStrategy(),
+                new StatusUpdateDelegate(internalScheduler), mock(HealthCheckRegistry.class),
+                mock(HealthCheckHistory.class), internalScheduler, timer);
+        HealthCheck healthCheck = new HealthCheck() {
+            @Override
+            public HealthCheckResult check() {
+                return HealthCheckResult.builder().status(HealthStatus.HEALTHY)
+                        .timeToLive(Duration.ofMinutes(1))
+                        .build();
+            }
+
+            @Override
+            public String getName() {
+                return "ttl-check";
+            }
+        };
+
+        ExecutionResult result = (ExecutionResult) virtualExecutor.executeAsync(healthCheck).get(2, TimeUnit.SECONDS);
+
+        // stamped in 2024, yet not expired by the real clock
+        assertEquals(timer.instant(), result.getTimestamp());
+        assertFalse(result.isExpired());
+        timer.advance(Duration.ofMinutes(2));
+        assertTrue(result.isExpired());
+    }
+}
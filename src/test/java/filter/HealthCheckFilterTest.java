@@ -3,6 +3,7 @@ package filter;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.vitals.core.HealthCheck;
+import org.vitals.core.filter.FilterScope;
 import org.vitals.core.filter.HealthCheckFilter;
 import org.vitals.core.filter.HealthCheckFilterContext;
 import org.vitals.core.filter.HealthCheckFilters;
@@ -10,9 +11,12 @@ import org.vitals.core.filter.HealthCheckFilters;
 import java.time.Duration;
 import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class HealthCheckFilterTest {
@@ -131,6 +135,35 @@ class HealthCheckFilterTest {
         }
     }
 
+    @Nested
+    class Scope {
+        @Test
+        void andShouldNarrowTheScopeOfItsFilters() {
+            FilterScope scope = HealthCheckFilter.and(HealthCheckFilters.byNames(Set.of("Check1", "Check2")),
+                    HealthCheckFilters.byName("Check2"),
+                    HealthCheckFilters.byStatus(HealthCheck.HealthStatus.CRITICAL),
+                    HealthCheckFilters.byAllTags(Set.of("critical")),
+                    context -> true).scope();
+
+            assertEquals(Set.of("Check2"), scope.names());
+            assertEquals(Set.of(HealthCheck.HealthStatus.CRITICAL), scope.statuses());
+            assertEquals(List.of(Set.of("critical")), scope.tagGroups());
+        }
+
+        @Test
+        void orShouldWidenTheScopeOfItsFilters() {
+            FilterScope scope = HealthCheckFilter.or(HealthCheckFilters.byName("Check1"),
+                    HealthCheckFilters.byName("Check2"),
+                    HealthCheckFilters.byStatus(HealthCheck.HealthStatus.CRITICAL)).scope();
+
+            assertNull(scope.statuses());
+            assertNull(scope.names());
+            assertEquals(Set.of("Check1", "Check2"), HealthCheckFilter.or(HealthCheckFilters.byName("Check1"),
+                    HealthCheckFilters.byName("Check2")).scope().names());
+            assertEquals(FilterScope.ANY, HealthCheckFilter.not(HealthCheckFilters.byName("Check1")).scope());
+        }
+    }
+
     @Nested
     class FilterBuilder {
         @Test
@@ -0,0 +1,868 @@
+package history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+import org.vitals.core.aggregator.HealthResultAggregator;
+import org.vitals.core.aggregator.MostSevereStateAggregator;
+import org.vitals.core.event.AggregatedResultChangedEvent;
+import org.vitals.core.event.HealthCheckCheckedEvent;
+import org.vitals.core.event.HealthCheckStatusChangedEvent;
+import org.vitals.core.event.HealthEvent;
+import org.vitals.core.event.HealthResultAggregatedEvent;
+import org.vitals.core.filter.HealthCheckFilter;
+import org.vitals.core.filter.HealthCheckFilters;
+import org.vitals.core.history.DefaultHealthCheckHistory;
+import org.vitals.core.history.HistoryRetention;
+import org.vitals.core.history.HistoryRun;
+import org.vitals.core.history.HistoryStorage;
+import org.vitals.core.history.RecordedError;
+import org.vitals.core.history.RollupBucket;
+import org.vitals.core.history.RollupSettings;
+import org.vitals.core.history.RollupTier;
+import org.vitals.core.registry.DefaultHealthCheckRegistry;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.util.TimeSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DefaultHealthCheckHistoryTest {
+
+    private static final int HISTORY_SIZE = 8;
+
+    private final List<HealthEvent> events = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final TimeSource timeSource = new TimeSource() {
+        @Override
+        public long nanoTime() {
+            return nanoTime.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(0).plusNanos(nanoTime.get());
+        }
+    };
+    private DefaultHealthCheckRegistry registry;
+    private DefaultHealthCheckHistory history;
+    private HealthCheck healthCheck;
+
+    private static HealthCheckResult result(HealthStatus status, int sequence) {
+        return HealthCheckResult.builder().status(status).message(Integer.toString(sequence)).build();
+    }
+
+    private static int sequence(HealthCheckResult result) {
+        return Integer.parseInt(result.getMessage());
+    }
+
+    @BeforeEach
+    void setUp() {
+        this.registry = new DefaultHealthCheckRegistry(event -> {
+        });
+        this.history = new DefaultHealthCheckHistory(HistoryRetention.ofMaxResults(HISTORY_SIZE), this.events::add,
+                this.registry, this.timeSource);
+        this.healthCheck = new TestCheck("check");
+        this.registry.registerHealthCheck(this.healthCheck);
+    }
+
+    @Nested
+    class Recording {
+
+        @Test
+        void shouldKeepTheLatestResultsOldestFirst() {
+            for (int i = 0; i < 20; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+
+            List<HealthCheckResult> results = history.getHistory("check");
+
+            assertEquals(HISTORY_SIZE, results.size());
+            for (int i = 0; i < HISTORY_SIZE; i++) {
+                assertEquals(20 - HISTORY_SIZE + i, sequence(results.get(i)));
+            }
+            assertThrows(UnsupportedOperationException.class, () -> results.add(result(HealthStatus.HEALTHY, 0)));
+        }
+
+        @Test
+        void shouldReturnEmptyHistoryForUnknownName() {
+            assertTrue(history.getHistory("unknown").isEmpty());
+        }
+
+        @Test
+        void shouldPublishStatusChangeAgainstThePreviousResult() {
+            HealthCheckResult healthy = HealthCheckResult.builder().status(HealthStatus.HEALTHY).build();
+            HealthCheckResult unhealthy = HealthCheckResult.builder().status(HealthStatus.UNHEALTHY).build();
+
+            history.addHistoryInternal(healthCheck, healthy);
+            history.addHistoryInternal(healthCheck, healthy);
+            history.addHistoryInternal(healthCheck, unhealthy);
+
+            List<HealthCheckStatusChangedEvent> changes = events.stream()
+                    .filter(HealthCheckStatusChangedEvent.class::isInstance)
+                    .map(HealthCheckStatusChangedEvent.class::cast)
+                    .toList();
+            assertEquals(2, changes.size());
+            assertNull(changes.get(0).original());
+            assertEquals(healthy, changes.get(1).original());
+            assertEquals(unhealthy, changes.get(1).updated());
+        }
+    }
+
+    @Nested
+    class Retention {
+
+        private void advance(Duration duration) {
+            nanoTime.addAndGet(duration.toNanos());
+        }
+
+        @Test
+        void shouldDropResultsOlderThanMaxAgeButTheLatest() {
+            history.setRetention("check", new HistoryRetention(HISTORY_SIZE, Duration.ofSeconds(3), 0));
+            for (int i = 0; i < 5; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+                advance(Duration.ofSeconds(1));
+            }
+
+            // recorded at 2s, 3s and 4s, read at 5s
+            assertEquals(List.of(2, 3, 4), history.getHistory("check").stream()
+                    .map(DefaultHealthCheckHistoryTest::sequence)
+                    .toList());
+
+            advance(Duration.ofMinutes(1));
+            assertEquals(1, history.getHistory("check").size());
+        }
+
+        @Test
+        void shouldResizeExistingHistoryKeepingTheLatestResults() {
+            for (int i = 0; i < HISTORY_SIZE; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+            long footprint = history.getEstimatedBytes();
+
+            history.setRetention("check", HistoryRetention.ofMaxResults(3));
+
+            assertEquals(List.of(5, 6, 7), history.getHistory("check").stream()
+                    .map(DefaultHealthCheckHistoryTest::sequence)
+                    .toList());
+            assertTrue(history.getEstimatedBytes() < footprint);
+
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 8));
+            assertEquals(8, sequence(history.getHistory("check").get(2)));
+        }
+
+        @Test
+        void shouldEvictLeastImportantAndLeastRecentlyReadHistoriesOverBudget() {
+            HealthCheck important = new TestCheck("important");
+            HealthCheck read = new TestCheck("read");
+            HealthCheck unread = new TestCheck("unread");
+            registry.registerHealthCheck(important);
+            registry.registerHealthCheck(read);
+            registry.registerHealthCheck(unread);
+            history.setRetention("important", new HistoryRetention(HISTORY_SIZE, HistoryRetention.UNLIMITED_AGE, 1));
+            for (int i = 0; i < HISTORY_SIZE; i++) {
+                history.addHistoryInternal(important, result(HealthStatus.HEALTHY, i));
+                history.addHistoryInternal(read, result(HealthStatus.HEALTHY, i));
+                history.addHistoryInternal(unread, result(HealthStatus.HEALTHY, i));
+            }
+            advance(Duration.ofSeconds(1));
+            history.getHistory("read");
+
+            // cutting down one of the three histories is enough
+            long budget = history.getEstimatedBytes() * 5 / 6;
+            history.setMemoryBudget(budget);
+
+            assertTrue(history.getEstimatedBytes() <= budget);
+            assertEquals(1, history.getHistory("unread").size());
+            assertEquals(HISTORY_SIZE, history.getHistory("read").size());
+            assertEquals(HISTORY_SIZE, history.getHistory("important").size());
+        }
+
+        @Test
+        void footprintShouldReturnToZeroWhenCleared() {
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 0));
+            assertTrue(history.getEstimatedBytes() > 0);
+
+            history.clearHistory();
+
+            assertEquals(0, history.getEstimatedBytes());
+            assertTrue(history.getHistory("check").isEmpty());
+        }
+    }
+
+    @Nested
+    class Aggregation {
+
+        private final InternalScheduler internalScheduler = InternalScheduler.newInstance(
+                new InternalScheduler.SchedulerConfig.Builder().withPoolSize(1).build());
+        private final AtomicInteger aggregations = new AtomicInteger();
+        private DefaultHealthCheckHistory aggregatingHistory;
+
+        @BeforeEach
+        void setUp() {
+            aggregatingHistory = new DefaultHealthCheckHistory(HistoryRetention.ofMaxResults(HISTORY_SIZE),
+                    events::add, registry, timeSource, internalScheduler);
+            MostSevereStateAggregator mostSevere = new MostSevereStateAggregator();
+            registry.registerAggregator(new HealthResultAggregator() {
+                @Override
+                public String getName() {
+                    return "counting";
+                }
+
+                @Override
+                public HealthCheckResult aggregate(Map<HealthCheck, HealthCheckResult> results) {
+                    aggregations.incrementAndGet();
+                    return mostSevere.aggregate(results);
+                }
+            });
+        }
+
+        @AfterEach
+        void tearDown() {
+            internalScheduler.shutdown();
+        }
+
+        @Test
+        void shouldAggregateABurstOfResultsOnce() throws InterruptedException {
+            HealthCheck other = new TestCheck("other");
+            registry.registerHealthCheck(other);
+            CountDownLatch release = new CountDownLatch(1);
+            // keep the only scheduler thread busy while the burst is recorded
+            internalScheduler.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            for (int i = 0; i < 100; i++) {
+                aggregatingHistory.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+            aggregatingHistory.addHistoryInternal(other, result(HealthStatus.CRITICAL, 0));
+            assertEquals(0, aggregations.get());
+            release.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            // the events are published after the aggregated result is recorded, wait for the last one
+            while (List.copyOf(events).stream().noneMatch(AggregatedResultChangedEvent.class::isInstance)
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertEquals(1, aggregations.get());
+            assertEquals(HealthStatus.CRITICAL, aggregatingHistory.getHistory("counting").get(0).getStatus());
+            assertEquals(1, events.stream().filter(HealthResultAggregatedEvent.class::isInstance).count());
+            assertEquals(1, events.stream().filter(AggregatedResultChangedEvent.class::isInstance).count());
+        }
+
+        @Test
+        void incrementalAggregatorShouldCountResultsRecordedBeforeItWasRegistered() {
+            HealthCheck other = new TestCheck("other");
+            registry.registerHealthCheck(other);
+            aggregatingHistory.setAggregationInterval(Duration.ofHours(1));
+            aggregatingHistory.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 0));
+            aggregatingHistory.addHistoryInternal(other, result(HealthStatus.CRITICAL, 0));
+
+            registry.registerAggregator(new MostSevereStateAggregator("incremental"));
+            aggregatingHistory.aggregateNow();
+            assertEquals(HealthStatus.CRITICAL, latest(aggregatingHistory.getHistory("incremental")).getStatus());
+
+            aggregatingHistory.addHistoryInternal(other, result(HealthStatus.DEGRADED, 1));
+            aggregatingHistory.aggregateNow();
+            assertEquals(HealthStatus.DEGRADED, latest(aggregatingHistory.getHistory("incremental")).getStatus());
+
+            aggregatingHistory.removeFromAggregation("other");
+            aggregatingHistory.aggregateNow();
+            assertEquals(HealthStatus.HEALTHY, latest(aggregatingHistory.getHistory("incremental")).getStatus());
+        }
+
+        private HealthCheckResult latest(List<HealthCheckResult> results) {
+            return results.get(results.size() - 1);
+        }
+
+        @Test
+        void aggregateNowShouldPublishOnlyChanges() {
+            aggregatingHistory.setAggregationInterval(Duration.ofHours(1));
+
+            aggregatingHistory.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 0));
+            aggregatingHistory.aggregateNow();
+            aggregatingHistory.aggregateNow();
+            aggregatingHistory.addHistoryInternal(healthCheck, result(HealthStatus.UNHEALTHY, 1));
+            aggregatingHistory.aggregateNow();
+
+            List<AggregatedResultChangedEvent> changes = events.stream()
+                    .filter(AggregatedResultChangedEvent.class::isInstance)
+                    .map(AggregatedResultChangedEvent.class::cast)
+                    .toList();
+            assertEquals(2, changes.size());
+            assertEquals(HealthStatus.UNHEALTHY, changes.get(1).updatedAggregated().getStatus());
+            List<HealthCheckResult> aggregated = aggregatingHistory.getHistory("counting");
+            assertEquals(HealthStatus.UNHEALTHY, aggregated.get(aggregated.size() - 1).getStatus());
+        }
+    }
+
+    @Nested
+    class Rollups {
+
+        @BeforeEach
+        void setUp() {
+            history.setRollups(RollupSettings.DEFAULT);
+        }
+
+        private void advance(Duration duration) {
+            nanoTime.addAndGet(duration.toNanos());
+        }
+
+        private Instant now() {
+            return timeSource.instant();
+        }
+
+        @Test
+        void shouldCountResultsAndTimeInStatusPerBucket() {
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 0));
+            advance(Duration.ofSeconds(30));
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 1));
+            advance(Duration.ofSeconds(30));
+            history.addHistoryInternal(healthCheck, result(HealthStatus.UNHEALTHY, 2));
+            advance(Duration.ofSeconds(60));
+
+            List<RollupBucket> buckets = history.getRollups("check", Instant.EPOCH, now());
+
+            assertEquals(2, buckets.size());
+            assertEquals(RollupTier.MINUTE, buckets.get(0).tier());
+            assertEquals(Map.of(HealthStatus.HEALTHY, 2L), buckets.get(0).counts());
+            assertEquals(Map.of(HealthStatus.HEALTHY, Duration.ofMinutes(1)), buckets.get(0).timeInStatus());
+            assertEquals(Map.of(HealthStatus.UNHEALTHY, 1L), buckets.get(1).counts());
+            // the current status counts until now
+            assertEquals(Map.of(HealthStatus.UNHEALTHY, Duration.ofMinutes(1)), buckets.get(1).timeInStatus());
+            assertEquals(0.5, history.getAvailability("check", Instant.EPOCH, now()).orElseThrow(), 1e-9);
+        }
+
+        @Test
+        void shouldAnswerFromTheCoarsestTierThatCoversTheRange() {
+            for (int i = 0; i < 10 * 24 * 60; i++) {
+                history.addHistoryInternal(healthCheck,
+                        result(i % 60 == 0 ? HealthStatus.CRITICAL : HealthStatus.HEALTHY, i));
+                advance(Duration.ofMinutes(1));
+            }
+
+            List<RollupBucket> week = history.getRollups("check", now().minus(Duration.ofDays(7)), now());
+            List<RollupBucket> halfHour = history.getRollups("check", now().minus(Duration.ofMinutes(30)), now());
+
+            assertTrue(week.stream().allMatch(bucket -> bucket.tier() == RollupTier.HOUR));
+            assertEquals(7 * 24, week.size());
+            assertEquals(60, week.get(0).total());
+            assertTrue(halfHour.stream().allMatch(bucket -> bucket.tier() == RollupTier.MINUTE));
+            assertEquals(59.0 / 60, history.getAvailability("check", now().minus(Duration.ofDays(7)), now())
+                    .orElseThrow(), 1e-9);
+        }
+
+        @Test
+        void shouldTakeFixedMemoryPerCheck() {
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 0));
+            for (int i = 1; i < HISTORY_SIZE; i++) {
+                advance(Duration.ofSeconds(10));
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+            long footprint = history.getEstimatedBytes();
+
+            for (int i = 0; i < 50_000; i++) {
+                advance(Duration.ofSeconds(10));
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i % 10));
+            }
+
+            assertEquals(footprint, history.getEstimatedBytes());
+            history.setRollups(null);
+            assertTrue(history.getEstimatedBytes() < footprint);
+            assertTrue(history.getRollups("check", Instant.EPOCH, now()).isEmpty());
+        }
+    }
+
+    @Nested
+    class Runs {
+
+        private final HealthCheckResult ok = HealthCheckResult.builder().status(HealthStatus.HEALTHY).message("ok")
+                .build();
+        private final HealthCheckResult down = HealthCheckResult.builder().status(HealthStatus.CRITICAL)
+                .message("down").build();
+
+        @BeforeEach
+        void setUp() {
+            history.setRetention("check", HistoryRetention.ofMaxResults(HISTORY_SIZE).withCollapseRuns(true));
+        }
+
+        // each result one second after the previous one, starting at 0s
+        private void record(HealthCheckResult result, int times) {
+            for (int i = 0; i < times; i++) {
+                history.addHistoryInternal(healthCheck, HealthCheckResult.builder()
+                        .status(result.getStatus())
+                        .message(result.getMessage())
+                        .addData("attempt", i)
+                        .build());
+                nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+            }
+        }
+
+        private Instant at(int seconds) {
+            return Instant.EPOCH.plusSeconds(seconds);
+        }
+
+        @Test
+        void shouldCollapseConsecutiveEqualResultsIntoRuns() {
+            record(ok, 5);
+            record(down, 2);
+            record(ok, 3);
+
+            assertEquals(List.of("ok", "down", "ok"), history.getHistory("check").stream()
+                    .map(HealthCheckResult::getMessage)
+                    .toList());
+            List<HistoryRun> runs = history.getRuns("check", Instant.MIN, Instant.MAX, 10);
+            assertEquals(List.of(5L, 2L, 3L), runs.stream().map(HistoryRun::count).toList());
+            assertEquals(at(5), runs.get(1).firstSeen());
+            assertEquals(at(6), runs.get(1).lastSeen());
+            assertEquals(at(9), runs.get(2).lastSeen());
+        }
+
+        @Test
+        void shouldFindRunsLastSeenInARange() {
+            record(ok, 5);
+            record(down, 2);
+            record(ok, 3);
+
+            // the first run lasted until 4s, the second one started at 5s
+            assertEquals(List.of(5L, 2L), history.getRuns("check", at(3), at(6), 10).stream()
+                    .map(HistoryRun::count)
+                    .toList());
+            assertEquals(List.of("down"), history.getHistory("check", at(5), at(7), 10).stream()
+                    .map(HealthCheckResult::getMessage)
+                    .toList());
+        }
+
+        @Test
+        void shouldKeepRunsWhenResized() {
+            record(ok, 5);
+            record(down, 2);
+
+            history.setRetention("check", new HistoryRetention(2, HistoryRetention.UNLIMITED_AGE, 0,
+                    HistoryStorage.COMPACT, true));
+
+            assertEquals(List.of(5L, 2L), history.getRuns("check", Instant.MIN, Instant.MAX, 10).stream()
+                    .map(HistoryRun::count)
+                    .toList());
+        }
+
+        @Test
+        void rollupsShouldStartFromTheRunsTheHistoryHolds() {
+            // an hour of healthy results a minute apart, then ten minutes down
+            for (int i = 0; i < 60; i++) {
+                history.addHistoryInternal(healthCheck, ok);
+                nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+            }
+            for (int i = 0; i < 10; i++) {
+                history.addHistoryInternal(healthCheck, down);
+                nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+            }
+            assertEquals(2, history.getHistory("check").size());
+
+            history.setRollups(RollupSettings.DEFAULT);
+
+            List<RollupBucket> minutes = history.getRollups("check", Instant.EPOCH, Instant.EPOCH.plusSeconds(4200));
+            assertEquals(60, minutes.stream().mapToLong(bucket -> bucket.counts()
+                    .getOrDefault(HealthStatus.HEALTHY, 0L)).sum());
+            assertEquals(10, minutes.stream().mapToLong(bucket -> bucket.counts()
+                    .getOrDefault(HealthStatus.CRITICAL, 0L)).sum());
+            assertEquals(60.0 / 70, history.getAvailability("check", Instant.EPOCH,
+                    Instant.EPOCH.plusSeconds(4200)).orElseThrow(), 1e-9);
+        }
+    }
+
+    @Nested
+    class Snapshots {
+
+        private DefaultHealthCheckHistory restarted(long restartNanos) {
+            // a restarted process whose monotonic clock starts over
+            TimeSource restarted = new TimeSource() {
+                @Override
+                public long nanoTime() {
+                    return nanoTime.get() - restartNanos;
+                }
+
+                @Override
+                public Instant instant() {
+                    return Instant.ofEpochSecond(0).plusNanos(nanoTime.get());
+                }
+            };
+            return new DefaultHealthCheckHistory(HistoryRetention.ofMaxResults(HISTORY_SIZE), events::add, registry,
+                    restarted);
+        }
+
+        private int restore(DefaultHealthCheckHistory restored, byte[] snapshot) throws IOException {
+            return restored.restoreSnapshot(new DataInputStream(new ByteArrayInputStream(snapshot)));
+        }
+
+        private byte[] snapshot() throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            history.writeSnapshot(new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        }
+
+        @Test
+        void shouldRestoreHistoriesAtTheirWallClockTimes() throws IOException {
+            history.setRetention("check", HistoryRetention.ofMaxResults(HISTORY_SIZE).withCollapseRuns(true));
+            for (int i = 0; i < 6; i++) {
+                history.addHistoryInternal(healthCheck, HealthCheckResult.builder()
+                        .status(i < 4 ? HealthStatus.HEALTHY : HealthStatus.CRITICAL)
+                        .message(i < 4 ? "ok" : "down")
+                        .error(i < 4 ? null : new IllegalStateException("refused"))
+                        .build());
+                nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+            }
+            byte[] snapshot = snapshot();
+            events.clear();
+
+            nanoTime.addAndGet(Duration.ofSeconds(30).toNanos());
+            DefaultHealthCheckHistory restored = restarted(nanoTime.get());
+            restored.setRetention("check", HistoryRetention.ofMaxResults(HISTORY_SIZE).withCollapseRuns(true));
+            assertEquals(2, restore(restored, snapshot));
+
+            List<HistoryRun> runs = restored.getRuns("check", Instant.MIN, Instant.MAX, 10);
+            assertEquals(List.of(4L, 2L), runs.stream().map(HistoryRun::count).toList());
+            assertEquals(List.of(Instant.EPOCH, Instant.EPOCH.plusSeconds(4)), runs.stream()
+                    .map(HistoryRun::firstSeen)
+                    .toList());
+            assertEquals(Instant.EPOCH.plusSeconds(5), runs.get(1).lastSeen());
+            HealthCheckResult latest = restored.getHistory("check", 1).get(0);
+            assertEquals(HealthStatus.CRITICAL, latest.getStatus());
+            assertEquals("java.lang.IllegalStateException: refused", latest.getError().getMessage());
+            assertEquals(List.of("down"), restored.getHistory("check", Instant.EPOCH.plusSeconds(4),
+                    Instant.EPOCH.plusSeconds(6), 10).stream().map(HealthCheckResult::getMessage).toList());
+            assertTrue(events.isEmpty());
+        }
+
+        @Test
+        void shouldKeepHistoriesThatHoldResults() throws IOException {
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 1));
+            byte[] snapshot = snapshot();
+
+            DefaultHealthCheckHistory restored = restarted(0);
+            assertEquals(1, restore(restored, snapshot));
+            assertEquals(0, restore(restored, snapshot));
+
+            assertEquals(1, restored.getHistory("check").size());
+        }
+    }
+
+    @Nested
+    class Queries {
+
+        private Instant at(Duration time) {
+            return Instant.EPOCH.plus(time);
+        }
+
+        private List<Integer> sequences(List<HealthCheckResult> results) {
+            return results.stream().map(DefaultHealthCheckHistoryTest::sequence).toList();
+        }
+
+        @Test
+        void shouldReturnTheLatestResultsRecordedInARange() {
+            // result i recorded at i seconds
+            for (int i = 0; i < 20; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+                nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+            }
+
+            assertEquals(List.of(14, 15, 16), sequences(history.getHistory("check", at(Duration.ofSeconds(14)),
+                    at(Duration.ofSeconds(17)), 10)));
+            assertEquals(List.of(15, 16), sequences(history.getHistory("check", at(Duration.ofSeconds(14)),
+                    at(Duration.ofSeconds(17)), 2)));
+            assertEquals(List.of(12, 13), sequences(history.getHistory("check", Instant.MIN,
+                    at(Duration.ofSeconds(14)), 10)));
+            assertEquals(List.of(17, 18, 19), sequences(history.getHistory("check", 3)));
+            assertTrue(history.getHistory("check", at(Duration.ofSeconds(20)), Instant.MAX, 10).isEmpty());
+        }
+
+        @Test
+        void rangeShouldDropResultsOlderThanMaxAgeButTheLatest() {
+            history.setRetention("check", new HistoryRetention(HISTORY_SIZE, Duration.ofSeconds(3), 0));
+            for (int i = 0; i < 5; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+                nanoTime.addAndGet(Duration.ofSeconds(1).toNanos());
+            }
+
+            assertEquals(List.of(2, 3, 4), sequences(history.getHistory("check", 10)));
+            nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+            assertEquals(List.of(4), sequences(history.getHistory("check", Instant.MIN, Instant.MAX, 10)));
+        }
+
+        @Test
+        void filterShouldOnlyReturnMatchingResultsOfTaggedChecksInTheRange() {
+            HealthCheck database = new TestCheck("database", "critical-path");
+            HealthCheck cache = new TestCheck("cache", "optional");
+            registry.registerHealthCheck(database);
+            registry.registerHealthCheck(cache);
+            history.setRetention("database", HistoryRetention.ofMaxResults(HISTORY_SIZE)
+                    .withStorage(HistoryStorage.COMPACT));
+            // odd results critical, one result of each check per minute
+            for (int i = 0; i < 8; i++) {
+                HealthStatus status = i % 2 == 1 ? HealthStatus.CRITICAL : HealthStatus.HEALTHY;
+                history.addHistoryInternal(database, result(status, i));
+                history.addHistoryInternal(cache, result(status, 100 + i));
+                history.addHistoryInternal(healthCheck, result(status, 200 + i));
+                nanoTime.addAndGet(Duration.ofMinutes(1).toNanos());
+            }
+
+            HealthCheckFilter filter = HealthCheckFilter.and(HealthCheckFilters.byStatus(HealthStatus.CRITICAL),
+                    HealthCheckFilters.byAnyTag(Set.of("critical-path")));
+            Set<HealthCheckResult> lastHour = history.filterHistory(filter, at(Duration.ofMinutes(4)),
+                    at(Duration.ofMinutes(8)));
+
+            assertEquals(Set.of(5, 7), lastHour.stream()
+                    .map(DefaultHealthCheckHistoryTest::sequence)
+                    .collect(Collectors.toSet()));
+            assertEquals(4, history.filterHistory(HealthCheckFilters.byName("cache")).stream()
+                    .filter(result -> result.getStatus() == HealthStatus.HEALTHY)
+                    .count());
+        }
+    }
+
+    @Nested
+    class CompactStorage {
+
+        @BeforeEach
+        void setUp() {
+            history.setRetention("check", HistoryRetention.ofMaxResults(HISTORY_SIZE)
+                    .withStorage(HistoryStorage.COMPACT));
+        }
+
+        @Test
+        void shouldKeepStatusMessageTimeToLiveAndErrorSummary() {
+            HealthCheckResult failed = HealthCheckResult.builder()
+                    .status(HealthStatus.UNHEALTHY)
+                    .message("down")
+                    .error(new IllegalStateException("connection refused"))
+                    .timeToLive(Duration.ofSeconds(30))
+                    .addData("host", "db")
+                    .build();
+            history.addHistoryInternal(healthCheck, failed);
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 1));
+
+            HealthCheckResult stored = history.getHistory("check").get(0);
+
+            assertEquals(HealthStatus.UNHEALTHY, stored.getStatus());
+            assertEquals("down", stored.getMessage());
+            assertEquals(Duration.ofSeconds(30), stored.getTimeToLive());
+            assertInstanceOf(RecordedError.class, stored.getError());
+            assertEquals("java.lang.IllegalStateException: connection refused", stored.getError().getMessage());
+            assertTrue(stored.getData().isEmpty());
+        }
+
+        @Test
+        void shouldKeepMessagesAndErrorSummariesBeyondTheMessageTable() {
+            DefaultHealthCheckHistory small = new DefaultHealthCheckHistory(HistoryRetention.ofMaxResults(4)
+                    .withStorage(HistoryStorage.COMPACT), events::add, registry, timeSource,
+                    InternalScheduler.getInstance(), 2);
+            for (int i = 0; i < 6; i++) {
+                small.addHistoryInternal(healthCheck, HealthCheckResult.builder()
+                        .status(HealthStatus.UNHEALTHY)
+                        .message("down " + i)
+                        .error(new IllegalStateException("refused " + i))
+                        .build());
+            }
+            long footprint = small.getEstimatedBytes();
+
+            List<HealthCheckResult> stored = small.getHistory("check");
+            assertEquals(List.of("down 2", "down 3", "down 4", "down 5"),
+                    stored.stream().map(HealthCheckResult::getMessage).toList());
+            assertEquals("java.lang.IllegalStateException: refused 5", stored.get(3).getError().getMessage());
+
+            // overwritten with interned messages, the strings of the slots are freed
+            for (int i = 0; i < 4; i++) {
+                small.addHistoryInternal(healthCheck, HealthCheckResult.builder()
+                        .status(HealthStatus.HEALTHY)
+                        .message("down 0")
+                        .build());
+            }
+            assertTrue(small.getEstimatedBytes() < footprint);
+            assertNull(small.getHistory("check").get(3).getError());
+        }
+
+        @Test
+        void latestResultShouldStayExact() {
+            HealthCheckResult withData = HealthCheckResult.builder()
+                    .status(HealthStatus.DEGRADED)
+                    .addData("lag", 12)
+                    .build();
+            history.addHistoryInternal(healthCheck, withData);
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 1));
+
+            HealthCheckStatusChangedEvent change = (HealthCheckStatusChangedEvent) events.stream()
+                    .filter(HealthCheckStatusChangedEvent.class::isInstance)
+                    .reduce((first, second) -> second)
+                    .orElseThrow();
+            assertSame(withData, change.original());
+        }
+
+        @Test
+        void shouldTakeLessMemoryThanObjects() {
+            HealthCheck objects = new TestCheck("objects");
+            registry.registerHealthCheck(objects);
+            history.setRetention("objects", HistoryRetention.ofMaxResults(HISTORY_SIZE));
+            history.addHistoryInternal(objects, result(HealthStatus.HEALTHY, 0));
+            history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, 0));
+            long bothEmpty = history.getEstimatedBytes();
+            for (int i = 1; i < HISTORY_SIZE * 2; i++) {
+                history.addHistoryInternal(objects, result(HealthStatus.HEALTHY, i));
+            }
+            long objectsGrowth = history.getEstimatedBytes() - bothEmpty;
+            for (int i = 1; i < HISTORY_SIZE * 2; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+            long compactGrowth = history.getEstimatedBytes() - bothEmpty - objectsGrowth;
+
+            assertTrue(objectsGrowth > 0);
+            assertEquals(0, compactGrowth);
+        }
+
+        @Test
+        void offHeapHistoryShouldKeepTheLatestResultsOldestFirst() {
+            history.setRetention("check", HistoryRetention.ofMaxResults(3)
+                    .withStorage(HistoryStorage.COMPACT_OFF_HEAP));
+            for (int i = 0; i < 10; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+
+            assertEquals(List.of(7, 8, 9), history.getHistory("check").stream()
+                    .map(DefaultHealthCheckHistoryTest::sequence)
+                    .toList());
+        }
+
+        @Test
+        void readersShouldOnlySeeUnbrokenRunsOfTheLatestResults() throws InterruptedException {
+            // the sequence goes in the time to live, messages beyond the message table would take a string each
+            int writes = 200_000;
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicReference<String> failure = new AtomicReference<>();
+
+            Thread reader = new Thread(() -> {
+                while (done.getCount() > 0 && failure.get() == null) {
+                    List<HealthCheckResult> results = history.getHistory("check");
+                    for (int i = 1; i < results.size(); i++) {
+                        if (results.get(i).getTimeToLive().toNanos()
+                                != results.get(i - 1).getTimeToLive().toNanos() + 1) {
+                            failure.set("snapshot out of order: " + results);
+                        }
+                    }
+                }
+            });
+            reader.start();
+
+            for (int i = 0; i < writes; i++) {
+                history.addHistoryInternal(healthCheck, HealthCheckResult.builder()
+                        .status(HealthStatus.HEALTHY)
+                        .timeToLive(Duration.ofNanos(i))
+                        .build());
+            }
+            done.countDown();
+            reader.join();
+
+            assertNull(failure.get());
+            assertEquals(HISTORY_SIZE, history.getHistory("check").size());
+        }
+    }
+
+    @Nested
+    class Concurrency {
+
+        @Test
+        void readersShouldOnlySeeUnbrokenRunsOfTheLatestResults() throws InterruptedException {
+            int writes = 200_000;
+            CountDownLatch done = new CountDownLatch(1);
+            AtomicReference<String> failure = new AtomicReference<>();
+
+            Thread reader = new Thread(() -> {
+                while (done.getCount() > 0 && failure.get() == null) {
+                    List<HealthCheckResult> results = history.getHistory("check");
+                    if (results.size() > HISTORY_SIZE) {
+                        failure.set("snapshot of " + results.size() + " results");
+                    }
+                    for (int i = 1; i < results.size(); i++) {
+                        if (sequence(results.get(i)) != sequence(results.get(i - 1)) + 1) {
+                            failure.set("snapshot out of order: " + results);
+                        }
+                    }
+                }
+            });
+            reader.start();
+
+            for (int i = 0; i < writes; i++) {
+                history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+            }
+            done.countDown();
+            reader.join();
+
+            assertNull(failure.get());
+            assertEquals(writes - 1, sequence(history.getHistory("check").get(HISTORY_SIZE - 1)));
+        }
+
+        @Test
+        void concurrentWritersOfOneCheckShouldEachBeRecorded() throws InterruptedException {
+            int writers = 4;
+            int writesPerWriter = 10_000;
+            List<Thread> threads = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                Thread thread = new Thread(() -> {
+                    for (int i = 0; i < writesPerWriter; i++) {
+                        history.addHistoryInternal(healthCheck, result(HealthStatus.HEALTHY, i));
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            long checked = events.stream()
+                    .filter(HealthCheckCheckedEvent.class::isInstance)
+                    .count();
+            assertEquals((long) writers * writesPerWriter, checked);
+            assertEquals(HISTORY_SIZE, history.getHistory("check").size());
+        }
+    }
+
+    private static final class TestCheck extends AbstractHealthCheck {
+
+        private TestCheck(String name, String... tags) {
+            super(name, tags);
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return HealthCheckResult.builder().status(HealthStatus.HEALTHY).build();
+        }
+    }
+}
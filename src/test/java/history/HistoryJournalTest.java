@@ -0,0 +1,306 @@
+package history;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheck.HealthCheckResult;
+import org.vitals.core.HealthCheck.HealthStatus;
+import org.vitals.core.event.HealthCheckStatusChangedEvent;
+import org.vitals.core.event.HealthEvent;
+import org.vitals.core.history.DefaultHealthCheckHistory;
+import org.vitals.core.history.HistoryJournal;
+import org.vitals.core.history.HistoryRetention;
+import org.vitals.core.history.JournalSettings;
+import org.vitals.core.history.RecordedError;
+import org.vitals.core.registry.DefaultHealthCheckRegistry;
+import org.vitals.core.util.TimeSource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryJournalTest {
+
+    private static final long NOW = Instant.now().getEpochSecond() * 1_000_000_000L;
+    private static final JournalSettings SMALL_SEGMENTS = new JournalSettings(JournalSettings.MIN_SEGMENT_BYTES,
+            Duration.ofDays(1), 4L * JournalSettings.MIN_SEGMENT_BYTES);
+
+    @TempDir
+    Path directory;
+
+    private static HealthCheckResult result(String message) {
+        return HealthCheckResult.builder().status(HealthStatus.HEALTHY).message(message).build();
+    }
+
+    private static List<String> replayMessages(HistoryJournal journal, String name, int maxResults) {
+        List<String> messages = new ArrayList<>();
+        journal.replay(key -> maxResults, (key, epochNanos, result) -> {
+            if (key.equals(name)) {
+                messages.add(result.getMessage());
+            }
+        });
+        return messages;
+    }
+
+    @Nested
+    class Replay {
+
+        @Test
+        void shouldReplayTheLatestResultsOfEachNameOldestFirst() throws IOException {
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                for (int i = 0; i < 10; i++) {
+                    journal.append("a", result("a" + i), NOW + i);
+                    journal.append("b", result("b" + i), NOW + i);
+                }
+
+                assertEquals(List.of("a7", "a8", "a9"), replayMessages(journal, "a", 3));
+                assertEquals(List.of("b8", "b9"), replayMessages(journal, "b", 2));
+            }
+        }
+
+        @Test
+        void shouldKeepStatusTimeToLiveErrorSummaryAndTime() throws IOException {
+            HealthCheckResult failed = HealthCheckResult.builder()
+                    .status(HealthStatus.UNHEALTHY)
+                    .message("down")
+                    .error(new IllegalStateException("connection refused"))
+                    .timeToLive(Duration.ofSeconds(30))
+                    .build();
+            List<HealthCheckResult> results = new ArrayList<>();
+            List<Long> times = new ArrayList<>();
+
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                journal.append("check", failed, NOW);
+                journal.replay(key -> 5, (key, epochNanos, result) -> {
+                    results.add(result);
+                    times.add(epochNanos);
+                });
+            }
+
+            HealthCheckResult replayed = results.get(0);
+            assertEquals(HealthStatus.UNHEALTHY, replayed.getStatus());
+            assertEquals("down", replayed.getMessage());
+            assertEquals(Duration.ofSeconds(30), replayed.getTimeToLive());
+            assertInstanceOf(RecordedError.class, replayed.getError());
+            assertEquals("java.lang.IllegalStateException: connection refused", replayed.getError().getMessage());
+            assertEquals(List.of(NOW), times);
+        }
+    }
+
+    @Nested
+    class Recovery {
+
+        @Test
+        void shouldContinueAfterTheLastRecordWhenReopened() throws IOException {
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                journal.append("check", result("before"), NOW);
+            }
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                journal.append("check", result("after"), NOW + 1);
+                journal.append("other", result("other"), NOW + 2);
+
+                assertEquals(List.of("before", "after"), replayMessages(journal, "check", 5));
+                assertEquals(List.of("other"), replayMessages(journal, "other", 5));
+            }
+        }
+
+        @Test
+        void shouldEndTheSegmentAtADamagedRecordAndOverwriteIt() throws IOException {
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                journal.append("check", result("first"), NOW);
+                journal.append("check", result("second"), NOW + 1);
+                journal.append("check", result("third"), NOW + 2);
+            }
+            Path segment;
+            try (var files = Files.list(directory)) {
+                segment = files.findFirst().orElseThrow();
+            }
+            byte[] bytes = Files.readAllBytes(segment);
+            int third = indexOf(bytes, "third".getBytes(StandardCharsets.UTF_8));
+            bytes[third] ^= 1;
+            Files.write(segment, bytes);
+
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                assertEquals(List.of("first", "second"), replayMessages(journal, "check", 5));
+
+                journal.append("check", result("fourth"), NOW + 3);
+                assertEquals(List.of("first", "second", "fourth"), replayMessages(journal, "check", 5));
+            }
+        }
+
+        @Test
+        void shouldReopenASegmentWithFewerFreeBytesThanARecordLength() throws IOException {
+            fillSegmentUpToTwoBytes();
+
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                List<String> messages = replayMessages(journal, "check", 20);
+                assertEquals(17, messages.size());
+                assertEquals("last" + "x".repeat(858), messages.get(16));
+
+                journal.append("check", result("after"), NOW + 17);
+                assertEquals(2, journal.getSegments().size());
+                assertEquals("after", replayMessages(journal, "check", 20).get(17));
+            }
+        }
+
+        @Test
+        void shouldDiscardADamagedTailShorterThanARecordLength() throws IOException {
+            fillSegmentUpToTwoBytes();
+            Path segment;
+            try (var files = Files.list(directory)) {
+                segment = files.findFirst().orElseThrow();
+            }
+            byte[] bytes = Files.readAllBytes(segment);
+            bytes[bytes.length - 1] = 1;
+            Files.write(segment, bytes);
+
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                assertEquals(17, replayMessages(journal, "check", 20).size());
+            }
+            assertEquals(0, Files.readAllBytes(segment)[bytes.length - 1]);
+        }
+
+        private void fillSegmentUpToTwoBytes() throws IOException {
+            // the segment header and the name record take 26 bytes, a result record 38 plus its message, so
+            // 16 results of 4000 characters and one of 862 leave 2 bytes free
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                for (int i = 0; i < 16; i++) {
+                    journal.append("check", result("x".repeat(4000)), NOW + i);
+                }
+                journal.append("check", result("last" + "x".repeat(858)), NOW + 16);
+                assertEquals(1, journal.getSegments().size());
+            }
+        }
+
+        private static int indexOf(byte[] bytes, byte[] pattern) {
+            outer:
+            for (int i = 0; i <= bytes.length - pattern.length; i++) {
+                for (int j = 0; j < pattern.length; j++) {
+                    if (bytes[i + j] != pattern[j]) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            throw new AssertionError("pattern not found");
+        }
+    }
+
+    @Nested
+    class Segments {
+
+        private static final String LONG_MESSAGE = "x".repeat(1000);
+
+        @Test
+        void shouldRollOverAndDeleteTheOldestSegmentsBeyondMaxBytes() throws IOException {
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                for (int i = 0; i < 1000; i++) {
+                    journal.append("check", result(LONG_MESSAGE + i), NOW + i);
+                }
+
+                assertEquals(4, journal.getSegments().size());
+                List<String> messages = replayMessages(journal, "check", 1000);
+                assertEquals(LONG_MESSAGE + 999, messages.get(messages.size() - 1));
+                assertTrue(messages.size() < 1000);
+            }
+        }
+
+        @Test
+        void shouldDeleteSegmentsOlderThanMaxAge() throws IOException {
+            long longAgo = NOW - Duration.ofDays(3).toNanos();
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                // two segments' worth of old results, then the ones that start a third segment
+                for (int i = 0; i < 100; i++) {
+                    journal.append("check", result(LONG_MESSAGE + i), longAgo + i);
+                }
+                for (int i = 0; i < 100; i++) {
+                    journal.append("check", result("recent" + LONG_MESSAGE + i), NOW + i);
+                }
+
+                List<String> messages = replayMessages(journal, "check", 1000);
+                assertFalse(messages.contains(LONG_MESSAGE + 0));
+                assertTrue(messages.contains(LONG_MESSAGE + 99));
+                assertEquals("recent" + LONG_MESSAGE + 99, messages.get(messages.size() - 1));
+            }
+        }
+
+        @Test
+        void shouldMeasureAgeAgainstTheNewestRecordWhenReopened() throws IOException {
+            // written in virtual time, far longer ago than the max age
+            long virtualNow = Instant.parse("2024-01-01T00:00:00Z").getEpochSecond() * 1_000_000_000L;
+            List<Path> segments;
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                for (int i = 0; i < 100; i++) {
+                    journal.append("check", result(LONG_MESSAGE + i), virtualNow + i);
+                }
+                segments = journal.getSegments();
+            }
+
+            try (HistoryJournal journal = HistoryJournal.open(directory, SMALL_SEGMENTS)) {
+                assertTrue(segments.size() > 1);
+                assertEquals(segments, journal.getSegments());
+                assertEquals(LONG_MESSAGE + 0, replayMessages(journal, "check", 1000).get(0));
+            }
+        }
+    }
+
+    @Nested
+    class Restore {
+
+        private final List<HealthEvent> events = new ArrayList<>();
+
+        private DefaultHealthCheckHistory history(DefaultHealthCheckRegistry registry) {
+            return new DefaultHealthCheckHistory(HistoryRetention.ofMaxResults(3), events::add, registry,
+                    TimeSource.SYSTEM);
+        }
+
+        @Test
+        void shouldRebuildTheHistoryAndCompareTheNextResultToTheRestoredOne() throws IOException {
+            HealthCheck healthCheck = new TestCheck("check");
+            DefaultHealthCheckRegistry registry = new DefaultHealthCheckRegistry(event -> {
+            });
+            registry.registerHealthCheck(healthCheck);
+
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                DefaultHealthCheckHistory before = history(registry);
+                before.setJournal(journal);
+                for (int i = 0; i < 5; i++) {
+                    before.addHistoryInternal(healthCheck, result("before" + i));
+                }
+            }
+
+            try (HistoryJournal journal = HistoryJournal.open(directory)) {
+                DefaultHealthCheckHistory after = history(registry);
+                assertEquals(3, after.restore(journal));
+                assertEquals(List.of("before2", "before3", "before4"), after.getHistory("check").stream()
+                        .map(HealthCheckResult::getMessage)
+                        .toList());
+
+                events.clear();
+                after.addHistoryInternal(healthCheck, result("before4"));
+                assertTrue(events.stream().noneMatch(HealthCheckStatusChangedEvent.class::isInstance));
+            }
+        }
+    }
+
+    private static final class TestCheck extends AbstractHealthCheck {
+
+        private TestCheck(String name) {
+            super(name);
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return HealthCheckResult.builder().status(HealthStatus.HEALTHY).build();
+        }
+    }
+}
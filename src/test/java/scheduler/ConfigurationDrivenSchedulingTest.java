@@ -0,0 +1,102 @@
+package scheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheckConfiguration;
+import org.vitals.core.HealthCheckConfigurationProvider;
+import org.vitals.core.HealthCheckManager;
+import org.vitals.core.annotation.AsyncHealthCheck;
+import org.vitals.core.scheduler.IntervalBounds;
+import org.vitals.core.scheduler.ScheduledCheckInfo;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConfigurationDrivenSchedulingTest {
+
+    private HealthCheckManager manager;
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        manager = new HealthCheckManager();
+    }
+
+    @Test
+    void configurationShouldOverrideAnnotation() throws InterruptedException {
+        manager.registerHealthCheck(new ConfiguredCheck("configured", new HealthCheckConfiguration.Builder()
+                .setInterval(2)
+                .setInitialDelay(1)
+                .setTimeUnit(TimeUnit.HOURS)
+                .setTimeout(Duration.ofSeconds(3))
+                .setMinInterval(1)
+                .setMaxInterval(4)
+                .build()));
+        awaitCondition(() -> manager.isScheduled("configured"));
+
+        ScheduledCheckInfo info = manager.getScheduleInfo("configured").orElseThrow();
+        assertEquals(TimeUnit.HOURS.toNanos(2), info.scheduleSpec().getTimeUnit().toNanos(info.scheduleSpec()
+                .getPeriod()));
+        assertEquals(Duration.ofSeconds(3), info.scheduleSpec().getTimeout().orElseThrow());
+        assertEquals(new IntervalBounds(Duration.ofHours(1), Duration.ofHours(4)),
+                info.scheduleSpec().getIntervalBounds());
+        // the rest still comes from the annotation
+        assertEquals(AsyncHealthCheck.OverrunPolicy.QUEUE, info.scheduleSpec().getOverrunPolicy());
+    }
+
+    @Test
+    void cronExpressionShouldReplacePeriodicSchedule() throws InterruptedException {
+        manager.registerHealthCheck(new ConfiguredCheck("cron", new HealthCheckConfiguration.Builder()
+                .setCronExpression("0 3 * * *")
+                .build()));
+        awaitCondition(() -> manager.isScheduled("cron"));
+
+        assertTrue(manager.getScheduleInfo("cron").isEmpty());
+    }
+
+    @Test
+    void manyRegistrationsShouldAllBeScheduled() throws InterruptedException {
+        HealthCheckConfiguration configuration = new HealthCheckConfiguration.Builder().setInterval(1)
+                .setInitialDelay(1)
+                .setTimeUnit(TimeUnit.HOURS)
+                .build();
+        for (int i = 0; i < 2_000; i++) {
+            manager.registerHealthCheck(new ConfiguredCheck("bulk-" + i, configuration));
+        }
+
+        // registrations are drained in batches that may complete out of order
+        awaitCondition(() -> IntStream.range(0, 2_000).allMatch(i -> manager.isScheduled("bulk-" + i)));
+    }
+
+    @AsyncHealthCheck(period = 10, overrunPolicy = AsyncHealthCheck.OverrunPolicy.QUEUE)
+    static final class ConfiguredCheck extends AbstractHealthCheck implements HealthCheckConfigurationProvider {
+        private final HealthCheckConfiguration configuration;
+
+        ConfiguredCheck(String name, HealthCheckConfiguration configuration) {
+            super(name);
+            this.configuration = configuration;
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return HealthCheckResult.builder().status(HealthStatus.HEALTHY).build();
+        }
+
+        @Override
+        public HealthCheckConfiguration getConfiguration() {
+            return this.configuration;
+        }
+    }
+}
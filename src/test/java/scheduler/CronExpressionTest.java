@@ -0,0 +1,157 @@
+package scheduler;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.scheduler.cron.CronExpression;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CronExpressionTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static Instant utc(int year, int month, int day, int hour, int minute, int second) {
+        return LocalDateTime.of(year, month, day, hour, minute, second).toInstant(ZoneOffset.UTC);
+    }
+
+    @Nested
+    class Parsing {
+        @Test
+        void shouldAcceptFiveAndSixFieldExpressions() {
+            assertNotNull(CronExpression.parse("*/5 * * * *"));
+            assertNotNull(CronExpression.parse("0 */5 * * * *"));
+        }
+
+        @Test
+        void fiveFieldFormShouldFireOnTheMinute() {
+            CronExpression expression = CronExpression.parse("*/15 * * * *");
+            assertEquals(utc(2024, 1, 1, 10, 15, 0), expression.next(utc(2024, 1, 1, 10, 0, 0), UTC));
+        }
+
+        @Test
+        void shouldAcceptNamesAndMacros() {
+            assertEquals(CronExpression.parse("0 0 0 * * SUN"), CronExpression.parse("@weekly"));
+            assertEquals(CronExpression.parse("0 0 1 1 JAN-MAR *"), CronExpression.parse("0 0 1 1 1-3 *"));
+            assertEquals(CronExpression.parse("0 0 0 * * 7"), CronExpression.parse("0 0 0 * * 0"));
+        }
+
+        @Test
+        void shouldRejectMalformedExpressions() {
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("* * *"));
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("61 * * * * *"));
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 0 5-2 * * *"));
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("0 0 * * * FOO"));
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse("*/0 * * * * *"));
+            assertThrows(IllegalArgumentException.class, () -> CronExpression.parse(" "));
+        }
+    }
+
+    @Nested
+    class NextFireTime {
+        @Test
+        void shouldBeStrictlyAfterReference() {
+            CronExpression expression = CronExpression.parse("0 0 * * * *");
+            Instant onTheHour = utc(2024, 3, 10, 4, 0, 0);
+            assertEquals(utc(2024, 3, 10, 5, 0, 0), expression.next(onTheHour, UTC));
+        }
+
+        @Test
+        void shouldRollOverMonthsAndYears() {
+            CronExpression expression = CronExpression.parse("0 30 2 1 * *");
+            assertEquals(utc(2025, 1, 1, 2, 30, 0), expression.next(utc(2024, 12, 1, 2, 30, 0), UTC));
+        }
+
+        @Test
+        void shouldHandleLeapDays() {
+            CronExpression expression = CronExpression.parse("0 0 0 29 2 *");
+            assertEquals(utc(2028, 2, 29, 0, 0, 0), expression.next(utc(2024, 3, 1, 0, 0, 0), UTC));
+        }
+
+        @Test
+        void shouldOrDayOfMonthAndDayOfWeekWhenBothRestricted() {
+            // the 13th or any Friday
+            CronExpression expression = CronExpression.parse("0 0 0 13 * FRI");
+            // 2024-09-01 is a Sunday, first Friday is 2024-09-06
+            assertEquals(utc(2024, 9, 6, 0, 0, 0), expression.next(utc(2024, 9, 1, 0, 0, 0), UTC));
+            assertEquals(utc(2024, 9, 13, 0, 0, 0), expression.next(utc(2024, 9, 6, 0, 0, 0), UTC));
+        }
+
+        @Test
+        void shouldUseOnlyDayOfWeekWhenDayOfMonthUnrestricted() {
+            CronExpression expression = CronExpression.parse("0 0 2 ? * MON-FRI");
+            // 2024-09-07 is a Saturday
+            assertEquals(utc(2024, 9, 9, 2, 0, 0), expression.next(utc(2024, 9, 7, 0, 0, 0), UTC));
+        }
+
+        @Test
+        void stepOverAllDaysShouldNarrowDayOfWeekDown() {
+            // odd days that are Mondays, as in Vixie cron, not odd days or Mondays
+            CronExpression expression = CronExpression.parse("0 0 */2 * MON");
+            // 2024-09-01 is a Sunday, the Mondays are the 2nd, 9th, 16th, 23rd and 30th
+            assertEquals(utc(2024, 9, 9, 0, 0, 0), expression.next(utc(2024, 9, 1, 0, 0, 0), UTC));
+            assertEquals(utc(2024, 9, 23, 0, 0, 0), expression.next(utc(2024, 9, 9, 0, 0, 0), UTC));
+        }
+
+        @Test
+        void shouldReturnNullWhenNeverFiring() {
+            CronExpression expression = CronExpression.parse("0 0 0 30 2 *");
+            assertNull(expression.next(utc(2024, 1, 1, 0, 0, 0), UTC));
+        }
+
+        @Test
+        void matchesShouldAgreeWithNext() {
+            CronExpression expression = CronExpression.parse("15 */10 8-18 * * MON-FRI");
+            Instant next = expression.next(utc(2024, 9, 7, 12, 0, 0), UTC);
+            assertTrue(expression.matches(LocalDateTime.ofInstant(next, UTC)));
+            assertFalse(expression.matches(LocalDateTime.of(2024, 9, 7, 8, 10, 15)));
+        }
+    }
+
+    @Nested
+    class DaylightSaving {
+        @Test
+        void fireTimeInGapShouldShiftForward() {
+            // 2024-03-10 02:00 does not exist in New York, clocks jump to 03:00
+            CronExpression expression = CronExpression.parse("0 30 2 * * *");
+            Instant before = ZonedDateTime.of(2024, 3, 10, 1, 0, 0, 0, NEW_YORK).toInstant();
+
+            ZonedDateTime next = expression.next(before, NEW_YORK).atZone(NEW_YORK);
+            assertEquals(LocalDateTime.of(2024, 3, 10, 3, 30), next.toLocalDateTime());
+        }
+
+        @Test
+        void fixedTimeInOverlapShouldFireOnce() {
+            // 2024-11-03 01:00-02:00 happens twice in New York
+            CronExpression expression = CronExpression.parse("0 30 1 * * *");
+            Instant before = ZonedDateTime.of(2024, 11, 3, 0, 0, 0, 0, NEW_YORK).toInstant();
+
+            Instant first = expression.next(before, NEW_YORK);
+            Instant second = expression.next(first, NEW_YORK);
+            assertEquals(LocalDateTime.of(2024, 11, 4, 1, 30), second.atZone(NEW_YORK).toLocalDateTime());
+        }
+
+        @Test
+        void hourlyWildcardShouldRunThroughRepeatedHour() {
+            CronExpression expression = CronExpression.parse("0 */30 * * * *");
+            Instant fire = ZonedDateTime.of(2024, 11, 3, 0, 45, 0, 0, NEW_YORK).toInstant();
+
+            int firesBeforeTwo = 0;
+            while (true) {
+                fire = expression.next(fire, NEW_YORK);
+                if (fire.atZone(NEW_YORK).getHour() >= 2) {
+                    break;
+                }
+                firesBeforeTwo++;
+            }
+            // 01:00, 01:30 in EDT and again in EST
+            assertEquals(4, firesBeforeTwo);
+        }
+    }
+}
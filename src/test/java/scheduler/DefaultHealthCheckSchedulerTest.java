@@ -0,0 +1,544 @@
+package scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.annotation.AsyncHealthCheck.OverrunPolicy;
+import org.vitals.core.annotation.AsyncHealthCheck.PhaseSpreading;
+import org.vitals.core.annotation.AsyncHealthCheck.ScheduleType;
+import org.vitals.core.executor.HealthCheckExecutor;
+import org.vitals.core.filter.HealthCheckFilter;
+import org.vitals.core.scheduler.AdaptiveInterval;
+import org.vitals.core.scheduler.DeadlineExecutor;
+import org.vitals.core.scheduler.DefaultHealthCheckScheduler;
+import org.vitals.core.scheduler.DispatchMode;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.scheduler.LatencyHistogram;
+import org.vitals.core.scheduler.LoadHistogram;
+import org.vitals.core.scheduler.MaintenanceWindow;
+import org.vitals.core.scheduler.ResumePolicy;
+import org.vitals.core.scheduler.ScheduleSpec;
+import org.vitals.core.scheduler.ScheduledCheckInfo;
+import org.vitals.core.scheduler.SchedulerMetrics;
+import org.vitals.core.scheduler.timer.HashedWheelTimer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DefaultHealthCheckSchedulerTest {
+
+    private static final String CHECK = "slow-check";
+
+    private ControlledExecutor executor;
+    private DefaultHealthCheckScheduler scheduler;
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+
+    private static ScheduleSpec fixedRate(OverrunPolicy overrunPolicy) {
+        return new ScheduleSpec.Builder().withPeriod(20)
+                .withTimeUnit(TimeUnit.MILLISECONDS)
+                .withScheduleType(ScheduleType.FIXED_RATE)
+                .withOverrunPolicy(overrunPolicy)
+                .build();
+    }
+
+    @BeforeEach
+    void setUp() {
+        executor = new ControlledExecutor();
+        scheduler = new DefaultHealthCheckScheduler(executor,
+                InternalScheduler.newInstance(new InternalScheduler.SchedulerConfig.Builder().withPoolSize(1).build()),
+                new HashedWheelTimer(2, TimeUnit.MILLISECONDS, 64, "test-scheduler-wheel"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    private ScheduledCheckInfo info() {
+        return scheduler.getScheduleInfo(CHECK).orElseThrow();
+    }
+
+    @Nested
+    class FixedRate {
+
+        @Test
+        void skipShouldDropTicksWhileRunning() throws InterruptedException {
+            scheduler.schedule(CHECK, fixedRate(OverrunPolicy.SKIP));
+            awaitCondition(() -> executor.starts.size() == 1);
+            TimeUnit.MILLISECONDS.sleep(150);
+
+            ScheduledCheckInfo held = info();
+            assertEquals(1, held.executions());
+            assertTrue(held.running());
+            assertTrue(held.overrunTicks() >= 3);
+            assertEquals(held.overrunTicks(), held.skippedTicks());
+            assertEquals(0, held.pendingTicks());
+            assertTrue(held.overlapPreventedTicks() >= 3);
+
+            executor.completeAll();
+            awaitCondition(() -> executor.starts.size() >= 2);
+            assertTrue(executor.starts.get(1) - executor.starts.get(0) >= TimeUnit.MILLISECONDS.toNanos(150));
+        }
+
+        @Test
+        void coalesceShouldRunOnceAfterOverrun() throws InterruptedException {
+            scheduler.schedule(CHECK, fixedRate(OverrunPolicy.COALESCE));
+            awaitCondition(() -> executor.starts.size() == 1);
+            TimeUnit.MILLISECONDS.sleep(150);
+
+            ScheduledCheckInfo held = info();
+            assertEquals(1, held.pendingTicks());
+            assertEquals(held.overrunTicks() - 1, held.skippedTicks());
+
+            executor.completeAll();
+            awaitCondition(() -> executor.starts.size() == 2);
+            ScheduledCheckInfo caughtUp = info();
+            assertEquals(0, caughtUp.pendingTicks());
+            assertTrue(caughtUp.lastDrift().toMillis() >= 0);
+        }
+
+        @Test
+        void queueShouldReplayEveryMissedTick() throws InterruptedException {
+            scheduler.schedule(CHECK, fixedRate(OverrunPolicy.QUEUE));
+            awaitCondition(() -> executor.starts.size() == 1);
+            TimeUnit.MILLISECONDS.sleep(150);
+
+            ScheduledCheckInfo held = info();
+            assertEquals(0, held.skippedTicks());
+            assertEquals(held.overrunTicks(), held.pendingTicks());
+            long queued = held.pendingTicks();
+
+            executor.autoComplete = true;
+            executor.completeAll();
+            awaitCondition(() -> executor.starts.size() >= 1 + queued);
+            assertEquals(0, info().skippedTicks());
+            assertTrue(info().maxDrift().toMillis() >= 100);
+        }
+    }
+
+    @Nested
+    class FixedDelay {
+
+        @Test
+        void nextRunShouldStartDelayAfterCompletion() throws InterruptedException {
+            scheduler.schedule(CHECK, 0, 30, TimeUnit.MILLISECONDS);
+            awaitCondition(() -> executor.starts.size() == 1);
+            TimeUnit.MILLISECONDS.sleep(100);
+
+            assertEquals(1, executor.starts.size());
+            assertEquals(0, info().overrunTicks());
+
+            long completedAt = System.nanoTime();
+            executor.completeAll();
+            awaitCondition(() -> executor.starts.size() == 2);
+            assertTrue(executor.starts.get(1) - completedAt >= TimeUnit.MILLISECONDS.toNanos(30));
+        }
+
+        @Test
+        void timedOutRunShouldNotBeOverlapped() throws InterruptedException {
+            scheduler.schedule(CHECK, new ScheduleSpec.Builder().withPeriod(30)
+                    .withTimeUnit(TimeUnit.MILLISECONDS)
+                    .withScheduleType(ScheduleType.FIXED_DELAY)
+                    .withTimeout(Duration.ofMillis(40))
+                    .build());
+            awaitCondition(() -> executor.starts.size() == 2);
+
+            ScheduledCheckInfo info = info();
+            assertTrue(info.timedOutRuns() >= 1);
+            assertTrue(info.overlapPreventedTicks() >= 1);
+        }
+    }
+
+    @Nested
+    class PhaseSpreadingTests {
+
+        private void scheduleMany(PhaseSpreading phaseSpreading) {
+            executor.autoComplete = true;
+            for (int i = 0; i < 200; i++) {
+                scheduler.schedule("check-" + i, new ScheduleSpec.Builder().withInitialDelay(100)
+                        .withPeriod(200)
+                        .withTimeUnit(TimeUnit.MILLISECONDS)
+                        .withPhaseSpreading(phaseSpreading)
+                        .build());
+            }
+        }
+
+        @Test
+        void evenSpreadingShouldFlattenDispatchLoad() throws InterruptedException {
+            scheduleMany(PhaseSpreading.EVEN);
+            TimeUnit.MILLISECONDS.sleep(550);
+
+            LoadHistogram.Snapshot load = scheduler.getDispatchLoad();
+            assertTrue(load.total() >= 200);
+            // 200 checks over twenty 10ms slots is about 10 per slot
+            assertTrue(load.max() < 40, "max dispatches per slot: " + load.max());
+        }
+
+        @Test
+        void loadHistogramShouldCountPerSlot() {
+            LoadHistogram histogram = new LoadHistogram(Duration.ofSeconds(10), 4);
+            long now = System.nanoTime();
+            for (int i = 0; i < 5; i++) {
+                histogram.record(now);
+            }
+
+            LoadHistogram.Snapshot snapshot = histogram.snapshot();
+            assertEquals(5, snapshot.total());
+            assertEquals(5, snapshot.max());
+            assertEquals(4.0, snapshot.peakToMean());
+        }
+
+        @Test
+        void hashedOffsetShouldBeStableAndWithinPeriod() {
+            ScheduleSpec spec = new ScheduleSpec.Builder().withPeriod(10)
+                    .withPhaseSpreading(PhaseSpreading.HASHED)
+                    .build();
+            scheduler.schedule(CHECK, spec);
+            Duration offset = info().phaseOffset();
+
+            try (DefaultHealthCheckScheduler other = new DefaultHealthCheckScheduler(executor,
+                    InternalScheduler.newInstance(new InternalScheduler.SchedulerConfig.Builder().build()))) {
+                other.schedule(CHECK, spec);
+                assertEquals(offset, other.getScheduleInfo(CHECK).orElseThrow().phaseOffset());
+            }
+            assertTrue(offset.compareTo(Duration.ofSeconds(10)) < 0);
+            assertFalse(offset.isNegative());
+        }
+    }
+
+    @Nested
+    class AdaptiveIntervalTests {
+
+        private final HealthCheck healthCheck = mock(HealthCheck.class);
+        private final HealthCheck.HealthCheckResult healthy = HealthCheck.HealthCheckResult.builder()
+                .status(HealthCheck.HealthStatus.HEALTHY)
+                .build();
+        private final HealthCheck.HealthCheckResult unhealthy = HealthCheck.HealthCheckResult.builder()
+                .status(HealthCheck.HealthStatus.UNHEALTHY)
+                .build();
+
+        private ScheduleSpec adaptive(long periodMillis, Duration maxInterval) {
+            return new ScheduleSpec.Builder().withPeriod(periodMillis)
+                    .withTimeUnit(TimeUnit.MILLISECONDS)
+                    .withScheduleType(ScheduleType.FIXED_DELAY)
+                    .withAdaptiveInterval(new AdaptiveInterval(maxInterval))
+                    .build();
+        }
+
+        @Test
+        void intervalShouldBackOffWhileHealthyAndSnapBackOnChange() {
+            scheduler.schedule(CHECK, adaptive(20, Duration.ofMillis(160)));
+
+            scheduler.onChanged(CHECK, Set.of(), healthCheck, null, healthy);
+            assertEquals(Duration.ofMillis(20), info().currentInterval());
+            for (int i = 0; i < 5; i++) {
+                scheduler.onChanged(CHECK, Set.of(), healthCheck, healthy, healthy);
+            }
+            assertEquals(Duration.ofMillis(160), info().currentInterval());
+
+            scheduler.onChanged(CHECK, Set.of(), healthCheck, healthy, unhealthy);
+            assertEquals(Duration.ofMillis(20), info().currentInterval());
+        }
+
+        @Test
+        void snapBackShouldPullBackedOffTickForward() throws InterruptedException {
+            scheduler.schedule(CHECK, adaptive(50, Duration.ofSeconds(10)));
+            awaitCondition(() -> executor.starts.size() == 1);
+            for (int i = 0; i < 10; i++) {
+                scheduler.onChanged(CHECK, Set.of(), healthCheck, healthy, healthy);
+            }
+            executor.completeAll();
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertEquals(1, executor.starts.size());
+
+            scheduler.onChanged(CHECK, Set.of(), healthCheck, healthy, unhealthy);
+            awaitCondition(() -> executor.starts.size() == 2);
+        }
+    }
+
+    @Nested
+    class TickBuckets {
+
+        @Test
+        void checksSharingAPeriodShouldShareTimerEntries() throws InterruptedException {
+            executor.autoComplete = true;
+            int checks = 500;
+            for (int i = 0; i < checks; i++) {
+                scheduler.schedule("check-" + i, new ScheduleSpec.Builder().withPeriod(100)
+                        .withTimeUnit(TimeUnit.MILLISECONDS)
+                        .withPhaseSpreading(PhaseSpreading.EVEN)
+                        .build());
+            }
+
+            // 100ms period in 10ms slots
+            assertTrue(scheduler.getTickBucketCount() <= 10);
+            awaitCondition(() -> executor.starts.size() >= 2 * checks);
+            for (int i = 0; i < checks; i++) {
+                assertTrue(scheduler.getScheduleInfo("check-" + i).orElseThrow().executions() >= 1);
+            }
+
+            for (int i = 0; i < checks; i++) {
+                scheduler.cancelScheduledHealthCheck("check-" + i);
+            }
+            assertEquals(0, scheduler.getTickBucketCount());
+        }
+
+        @Test
+        void jitteredChecksShouldKeepTheirOwnTick() {
+            scheduler.schedule(CHECK, new ScheduleSpec.Builder().withPeriod(100)
+                    .withTimeUnit(TimeUnit.MILLISECONDS)
+                    .withJitter(10)
+                    .build());
+
+            assertEquals(0, scheduler.getTickBucketCount());
+        }
+    }
+
+    @Nested
+    class Metrics {
+
+        @Test
+        void shouldRecordFireLagAndOverruns() throws InterruptedException {
+            scheduler.schedule(CHECK, fixedRate(OverrunPolicy.SKIP));
+            awaitCondition(() -> executor.starts.size() == 1);
+            TimeUnit.MILLISECONDS.sleep(100);
+            executor.completeAll();
+            awaitCondition(() -> executor.starts.size() >= 2);
+
+            SchedulerMetrics.Snapshot metrics = scheduler.getMetrics();
+            SchedulerMetrics.CheckSnapshot check = metrics.checks().get(CHECK);
+            assertTrue(check.fireLag().count() >= 2);
+            assertTrue(check.overruns() >= 3);
+            assertEquals(check.overruns(), check.skippedFires());
+            // the first run completed long after its next tick came due
+            assertTrue(check.deadlineMisses() >= 1);
+
+            String text = metrics.toPrometheusText();
+            assertTrue(text.contains("# TYPE vitals_scheduler_fire_lag_seconds histogram"));
+            assertTrue(text.contains("vitals_scheduler_fire_lag_seconds_bucket{check=\"" + CHECK
+                    + "\",le=\"+Inf\"} "));
+            assertTrue(text.contains("vitals_scheduler_skipped_fires_total{check=\"" + CHECK + "\"} "
+                    + check.skippedFires()));
+            assertTrue(text.contains("vitals_scheduler_deadline_misses_total{check=\"" + CHECK + "\"} "));
+
+            scheduler.cancelScheduledHealthCheck(CHECK);
+            assertTrue(scheduler.getMetrics().checks().isEmpty());
+            // the global metrics keep the counts of cancelled checks
+            assertTrue(scheduler.getMetrics().global().overruns() >= check.overruns());
+        }
+
+        @Test
+        void latencyHistogramPercentilesShouldBeBucketUpperBounds() {
+            LatencyHistogram histogram = new LatencyHistogram();
+            for (int i = 0; i < 99; i++) {
+                histogram.record(TimeUnit.MICROSECONDS.toNanos(100));
+            }
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(50));
+
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            assertEquals(100, snapshot.count());
+            assertEquals(Duration.ofNanos(131_072), snapshot.percentile(0.5));
+            assertEquals(Duration.ofNanos(131_072), snapshot.percentile(0.99));
+            assertEquals(Duration.ofMillis(50), snapshot.percentile(1.0));
+            assertEquals(Duration.ofMillis(50), snapshot.max());
+        }
+    }
+
+    @Nested
+    class PauseAndResume {
+
+        @Test
+        void pausedCheckShouldNotRunUntilResumed() throws InterruptedException {
+            executor.autoComplete = true;
+            scheduler.schedule(CHECK, fixedRate(OverrunPolicy.SKIP));
+            awaitCondition(() -> executor.starts.size() >= 1);
+
+            assertEquals(Set.of(CHECK), scheduler.pause(HealthCheckFilter.ALL));
+            assertTrue(scheduler.isPaused(CHECK));
+            assertTrue(executor.isSuspended(CHECK));
+            // the pause itself runs the check once so that it reports MAINTENANCE
+            TimeUnit.MILLISECONDS.sleep(20);
+            int starts = executor.starts.size();
+            TimeUnit.MILLISECONDS.sleep(100);
+
+            assertEquals(starts, executor.starts.size());
+            assertTrue(info().paused());
+            assertTrue(info().pausedTicks() >= 3);
+
+            assertEquals(Set.of(CHECK), scheduler.resume(HealthCheckFilter.ALL, ResumePolicy.RUN_IMMEDIATELY));
+            assertEquals(starts + 1, executor.starts.size());
+            assertFalse(executor.isSuspended(CHECK));
+            awaitCondition(() -> executor.starts.size() >= starts + 3);
+        }
+
+        @Test
+        void maintenanceWindowShouldPauseWhileOpen() throws InterruptedException {
+            executor.autoComplete = true;
+            scheduler.schedule(CHECK, fixedRate(OverrunPolicy.SKIP));
+            scheduler.addMaintenanceWindow(new MaintenanceWindow("deploy", "* * * * * *", Duration.ofMillis(300),
+                    HealthCheckFilter.ALL));
+
+            awaitCondition(() -> scheduler.isPaused(CHECK));
+            // a manual pause outlives the window
+            scheduler.pause(HealthCheckFilter.ALL);
+            TimeUnit.MILLISECONDS.sleep(400);
+            assertTrue(scheduler.isPaused(CHECK));
+
+            assertTrue(scheduler.removeMaintenanceWindow("deploy"));
+            scheduler.resume(HealthCheckFilter.ALL, ResumePolicy.NEXT_TICK);
+            assertFalse(scheduler.isPaused(CHECK));
+            assertFalse(scheduler.removeMaintenanceWindow("deploy"));
+        }
+    }
+
+    @Nested
+    class EarliestDeadlineFirst {
+
+        @Test
+        void deadlineExecutorShouldRunTheMostUrgentTaskFirst() throws InterruptedException {
+            try (DeadlineExecutor deadlineExecutor = new DeadlineExecutor(1, "test-deadline")) {
+                CountDownLatch blocked = new CountDownLatch(1);
+                deadlineExecutor.execute(() -> {
+                    try {
+                        blocked.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }, 0);
+                List<Long> order = new CopyOnWriteArrayList<>();
+                for (long deadline : new long[]{60_000, 1_000, 30_000, 1_000}) {
+                    deadlineExecutor.execute(() -> order.add(deadline), deadline);
+                }
+                awaitCondition(() -> deadlineExecutor.getQueuedTaskCount() == 4);
+
+                blocked.countDown();
+                awaitCondition(() -> order.size() == 4);
+                assertEquals(List.of(1_000L, 1_000L, 30_000L, 60_000L), order);
+            }
+        }
+
+        @Test
+        void shouldRunScheduledChecksOnTheDeadlineExecutor() throws InterruptedException {
+            executor.autoComplete = true;
+            try (DefaultHealthCheckScheduler edf = new DefaultHealthCheckScheduler.Builder()
+                    .withHealthCheckExecutor(executor)
+                    .withInternalScheduler(InternalScheduler.newInstance(
+                            new InternalScheduler.SchedulerConfig.Builder().withPoolSize(1).build()))
+                    .withDispatchMode(DispatchMode.EARLIEST_DEADLINE_FIRST)
+                    .withDispatchThreads(1)
+                    .build()) {
+                edf.schedule(CHECK, fixedRate(OverrunPolicy.SKIP));
+                awaitCondition(() -> executor.starts.size() >= 3);
+                assertTrue(executor.executorThreads.stream().allMatch(name -> name.startsWith("vitals-deadline")));
+            }
+            assertThrows(IllegalStateException.class, () -> new DefaultHealthCheckScheduler.Builder()
+                    .withHealthCheckExecutor(executor)
+                    .withDispatchMode(DispatchMode.EARLIEST_DEADLINE_FIRST)
+                    .withDispatchExecutor(Runnable::run)
+                    .build());
+        }
+    }
+
+    @Test
+    void shouldRejectDuplicateSchedule() {
+        scheduler.schedule(CHECK, fixedRate(OverrunPolicy.SKIP));
+
+        assertThrows(IllegalStateException.class, () -> scheduler.schedule(CHECK, fixedRate(OverrunPolicy.SKIP)));
+        assertTrue(scheduler.getScheduleInfo("unknown").isEmpty());
+    }
+
+    /**
+     * Executor whose runs stay in progress until the test completes them.
+     */
+    private static final class ControlledExecutor implements HealthCheckExecutor {
+        private final List<Long> starts = new CopyOnWriteArrayList<>();
+        private final ConcurrentLinkedQueue<CompletableFuture<HealthCheck.HealthCheckResult>> inFlight =
+                new ConcurrentLinkedQueue<>();
+        private final Set<String> suspended = ConcurrentHashMap.newKeySet();
+        private final List<String> executorThreads = new CopyOnWriteArrayList<>();
+        private volatile boolean autoComplete;
+
+        private void completeAll() {
+            CompletableFuture<HealthCheck.HealthCheckResult> future;
+            while ((future = inFlight.poll()) != null) {
+                future.complete(HealthCheck.HealthCheckResult.builder().status(HealthCheck.HealthStatus.HEALTHY)
+                        .build());
+            }
+        }
+
+        @Override
+        public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(String healthCheckName) {
+            starts.add(System.nanoTime());
+            CompletableFuture<HealthCheck.HealthCheckResult> future = new CompletableFuture<>();
+            inFlight.add(future);
+            if (autoComplete) {
+                CompletableFuture.runAsync(this::completeAll);
+            }
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(HealthCheck healthCheck) {
+            return executeAsync(healthCheck.getName());
+        }
+
+        @Override
+        public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(String healthCheckName,
+                                                                             Executor executor) {
+            return CompletableFuture.supplyAsync(() -> {
+                executorThreads.add(Thread.currentThread().getName());
+                return executeAsync(healthCheckName);
+            }, executor).thenCompose(future -> future);
+        }
+
+        @Override
+        public Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAsync(HealthCheckFilter filter) {
+            return Set.of();
+        }
+
+        @Override
+        public Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAll() {
+            return Set.of();
+        }
+
+        @Override
+        public boolean isExecuting(String healthCheckName) {
+            return !inFlight.isEmpty();
+        }
+
+        @Override
+        public void setSuspended(String healthCheckName, boolean suspended) {
+            if (suspended) {
+                this.suspended.add(healthCheckName);
+            } else {
+                this.suspended.remove(healthCheckName);
+            }
+        }
+
+        @Override
+        public boolean isSuspended(String healthCheckName) {
+            return suspended.contains(healthCheckName);
+        }
+    }
+}
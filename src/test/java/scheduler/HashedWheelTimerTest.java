@@ -0,0 +1,99 @@
+package scheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.scheduler.timer.HashedWheelTimer;
+import org.vitals.core.scheduler.timer.TaskTimer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashedWheelTimerTest {
+
+    private HashedWheelTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        // small wheel so that tests also exercise multi-round timeouts
+        timer = new HashedWheelTimer(5, TimeUnit.MILLISECONDS, 8, "test-wheel");
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.close();
+    }
+
+    @Test
+    void shouldRunTaskAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        TaskTimer.Timeout timeout = timer.schedule(latch::countDown, 100, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(timeout.isExpired());
+        assertEquals(0, timer.getPendingTimeouts());
+    }
+
+    @Test
+    void cancelledTaskShouldNotRun() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        TaskTimer.Timeout timeout = timer.schedule(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+
+        TimeUnit.MILLISECONDS.sleep(150);
+        assertEquals(0, runs.get());
+        assertEquals(0, timer.getPendingTimeouts());
+    }
+
+    @Test
+    void shouldRunManyTasksExactlyOnce() throws InterruptedException {
+        int tasks = 10_000;
+        CountDownLatch latch = new CountDownLatch(tasks);
+        AtomicInteger runs = new AtomicInteger();
+
+        for (int i = 0; i < tasks; i++) {
+            timer.schedule(() -> {
+                runs.incrementAndGet();
+                latch.countDown();
+            }, i % 200, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(tasks, runs.get());
+    }
+
+    @Test
+    void tasksShouldBeAbleToRescheduleThemselves() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(5);
+        Runnable[] task = new Runnable[1];
+        task[0] = () -> {
+            latch.countDown();
+            if (latch.getCount() > 0) {
+                timer.schedule(task[0], 10, TimeUnit.MILLISECONDS);
+            }
+        };
+        timer.schedule(task[0], 10, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldRejectTasksAfterClose() {
+        timer.schedule(() -> {
+        }, 1, TimeUnit.SECONDS);
+        timer.close();
+
+        assertThrows(IllegalStateException.class, () -> timer.schedule(() -> {
+        }, 1, TimeUnit.SECONDS));
+    }
+}
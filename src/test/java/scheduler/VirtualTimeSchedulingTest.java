@@ -0,0 +1,356 @@
+package scheduler;
+
+import org.junit.jupiter.api.Test;
+import org.vitals.core.AbstractHealthCheck;
+import org.vitals.core.HealthCheck;
+import org.vitals.core.HealthCheckManager;
+import org.vitals.core.annotation.AsyncHealthCheck;
+import org.vitals.core.annotation.AsyncHealthCheck.PhaseSpreading;
+import org.vitals.core.annotation.AsyncHealthCheck.ScheduleType;
+import org.vitals.core.executor.HealthCheckExecutor;
+import org.vitals.core.filter.HealthCheckFilter;
+import org.vitals.core.history.HistoryRun;
+import org.vitals.core.scheduler.DefaultHealthCheckScheduler;
+import org.vitals.core.scheduler.InternalScheduler;
+import org.vitals.core.scheduler.IntervalBounds;
+import org.vitals.core.scheduler.SchedulePhase;
+import org.vitals.core.scheduler.ScheduleSpec;
+import org.vitals.core.scheduler.SchedulerMetrics;
+import org.vitals.core.scheduler.timer.VirtualTimer;
+import org.vitals.core.slo.BurnAlert;
+import org.vitals.core.slo.SloReport;
+import org.vitals.core.slo.SloSettings;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualTimeSchedulingTest {
+
+    private static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static DefaultHealthCheckScheduler newScheduler(VirtualTimer timer, HealthCheckExecutor executor) {
+        return newSchedulerBuilder(timer, executor).build();
+    }
+
+    private static DefaultHealthCheckScheduler.Builder newSchedulerBuilder(VirtualTimer timer,
+                                                                           HealthCheckExecutor executor) {
+        return new DefaultHealthCheckScheduler.Builder()
+                .withHealthCheckExecutor(executor)
+                .withInternalScheduler(InternalScheduler.newInstance(
+                        new InternalScheduler.SchedulerConfig.Builder().withPoolSize(1).build()))
+                .withTaskTimer(timer)
+                .withTimeSource(timer)
+                .withDispatchExecutor(Runnable::run);
+    }
+
+    private static ScheduleSpec everySeconds(long seconds) {
+        return new ScheduleSpec.Builder().withPeriod(seconds)
+                .withTimeUnit(TimeUnit.SECONDS)
+                .withPhaseSpreading(PhaseSpreading.EVEN)
+                .build();
+    }
+
+    private static SchedulerMetrics.CheckSnapshot simulate(int checks, Duration runFor) {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        SimulatedExecutor executor = new SimulatedExecutor(timer, Duration.ofSeconds(2));
+        try (DefaultHealthCheckScheduler scheduler = newScheduler(timer, executor)) {
+            for (int i = 0; i < checks; i++) {
+                scheduler.schedule("check-" + i, everySeconds(60));
+            }
+            timer.advance(runFor);
+
+            assertEquals(executor.runs, scheduler.getMetrics().global().fireLag().count());
+            return scheduler.getMetrics().global();
+        }
+    }
+
+    private static List<Long> simulateJitter(long seed) {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        SimulatedExecutor executor = new SimulatedExecutor(timer, Duration.ofSeconds(2));
+        try (DefaultHealthCheckScheduler scheduler = newSchedulerBuilder(timer, executor)
+                .withJitterSeed(seed)
+                .build()) {
+            for (int i = 0; i < 10; i++) {
+                scheduler.schedule("check-" + i, new ScheduleSpec.Builder().withPeriod(60)
+                        .withTimeUnit(TimeUnit.SECONDS)
+                        .withJitter(10)
+                        .build());
+            }
+            timer.advance(Duration.ofMinutes(10));
+            return executor.startedNanos;
+        }
+    }
+
+    @Test
+    void shouldRunAnHourOfScheduleInVirtualTime() {
+        SchedulerMetrics.CheckSnapshot metrics = simulate(1_000, Duration.ofHours(1).minusNanos(1));
+
+        // every check fires once per minute, the first time within its first minute, never late
+        assertEquals(60_000, metrics.fireLag().count());
+        assertEquals(0, metrics.fireLag().maxNanos());
+        assertEquals(0, metrics.missedFires());
+        assertEquals(0, metrics.overruns());
+    }
+
+    @Test
+    void simulationShouldBeDeterministic() {
+        SchedulerMetrics.CheckSnapshot first = simulate(200, Duration.ofMinutes(30));
+        SchedulerMetrics.CheckSnapshot second = simulate(200, Duration.ofMinutes(30));
+
+        assertEquals(first.fireLag().count(), second.fireLag().count());
+        assertEquals(first.fireLag().sumNanos(), second.fireLag().sumNanos());
+        assertArrayEquals(first.fireLag().counts(), second.fireLag().counts());
+    }
+
+    @Test
+    void seededJitterShouldBeDeterministic() {
+        List<Long> first = simulateJitter(7);
+        List<Long> second = simulateJitter(7);
+
+        assertEquals(first, second);
+        // jittered by up to 10s past every minute, not on the minute
+        assertTrue(first.stream().anyMatch(startNanos -> startNanos % TimeUnit.SECONDS.toNanos(60) != 0));
+        assertTrue(first.stream().allMatch(startNanos -> startNanos % TimeUnit.SECONDS.toNanos(60)
+                <= TimeUnit.SECONDS.toNanos(10)));
+        assertNotEquals(first, simulateJitter(8));
+    }
+
+    @Test
+    void rescheduleShouldContinueFromTheLastTick() {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        SimulatedExecutor executor = new SimulatedExecutor(timer, Duration.ofSeconds(2));
+        try (DefaultHealthCheckScheduler scheduler = newScheduler(timer, executor)) {
+            scheduler.schedule("check", new ScheduleSpec.Builder().withPeriod(60)
+                    .withTimeUnit(TimeUnit.SECONDS)
+                    .build());
+            // runs at 0s, 60s and 120s, the last one still in progress
+            timer.advance(Duration.ofSeconds(121));
+            assertEquals(3, executor.runs);
+
+            scheduler.reschedule("check", new ScheduleSpec.Builder().withPeriod(10)
+                    .withTimeUnit(TimeUnit.SECONDS)
+                    .build());
+            // runs at 130s, 140s, ..., 200s
+            timer.advance(Duration.ofSeconds(79));
+
+            assertEquals(11, executor.runs);
+            assertEquals(Duration.ofSeconds(10), scheduler.getScheduleInfo("check").orElseThrow().currentInterval());
+            assertEquals(0, scheduler.getMetrics().global().fireLag().maxNanos());
+            assertEquals(0, scheduler.getMetrics().global().overruns());
+            assertThrows(IllegalStateException.class, () -> scheduler.reschedule("unknown", everySeconds(10)));
+        }
+    }
+
+    @Test
+    void restoredPhaseShouldCarryTheScheduleOver() {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        SimulatedExecutor executor = new SimulatedExecutor(timer, Duration.ofSeconds(2));
+        Map<String, SchedulePhase> phases;
+        try (DefaultHealthCheckScheduler scheduler = newScheduler(timer, executor)) {
+            scheduler.schedule("check", new ScheduleSpec.Builder().withPeriod(60)
+                    .withTimeUnit(TimeUnit.SECONDS)
+                    .build());
+            // runs at 0s, 60s and 120s
+            timer.advance(Duration.ofSeconds(130));
+            phases = scheduler.getSchedulePhases();
+        }
+        assertEquals(EPOCH.plusSeconds(180), phases.get("check").nextRun());
+
+        // restarted at 200s, the schedule would have run at 180s and runs next at 240s
+        VirtualTimer restarted = new VirtualTimer(EPOCH.plusSeconds(200));
+        SimulatedExecutor restartedExecutor = new SimulatedExecutor(restarted, Duration.ofSeconds(2));
+        try (DefaultHealthCheckScheduler scheduler = newScheduler(restarted, restartedExecutor)) {
+            scheduler.restoreSchedulePhases(phases);
+            scheduler.schedule("check", new ScheduleSpec.Builder().withPeriod(60)
+                    .withTimeUnit(TimeUnit.SECONDS)
+                    .build());
+            restarted.advance(Duration.ofSeconds(39));
+            assertEquals(0, restartedExecutor.runs);
+            restarted.advance(Duration.ofSeconds(1));
+            assertEquals(1, restartedExecutor.runs);
+        }
+    }
+
+    @Test
+    void bulkRescheduleShouldSpreadOverdueChecksOverTheNewPeriod() {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        SimulatedExecutor executor = new SimulatedExecutor(timer, Duration.ofSeconds(2));
+        try (DefaultHealthCheckScheduler scheduler = newScheduler(timer, executor)) {
+            for (int i = 0; i < 100; i++) {
+                scheduler.schedule((i % 2 == 0 ? "fast-" : "slow-") + i, everySeconds(3_600));
+            }
+            timer.advance(Duration.ofMinutes(90));
+            executor.runsByName.clear();
+
+            Set<String> rescheduled = scheduler.reschedule(
+                    context -> context.healthCheckName().startsWith("fast-"), everySeconds(60));
+            timer.advance(Duration.ofSeconds(60).minusNanos(1));
+
+            assertEquals(50, rescheduled.size());
+            // every rescheduled check ran once within the first new period, none of them twice
+            rescheduled.forEach(name -> assertEquals(1, executor.runsByName.get(name), name));
+            assertTrue(scheduler.getDispatchLoad().max() < 50);
+        }
+    }
+
+    @Test
+    void timeToLiveScheduleShouldRunJustBeforeTheResultExpires() {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        SimulatedExecutor executor = new SimulatedExecutor(timer, Duration.ofSeconds(2));
+        try (DefaultHealthCheckScheduler scheduler = newScheduler(timer, executor)) {
+            executor.timeToLive = Duration.ofMinutes(5);
+            scheduler.schedule("check", new ScheduleSpec.Builder().withPeriod(60)
+                    .withTimeUnit(TimeUnit.SECONDS)
+                    .withScheduleType(ScheduleType.TIME_TO_LIVE)
+                    .withIntervalBounds(new IntervalBounds(Duration.ofSeconds(1), Duration.ofMinutes(10)))
+                    .build());
+
+            // the first result expires at 302s, the next run starts 2s ahead of that
+            timer.advance(Duration.ofSeconds(299));
+            assertEquals(1, executor.runs);
+            timer.advance(Duration.ofSeconds(1));
+            assertEquals(2, executor.runs);
+
+            // a result that is only good for as long as a run takes is refreshed after the min interval
+            executor.timeToLive = Duration.ofSeconds(2);
+            timer.advance(Duration.ofSeconds(310));
+            // runs at 600s, 603s, 606s and 609s
+            assertEquals(6, executor.runs);
+
+            // without a time to live the check falls back to its period after completion
+            executor.timeToLive = Duration.ZERO;
+            timer.advance(Duration.ofSeconds(63));
+            // the run at 612s completes at 614s, the next one starts at 674s
+            assertEquals(7, executor.runs);
+            timer.advance(Duration.ofSeconds(1));
+            assertEquals(8, executor.runs);
+        }
+    }
+
+    @Test
+    void wholeManagerShouldRunInVirtualTime() throws InterruptedException {
+        VirtualTimer timer = new VirtualTimer(EPOCH);
+        HealthCheckManager manager = new HealthCheckManager(timer, timer);
+        manager.setSlos(new SloSettings(0.999, Duration.ofDays(30), List.of(BurnAlert.FAST_BURN)));
+        manager.registerHealthCheck(new FailingCheck("failing"));
+        // registrations are scheduled and results are handled on the internal scheduler
+        awaitCondition(() -> manager.isScheduled("failing"));
+
+        timer.advance(Duration.ofSeconds(60));
+        awaitCondition(() -> manager.getSloReport("failing").isPresent());
+
+        // the history is kept in virtual time too, results are recorded within the first minute or at its end
+        List<HistoryRun> runs = manager.getRuns("failing", Instant.MIN, Instant.MAX, 10);
+        assertFalse(runs.isEmpty());
+        for (HistoryRun run : runs) {
+            assertEquals(HealthCheck.HealthStatus.CRITICAL, run.result().getStatus());
+            assertFalse(run.firstSeen().isBefore(EPOCH));
+            assertFalse(run.lastSeen().isAfter(EPOCH.plusSeconds(60)));
+        }
+
+        // burn alerts are evaluated on the manager's timer, an hour down spends the budget fast
+        timer.advance(Duration.ofHours(1));
+        SloReport report = manager.getSloReport("failing").orElseThrow();
+        assertEquals(0.0, report.availability().orElseThrow(), 1e-9);
+        assertEquals(Set.of(BurnAlert.FAST_BURN), report.burningAlerts());
+        manager.setSlos(null);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    @AsyncHealthCheck(period = 60)
+    static final class FailingCheck extends AbstractHealthCheck {
+
+        FailingCheck(String name) {
+            super(name);
+        }
+
+        @Override
+        public HealthCheckResult check() {
+            return HealthCheckResult.builder().status(HealthStatus.CRITICAL).build();
+        }
+    }
+
+    /**
+     * Executor whose runs take a fixed amount of virtual time.
+     */
+    static final class SimulatedExecutor implements HealthCheckExecutor {
+        private final VirtualTimer timer;
+        private final long durationNanos;
+        private final Map<String, Integer> runsByName = new HashMap<>();
+        private final List<Long> startedNanos = new ArrayList<>();
+        private Duration timeToLive = Duration.ZERO;
+        private long runs;
+
+        SimulatedExecutor(VirtualTimer timer, Duration duration) {
+            this.timer = timer;
+            this.durationNanos = duration.toNanos();
+        }
+
+        @Override
+        public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(String healthCheckName) {
+            runs++;
+            runsByName.merge(healthCheckName, 1, Integer::sum);
+            startedNanos.add(timer.nanoTime());
+            CompletableFuture<HealthCheck.HealthCheckResult> future = new CompletableFuture<>();
+            HealthCheck.HealthCheckResult result = HealthCheck.HealthCheckResult.builder()
+                    .status(HealthCheck.HealthStatus.HEALTHY)
+                    .timeToLive(timeToLive)
+                    .build();
+            timer.schedule(() -> future.complete(result), durationNanos, TimeUnit.NANOSECONDS);
+            return future;
+        }
+
+        @Override
+        public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(HealthCheck healthCheck) {
+            return executeAsync(healthCheck.getName());
+        }
+
+        @Override
+        public CompletableFuture<HealthCheck.HealthCheckResult> executeAsync(String healthCheckName,
+                                                                             Executor executor) {
+            return executeAsync(healthCheckName);
+        }
+
+        @Override
+        public Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAsync(HealthCheckFilter filter) {
+            return Set.of();
+        }
+
+        @Override
+        public Set<CompletableFuture<HealthCheck.HealthCheckResult>> executeAll() {
+            return Set.of();
+        }
+
+        @Override
+        public boolean isExecuting(String healthCheckName) {
+            return false;
+        }
+
+        @Override
+        public void setSuspended(String healthCheckName, boolean suspended) {
+        }
+
+        @Override
+        public boolean isSuspended(String healthCheckName) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package slo;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.vitals.core.HealthCheck.HealthStatus;
+import org.vitals.core.event.ErrorBudgetBurnEvent;
+import org.vitals.core.event.HealthEvent;
+import org.vitals.core.slo.BurnAlert;
+import org.vitals.core.slo.SloEngine;
+import org.vitals.core.slo.SloReport;
+import org.vitals.core.slo.SloSettings;
+import org.vitals.core.util.TimeSource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SloEngineTest {
+
+    private final List<HealthEvent> events = new ArrayList<>();
+    private final AtomicLong nanoTime = new AtomicLong();
+    private final TimeSource timeSource = new TimeSource() {
+        @Override
+        public long nanoTime() {
+            return nanoTime.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochSecond(0).plusNanos(nanoTime.get());
+        }
+    };
+
+    private void advance(Duration duration) {
+        this.nanoTime.addAndGet(duration.toNanos());
+    }
+
+    private SloEngine engine(SloSettings settings) {
+        return new SloEngine(settings, this.events::add, this.timeSource);
+    }
+
+    @Nested
+    class Reports {
+
+        private SloEngine engine;
+
+        @BeforeEach
+        void setUp() {
+            this.engine = engine(new SloSettings(0.99, Duration.ofHours(2), List.of()));
+        }
+
+        @Test
+        void shouldMeasureAvailabilityAndMeanTimes() {
+            engine.record("check", HealthStatus.HEALTHY);
+            advance(Duration.ofMinutes(10));
+            engine.record("check", HealthStatus.CRITICAL);
+            advance(Duration.ofMinutes(5));
+            engine.record("check", HealthStatus.WARNING);
+            advance(Duration.ofMinutes(25));
+            engine.record("check", HealthStatus.FAILED);
+            advance(Duration.ofMinutes(10));
+            engine.record("check", HealthStatus.HEALTHY);
+            advance(Duration.ofMinutes(10));
+
+            SloReport report = engine.getReport("check").orElseThrow();
+            assertEquals(0.75, report.availability().orElseThrow(), 1e-9);
+            assertEquals(2, report.failures());
+            assertEquals(Optional.of(Duration.ofSeconds(450)), report.meanTimeToRecover());
+            assertEquals(Optional.of(Duration.ofSeconds(1350)), report.meanTimeBetweenFailures());
+            // a quarter of the time down against a budget of a hundredth
+            assertEquals(25, report.burnRates().get(Duration.ofHours(2)), 1e-9);
+            assertEquals(-24, report.errorBudgetRemaining(), 1e-9);
+        }
+
+        @Test
+        void shouldForgetWhatSlidesOutOfTheWindow() {
+            engine.record("check", HealthStatus.UNHEALTHY);
+            advance(Duration.ofMinutes(10));
+            engine.record("check", HealthStatus.HEALTHY);
+            advance(Duration.ofHours(3));
+
+            SloReport report = engine.getReport("check").orElseThrow();
+            assertEquals(1.0, report.availability().orElseThrow(), 1e-9);
+            assertEquals(0, report.failures());
+            assertEquals(Optional.empty(), report.meanTimeToRecover());
+            assertEquals(1.0, report.errorBudgetRemaining(), 1e-9);
+        }
+
+        @Test
+        void shouldMeasureByDifferencesWhateverTheOriginOfTheTimeSource() {
+            for (long originNanos : new long[]{-5_000_000_000_000L, 1_000_000_000L, Long.MAX_VALUE - 1_000_000L}) {
+                nanoTime.set(originNanos);
+                SloEngine shifted = engine(new SloSettings(0.99, Duration.ofHours(2), List.of()));
+                shifted.record("check", HealthStatus.HEALTHY);
+                advance(Duration.ofMinutes(10));
+                shifted.record("check", HealthStatus.CRITICAL);
+                advance(Duration.ofMinutes(10));
+
+                SloReport report = shifted.getReport("check").orElseThrow();
+                assertEquals(0.5, report.availability().orElseThrow(), 1e-9, "origin " + originNanos);
+                assertEquals(1, report.failures(), "origin " + originNanos);
+            }
+        }
+
+        @Test
+        void shouldNotCountUnobservedTime() {
+            engine.record("check", HealthStatus.MAINTENANCE);
+            advance(Duration.ofMinutes(30));
+
+            assertTrue(engine.getReport("check").orElseThrow().availability().isEmpty());
+
+            engine.record("check", HealthStatus.HEALTHY);
+            advance(Duration.ofMinutes(10));
+            assertEquals(1.0, engine.getReport("check").orElseThrow().availability().orElseThrow(), 1e-9);
+            assertTrue(engine.getReport("unknown").isEmpty());
+        }
+    }
+
+    @Nested
+    class BurnAlerts {
+
+        private final BurnAlert alert = BurnAlert.FAST_BURN;
+        private SloEngine engine;
+
+        @BeforeEach
+        void setUp() {
+            this.engine = engine(new SloSettings(0.999, Duration.ofDays(30), List.of(this.alert)));
+        }
+
+        private void run(Duration duration) {
+            Duration interval = engine.getEvaluationInterval();
+            for (long i = 0; i < duration.dividedBy(interval); i++) {
+                advance(interval);
+                engine.evaluate();
+            }
+        }
+
+        private List<ErrorBudgetBurnEvent> burnEvents() {
+            return events.stream()
+                    .filter(ErrorBudgetBurnEvent.class::isInstance)
+                    .map(ErrorBudgetBurnEvent.class::cast)
+                    .toList();
+        }
+
+        @Test
+        void shouldFireWhileBothWindowsBurnAndClearAfterRecovery() {
+            engine.record("check", HealthStatus.HEALTHY);
+            run(Duration.ofHours(2));
+            assertTrue(burnEvents().isEmpty());
+
+            engine.record("check", HealthStatus.CRITICAL);
+            // 1.44% of the hour is under a minute
+            run(Duration.ofMinutes(2));
+            List<ErrorBudgetBurnEvent> fired = burnEvents();
+            assertEquals(1, fired.size());
+            assertTrue(fired.get(0).burning());
+            assertEquals("check", fired.get(0).name());
+            assertTrue(fired.get(0).longWindowBurnRate() >= this.alert.burnRate());
+            assertEquals(Set.of(this.alert), engine.getReport("check").orElseThrow().burningAlerts());
+
+            engine.record("check", HealthStatus.HEALTHY);
+            // the long window still burns, the short one stops once the outage slides out of it
+            run(Duration.ofMinutes(10));
+            List<ErrorBudgetBurnEvent> cleared = burnEvents();
+            assertEquals(2, cleared.size());
+            assertFalse(cleared.get(1).burning());
+            assertTrue(cleared.get(1).longWindowBurnRate() >= this.alert.burnRate());
+            assertTrue(engine.getReport("check").orElseThrow().burningAlerts().isEmpty());
+        }
+
+        @Test
+        void evaluationIntervalShouldFollowTheShortestWindow() {
+            assertEquals(Duration.ofSeconds(5), engine.getEvaluationInterval());
+        }
+    }
+}